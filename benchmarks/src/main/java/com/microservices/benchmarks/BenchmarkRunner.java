@@ -0,0 +1,50 @@
+package com.microservices.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark Runner
+ * java -jar target/benchmarks.jar [JMH argümanları]
+ *
+ * JMH'ın kendi komut satırını kullanır; tek fark sonuçların varsayılan olarak
+ * JSON'a yazılmasıdır (target/jmh-result.json), böylece iki çalıştırma birebir karşılaştırılabilir.
+ * -rf / -rff verilirse onlar geçerlidir.
+ *
+ * Örnekler:
+ * - Hepsi:                 java -jar target/benchmarks.jar
+ * - Sadece createOrder:     java -jar target/benchmarks.jar CreateOrderBenchmark -p latencyMs=5
+ * - Farklı sonuç dosyası:   java -jar target/benchmarks.jar -rff after.json
+ */
+public final class BenchmarkRunner {
+
+    static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        Runner runner = new Runner(cli);
+        if (cli.shouldHelp()) {
+            cli.showHelp();
+            return;
+        }
+        if (cli.shouldList()) {
+            runner.list();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,140 @@
+package com.microservices.benchmarks.order;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.microservices.order.Client.LastKnownGoodCache;
+import com.microservices.order.Controller.OrderWebSocketController;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderOutboxEvent;
+import com.microservices.order.Repository.OrderOutboxRepository;
+import com.microservices.order.Repository.OrderRepository;
+import com.microservices.order.Service.OrderArchiveService;
+import com.microservices.order.Service.OrderCacheEvictor;
+import com.microservices.order.Service.OrderOutboxService;
+import com.microservices.order.Service.OrderService;
+import com.microservices.order.Service.OrderStateMachine;
+import com.microservices.order.Service.OrderStatsService;
+import com.microservices.order.Service.ProductSnapshotCache;
+import com.microservices.order.Service.UserNearCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * OrderService.createOrder orkestrasyonu
+ *
+ * Gerçek OrderService, gerçek lookup executor'ı (varsayılan 16 thread), near-cache'ler,
+ * LastKnownGoodCache ve outbox JSON serialization'ı ile çalışır. Feign client'lar
+ * latencyMs gecikmeli bellek içi stub'lardır (StubClients); veritabanı, rollup, cache
+ * eviction ve WebSocket mock'tur, yani ölçülen süre orkestrasyon + CPU maliyetidir.
+ *
+ * Parametreler:
+ * - latencyMs: Her remote çağrının gecikmesi (0 = saf CPU maliyeti)
+ * - itemCount: Sepetteki farklı ürün sayısı (stok tek toplu istekle kontrol edilir; ürün batch'i de tek istek)
+ * - nearCaches: warm = user/product near-cache'leri dolu (kararlı durum),
+ *               cold = her sipariş User/Product Service'e gider
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateOrderBenchmark {
+
+    @Param({"0", "5", "20"})
+    long latencyMs;
+
+    @Param({"1", "10"})
+    int itemCount;
+
+    @Param({"warm", "cold"})
+    String nearCaches;
+
+    private OrderService orderService;
+    private ThreadPoolTaskExecutor lookupExecutor;
+    private List<UUID> productIds;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        int nearCacheSize = "cold".equals(nearCaches) ? 0 : 10_000;
+
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(UUID.randomUUID());
+            return order;
+        });
+        OrderOutboxRepository outboxRepository = mock(OrderOutboxRepository.class);
+        when(outboxRepository.save(any(OrderOutboxEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        OrderOutboxService outboxService = new OrderOutboxService(outboxRepository,
+                JsonMapper.builder()
+                        .findAndAddModules()
+                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build(),
+                null);
+
+        lookupExecutor = new ThreadPoolTaskExecutor();
+        lookupExecutor.setCorePoolSize(16);
+        lookupExecutor.setMaxPoolSize(16);
+        lookupExecutor.setQueueCapacity(200);
+        lookupExecutor.setThreadNamePrefix("order-lookup-");
+        lookupExecutor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        lookupExecutor.initialize();
+
+        orderService = new OrderService(
+                orderRepository,
+                new StubClients.Product(latencyMs),
+                new StubClients.Inventory(latencyMs),
+                new StubClients.User(latencyMs),
+                new UserNearCache(meterRegistry, nearCacheSize, 600),
+                new ProductSnapshotCache(meterRegistry, nearCacheSize, 300),
+                new LastKnownGoodCache(meterRegistry, 10_000, 300, 3600, 300, 3600, 30, 300),
+                outboxService,
+                mock(OrderArchiveService.class),
+                mock(OrderStatsService.class),
+                new OrderStateMachine(meterRegistry),
+                mock(OrderCacheEvictor.class),
+                mock(OrderWebSocketController.class),
+                meterRegistry,
+                lookupExecutor,
+                4000,
+                365);
+        productIds = OrderFixtures.productIds(itemCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        lookupExecutor.shutdown();
+    }
+
+    /**
+     * Girdi siparişi her çağrıda yeniden oluşturulur (createOrder kalemleri yerinde değiştirir)
+     */
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(OrderFixtures.unpricedOrder(productIds));
+    }
+}
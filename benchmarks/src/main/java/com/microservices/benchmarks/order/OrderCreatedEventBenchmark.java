@@ -0,0 +1,72 @@
+package com.microservices.benchmarks.order;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.microservices.order.Event.OrderCreatedEvent;
+import com.microservices.order.Model.Order;
+
+/**
+ * OrderCreatedEvent oluşturma ve Jackson serialization
+ * OrderService.createOrder her siparişte event'i oluşturup outbox payload'ı olarak JSON'a çevirir
+ *
+ * ObjectMapper Spring Boot varsayılanlarıyla kurulur (JavaTimeModule, tarihler ISO string)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCreatedEventBenchmark {
+
+    @Param({"1", "10", "100"})
+    int itemCount;
+
+    private Order order;
+    private OrderCreatedEvent event;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        order = OrderFixtures.pricedOrder(itemCount);
+        event = OrderCreatedEvent.from(order);
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public OrderCreatedEvent build() {
+        return OrderCreatedEvent.from(order);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    /**
+     * createOrder'daki gibi: oluştur + outbox payload'ına çevir
+     */
+    @Benchmark
+    public String buildAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(OrderCreatedEvent.from(order));
+    }
+}
@@ -0,0 +1,78 @@
+package com.microservices.benchmarks.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderItem;
+
+/**
+ * Benchmark'lar için sabit tohumlu (seed) sipariş verisi
+ * Aynı parametrelerle her çalıştırmada aynı sepet üretilir; sonuçlar karşılaştırılabilir kalır
+ */
+final class OrderFixtures {
+
+    private static final long SEED = 42L;
+
+    private OrderFixtures() {
+    }
+
+    /**
+     * Sabit ürün ID'leri (stub client'lar bu ID'leri tanır)
+     */
+    static List<UUID> productIds(int count) {
+        Random random = new Random(SEED);
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return ids;
+    }
+
+    /**
+     * Fiyat/ad snapshot'ı doldurulmuş, subtotal'ları hesaplanmış sipariş (kaydedilmiş sipariş gibi)
+     */
+    static Order pricedOrder(int itemCount) {
+        Random random = new Random(SEED);
+        Order order = unpricedOrder(productIds(itemCount));
+        order.setId(UUID.randomUUID());
+        order.setCustomerEmail("benchmark@example.com");
+        order.setCustomerName("Benchmark User");
+        order.setOrderDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+        List<OrderItem> items = new ArrayList<>(order.getOrderItems());
+        order.getOrderItems().clear();
+        for (OrderItem item : items) {
+            item.setId(UUID.randomUUID());
+            item.setProductName("Product " + item.getProductId().toString().substring(0, 8));
+            item.setPrice(BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+            order.addOrderItem(item);
+        }
+        order.setTotalAmount(order.calculateTotalAmount());
+        return order;
+    }
+
+    /**
+     * İstemciden gelen haliyle sipariş: sadece productId ve quantity (createOrder girdisi)
+     */
+    static Order unpricedOrder(List<UUID> productIds) {
+        Order order = new Order();
+        order.setUserId(new UUID(SEED, SEED));
+        order.setShippingAddress("Benchmark Adresi, Levent");
+        order.setCity("İstanbul");
+        order.setZipCode("34394");
+        order.setPhoneNumber("5551234567");
+        List<OrderItem> items = new ArrayList<>(productIds.size());
+        for (int i = 0; i < productIds.size(); i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(productIds.get(i));
+            item.setQuantity(1 + i % 3);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,46 @@
+package com.microservices.benchmarks.order;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microservices.order.Model.Order;
+
+/**
+ * Order.calculateTotalAmount
+ * @PrePersist/@PreUpdate'te ve createOrder'da çağrılır; büyük sepetlerde maliyeti kalem sayısıyla büyür
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int cartSize;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = OrderFixtures.pricedOrder(cartSize);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        return order.calculateTotalAmount();
+    }
+}
@@ -0,0 +1,153 @@
+package com.microservices.benchmarks.order;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.ProductServiceClient;
+import com.microservices.order.Client.UserServiceClient;
+
+/**
+ * Bellek içi Feign client stub'ları
+ * Her remote çağrı latencyMs kadar bekler (ağ + downstream süresi yerine), sonra sabit veri döner.
+ * Mockito yerine elle yazılmıştır: stub maliyeti (invocation kaydı, matcher) ölçüme karışmaz.
+ */
+final class StubClients {
+
+    private StubClients() {
+    }
+
+    private static void simulateLatency(long latencyMs) {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static final class User implements UserServiceClient {
+        private final long latencyMs;
+
+        User(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public UserResponse getUserById(UUID userId) {
+            simulateLatency(latencyMs);
+            UserResponse user = new UserResponse();
+            user.setId(userId);
+            user.setUsername("benchmark");
+            user.setEmail("benchmark@example.com");
+            user.setFirstName("Benchmark");
+            user.setLastName("User");
+            user.setPhone("5551234567");
+            user.setAddress("Benchmark Adresi, Levent");
+            user.setCity("İstanbul");
+            user.setZip("34394");
+            return user;
+        }
+    }
+
+    static final class Product implements ProductServiceClient {
+        private final long latencyMs;
+
+        Product(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public ProductResponse getProductById(UUID productId) {
+            simulateLatency(latencyMs);
+            return product(productId);
+        }
+
+        @Override
+        public Map<UUID, ProductResponse> getProductsByIds(Collection<UUID> productIds) {
+            simulateLatency(latencyMs);
+            Map<UUID, ProductResponse> products = new LinkedHashMap<>();
+            for (UUID productId : productIds) {
+                products.put(productId, product(productId));
+            }
+            return products;
+        }
+
+        private static ProductResponse product(UUID productId) {
+            ProductResponse product = new ProductResponse();
+            product.setId(productId);
+            product.setName("Product " + productId.toString().substring(0, 8));
+            product.setPrice(BigDecimal.valueOf(Math.floorMod(productId.getLeastSignificantBits(), 99_900) + 100, 2));
+            product.setVersion(1L);
+            return product;
+        }
+    }
+
+    static final class Inventory implements InventoryServiceClient {
+        private final long latencyMs;
+
+        Inventory(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public InventoryResponse getInventoryByProductId(UUID productId) {
+            simulateLatency(latencyMs);
+            InventoryResponse inventory = new InventoryResponse();
+            inventory.setId(new UUID(productId.getLeastSignificantBits(), productId.getMostSignificantBits()));
+            inventory.setProductId(productId);
+            inventory.setQuantity(1_000_000);
+            inventory.setReservedQuantity(0);
+            inventory.setStatus("IN_STOCK");
+            return inventory;
+        }
+
+        @Override
+        public Integer getAvailableQuantity(UUID productId) {
+            simulateLatency(latencyMs);
+            return 1_000_000;
+        }
+
+        @Override
+        public Map<UUID, StockAvailability> checkStockAvailability(Map<UUID, Integer> request) {
+            simulateLatency(latencyMs);
+            Map<UUID, StockAvailability> availability = new HashMap<>();
+            for (UUID productId : request.keySet()) {
+                availability.put(productId, new StockAvailability(true, 1_000_000, true));
+            }
+            return availability;
+        }
+
+        @Override
+        public InventoryResponse reserveStock(UUID inventoryId, Integer quantity) {
+            throw new UnsupportedOperationException("Not used by createOrder");
+        }
+
+        @Override
+        public InventoryResponse releaseReservedStock(UUID inventoryId, Integer quantity) {
+            throw new UnsupportedOperationException("Not used by createOrder");
+        }
+
+        @Override
+        public ReservationResponse reserveItems(ReservationRequest request) {
+            throw new UnsupportedOperationException("Not used by createOrder");
+        }
+
+        @Override
+        public void releaseReservation(UUID reservationId) {
+            throw new UnsupportedOperationException("Not used by createOrder");
+        }
+
+        @Override
+        public void confirmReservation(UUID reservationId) {
+            throw new UnsupportedOperationException("Not used by createOrder");
+        }
+    }
+}
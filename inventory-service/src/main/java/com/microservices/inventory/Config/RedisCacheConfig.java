@@ -12,10 +12,17 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 /**
  * Redis Cache Configuration
  * Spring Cache abstraction ile Redis kullanarak caching yapılandırması
+ *
+ * İstatistikler açıktır ve "inventories" cache'i başlangıçta oluşturulur; böylece Actuator
+ * cache metriklerini Micrometer'a bağlar:
+ * - cache.gets{cache=inventories,result=hit|miss} → hit oranı = hit / (hit + miss)
+ * - cache.puts, cache.removals → write-through yazmaları ve silmeler
+ * Uygulama tarafı sayaçlar: inventory.cache.writes, inventory.cache.evictions{reason} (InventoryCacheWriter)
  */
 @Configuration
 @EnableCaching
@@ -31,6 +38,8 @@ public class RedisCacheConfig {
 
         return RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(config)
+                .initialCacheNames(Set.of("inventories"))
+                .enableStatistics()
                 .build();
     }
 }
@@ -4,6 +4,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,9 +20,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.validation.Valid;
+
+import com.microservices.inventory.DTO.ReservationRequest;
+import com.microservices.inventory.DTO.ReservationResponse;
+import com.microservices.inventory.DTO.StockAvailability;
 import com.microservices.inventory.Model.Inventory;
+import com.microservices.inventory.Model.InventoryShard;
 import com.microservices.inventory.Model.InventoryStatus;
 import com.microservices.inventory.Model.Location;
+import com.microservices.inventory.Model.StockReservation;
 import com.microservices.inventory.Service.InventoryService;
 
 /**
@@ -28,13 +38,16 @@ import com.microservices.inventory.Service.InventoryService;
  * 
  * Önemli Endpoint'ler:
  * - GET /inventory/product/{productId} → Product ID'ye göre stok (EN ÖNEMLİ!)
- * - GET /inventory/check → Toplu stok kontrolü (sepet için)
+ * - POST /inventory/check → Toplu stok kontrolü (sepet için)
  * - PATCH /inventory/{id}/reserve → Stok rezerve et (sipariş için)
+ * - POST /inventory/reservations → Çoklu ürün rezervasyonu (ya hepsi ya hiçbiri)
  * - GET /inventory/location/{location} → Lokasyona göre stok (Getir için)
  */
 @RestController
 @RequestMapping("/inventory")  // Gateway zaten /api/inventory/** alıyor
 public class InventoryController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final InventoryService inventoryService;
 
     public InventoryController(InventoryService inventoryService) {
@@ -42,13 +55,20 @@ public class InventoryController {
     }
 
     /**
-     * Tüm stok kayıtlarını getir
-     * GET /inventory
-     * Admin paneli için kullanılır
+     * Stok kayıtlarını sayfalı getir
+     * GET /inventory?page=0&size=20
+     * Admin paneli için kullanılır (size en fazla 100)
      */
     @GetMapping
-    public ResponseEntity<List<Inventory>> getAllInventories() {
-        List<Inventory> inventories = inventoryService.getAllInventories();
+    public ResponseEntity<Page<Inventory>> getInventories(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Page must be >= 0 and size between 1 and %d", MAX_PAGE_SIZE));
+        }
+        Page<Inventory> inventories = inventoryService.getInventories(
+                PageRequest.of(page, size, Sort.by("createdAt", "id")));
         return ResponseEntity.ok(inventories);
     }
 
@@ -127,18 +147,24 @@ public class InventoryController {
      * 
      * Sepet için kullanılır!
      * Request body: { "productId1": quantity1, "productId2": quantity2, ... }
-     * Response: Hangi ürünlerin stokta olduğu/olmadığı bilgisi
+     * Response: Her ürün için stokta olup olmadığı ve kullanılabilir miktar (tek sorgu)
      * 
      * Örnek Request:
      * {
      *   "product-id-1": 2,
      *   "product-id-2": 5
      * }
+     * 
+     * Örnek Response:
+     * {
+     *   "product-id-1": { "available": true, "availableQuantity": 40, "found": true },
+     *   "product-id-2": { "available": false, "availableQuantity": 3, "found": true }
+     * }
      */
     @PostMapping("/check")
-    public ResponseEntity<Map<UUID, Boolean>> checkStockAvailability(
+    public ResponseEntity<Map<UUID, StockAvailability>> checkStockAvailability(
             @RequestBody Map<UUID, Integer> productQuantities) {
-        Map<UUID, Boolean> availability = inventoryService.checkStockAvailability(productQuantities);
+        Map<UUID, StockAvailability> availability = inventoryService.checkStockAvailability(productQuantities);
         return ResponseEntity.ok(availability);
     }
 
@@ -157,6 +183,8 @@ public class InventoryController {
     /**
      * Stok kaydını tamamen güncelle
      * PUT /inventory/{id}
+     * 
+     * reservedQuantity güncellenmez (rezervasyon endpoint'leri yönetir)
      */
     @PutMapping("/{id}")
     public ResponseEntity<Inventory> updateInventory(
@@ -209,6 +237,89 @@ public class InventoryController {
         return ResponseEntity.ok(updatedInventory);
     }
 
+    /**
+     * Sharded stok modunu aç/kapat
+     * PUT /inventory/{id}/shards?count=8   (count=0 → kapat)
+     * 
+     * Kampanya öncesi hot ürünler için açılır: stok N shard'a bölünür ve
+     * rezervasyonlar tek satırda sıraya girmez. Okumalar shard toplamlarını döner.
+     */
+    @PutMapping("/{id}/shards")
+    public ResponseEntity<Inventory> configureShards(
+            @PathVariable("id") UUID id,
+            @RequestParam("count") Integer count) {
+        Inventory updatedInventory = inventoryService.configureShards(id, count);
+        return ResponseEntity.ok(updatedInventory);
+    }
+
+    /**
+     * Shard'ları getir (izleme için)
+     * GET /inventory/{id}/shards
+     */
+    @GetMapping("/{id}/shards")
+    public ResponseEntity<List<InventoryShard>> getShards(@PathVariable("id") UUID id) {
+        List<InventoryShard> shards = inventoryService.getShards(id);
+        return ResponseEntity.ok(shards);
+    }
+
+    /**
+     * Çoklu ürün rezervasyonu
+     * POST /inventory/reservations
+     * 
+     * Sipariş onaylandığında Order Service bu endpoint'i çağırır.
+     * Tüm ürünler tek transaction'da rezerve edilir; biri bile yetersizse hiçbiri rezerve edilmez.
+     * 
+     * Örnek Request:
+     * {
+     *   "orderId": "order-id",
+     *   "items": [ { "productId": "product-id-1", "quantity": 2 } ]
+     * }
+     * 
+     * Response: 201 CREATED + reservationId (iptal için saklanmalı)
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<ReservationResponse> reserveItems(@Valid @RequestBody ReservationRequest request) {
+        ReservationResponse reservation = inventoryService.reserveItems(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    /**
+     * Çoklu ürün rezervasyonunu serbest bırak
+     * DELETE /inventory/reservations/{reservationId}
+     * 
+     * Sipariş iptal edildiğinde kullanılır. Tekrar çağrılması güvenlidir.
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> releaseReservation(@PathVariable("reservationId") UUID reservationId) {
+        inventoryService.releaseReservation(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Rezervasyonu onayla
+     * POST /inventory/reservations/{reservationId}/confirm
+     * 
+     * Order Service, rezervasyonu siparişe kaydettikten sonra çağırır.
+     * Onaylanmayan rezervasyonlar süre sonunda otomatik serbest bırakılır.
+     * Süresi dolmuş rezervasyon stok yetiyorsa yeniden rezerve edilir; yetmiyorsa
+     * (veya rezervasyon serbest bırakılmışsa) 409 CONFLICT döner.
+     */
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<Void> confirmReservation(@PathVariable("reservationId") UUID reservationId) {
+        inventoryService.confirmReservation(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Siparişin rezervasyon kalemleri
+     * GET /inventory/reservations?orderId={orderId}
+     */
+    @GetMapping("/reservations")
+    public ResponseEntity<List<StockReservation>> getReservationsByOrderId(@RequestParam("orderId") UUID orderId) {
+        List<StockReservation> reservations = inventoryService.getReservationsByOrderId(orderId);
+        return ResponseEntity.ok(reservations);
+    }
+
     /**
      * Stok kaydını sil
      * DELETE /inventory/{id}
@@ -0,0 +1,49 @@
+package com.microservices.inventory.DTO;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reservation Request DTO
+ * POST /inventory/reservations body'si
+ * 
+ * Örnek:
+ * {
+ *   "orderId": "order-id",
+ *   "items": [
+ *     { "productId": "product-id-1", "quantity": 2 },
+ *     { "productId": "product-id-2", "quantity": 1 }
+ *   ]
+ * }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+    
+    private UUID orderId;
+    
+    @NotEmpty(message = "Reservation must have at least one item")
+    @Valid
+    private List<Item> items;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotNull(message = "Product ID is required")
+        private UUID productId;
+        
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,38 @@
+package com.microservices.inventory.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reservation Response DTO
+ * Başarılı bir çoklu ürün rezervasyonunun sonucu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    
+    private UUID reservationId;
+    private UUID orderId;
+    private List<Item> items;
+    
+    /**
+     * Bu zamana kadar onaylanmazsa (POST /inventory/reservations/{id}/confirm) rezervasyon
+     * otomatik serbest bırakılır
+     */
+    private LocalDateTime expiresAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private UUID productId;
+        private UUID inventoryId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,30 @@
+package com.microservices.inventory.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock Availability DTO
+ * Toplu stok kontrolünde (POST /inventory/check) bir ürünün sonucu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailability {
+    
+    /**
+     * İstenen miktar kullanılabilir stoktan karşılanabiliyor mu?
+     */
+    private boolean available;
+    
+    /**
+     * Kullanılabilir stok (quantity - reservedQuantity; sharded üründe shard toplamı)
+     */
+    private int availableQuantity;
+    
+    /**
+     * Ürünün stok kaydı var mı? (false ise available=false, availableQuantity=0)
+     */
+    private boolean found;
+}
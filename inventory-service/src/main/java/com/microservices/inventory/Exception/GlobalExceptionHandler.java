@@ -64,6 +64,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * ReservationNotActiveException için handler
+     * 409 CONFLICT döner
+     * 
+     * Örnek: Süresi dolmuş rezervasyon onaylanmak istendi ve stok başka siparişlere satıldı.
+     * Order Service bu cevabı tekrar denemez, siparişi telafi eder.
+     */
+    @ExceptionHandler(ReservationNotActiveException.class)
+    public ResponseEntity<ErrorDetails> handleReservationNotActiveException(
+            ReservationNotActiveException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "RESERVATION_NOT_ACTIVE",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     /**
      * IllegalArgumentException için handler
      * 400 BAD_REQUEST döner
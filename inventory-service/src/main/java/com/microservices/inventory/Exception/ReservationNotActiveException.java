@@ -0,0 +1,17 @@
+package com.microservices.inventory.Exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Onaylanamayan rezervasyon için exception
+ * Rezervasyon serbest bırakılmış veya süresi dolmuş ve stok artık yetmiyor
+ * @ResponseStatus: Otomatik olarak 409 CONFLICT döner
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Reservation is no longer active")
+public class ReservationNotActiveException extends RuntimeException {
+    
+    public ReservationNotActiveException(String message) {
+        super(message);
+    }
+}
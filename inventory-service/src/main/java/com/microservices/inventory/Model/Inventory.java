@@ -49,6 +49,9 @@ public class Inventory {
         if (status == null) {
             status = calculateStatus();
         }
+        if (shardCount == null) {
+            shardCount = 0;
+        }
     }
     
     @PreUpdate
@@ -132,6 +135,15 @@ public class Inventory {
      */
     private LocalDateTime updatedAt;
     
+    /**
+     * Stok Shard Sayısı
+     * - 0 = normal mod, stok bu satırda tutulur
+     * - N > 0 = sharded mod (flash sale ürünleri), stok N adet inventory_shard satırına bölünür
+     * - Sadece InventoryService.configureShards ile değiştirilir
+     */
+    @Min(value = 0, message = "Shard count cannot be negative")
+    private Integer shardCount = 0;
+    
     /**
      * Stok durumunu otomatik hesapla
      * - quantity'a göre status belirlenir
@@ -165,6 +177,25 @@ public class Inventory {
         return Math.max(0, quantity - reservedQuantity);
     }
     
+    /**
+     * Sharded modda mı?
+     */
+    public boolean isSharded() {
+        return shardCount != null && shardCount > 0;
+    }
+    
+    /**
+     * Shard toplamlarıyla kopya
+     * - Sharded ürünlerde quantity/reservedQuantity shard'ların toplamıdır
+     * - Persistence context'e bağlı olmayan bir kopya döner (okuma için)
+     */
+    public Inventory withStockTotals(int totalQuantity, int totalReservedQuantity) {
+        Inventory copy = new Inventory(id, productId, totalQuantity, totalReservedQuantity,
+                minStockLevel, maxStockLevel, null, location, createdAt, updatedAt, shardCount);
+        copy.status = copy.calculateStatus();
+        return copy;
+    }
+    
     /**
      * Stok yeterli mi kontrolü
      */
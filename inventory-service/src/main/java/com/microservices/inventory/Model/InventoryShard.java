@@ -0,0 +1,83 @@
+package com.microservices.inventory.Model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Inventory Shard Entity
+ * Sharded moddaki bir ürünün stoğunun bir parçası
+ * 
+ * Önemli Notlar:
+ * - Kampanyadaki (flash sale) ürünler için opsiyoneldir (inventory.shardCount > 0)
+ * - Stok N satıra bölünür; rezervasyonlar rastgele bir shard'ı günceller,
+ *   böylece tek bir inventory satırı global lock'a dönüşmez
+ * - Sharded bir ürünün quantity/reservedQuantity değerleri shard'ların toplamıdır
+ */
+@Entity
+@Table(name = "inventory_shard",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"inventoryId", "shardIndex"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryShard {
+    
+    @Id
+    private UUID id;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @NotNull(message = "Inventory ID is required")
+    private UUID inventoryId;
+    
+    /**
+     * Shard numarası (0..shardCount-1)
+     */
+    @NotNull(message = "Shard index is required")
+    @Min(value = 0, message = "Shard index cannot be negative")
+    private Integer shardIndex;
+    
+    /**
+     * Bu shard'a ayrılmış stok
+     */
+    @NotNull(message = "Quantity is required")
+    @Min(value = 0, message = "Quantity cannot be negative")
+    private Integer quantity;
+    
+    /**
+     * Bu shard'dan rezerve edilmiş stok (quantity'yi aşamaz)
+     */
+    @Min(value = 0, message = "Reserved quantity cannot be negative")
+    private Integer reservedQuantity = 0;
+    
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Bu shard'da kullanılabilir stok
+     */
+    public int getAvailableQuantity() {
+        return Math.max(0, quantity - reservedQuantity);
+    }
+}
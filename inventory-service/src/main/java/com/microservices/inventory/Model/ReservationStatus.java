@@ -0,0 +1,26 @@
+package com.microservices.inventory.Model;
+
+/**
+ * Reservation Status Enum
+ * Çoklu ürün rezervasyonundaki her kalemin durumu
+ */
+public enum ReservationStatus {
+    
+    /**
+     * Aktif rezervasyon
+     * Stok inventory.reserved_quantity'de (sharded ürünlerde inventory_shard'da) tutuluyor
+     */
+    ACTIVE,
+    
+    /**
+     * Serbest bırakılmış rezervasyon
+     * Stok tekrar kullanılabilir
+     */
+    RELEASED,
+    
+    /**
+     * Süresi dolmuş rezervasyon
+     * expiresAt'e kadar onaylanmadığı için sweeper tarafından serbest bırakıldı
+     */
+    EXPIRED
+}
@@ -0,0 +1,102 @@
+package com.microservices.inventory.Model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock Reservation Entity
+ * Çoklu ürün rezervasyonunun her kalemini tutar
+ * 
+ * Önemli Notlar:
+ * - Aynı reservationId'ye sahip satırlar tek bir rezervasyonu oluşturur
+ * - Tüm kalemler tek transaction'da oluşturulur (ya hepsi ya hiçbiri)
+ * - Serbest bırakma reservationId ile toplu yapılır
+ * - inventory.reservedQuantity, ACTIVE kalemlerin toplamıdır (her rezervasyon/serbest bırakma
+ *   aynı transaction'da ledger'a yazılır)
+ * - expiresAt'e kadar onaylanmayan kalemler sweeper tarafından serbest bırakılır (EXPIRED)
+ */
+@Entity
+@Table(name = "stock_reservation",
+       indexes = {
+           @Index(name = "idx_stock_reservation_reservation_id", columnList = "reservationId"),
+           @Index(name = "idx_stock_reservation_order_id", columnList = "orderId"),
+           @Index(name = "idx_stock_reservation_expires_at", columnList = "expiresAt")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    
+    @Id
+    private UUID id;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (status == null) {
+            status = ReservationStatus.ACTIVE;
+        }
+        createdAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Rezervasyon ID'si
+     * - Order Service'e dönen ID
+     * - Bir rezervasyonun tüm kalemleri aynı ID'yi taşır
+     */
+    @NotNull(message = "Reservation ID is required")
+    private UUID reservationId;
+    
+    /**
+     * Rezerve edilen stok kaydı
+     */
+    @NotNull(message = "Inventory ID is required")
+    private UUID inventoryId;
+    
+    @NotNull(message = "Product ID is required")
+    private UUID productId;
+    
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+    
+    /**
+     * Stoğun alındığı shard (sharded ürünler için, aksi halde null)
+     * Serbest bırakma önce bu shard'a yapılır
+     */
+    private Integer shardIndex;
+    
+    /**
+     * Rezervasyonu yapan sipariş (opsiyonel)
+     */
+    private UUID orderId;
+    
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+    
+    private LocalDateTime createdAt;
+    
+    /**
+     * Son geçerlilik zamanı
+     * - Bu zamana kadar onaylanmazsa (confirmReservation) sweeper serbest bırakır
+     * - null = süresiz (onaylanmış veya ID'siz tekil rezervasyon)
+     */
+    private LocalDateTime expiresAt;
+    
+    private LocalDateTime releasedAt;
+}
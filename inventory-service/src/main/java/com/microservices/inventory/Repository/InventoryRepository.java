@@ -1,16 +1,23 @@
 package com.microservices.inventory.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.microservices.inventory.Model.Inventory;
 import com.microservices.inventory.Model.InventoryStatus;
 import com.microservices.inventory.Model.Location;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, UUID>{
     /**
@@ -36,4 +43,91 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID>{
      * Duplicate check için kullanılır
      */
     boolean existsByProductId(UUID productId);
+    
+    /**
+     * Birden fazla ürünün stok kaydını tek sorguda getir
+     * Çoklu ürün rezervasyonunda kullanılır
+     */
+    List<Inventory> findByProductIdIn(Collection<UUID> productIds);
+    
+    /**
+     * Ürün ve kullanılabilir stok (toplu stok kontrolü için)
+     */
+    interface AvailableStock {
+        UUID getProductId();
+        Number getAvailableQuantity();
+    }
+    
+    /**
+     * Birden fazla ürünün kullanılabilir stoğunu tek sorguda getir
+     * Entity yüklenmez; sharded kayıtlarda shard toplamı aynı sorguda hesaplanır
+     */
+    @Query("""
+            SELECT i.productId AS productId,
+                   CASE WHEN i.shardCount = 0 THEN i.quantity - COALESCE(i.reservedQuantity, 0)
+                        ELSE (SELECT COALESCE(SUM(s.quantity - s.reservedQuantity), 0)
+                              FROM InventoryShard s
+                              WHERE s.inventoryId = i.id)
+                   END AS availableQuantity
+            FROM Inventory i
+            WHERE i.productId IN :productIds
+            """)
+    List<AvailableStock> findAvailableStockByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+    
+    /**
+     * Stok kaydını kilitleyerek getir
+     * Sharded mod açılıp kapatılırken kullanılır (eşzamanlı satır rezervasyonları beklenir)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.id = :id")
+    Optional<Inventory> findByIdForUpdate(@Param("id") UUID id);
+    
+    /**
+     * Koşullu rezervasyon (tek UPDATE statement)
+     * Kullanılabilir stok yeterliyse reserved_quantity artırılır ve status yeniden hesaplanır
+     * (Inventory.calculateStatus ile aynı kurallar)
+     * Sharded kayıtlar güncellenmez (stokları inventory_shard'dadır)
+     * 
+     * @return Etkilenen satır sayısı (0 = stok yetersiz, kayıt yok veya kayıt sharded)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE inventory
+            SET reserved_quantity = reserved_quantity + :quantity,
+                status = CASE
+                    WHEN quantity <= 0 THEN 'OUT_OF_STOCK'
+                    WHEN quantity <= min_stock_level THEN 'LOW_STOCK'
+                    WHEN quantity - (reserved_quantity + :quantity) <= 0 THEN 'RESERVED'
+                    ELSE 'IN_STOCK'
+                END,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = :id
+              AND shard_count = 0
+              AND quantity - reserved_quantity >= :quantity
+            """, nativeQuery = true)
+    int reserveIfAvailable(@Param("id") UUID id, @Param("quantity") int quantity);
+    
+    /**
+     * Koşullu serbest bırakma (tek UPDATE statement)
+     * Rezerve miktar yeterliyse reserved_quantity azaltılır ve status yeniden hesaplanır
+     * 
+     * @return Etkilenen satır sayısı (0 = rezerve miktar yetersiz, kayıt yok veya kayıt sharded)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE inventory
+            SET reserved_quantity = reserved_quantity - :quantity,
+                status = CASE
+                    WHEN quantity <= 0 THEN 'OUT_OF_STOCK'
+                    WHEN quantity <= min_stock_level THEN 'LOW_STOCK'
+                    WHEN reserved_quantity - :quantity > 0
+                         AND quantity - (reserved_quantity - :quantity) <= 0 THEN 'RESERVED'
+                    ELSE 'IN_STOCK'
+                END,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = :id
+              AND shard_count = 0
+              AND reserved_quantity >= :quantity
+            """, nativeQuery = true)
+    int releaseIfReserved(@Param("id") UUID id, @Param("quantity") int quantity);
 }
@@ -0,0 +1,118 @@
+package com.microservices.inventory.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.microservices.inventory.Model.InventoryShard;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, UUID> {
+    /**
+     * Bir ürünün shard toplamları
+     */
+    interface StockTotals {
+        UUID getInventoryId();
+        Long getQuantity();
+        Long getReservedQuantity();
+    }
+    
+    /**
+     * Bir stok kaydının tüm shard'ları (shard sırasıyla)
+     */
+    List<InventoryShard> findByInventoryIdOrderByShardIndex(UUID inventoryId);
+    
+    /**
+     * Bir stok kaydının tüm shard'larını kilitleyerek getir
+     * Mod değişikliği ve toplam miktar güncellemesi sırasında kullanılır (inventory satırı önceden
+     * kilitlenir); her zaman shard sırasıyla kilitlenir
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryShard s WHERE s.inventoryId = :inventoryId ORDER BY s.shardIndex")
+    List<InventoryShard> findByInventoryIdForUpdate(@Param("inventoryId") UUID inventoryId);
+    
+    /**
+     * Bir stok kaydının o anda başka transaction'ların kilitlemediği shard'larını kilitleyerek getir
+     * Rezervasyon sırasındaki rebalance ve serbest bırakma için: SKIP LOCKED ile hiçbir satır
+     * beklenmez, bu yüzden tek shard kilidi tutan eşzamanlı işlemlerle deadlock oluşamaz
+     */
+    @Query(value = """
+            SELECT * FROM inventory_shard
+            WHERE inventory_id = :inventoryId
+            ORDER BY shard_index
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<InventoryShard> findUnlockedByInventoryIdForUpdate(@Param("inventoryId") UUID inventoryId);
+    
+    /**
+     * Kullanılabilir stok toplamı (tek SUM sorgusu)
+     */
+    @Query("SELECT COALESCE(SUM(s.quantity - s.reservedQuantity), 0) FROM InventoryShard s WHERE s.inventoryId = :inventoryId")
+    long sumAvailableQuantity(@Param("inventoryId") UUID inventoryId);
+    
+    /**
+     * Birden fazla stok kaydının shard toplamları (liste okumaları için tek sorgu)
+     */
+    @Query("""
+            SELECT s.inventoryId AS inventoryId,
+                   SUM(s.quantity) AS quantity,
+                   SUM(s.reservedQuantity) AS reservedQuantity
+            FROM InventoryShard s
+            WHERE s.inventoryId IN :inventoryIds
+            GROUP BY s.inventoryId
+            """)
+    List<StockTotals> sumByInventoryIdIn(@Param("inventoryIds") Collection<UUID> inventoryIds);
+    
+    /**
+     * Tek shard'da koşullu rezervasyon (tek UPDATE statement)
+     * Sadece o shard satırı kilitlenir
+     * 
+     * @return Etkilenen satır sayısı (0 = shard'da yeterli stok yok veya shard yok)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE inventory_shard
+            SET reserved_quantity = reserved_quantity + :quantity,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE inventory_id = :inventoryId
+              AND shard_index = :shardIndex
+              AND quantity - reserved_quantity >= :quantity
+            """, nativeQuery = true)
+    int reserveIfAvailable(@Param("inventoryId") UUID inventoryId,
+                           @Param("shardIndex") int shardIndex,
+                           @Param("quantity") int quantity);
+    
+    /**
+     * Tek shard'da koşullu serbest bırakma (tek UPDATE statement)
+     * 
+     * @return Etkilenen satır sayısı (0 = shard'daki rezerve miktar yetersiz veya shard yok)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE inventory_shard
+            SET reserved_quantity = reserved_quantity - :quantity,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE inventory_id = :inventoryId
+              AND shard_index = :shardIndex
+              AND reserved_quantity >= :quantity
+            """, nativeQuery = true)
+    int releaseIfReserved(@Param("inventoryId") UUID inventoryId,
+                          @Param("shardIndex") int shardIndex,
+                          @Param("quantity") int quantity);
+    
+    /**
+     * Sharded mod kapatılırken shard'ları sil
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM InventoryShard s WHERE s.inventoryId = :inventoryId")
+    int deleteByInventoryId(@Param("inventoryId") UUID inventoryId);
+}
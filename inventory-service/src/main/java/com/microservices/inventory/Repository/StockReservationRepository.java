@@ -0,0 +1,84 @@
+package com.microservices.inventory.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.microservices.inventory.Model.ReservationStatus;
+import com.microservices.inventory.Model.StockReservation;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+    /**
+     * Rezervasyonun tüm kalemlerini getir
+     */
+    List<StockReservation> findByReservationId(UUID reservationId);
+    
+    /**
+     * Rezervasyonun belirli durumdaki kalemlerini kilitleyerek getir
+     * Serbest bırakma sırasında sadece ACTIVE kalemler işlenir; kilit sayesinde sweeper
+     * aynı kalemi ikinci kez serbest bırakamaz
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findByReservationIdAndStatus(UUID reservationId, ReservationStatus status);
+    
+    /**
+     * Siparişin rezervasyon kalemleri (index: order_id)
+     */
+    List<StockReservation> findByOrderIdOrderByCreatedAt(UUID orderId);
+    
+    /**
+     * Siparişin belirli durumdaki kalemleri (index: order_id)
+     * reserveItems tekrarında siparişin mevcut ACTIVE rezervasyonunu bulmak için
+     */
+    List<StockReservation> findByOrderIdAndStatus(UUID orderId, ReservationStatus status);
+    
+    /**
+     * Bir stok kaydının ACTIVE kalemlerini kilitleyerek getir (eskiden yeniye)
+     * ID'siz tekil serbest bırakmada (releaseReservedStock) ledger'dan düşmek için kullanılır
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT r FROM StockReservation r
+            WHERE r.inventoryId = :inventoryId AND r.status = :status
+            ORDER BY r.createdAt
+            """)
+    List<StockReservation> findByInventoryIdAndStatusForUpdate(@Param("inventoryId") UUID inventoryId,
+                                                               @Param("status") ReservationStatus status);
+    
+    /**
+     * Süresi dolmuş ACTIVE kalemlerden bir batch (sweeper için)
+     * SKIP LOCKED: Başka bir instance'ın sweeper'ının veya o anda serbest bırakılan
+     * rezervasyonların kilitlediği satırlar beklenmeden atlanır
+     */
+    @Query(value = """
+            SELECT * FROM stock_reservation
+            WHERE status = 'ACTIVE'
+              AND expires_at < :now
+            ORDER BY expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<StockReservation> findExpiredForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    /**
+     * Rezervasyonu onayla: ACTIVE kalemlerin süresini kaldır
+     * 
+     * @return Etkilenen satır sayısı (0 = ACTIVE kalem yok)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE StockReservation r SET r.expiresAt = NULL
+            WHERE r.reservationId = :reservationId AND r.status = :status
+            """)
+    int clearExpiry(@Param("reservationId") UUID reservationId, @Param("status") ReservationStatus status);
+}
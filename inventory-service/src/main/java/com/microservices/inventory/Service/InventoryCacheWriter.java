@@ -0,0 +1,188 @@
+package com.microservices.inventory.Service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.microservices.inventory.Model.Inventory;
+import com.microservices.inventory.Repository.InventoryRepository;
+
+/**
+ * Inventory Cache Writer
+ * "inventories" cache'ini kayıt bazında günceller
+ *
+ * Önemli Notlar:
+ * - Bir kayıt değiştiğinde sadece o kaydın anahtarları güncellenir: "{id}", "product:{productId}",
+ *   "available:{productId}" (tüm cache'i silmek yerine)
+ * - Rezervasyon / serbest bırakma (evictAfterCommit): anahtarlar commit'ten sonra silinir, sonraki okuma
+ *   veritabanından doldurur. Değer yazılmaz: sharded üründe diğer shard'lar bu transaction'da kilitli
+ *   değildir ve eşzamanlı iki transaction'ın commit sonrası yazmaları ters sırada gelebilir; silme sırası
+ *   sonucu değiştirmez
+ * - Yönetim işlemleri (oluşturma, güncelleme, shard ayarı; refreshAfterCommit): değer commit'ten hemen önce
+ *   tek sorguyla okunur ve commit'ten sonra yazılır (write-through). Okunan değer eşzamanlı bir rezervasyonla
+ *   eskiyebilir; bu seyrek işlemler için cache TTL'i (2 dk) güvenlik ağıdır
+ * - Rollback olan değişiklik cache'e dokunmaz
+ * - Cache hatası çağıran işlemi durdurmaz; yazılamayan anahtarlar silinmeye çalışılır
+ * - CacheManager yoksa (ör. cache'siz test context'i) hiçbir şey yapılmaz
+ */
+@Component
+public class InventoryCacheWriter {
+
+    static final String CACHE_NAME = "inventories";
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryShardService inventoryShardService;
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+    private final MeterRegistry meterRegistry;
+
+    public InventoryCacheWriter(
+            InventoryRepository inventoryRepository,
+            InventoryShardService inventoryShardService,
+            ObjectProvider<CacheManager> cacheManagerProvider,
+            MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryShardService = inventoryShardService;
+        this.cacheManagerProvider = cacheManagerProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Kaydın cache anahtarlarını commit sonrası güncel değerle yaz
+     */
+    public void refreshAfterCommit(UUID inventoryId) {
+        refreshAfterCommit(List.of(inventoryId));
+    }
+
+    /**
+     * Kayıtların cache anahtarlarını commit sonrası güncel değerle yaz (tek sorgu)
+     */
+    public void refreshAfterCommit(Collection<UUID> inventoryIds) {
+        if (inventoryIds.isEmpty() || cache() == null) {
+            return;
+        }
+        Set<UUID> ids = Set.copyOf(inventoryIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(ids, load(ids));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private List<Inventory> inventories;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inventories = load(ids);
+            }
+
+            @Override
+            public void afterCommit() {
+                write(ids, inventories);
+            }
+        });
+    }
+
+    /**
+     * Silinen kaydın cache anahtarlarını commit sonrası temizle
+     */
+    public void evictAfterCommit(UUID inventoryId, UUID productId) {
+        evictAfterCommit(Map.of(inventoryId, productId), "deleted");
+    }
+
+    /**
+     * Rezerve miktarı değişen kayıtların cache anahtarlarını commit sonrası temizle
+     *
+     * @param productIdsByInventoryId Inventory ID → ürün ID
+     */
+    public void evictAfterCommit(Map<UUID, UUID> productIdsByInventoryId) {
+        evictAfterCommit(productIdsByInventoryId, "changed");
+    }
+
+    private void evictAfterCommit(Map<UUID, UUID> productIdsByInventoryId, String reason) {
+        if (productIdsByInventoryId.isEmpty() || cache() == null) {
+            return;
+        }
+        Map<UUID, UUID> keys = Map.copyOf(productIdsByInventoryId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            keys.forEach((inventoryId, productId) -> evict(cache(), inventoryId, productId, reason));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = cache();
+                if (cache != null) {
+                    keys.forEach((inventoryId, productId) -> evict(cache, inventoryId, productId, reason));
+                }
+            }
+        });
+    }
+
+    /**
+     * Güncel değerleri oku; hata commit'i engellememeli (null = okunamadı)
+     */
+    private List<Inventory> load(Set<UUID> inventoryIds) {
+        try {
+            return inventoryShardService.withShardTotals(inventoryRepository.findAllById(inventoryIds));
+        } catch (Exception e) {
+            // Production'da logger kullanılmalı
+            System.err.println("Error reloading " + inventoryIds.size() + " inventories for cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(Set<UUID> inventoryIds, List<Inventory> inventories) {
+        Cache cache = cache();
+        if (cache == null) {
+            return;
+        }
+        if (inventories == null) {
+            // Güncel değer okunamadı: bilinen tek anahtar (id) silinir, diğerleri TTL ile düşer
+            inventoryIds.forEach(id -> evict(cache, id, null, "reload_failed"));
+            return;
+        }
+
+        Set<UUID> missing = new HashSet<>(inventoryIds);
+        for (Inventory inventory : inventories) {
+            missing.remove(inventory.getId());
+            try {
+                cache.put(inventory.getId().toString(), inventory);
+                cache.put("product:" + inventory.getProductId(), inventory);
+                cache.put("available:" + inventory.getProductId(), inventory.getAvailableQuantity());
+                meterRegistry.counter("inventory.cache.writes").increment();
+            } catch (Exception e) {
+                System.err.println("Error writing inventory " + inventory.getId() + " to cache: " + e.getMessage());
+                evict(cache, inventory.getId(), inventory.getProductId(), "write_failed");
+            }
+        }
+        // Bu arada silinmiş kayıtlar
+        missing.forEach(id -> evict(cache, id, null, "deleted"));
+    }
+
+    private void evict(Cache cache, UUID inventoryId, UUID productId, String reason) {
+        try {
+            cache.evict(inventoryId.toString());
+            if (productId != null) {
+                cache.evict("product:" + productId);
+                cache.evict("available:" + productId);
+            }
+            meterRegistry.counter("inventory.cache.evictions", "reason", reason).increment();
+        } catch (Exception e) {
+            System.err.println("Error evicting inventory " + inventoryId + " from cache: " + e.getMessage());
+        }
+    }
+
+    private Cache cache() {
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        return cacheManager != null ? cacheManager.getCache(CACHE_NAME) : null;
+    }
+}
@@ -1,21 +1,38 @@
 package com.microservices.inventory.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
 import java.util.UUID;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import io.micrometer.core.instrument.MeterRegistry;
 
+import com.microservices.inventory.DTO.ReservationRequest;
+import com.microservices.inventory.DTO.ReservationResponse;
+import com.microservices.inventory.DTO.StockAvailability;
 import com.microservices.inventory.Exception.DuplicateResourceException;
+import com.microservices.inventory.Exception.ReservationNotActiveException;
 import com.microservices.inventory.Exception.ResourceNotFoundException;
 import com.microservices.inventory.Model.Inventory;
+import com.microservices.inventory.Model.InventoryShard;
 import com.microservices.inventory.Model.InventoryStatus;
 import com.microservices.inventory.Model.Location;
+import com.microservices.inventory.Model.ReservationStatus;
+import com.microservices.inventory.Model.StockReservation;
 import com.microservices.inventory.Repository.InventoryRepository;
+import com.microservices.inventory.Repository.StockReservationRepository;
 
 /**
  * Inventory Service
@@ -25,23 +42,51 @@ import com.microservices.inventory.Repository.InventoryRepository;
  * - Her product için tek bir inventory kaydı olmalı (productId unique)
  * - Rezerve işlemleri stok kontrolü yapmalı
  * - Status otomatik hesaplanır (@PreUpdate)
+ * - Çoklu ürün rezervasyonu tek transaction'da, koşullu UPDATE'lerle yapılır
+ * - Her rezervasyon stock_reservation ledger'ına yazılır; reservedQuantity ACTIVE kalemlerin toplamıdır.
+ *   Süresi içinde onaylanmayan rezervasyonlar sweeper ile serbest bırakılır (ReservationSweeper)
+ * - Flash sale ürünleri sharded moda alınabilir: stok inventory_shard satırlarına bölünür
+ *   (InventoryShardService), okumalar shard toplamlarını döner
+ * - "inventories" cache'i write-through tutulur: stok değiştiren her method commit sonrası sadece
+ *   dokunduğu kayıtların anahtarlarını günceller (InventoryCacheWriter)
  */
 @Service
 public class InventoryService {
     private final InventoryRepository inventoryRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryShardService inventoryShardService;
+    private final InventoryCacheWriter inventoryCacheWriter;
     private final MeterRegistry meterRegistry;
+    private final int maxShards;
+    private final long reservationTtlSeconds;
+    private final int stockCheckChunkSize;
 
-    public InventoryService(InventoryRepository inventoryRepository, MeterRegistry meterRegistry) {
+    public InventoryService(
+            InventoryRepository inventoryRepository,
+            StockReservationRepository stockReservationRepository,
+            InventoryShardService inventoryShardService,
+            InventoryCacheWriter inventoryCacheWriter,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.sharding.max-shards:64}") int maxShards,
+            @Value("${inventory.reservation.ttl-seconds:900}") long reservationTtlSeconds,
+            @Value("${inventory.stock-check.chunk-size:500}") int stockCheckChunkSize) {
         this.inventoryRepository = inventoryRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.inventoryShardService = inventoryShardService;
+        this.inventoryCacheWriter = inventoryCacheWriter;
         this.meterRegistry = meterRegistry;
+        this.maxShards = maxShards;
+        this.reservationTtlSeconds = reservationTtlSeconds;
+        this.stockCheckChunkSize = Math.max(1, stockCheckChunkSize);
     }
 
     /**
-     * Tüm stok kayıtlarını getir
+     * Stok kayıtlarını sayfalı getir
+     * Cache'lenmez: liste her kayıt değişikliğinde bayatlar, tek kayıt anahtarları ise write-through tutulur
      */
-    @Cacheable(value = "inventories", key = "'all'")
-    public List<Inventory> getAllInventories() {
-        return inventoryRepository.findAll();
+    public Page<Inventory> getInventories(Pageable pageable) {
+        Page<Inventory> page = inventoryRepository.findAll(pageable);
+        return new PageImpl<>(inventoryShardService.withShardTotals(page.getContent()), pageable, page.getTotalElements());
     }
 
     /**
@@ -49,8 +94,7 @@ public class InventoryService {
      */
     @Cacheable(value = "inventories", key = "#id.toString()")
     public Inventory getInventoryById(UUID id) {
-        return inventoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "id", id));
+        return inventoryShardService.withShardTotals(findInventory(id));
     }
 
     /**
@@ -61,17 +105,19 @@ public class InventoryService {
      */
     @Cacheable(value = "inventories", key = "'product:' + #productId.toString()")
     public Inventory getInventoryByProductId(UUID productId) {
-        return inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+        return inventoryShardService.withShardTotals(findInventoryByProductId(productId));
     }
 
     /**
      * Kullanılabilir stok miktarını getir
-     * quantity - reservedQuantity
+     * quantity - reservedQuantity (sharded üründe tüm shard'ların toplamı, tek SUM sorgusu)
      */
     @Cacheable(value = "inventories", key = "'available:' + #productId.toString()")
     public Integer getAvailableQuantity(UUID productId) {
-        Inventory inventory = getInventoryByProductId(productId);
+        Inventory inventory = findInventoryByProductId(productId);
+        if (inventory.isSharded()) {
+            return inventoryShardService.getAvailableQuantity(inventory.getId());
+        }
         return inventory.getAvailableQuantity();
     }
 
@@ -80,7 +126,7 @@ public class InventoryService {
      * Repository'de query ile yapılıyor (performans için)
      */
     public List<Inventory> getInventoriesByStatus(InventoryStatus status) {
-        return inventoryRepository.findByStatus(status);
+        return inventoryShardService.withShardTotals(inventoryRepository.findByStatus(status));
     }
 
     /**
@@ -88,34 +134,43 @@ public class InventoryService {
      * Repository'de query ile yapılıyor (performans için)
      */
     public List<Inventory> getInventoriesByLocation(Location location) {
-        return inventoryRepository.findByLocation(location);
+        return inventoryShardService.withShardTotals(inventoryRepository.findByLocation(location));
     }
 
     /**
      * Toplu stok kontrolü
-     * Sepet için kullanılır
+     * Sepet ve sipariş oluşturma için kullanılır
+     * 
+     * Ürün başına ayrı okuma yapılmaz: stoklar tek bir WHERE product_id IN (...) sorgusuyla okunur
+     * (büyük sepetlerde stock-check.chunk-size'lık parçalar halinde). Sharded ürünlerin shard toplamı
+     * aynı sorguda hesaplanır. Kullanılabilir miktar da döner; çağıranın hata mesajı için
+     * ayrıca stok kaydı çekmesine gerek kalmaz.
      * 
      * @param productQuantities Map<ProductId, RequiredQuantity>
-     * @return Map<ProductId, IsAvailable> - true = stokta var, false = stokta yok
+     * @return Map<ProductId, StockAvailability> - stok kaydı olmayan ürünler found=false, available=false
      */
-    public Map<UUID, Boolean> checkStockAvailability(Map<UUID, Integer> productQuantities) {
-        Map<UUID, Boolean> availabilityMap = new HashMap<>();
+    public Map<UUID, StockAvailability> checkStockAvailability(Map<UUID, Integer> productQuantities) {
+        productQuantities.forEach((productId, quantity) -> {
+            if (quantity == null || quantity < 0) {
+                throw new IllegalArgumentException("Quantity must not be negative for product " + productId);
+            }
+        });
         
-        for (Map.Entry<UUID, Integer> entry : productQuantities.entrySet()) {
-            UUID productId = entry.getKey();
-            Integer requiredQuantity = entry.getValue();
-            
-            try {
-                Inventory inventory = getInventoryByProductId(productId);
-                // Kullanılabilir stok yeterli mi?
-                boolean isAvailable = inventory.hasEnoughStock(requiredQuantity);
-                availabilityMap.put(productId, isAvailable);
-            } catch (ResourceNotFoundException e) {
-                // Stok kaydı yoksa stokta yok demektir
-                availabilityMap.put(productId, false);
+        Map<UUID, StockAvailability> availabilityMap = new HashMap<>();
+        List<UUID> productIds = new ArrayList<>(productQuantities.keySet());
+        for (int from = 0; from < productIds.size(); from += stockCheckChunkSize) {
+            List<UUID> chunk = productIds.subList(from, Math.min(from + stockCheckChunkSize, productIds.size()));
+            for (InventoryRepository.AvailableStock stock : inventoryRepository.findAvailableStockByProductIdIn(chunk)) {
+                int availableQuantity = stock.getAvailableQuantity().intValue();
+                boolean available = availableQuantity >= productQuantities.get(stock.getProductId());
+                availabilityMap.put(stock.getProductId(), new StockAvailability(available, availableQuantity, true));
             }
         }
         
+        // Stok kaydı yoksa stokta yok demektir
+        for (UUID productId : productIds) {
+            availabilityMap.putIfAbsent(productId, new StockAvailability(false, 0, false));
+        }
         return availabilityMap;
     }
 
@@ -123,7 +178,7 @@ public class InventoryService {
      * Yeni stok kaydı oluştur
      * Product oluşturulduğunda çağrılır
      */
-    @CacheEvict(value = "inventories", allEntries = true)  // Tüm inventory cache'lerini temizle
+    @Transactional
     public Inventory createInventory(Inventory inventory) {
         // Duplicate check: Aynı productId'ye sahip inventory var mı?
         if (inventory.getProductId() != null && 
@@ -131,26 +186,32 @@ public class InventoryService {
             throw new DuplicateResourceException("Inventory", "productId", inventory.getProductId());
         }
         
-        return inventoryRepository.save(inventory);
+        // Sharded mod sadece configureShards ile açılır (shard satırları orada oluşturulur)
+        inventory.setShardCount(0);
+        Inventory savedInventory = inventoryRepository.save(inventory);
+        inventoryCacheWriter.refreshAfterCommit(savedInventory.getId());
+        return savedInventory;
     }
 
     /**
      * Stok kaydını tamamen güncelle
      * Partial update yapıyor (null olmayan field'ları günceller)
+     * reservedQuantity kabul edilmez (gövdede olsa da yok sayılır): rezerve miktar sadece rezervasyonlarla
+     * (reserveItems / confirm / release / sweeper) değişir, elle yazılırsa rezervasyon kayıtlarıyla tutarsız kalır
      */
-    @CacheEvict(value = "inventories", key = "#id.toString() + ':*'", allEntries = true)  // İlgili tüm cache'leri temizle
+    @Transactional
     public Inventory updateInventory(UUID id, Inventory inventoryDetails) {
-        Inventory inventory = getInventoryById(id);
+        Inventory inventory = findInventory(id);
         
         // ProductId değiştirilemez (unique constraint)
         // Sadece diğer field'lar güncellenir
         
         if (inventoryDetails.getQuantity() != null) {
+            if (inventory.isSharded()) {
+                inventoryShardService.setTotalQuantity(id, inventoryDetails.getQuantity());
+            }
             inventory.setQuantity(inventoryDetails.getQuantity());
         }
-        if (inventoryDetails.getReservedQuantity() != null) {
-            inventory.setReservedQuantity(inventoryDetails.getReservedQuantity());
-        }
         if (inventoryDetails.getMinStockLevel() != null) {
             inventory.setMinStockLevel(inventoryDetails.getMinStockLevel());
         }
@@ -161,93 +222,546 @@ public class InventoryService {
             inventory.setLocation(inventoryDetails.getLocation());
         }
         
+        inventoryCacheWriter.refreshAfterCommit(id);
         // Status otomatik hesaplanır (@PreUpdate)
-        return inventoryRepository.save(inventory);
+        return inventoryShardService.withShardTotals(inventoryRepository.save(inventory));
     }
 
     /**
      * Sadece stok miktarını güncelle
      * Yeni ürün geldiğinde veya stok azaldığında kullanılır
+     * Sharded üründe yeni boştaki stok shard'lara yeniden dağıtılır
      */
+    @Transactional
     public Inventory updateQuantity(UUID id, Integer quantity) {
-        Inventory inventory = getInventoryById(id);
+        Inventory inventory = findInventory(id);
         
         // Negatif olamaz kontrolü
         if (quantity < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
         
+        if (inventory.isSharded()) {
+            inventoryShardService.setTotalQuantity(id, quantity);
+        }
         inventory.setQuantity(quantity);
+        inventoryCacheWriter.refreshAfterCommit(id);
         // Status otomatik hesaplanır (@PreUpdate)
-        return inventoryRepository.save(inventory);
+        return inventoryShardService.withShardTotals(inventoryRepository.save(inventory));
     }
 
     /**
      * Stok rezerve et (sipariş için)
      * Sipariş verildiğinde Order Service bu method'u çağırır
      * 
+     * Kontrol ve artırma tek bir koşullu UPDATE'tir (read-modify-write yok):
+     * eşzamanlı rezervasyonlar satır kilidinde sıraya girer, stok asla eksiye düşmez.
+     * Sharded üründe satır yerine bir shard güncellenir.
+     * Güncelleme olmazsa kayıt okunarak sebep (bulunamadı / yetersiz stok) belirlenir.
+     * 
+     * Ledger'a süresiz bir kalem yazılır: çağıran bir rezervasyon ID'si almadığı için
+     * onaylayamaz, serbest bırakma releaseReservedStock ile yapılır.
+     * 
      * @param id Inventory ID
      * @param quantity Rezerve edilecek miktar
      * @return Güncellenmiş inventory
      */
+    @Transactional
     public Inventory reserveStock(UUID id, Integer quantity) {
-        Inventory inventory = getInventoryById(id);
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
         
-        // Stok yeterli mi kontrolü
-        if (!inventory.hasEnoughStock(quantity)) {
+        Reserved reserved = reserveOne(id, 0, quantity);
+        if (!reserved.success()) {
             meterRegistry.counter("inventory.reserve.fail", "reason", "insufficient").increment();
             throw new IllegalArgumentException(
                 String.format("Insufficient stock. Available: %d, Required: %d", 
-                    inventory.getAvailableQuantity(), quantity));
+                    reserved.available(), quantity));
         }
         
-        // Rezerve edilmiş miktarı artır
-        int newReservedQuantity = (inventory.getReservedQuantity() != null ? 
-                                   inventory.getReservedQuantity() : 0) + quantity;
-        inventory.setReservedQuantity(newReservedQuantity);
+        // Status UPDATE içinde hesaplandı; persistence context temizlendiği için güncel satır okunur
+        Inventory inventory = getInventoryById(id);
+        
+        StockReservation reservation = new StockReservation();
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setInventoryId(id);
+        reservation.setProductId(inventory.getProductId());
+        reservation.setQuantity(quantity);
+        reservation.setShardIndex(reserved.shardIndex());
+        stockReservationRepository.save(reservation);
+        inventoryCacheWriter.evictAfterCommit(Map.of(id, inventory.getProductId()));
         
         meterRegistry.counter("inventory.reserve.success").increment();
-        // Status otomatik hesaplanır (@PreUpdate)
-        return inventoryRepository.save(inventory);
+        return inventory;
     }
 
     /**
      * Rezerve edilmiş stoku serbest bırak
      * Sipariş iptal edildiğinde veya başarısız olduğunda kullanılır
      * 
+     * reserveStock gibi koşullu UPDATE ile yapılır; rezerve miktarı eksiye düşemez.
+     * Miktar ledger kalemlerinden düşülür: önce sipariş dışı (tekil) kalemler, sonra en eskiler.
+     * Her kalemin payı, kalemin alındığı shard'dan serbest bırakılır (ledger ile shard sayaçları
+     * tutarlı kalır; sonradan serbest bırakılan/süresi dolan kalem yanlış shard'dan düşmez).
+     * Ledger'da karşılığı olmayan kalan miktar (ledger öncesi rezervler) herhangi bir shard'dan düşülür.
+     * Ledger kalemleri sayaçtan önce kilitlenir (sweeper ve releaseReservation ile aynı kilit sırası).
+     * 
      * @param id Inventory ID
      * @param quantity Serbest bırakılacak miktar
      * @return Güncellenmiş inventory
      */
+    @Transactional
     public Inventory releaseReservedStock(UUID id, Integer quantity) {
-        Inventory inventory = getInventoryById(id);
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
         
-        // Rezerve edilmiş miktar yeterli mi?
-        int currentReserved = inventory.getReservedQuantity() != null ? 
-                             inventory.getReservedQuantity() : 0;
+        List<StockReservation> activeItems = new ArrayList<>(
+                stockReservationRepository.findByInventoryIdAndStatusForUpdate(id, ReservationStatus.ACTIVE));
         
-        if (currentReserved < quantity) {
-            meterRegistry.counter("inventory.release.fail", "reason", "over_release").increment();
-            throw new IllegalArgumentException(
-                String.format("Cannot release more than reserved. Reserved: %d, Requested: %d", 
-                    currentReserved, quantity));
+        // Ledger'dan düş (sipariş rezervasyonları en sona kalır), her kalem kendi shard'ından
+        activeItems.sort(Comparator.comparing((StockReservation item) -> item.getOrderId() != null));
+        LocalDateTime releasedAt = LocalDateTime.now();
+        List<StockReservation> touched = new ArrayList<>();
+        int remaining = quantity;
+        for (StockReservation item : activeItems) {
+            if (remaining == 0) {
+                break;
+            }
+            int portion = Math.min(item.getQuantity(), remaining);
+            if (!releaseOne(id, item.getShardIndex() != null, item.getShardIndex(), portion)) {
+                throw overRelease(id, quantity, quantity - remaining);
+            }
+            remaining -= portion;
+            if (portion == item.getQuantity()) {
+                item.setStatus(ReservationStatus.RELEASED);
+                item.setReleasedAt(releasedAt);
+            } else {
+                item.setQuantity(item.getQuantity() - portion);
+            }
+            touched.add(item);
+        }
+        if (remaining > 0 && !releaseOne(id, findInventory(id).isSharded(), null, remaining)) {
+            throw overRelease(id, quantity, quantity - remaining);
+        }
+        stockReservationRepository.saveAll(touched);
+        Inventory released = getInventoryById(id);
+        inventoryCacheWriter.evictAfterCommit(Map.of(id, released.getProductId()));
+        
+        meterRegistry.counter("inventory.release.success").increment();
+        return released;
+    }
+
+    /**
+     * Çoklu ürün rezervasyonu (ya hepsi ya hiçbiri)
+     * Order Service sipariş onaylanırken (PENDING → CONFIRMED) bu method'u çağırır
+     * 
+     * - Aynı ürün birden fazla kalemde gelirse miktarlar toplanır
+     * - Stok kayıtları tek sorguda okunur, inventory ID sırasıyla güncellenir
+     *   (eşzamanlı rezervasyonlar aynı sırada lock aldığı için deadlock oluşmaz)
+     * - Her kalem koşullu UPDATE ile rezerve edilir (read-modify-write yok);
+     *   sharded ürünlerde kalemin alındığı shard rezervasyon kaydına yazılır
+     * - Herhangi bir kalem rezerve edilemezse transaction rollback edilir
+     * - Rezervasyon ttl-seconds içinde onaylanmazsa (confirmReservation) sweeper serbest bırakır;
+     *   böylece sipariş tarafı çökerse stok sonsuza kadar rezerve kalmaz
+     * - Sipariş bazında idempotent: siparişin ACTIVE rezervasyonu varsa (ör. Order Service timeout
+     *   sonrası tekrar denedi) stok tekrar rezerve edilmez, mevcut rezervasyon döner. Eşzamanlı iki
+     *   istekten ikincisi uq_stock_reservation_active_order index'ine takılır (V6) ve rollback edilir
+     * 
+     * @param request Rezerve edilecek ürünler ve miktarlar
+     * @return Rezervasyon ID'si ve rezerve edilen kalemler
+     */
+    @Transactional
+    public ReservationResponse reserveItems(ReservationRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Reservation must have at least one item");
         }
         
-        // Rezerve edilmiş miktarı azalt
-        inventory.setReservedQuantity(currentReserved - quantity);
+        // Aynı ürün için miktarları topla
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (ReservationRequest.Item item : request.getItems()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        
+        if (request.getOrderId() != null) {
+            List<StockReservation> existing =
+                    stockReservationRepository.findByOrderIdAndStatus(request.getOrderId(), ReservationStatus.ACTIVE);
+            if (!existing.isEmpty()) {
+                meterRegistry.counter("inventory.reserve.duplicate").increment();
+                return toResponse(existing.get(0).getReservationId(), request.getOrderId(), existing);
+            }
+        }
+        
+        List<Inventory> inventories = new ArrayList<>(inventoryRepository.findByProductIdIn(quantities.keySet()));
+        if (inventories.size() != quantities.size()) {
+            Map<UUID, Inventory> byProductId = new HashMap<>();
+            inventories.forEach(inventory -> byProductId.put(inventory.getProductId(), inventory));
+            UUID missingProductId = quantities.keySet().stream()
+                    .filter(productId -> !byProductId.containsKey(productId))
+                    .findFirst()
+                    .orElseThrow();
+            meterRegistry.counter("inventory.reserve.fail", "reason", "not_found").increment();
+            throw new ResourceNotFoundException("Inventory", "productId", missingProductId);
+        }
+        
+        // Deadlock'u önlemek için satırlar her zaman aynı sırada (ID) kilitlenir
+        inventories.sort(Comparator.comparing(Inventory::getId));
+        
+        UUID reservationId = UUID.randomUUID();
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(reservationTtlSeconds);
+        List<StockReservation> reservations = new ArrayList<>();
+        for (Inventory inventory : inventories) {
+            int quantity = quantities.get(inventory.getProductId());
+            
+            Reserved reserved = reserveOne(inventory.getId(), inventory.getShardCount(), quantity);
+            if (!reserved.success()) {
+                meterRegistry.counter("inventory.reserve.fail", "reason", "insufficient").increment();
+                // Exception → transaction rollback, önceki kalemler de geri alınır
+                throw new IllegalArgumentException(
+                    String.format("Insufficient stock for product %s. Available: %d, Required: %d",
+                        inventory.getProductId(), reserved.available(), quantity));
+            }
+            
+            StockReservation reservation = new StockReservation();
+            reservation.setReservationId(reservationId);
+            reservation.setInventoryId(inventory.getId());
+            reservation.setProductId(inventory.getProductId());
+            reservation.setQuantity(quantity);
+            reservation.setShardIndex(reserved.shardIndex());
+            reservation.setOrderId(request.getOrderId());
+            reservation.setExpiresAt(expiresAt);
+            reservations.add(reservation);
+        }
+        stockReservationRepository.saveAll(reservations);
+        inventoryCacheWriter.evictAfterCommit(productIdsByInventoryId(reservations));
+        
+        meterRegistry.counter("inventory.reserve.success").increment();
+        return toResponse(reservationId, request.getOrderId(), reservations);
+    }
+
+    private static Map<UUID, UUID> productIdsByInventoryId(List<StockReservation> items) {
+        Map<UUID, UUID> productIds = new HashMap<>();
+        items.forEach(item -> productIds.put(item.getInventoryId(), item.getProductId()));
+        return productIds;
+    }
+
+    private ReservationResponse toResponse(UUID reservationId, UUID orderId, List<StockReservation> reservations) {
+        List<ReservationResponse.Item> items = reservations.stream()
+                .filter(r -> r.getReservationId().equals(reservationId))
+                .map(r -> new ReservationResponse.Item(r.getProductId(), r.getInventoryId(), r.getQuantity()))
+                .toList();
+        return new ReservationResponse(reservationId, orderId, items, reservations.get(0).getExpiresAt());
+    }
+
+    /**
+     * Çoklu ürün rezervasyonunu serbest bırak (toplu)
+     * Sipariş iptal edildiğinde Order Service bu method'u çağırır
+     * 
+     * - Tüm kalemler tek transaction'da, inventory ID sırasıyla serbest bırakılır
+     * - İdempotent: Zaten serbest bırakılmış rezervasyon için tekrar çağrılabilir
+     * 
+     * @param reservationId reserveItems'ın döndüğü rezervasyon ID'si
+     */
+    @Transactional
+    public void releaseReservation(UUID reservationId) {
+        List<StockReservation> activeItems = new ArrayList<>(
+                stockReservationRepository.findByReservationIdAndStatus(reservationId, ReservationStatus.ACTIVE));
+        
+        if (activeItems.isEmpty()) {
+            if (stockReservationRepository.findByReservationId(reservationId).isEmpty()) {
+                throw new ResourceNotFoundException("Reservation", "id", reservationId);
+            }
+            return;  // Zaten serbest bırakılmış
+        }
+        
+        activeItems.sort(Comparator.comparing(StockReservation::getInventoryId));
+        LocalDateTime releasedAt = LocalDateTime.now();
+        for (StockReservation item : activeItems) {
+            boolean sharded = item.getShardIndex() != null;
+            if (!releaseOne(item.getInventoryId(), sharded, item.getShardIndex(), item.getQuantity())) {
+                meterRegistry.counter("inventory.release.fail", "reason", "over_release").increment();
+                throw new IllegalArgumentException(
+                    String.format("Cannot release reservation %s for product %s: reserved quantity is lower than %d",
+                        reservationId, item.getProductId(), item.getQuantity()));
+            }
+            item.setStatus(ReservationStatus.RELEASED);
+            item.setReleasedAt(releasedAt);
+        }
+        stockReservationRepository.saveAll(activeItems);
+        inventoryCacheWriter.evictAfterCommit(productIdsByInventoryId(activeItems));
         
         meterRegistry.counter("inventory.release.success").increment();
-        // Status otomatik hesaplanır (@PreUpdate)
-        return inventoryRepository.save(inventory);
+    }
+
+    /**
+     * Rezervasyonu onayla
+     * Order Service, rezervasyon ID'sini siparişe kaydettiği transaction commit olduktan sonra çağırır.
+     * Onaylanan rezervasyonun süresi kaldırılır; artık sadece releaseReservation ile serbest bırakılır.
+     * İdempotent: Tekrar çağrılabilir.
+     * 
+     * Onay ttl-seconds'tan sonra gelirse (Inventory Service uzun süre erişilemedi) sweeper kalemleri
+     * EXPIRED yapmış ve stoğu serbest bırakmış olabilir: bu kalemler yeniden rezerve edilir.
+     * Stok bu arada başka siparişlere gittiyse onay 409 ile reddedilir ve hiçbir kalem değişmez;
+     * Order Service bu durumda siparişi telafi eder (tekrar denemez).
+     * 
+     * @param reservationId reserveItems'ın döndüğü rezervasyon ID'si
+     * @throws ReservationNotActiveException Rezervasyon serbest bırakılmışsa veya süresi dolmuş ve stok yetersizse
+     */
+    @Transactional
+    public void confirmReservation(UUID reservationId) {
+        int active = stockReservationRepository.clearExpiry(reservationId, ReservationStatus.ACTIVE);
+        
+        // Sweeper'ın serbest bıraktığı kalemler kilitlenir (sweeper ile aynı sıra: önce kalem, sonra sayaç)
+        List<StockReservation> expired = new ArrayList<>(
+                stockReservationRepository.findByReservationIdAndStatus(reservationId, ReservationStatus.EXPIRED));
+        if (!expired.isEmpty()) {
+            reactivate(reservationId, expired);
+        } else if (active == 0) {
+            List<StockReservation> items = stockReservationRepository.findByReservationId(reservationId);
+            if (items.isEmpty()) {
+                throw new ResourceNotFoundException("Reservation", "id", reservationId);
+            }
+            meterRegistry.counter("inventory.reservation.confirm.fail", "reason", "not_active").increment();
+            throw new ReservationNotActiveException(
+                String.format("Reservation %s is no longer active (status: %s)", reservationId, items.get(0).getStatus()));
+        }
+        meterRegistry.counter("inventory.reservation.confirm").increment();
+    }
+
+    /**
+     * Süresi dolmuş kalemleri yeniden rezerve et ve süresiz ACTIVE yap
+     * Kalemler inventory ID sırasıyla rezerve edilir (reserveItems ile aynı kilit sırası);
+     * herhangi biri yetmezse transaction rollback edilir
+     */
+    private void reactivate(UUID reservationId, List<StockReservation> expired) {
+        UUID orderId = expired.get(0).getOrderId();
+        if (orderId != null
+                && !stockReservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.ACTIVE).isEmpty()) {
+            // Sipariş bu arada yeni bir rezervasyon almış (Order Service telafi edip tekrar onayladı)
+            meterRegistry.counter("inventory.reservation.confirm.fail", "reason", "superseded").increment();
+            throw new ReservationNotActiveException(
+                String.format("Reservation %s expired and order %s has a newer reservation", reservationId, orderId));
+        }
+        expired.sort(Comparator.comparing(StockReservation::getInventoryId));
+        for (StockReservation item : expired) {
+            Inventory inventory = findInventory(item.getInventoryId());
+            Reserved reserved = reserveOne(inventory.getId(), inventory.getShardCount(), item.getQuantity());
+            if (!reserved.success()) {
+                meterRegistry.counter("inventory.reservation.confirm.fail", "reason", "expired").increment();
+                throw new ReservationNotActiveException(
+                    String.format("Reservation %s expired and stock for product %s was reallocated. Available: %d, Required: %d",
+                        reservationId, item.getProductId(), reserved.available(), item.getQuantity()));
+            }
+            item.setStatus(ReservationStatus.ACTIVE);
+            item.setShardIndex(reserved.shardIndex());
+            item.setExpiresAt(null);
+            item.setReleasedAt(null);
+        }
+        stockReservationRepository.saveAll(expired);
+        inventoryCacheWriter.evictAfterCommit(productIdsByInventoryId(expired));
+        meterRegistry.counter("inventory.reservation.reactivated").increment();
+    }
+
+    /**
+     * Siparişin rezervasyon kalemlerini getir
+     */
+    public List<StockReservation> getReservationsByOrderId(UUID orderId) {
+        return stockReservationRepository.findByOrderIdOrderByCreatedAt(orderId);
+    }
+
+    /**
+     * Süresi dolmuş rezervasyonları serbest bırak (tek batch, tek transaction)
+     * ReservationSweeper tarafından periyodik çağrılır
+     * 
+     * - Kalemler FOR UPDATE SKIP LOCKED ile alınır: birden fazla instance aynı anda çalışabilir,
+     *   o anda onaylanan/serbest bırakılan kalemler beklenmeden atlanır
+     * - Sayaç (satır veya shard) inventory ID sırasıyla düşülür
+     * 
+     * @param batchSize En fazla işlenecek kalem sayısı
+     * @return Serbest bırakılan kalem sayısı
+     */
+    @Transactional
+    public int expireReservations(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> expired = new ArrayList<>(stockReservationRepository.findExpiredForUpdate(now, batchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        
+        expired.sort(Comparator.comparing(StockReservation::getInventoryId));
+        for (StockReservation item : expired) {
+            boolean sharded = item.getShardIndex() != null;
+            if (!releaseOne(item.getInventoryId(), sharded, item.getShardIndex(), item.getQuantity())) {
+                // Sayaç ledger'dan düşük (elle düzeltilmiş); kalem yine de kapatılır
+                meterRegistry.counter("inventory.release.fail", "reason", "over_release").increment();
+            }
+            item.setStatus(ReservationStatus.EXPIRED);
+            item.setReleasedAt(now);
+        }
+        stockReservationRepository.saveAll(expired);
+        inventoryCacheWriter.evictAfterCommit(productIdsByInventoryId(expired));
+        
+        meterRegistry.counter("inventory.reservation.expired").increment(expired.size());
+        return expired.size();
+    }
+
+    /**
+     * Sharded stok modunu aç, kapat veya shard sayısını değiştir
+     * Kampanya öncesi hot ürünler için açılır; böylece rezervasyonlar tek satırda sıraya girmez
+     * 
+     * - Inventory satırı kilitlenir (eşzamanlı satır rezervasyonları beklenir, sonra shard'lara yönlenir)
+     * - Mevcut shard'lar satıra toplanır, ardından stok yeni shard sayısına bölünür
+     * - Rezerve miktarlar korunur
+     * 
+     * @param id Inventory ID
+     * @param shardCount Shard sayısı (0 = sharded modu kapat)
+     * @return Güncellenmiş inventory (shard toplamlarıyla)
+     */
+    @Transactional
+    public Inventory configureShards(UUID id, Integer shardCount) {
+        if (shardCount == null || shardCount < 0 || shardCount > maxShards) {
+            throw new IllegalArgumentException(
+                String.format("Shard count must be between 0 and %d", maxShards));
+        }
+        
+        Inventory inventory = inventoryRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "id", id));
+        if (shardCount.equals(inventory.getShardCount())) {
+            return inventoryShardService.withShardTotals(inventory);
+        }
+        
+        if (inventory.isSharded()) {
+            inventoryShardService.merge(inventory);
+        }
+        if (shardCount > 0) {
+            inventoryShardService.split(inventory, shardCount);
+        }
+        inventory.setShardCount(shardCount);
+        inventoryCacheWriter.refreshAfterCommit(id);
+        return inventoryShardService.withShardTotals(inventoryRepository.save(inventory));
+    }
+
+    /**
+     * Sharded bir ürünün shard'larını getir (izleme için)
+     */
+    public List<InventoryShard> getShards(UUID id) {
+        Inventory inventory = findInventory(id);
+        return inventoryShardService.getShards(inventory.getId());
     }
 
     /**
      * Stok kaydını sil
      */
+    @Transactional
     public void deleteInventory(UUID id) {
-        if (!inventoryRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Inventory", "id", id);
+        Inventory inventory = findInventory(id);
+        inventoryRepository.delete(inventory);
+        inventoryCacheWriter.evictAfterCommit(id, inventory.getProductId());
+    }
+
+    /**
+     * Tek kalem rezervasyonun sonucu
+     * 
+     * @param shardIndex Stoğun alındığı shard (satırdan alındıysa null)
+     * @param available Başarısızsa o anki kullanılabilir stok (hata mesajı için)
+     */
+    private record Reserved(boolean success, Integer shardIndex, int available) {
+    }
+
+    /**
+     * Tek stok kaydında rezervasyon (satır veya shard)
+     * Güncelleme olmazsa kayıt yeniden okunur: sharded mod eşzamanlı değiştiyse yeni modda bir kez daha denenir
+     * 
+     * @param shardCount Çağıranın bildiği shard sayısı (0 = satır)
+     */
+    private Reserved reserveOne(UUID inventoryId, int shardCount, int quantity) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (shardCount == 0) {
+                if (inventoryRepository.reserveIfAvailable(inventoryId, quantity) == 1) {
+                    return new Reserved(true, null, 0);
+                }
+            } else {
+                OptionalInt shardIndex = inventoryShardService.reserve(inventoryId, shardCount, quantity);
+                if (shardIndex.isPresent()) {
+                    return new Reserved(true, shardIndex.getAsInt(), 0);
+                }
+            }
+            
+            Inventory current = findInventory(inventoryId);
+            if (current.getShardCount() == shardCount) {
+                return new Reserved(false, null, availableQuantity(current));
+            }
+            shardCount = current.getShardCount();
+        }
+        return new Reserved(false, null, availableQuantity(findInventory(inventoryId)));
+    }
+
+    /**
+     * Tek stok kaydında serbest bırakma (satır veya shard)
+     * reserveOne gibi, mod eşzamanlı değiştiyse yeni modda bir kez daha denenir
+     * 
+     * @param sharded Çağıranın bildiği mod
+     * @param shardIndex Rezervasyonun alındığı shard (bilinmiyorsa null)
+     * @return false = rezerve miktar yetersiz
+     */
+    private boolean releaseOne(UUID inventoryId, boolean sharded, Integer shardIndex, int quantity) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (!sharded) {
+                if (inventoryRepository.releaseIfReserved(inventoryId, quantity) == 1) {
+                    return true;
+                }
+            } else if (inventoryShardService.release(inventoryId, shardIndex, quantity)) {
+                return true;
+            }
+            
+            Inventory current = findInventory(inventoryId);
+            if (current.isSharded() == sharded) {
+                return false;
+            }
+            sharded = current.isSharded();
         }
-        inventoryRepository.deleteById(id);
+        return false;
+    }
+
+    /**
+     * Rezerve miktardan fazlası serbest bırakılmak istendi (transaction rollback edilir)
+     * 
+     * @param released Bu istekte hata öncesi serbest bırakılan miktar (rollback ile geri alınır)
+     */
+    private IllegalArgumentException overRelease(UUID id, int requested, int released) {
+        meterRegistry.counter("inventory.release.fail", "reason", "over_release").increment();
+        return new IllegalArgumentException(
+            String.format("Cannot release more than reserved. Reserved: %d, Requested: %d", 
+                reservedQuantity(findInventory(id)) + released, requested));
+    }
+
+    private int availableQuantity(Inventory inventory) {
+        return inventory.isSharded()
+                ? inventoryShardService.getAvailableQuantity(inventory.getId())
+                : inventory.getAvailableQuantity();
+    }
+
+    private int reservedQuantity(Inventory inventory) {
+        if (inventory.isSharded()) {
+            return inventoryShardService.getReservedQuantity(inventory.getId());
+        }
+        return inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0;
+    }
+
+    /**
+     * Cache ve shard toplamları olmadan, yönetilen (managed) entity'yi getir
+     */
+    private Inventory findInventory(UUID id) {
+        return inventoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "id", id));
+    }
+
+    private Inventory findInventoryByProductId(UUID productId) {
+        return inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
     }
 }
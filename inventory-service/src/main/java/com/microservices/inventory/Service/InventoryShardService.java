@@ -0,0 +1,283 @@
+package com.microservices.inventory.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.microservices.inventory.Model.Inventory;
+import com.microservices.inventory.Model.InventoryShard;
+import com.microservices.inventory.Repository.InventoryShardRepository;
+
+/**
+ * Inventory Shard Service
+ * Flash sale ürünleri için sharded stok sayaçları
+ *
+ * Önemli Notlar:
+ * - Sharded bir ürünün stoğu N adet inventory_shard satırına bölünür
+ * - Rezervasyon rastgele bir shard'dan başlar, koşullu UPDATE ile sadece o satırı kilitler;
+ *   shard boşsa sıradakine geçer (round-robin)
+ * - Hiçbir shard tek başına yetmiyorsa rebalance yapılır: o anda kilitli olmayan shard'lar
+ *   SKIP LOCKED ile kilitlenir, boştaki stokları yeniden dağıtılır (rezerve miktarlar yerinde kalır);
+ *   rebalance hiçbir kilidi beklemediği için eşzamanlı rezervasyonlarla deadlock oluşmaz
+ * - Tüm method'lar çağıranın transaction'ında çalışır (InventoryService)
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class InventoryShardService {
+    /** Kilitli shard'lar yüzünden rebalance edilemeyen rezervasyon/serbest bırakma için deneme sayısı */
+    private static final int REBALANCE_ATTEMPTS = 5;
+
+    private final InventoryShardRepository shardRepository;
+    private final MeterRegistry meterRegistry;
+
+    public InventoryShardService(InventoryShardRepository shardRepository, MeterRegistry meterRegistry) {
+        this.shardRepository = shardRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Sharded bir ürünün shard'larını getir
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<InventoryShard> getShards(UUID inventoryId) {
+        return shardRepository.findByInventoryIdOrderByShardIndex(inventoryId);
+    }
+
+    /**
+     * Kullanılabilir stok (tüm shard'ların toplamı, tek SUM sorgusu)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int getAvailableQuantity(UUID inventoryId) {
+        return (int) shardRepository.sumAvailableQuantity(inventoryId);
+    }
+
+    /**
+     * Sharded kayıtlara shard toplamlarını uygula (tek sorgu)
+     * Sharded olmayan kayıtlar olduğu gibi döner
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Inventory> withShardTotals(List<Inventory> inventories) {
+        List<UUID> shardedIds = inventories.stream()
+                .filter(Inventory::isSharded)
+                .map(Inventory::getId)
+                .toList();
+        if (shardedIds.isEmpty()) {
+            return inventories;
+        }
+
+        Map<UUID, InventoryShardRepository.StockTotals> totals = new HashMap<>();
+        shardRepository.sumByInventoryIdIn(shardedIds).forEach(t -> totals.put(t.getInventoryId(), t));
+
+        List<Inventory> result = new ArrayList<>(inventories.size());
+        for (Inventory inventory : inventories) {
+            InventoryShardRepository.StockTotals total = totals.get(inventory.getId());
+            result.add(total == null ? inventory
+                    : inventory.withStockTotals(total.getQuantity().intValue(), total.getReservedQuantity().intValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Sharded kayda shard toplamlarını uygula
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Inventory withShardTotals(Inventory inventory) {
+        return inventory.isSharded() ? withShardTotals(List.of(inventory)).get(0) : inventory;
+    }
+
+    /**
+     * Stoğu shard'lara böl (sharded mod açılırken)
+     * Hem rezerve hem boştaki stok shard'lara eşit dağıtılır
+     *
+     * @param inventory Kilitlenmiş inventory satırı (quantity/reservedQuantity güncel)
+     * @param shardCount Shard sayısı
+     */
+    public void split(Inventory inventory, int shardCount) {
+        int reserved = inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0;
+        int free = inventory.getAvailableQuantity();
+
+        List<InventoryShard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shardReserved = share(reserved, shardCount, i);
+            InventoryShard shard = new InventoryShard();
+            shard.setInventoryId(inventory.getId());
+            shard.setShardIndex(i);
+            shard.setReservedQuantity(shardReserved);
+            shard.setQuantity(shardReserved + share(free, shardCount, i));
+            shards.add(shard);
+        }
+        shardRepository.saveAll(shards);
+    }
+
+    /**
+     * Shard'ları tek satıra topla ve sil (sharded mod kapatılırken)
+     *
+     * @param inventory Kilitlenmiş inventory satırı; quantity/reservedQuantity shard toplamlarıyla güncellenir
+     */
+    public void merge(Inventory inventory) {
+        List<InventoryShard> shards = shardRepository.findByInventoryIdForUpdate(inventory.getId());
+        inventory.setQuantity(shards.stream().mapToInt(InventoryShard::getQuantity).sum());
+        inventory.setReservedQuantity(shards.stream().mapToInt(InventoryShard::getReservedQuantity).sum());
+        shardRepository.deleteByInventoryId(inventory.getId());
+    }
+
+    /**
+     * Toplam stok miktarını değiştir (sharded ürün için updateQuantity)
+     * Rezerve miktarlar yerinde kalır, yeni boştaki stok eşit dağıtılır
+     *
+     * @return Toplam rezerve miktar
+     */
+    public int setTotalQuantity(UUID inventoryId, int quantity) {
+        List<InventoryShard> shards = shardRepository.findByInventoryIdForUpdate(inventoryId);
+        int reserved = shards.stream().mapToInt(InventoryShard::getReservedQuantity).sum();
+        if (quantity < reserved) {
+            throw new IllegalArgumentException(
+                String.format("Quantity of a sharded inventory cannot be lower than reserved. Reserved: %d, Requested: %d",
+                    reserved, quantity));
+        }
+        redistribute(shards, quantity - reserved, -1, 0);
+        return reserved;
+    }
+
+    /**
+     * Sharded üründe rezervasyon
+     *
+     * 1. Rastgele bir shard'dan başlayarak her shard'ı bir kez dene (tek satır kilidi)
+     * 2. Hiçbiri yetmezse rebalance: başka transaction'ların kilitlemediği shard'ları kilitle
+     *    (SKIP LOCKED, hiç beklemez), boştaki stoklarını bu rezervasyon için hedef shard'a
+     *    yetecek şekilde yeniden dağıt ve hedef shard'dan rezerve et
+     * 3. Toplam stok yetiyor ama boştaki stok o anda kilitli shard'lardaysa kısa bir beklemeyle
+     *    rebalance'ı en fazla REBALANCE_ATTEMPTS kez tekrarla
+     *
+     * Rebalance'a girildikten sonra hiçbir kilit beklenmez (adım 1'e dönülmez): tuttuğu shard'larla
+     * başka bir rebalance'ın shard'larını birbirine bekleten bir döngü oluşamaz (deadlock yok).
+     *
+     * @return Rezervasyonun yapıldığı shard; toplam stok yetersizse (veya shard kalmadıysa) boş
+     */
+    public OptionalInt reserve(UUID inventoryId, int shardCount, int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shardIndex = (start + i) % shardCount;
+            if (shardRepository.reserveIfAvailable(inventoryId, shardIndex, quantity) == 1) {
+                return OptionalInt.of(shardIndex);
+            }
+        }
+
+        // Hiçbir shard tek başına yetmiyor (shard'lar boşalmış) → kilitlenebilen shard'larla rebalance
+        for (int attempt = 0; attempt < REBALANCE_ATTEMPTS; attempt++) {
+            List<InventoryShard> shards = shardRepository.findUnlockedByInventoryIdForUpdate(inventoryId);
+            int free = shards.stream().mapToInt(InventoryShard::getAvailableQuantity).sum();
+            if (!shards.isEmpty() && free >= quantity) {
+                int target = ThreadLocalRandom.current().nextInt(shards.size());
+                redistribute(shards, free, target, quantity);
+                meterRegistry.counter("inventory.shard.rebalance").increment();
+
+                // Hedef shard bu transaction'da kilitli, UPDATE beklemez
+                int shardIndex = shards.get(target).getShardIndex();
+                if (shardRepository.reserveIfAvailable(inventoryId, shardIndex, quantity) == 1) {
+                    return OptionalInt.of(shardIndex);
+                }
+                return OptionalInt.empty();
+            }
+            if (getAvailableQuantity(inventoryId) < quantity) {
+                return OptionalInt.empty();
+            }
+
+            // Yeterli stok başka transaction'ların kilitlediği shard'larda; kilitler bırakılınca tekrar dene
+            meterRegistry.counter("inventory.shard.rebalance.retry").increment();
+            backoff(attempt);
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Sharded üründe serbest bırakma
+     * Shard biliniyorsa (rezervasyon kaydı) önce o shard denenir; değilse rezerve miktar
+     * shard'lardan toplanarak düşülür. Toplama reserve'deki rebalance gibi sadece kilitlenebilen
+     * shard'larla yapılır (SKIP LOCKED) ve gerekirse kısa beklemelerle tekrar denenir.
+     *
+     * @param shardIndex Rezervasyonun alındığı shard (bilinmiyorsa null)
+     * @return false = shard'lardaki toplam rezerve miktar yetersiz
+     */
+    public boolean release(UUID inventoryId, Integer shardIndex, int quantity) {
+        if (shardIndex != null && shardRepository.releaseIfReserved(inventoryId, shardIndex, quantity) == 1) {
+            return true;
+        }
+
+        // Shard bilinmiyor veya shard'lar yeniden bölünmüş: kilitlenebilen shard'lardan dağıtarak düş
+        for (int attempt = 0; attempt < REBALANCE_ATTEMPTS; attempt++) {
+            List<InventoryShard> shards = shardRepository.findUnlockedByInventoryIdForUpdate(inventoryId);
+            int reserved = shards.stream().mapToInt(InventoryShard::getReservedQuantity).sum();
+            if (!shards.isEmpty() && reserved >= quantity) {
+                int remaining = quantity;
+                for (InventoryShard shard : shards) {
+                    int released = Math.min(remaining, shard.getReservedQuantity());
+                    shard.setReservedQuantity(shard.getReservedQuantity() - released);
+                    remaining -= released;
+                    if (remaining == 0) {
+                        break;
+                    }
+                }
+                shardRepository.saveAll(shards);
+                return true;
+            }
+            if (getReservedQuantity(inventoryId) < quantity) {
+                return false;
+            }
+            meterRegistry.counter("inventory.shard.rebalance.retry").increment();
+            backoff(attempt);
+        }
+        return false;
+    }
+
+    /**
+     * Toplam rezerve miktar (tüm shard'lar, kilitsiz okuma)
+     */
+    public int getReservedQuantity(UUID inventoryId) {
+        return shardRepository.findByInventoryIdOrderByShardIndex(inventoryId).stream()
+                .mapToInt(InventoryShard::getReservedQuantity)
+                .sum();
+    }
+
+    /**
+     * Boştaki stoğu kilitli shard'lara yeniden dağıt
+     * Her shard'ın rezerve miktarı yerinde kalır; target >= 0 ise o shard'a önce
+     * targetQuantity kadar ayrılır, kalan eşit dağıtılır
+     */
+    private void redistribute(List<InventoryShard> shards, int free, int target, int targetQuantity) {
+        int spread = free - (target >= 0 ? targetQuantity : 0);
+        for (int i = 0; i < shards.size(); i++) {
+            InventoryShard shard = shards.get(i);
+            int shardFree = share(spread, shards.size(), i) + (i == target ? targetQuantity : 0);
+            shard.setQuantity(shard.getReservedQuantity() + shardFree);
+        }
+        shardRepository.saveAll(shards);
+    }
+
+    /**
+     * Kilitli shard'ların bırakılması için kısa bekleme (5, 10, 20, ... ms)
+     */
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(5L << attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * total'ın parts parçaya eşit bölünmesinde i. parça (kalan ilk parçalara dağıtılır)
+     */
+    private static int share(int total, int parts, int i) {
+        return total / parts + (i < total % parts ? 1 : 0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.microservices.inventory.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reservation Sweeper
+ * Süresi dolmuş (onaylanmamış) rezervasyonları periyodik olarak serbest bırakır
+ *
+ * - Terk edilmiş veya sipariş tarafında çökmüş rezervasyonların stoğu kendiliğinden geri gelir
+ * - Her batch ayrı transaction'dır (InventoryService.expireReservations); batch doluysa
+ *   aynı turda bir sonraki batch alınır (en fazla max-batches-per-run)
+ * - Kalemler SKIP LOCKED ile alındığı için birden fazla instance güvenle çalışabilir
+ *
+ * Metrik: inventory.reservation.expired
+ */
+@Component
+public class ReservationSweeper {
+
+    private final InventoryService inventoryService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public ReservationSweeper(
+            InventoryService inventoryService,
+            @Value("${inventory.reservation.sweep-enabled:true}") boolean enabled,
+            @Value("${inventory.reservation.sweep-batch-size:500}") int batchSize,
+            @Value("${inventory.reservation.sweep-max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.inventoryService = inventoryService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+    public void sweepExpiredReservations() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                if (inventoryService.expireReservations(batchSize) < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Expired reservation sweep failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Inventory Service - Stock Reservation
+-- Migration: V3__Create_stock_reservation.sql
+-- Description: Creates the stock_reservation table for all-or-nothing multi-item reservations
+
+CREATE TABLE IF NOT EXISTS stock_reservation (
+    id UUID PRIMARY KEY,
+    reservation_id UUID NOT NULL,
+    inventory_id UUID NOT NULL,
+    product_id UUID NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity >= 1),
+    order_id UUID,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    released_at TIMESTAMP,
+    CONSTRAINT fk_stock_reservation_inventory FOREIGN KEY (inventory_id) REFERENCES inventory(id) ON DELETE CASCADE
+);
+
+-- Indexes for better query performance
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_reservation_id ON stock_reservation(reservation_id);
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_order_id ON stock_reservation(order_id) WHERE order_id IS NOT NULL;
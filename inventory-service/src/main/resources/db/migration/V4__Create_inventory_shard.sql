@@ -0,0 +1,22 @@
+-- Inventory Service - Sharded Stock Counters
+-- Migration: V4__Create_inventory_shard.sql
+-- Description: Opt-in per-product stock shards for flash-sale SKUs.
+--              When inventory.shard_count > 0 the stock of that product lives in inventory_shard rows
+--              and reservations update a single shard instead of the inventory row.
+
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS shard_count INTEGER NOT NULL DEFAULT 0 CHECK (shard_count >= 0);
+
+CREATE TABLE IF NOT EXISTS inventory_shard (
+    id UUID PRIMARY KEY,
+    inventory_id UUID NOT NULL,
+    shard_index INTEGER NOT NULL CHECK (shard_index >= 0),
+    quantity INTEGER NOT NULL CHECK (quantity >= 0),
+    reserved_quantity INTEGER NOT NULL DEFAULT 0 CHECK (reserved_quantity >= 0),
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_inventory_shard_index UNIQUE (inventory_id, shard_index),
+    CONSTRAINT chk_inventory_shard_reserved CHECK (reserved_quantity <= quantity),
+    CONSTRAINT fk_inventory_shard_inventory FOREIGN KEY (inventory_id) REFERENCES inventory(id) ON DELETE CASCADE
+);
+
+-- Which shard a reservation item was taken from (NULL = inventory row)
+ALTER TABLE stock_reservation ADD COLUMN IF NOT EXISTS shard_index INTEGER;
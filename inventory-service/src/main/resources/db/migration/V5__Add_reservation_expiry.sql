@@ -0,0 +1,28 @@
+-- Inventory Service - Expiring Reservation Ledger
+-- Migration: V5__Add_reservation_expiry.sql
+-- Description: Adds expires_at to stock_reservation so abandoned reservations are released by the sweeper,
+--              and backfills ledger rows for reserved stock that was never recorded in the ledger
+--              (reserved_quantity = SUM of ACTIVE ledger quantities from now on).
+
+ALTER TABLE stock_reservation ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+
+-- Sweeper: süresi dolmuş ACTIVE kalemler (süresiz kalemler indekse girmez)
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_expires_at
+    ON stock_reservation(expires_at)
+    WHERE status = 'ACTIVE' AND expires_at IS NOT NULL;
+
+-- Ledger'da karşılığı olmayan rezerve stok için süresiz kayıt (sharded ürünlerde shard toplamı)
+INSERT INTO stock_reservation (id, reservation_id, inventory_id, product_id, quantity, status, created_at)
+SELECT gen_random_uuid(), gen_random_uuid(), c.id, c.product_id, c.reserved - c.ledger, 'ACTIVE', CURRENT_TIMESTAMP
+FROM (
+    SELECT i.id,
+           i.product_id,
+           CASE WHEN i.shard_count > 0
+                THEN (SELECT COALESCE(SUM(s.reserved_quantity), 0) FROM inventory_shard s WHERE s.inventory_id = i.id)
+                ELSE i.reserved_quantity
+           END AS reserved,
+           (SELECT COALESCE(SUM(r.quantity), 0) FROM stock_reservation r
+             WHERE r.inventory_id = i.id AND r.status = 'ACTIVE') AS ledger
+    FROM inventory i
+) c
+WHERE c.reserved > c.ledger;
@@ -0,0 +1,9 @@
+-- Inventory Service - Idempotent Reservations
+-- Migration: V6__Unique_active_reservation_per_order.sql
+-- Description: A product can have at most one ACTIVE reservation item per order. reserveItems returns the
+--              existing ACTIVE reservation on retry; this index makes a concurrent duplicate fail instead of
+--              reserving the stock twice.
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_stock_reservation_active_order
+    ON stock_reservation(order_id, product_id)
+    WHERE status = 'ACTIVE' AND order_id IS NOT NULL;
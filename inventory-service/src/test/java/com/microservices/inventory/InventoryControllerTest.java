@@ -16,11 +16,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservices.inventory.Controller.InventoryController;
+import com.microservices.inventory.DTO.ReservationRequest;
+import com.microservices.inventory.DTO.ReservationResponse;
+import com.microservices.inventory.DTO.StockAvailability;
+import com.microservices.inventory.Exception.ReservationNotActiveException;
 import com.microservices.inventory.Exception.ResourceNotFoundException;
 import com.microservices.inventory.Model.Inventory;
 import com.microservices.inventory.Model.InventoryStatus;
@@ -177,9 +185,9 @@ class InventoryControllerTest {
             testProductId, 50,
             productId2, 30
         );
-        Map<UUID, Boolean> response = Map.of(
-            testProductId, true,
-            productId2, false
+        Map<UUID, StockAvailability> response = Map.of(
+            testProductId, new StockAvailability(true, 100, true),
+            productId2, new StockAvailability(false, 10, true)
         );
         when(inventoryService.checkStockAvailability(anyMap())).thenReturn(response);
 
@@ -188,7 +196,9 @@ class InventoryControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isMap());
+                .andExpect(jsonPath("$").isMap())
+                .andExpect(jsonPath("$['" + productId2 + "'].available").value(false))
+                .andExpect(jsonPath("$['" + productId2 + "'].availableQuantity").value(10));
 
         verify(inventoryService, times(1)).checkStockAvailability(anyMap());
     }
@@ -267,6 +277,95 @@ class InventoryControllerTest {
         verify(inventoryService, times(1)).releaseReservedStock(testInventoryId, 20);
     }
 
+    @Test
+    void testConfirmReservation() throws Exception {
+        // Given: Onaylanacak rezervasyon
+        UUID reservationId = UUID.randomUUID();
+
+        // When & Then: POST /inventory/reservations/{id}/confirm
+        mockMvc.perform(post("/inventory/reservations/{reservationId}/confirm", reservationId))
+                .andExpect(status().isNoContent());
+
+        verify(inventoryService, times(1)).confirmReservation(reservationId);
+    }
+
+    @Test
+    void testConfirmExpiredReservationConflict() throws Exception {
+        // Given: Süresi dolmuş ve stoğu satılmış rezervasyon
+        UUID reservationId = UUID.randomUUID();
+        doThrow(new ReservationNotActiveException("Reservation " + reservationId + " expired"))
+                .when(inventoryService).confirmReservation(reservationId);
+
+        // When & Then: 409 CONFLICT, Order Service tekrar denemeden telafi eder
+        mockMvc.perform(post("/inventory/reservations/{reservationId}/confirm", reservationId))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("RESERVATION_NOT_ACTIVE"));
+    }
+
+    @Test
+    void testConfigureShards() throws Exception {
+        // Given: Mock service davranışı
+        Inventory shardedInventory = new Inventory();
+        shardedInventory.setId(testInventoryId);
+        shardedInventory.setQuantity(100);
+        shardedInventory.setShardCount(8);
+        when(inventoryService.configureShards(testInventoryId, 8)).thenReturn(shardedInventory);
+
+        // When & Then: PUT isteği gönderiliyor
+        mockMvc.perform(put("/inventory/{id}/shards", testInventoryId)
+                .param("count", "8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shardCount").value(8))
+                .andExpect(jsonPath("$.sharded").value(true));
+
+        verify(inventoryService, times(1)).configureShards(testInventoryId, 8);
+    }
+
+    @Test
+    void testReserveItems() throws Exception {
+        // Given: Mock service davranışı
+        UUID productId = UUID.randomUUID();
+        UUID reservationId = UUID.randomUUID();
+        ReservationRequest request = new ReservationRequest(null, List.of(new ReservationRequest.Item(productId, 2)));
+        when(inventoryService.reserveItems(any(ReservationRequest.class))).thenReturn(
+            new ReservationResponse(reservationId, null,
+                List.of(new ReservationResponse.Item(productId, UUID.randomUUID(), 2)), null));
+
+        // When & Then: POST /inventory/reservations isteği gönderiliyor
+        mockMvc.perform(post("/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.reservationId").value(reservationId.toString()))
+                .andExpect(jsonPath("$.items[0].quantity").value(2));
+
+        verify(inventoryService, times(1)).reserveItems(any(ReservationRequest.class));
+    }
+
+    @Test
+    void testReserveItemsEmpty() throws Exception {
+        // When & Then: Kalemsiz rezervasyon validasyondan geçmez
+        mockMvc.perform(post("/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ReservationRequest(null, List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verify(inventoryService, never()).reserveItems(any(ReservationRequest.class));
+    }
+
+    @Test
+    void testReleaseReservation() throws Exception {
+        // Given: Mock service davranışı
+        UUID reservationId = UUID.randomUUID();
+        doNothing().when(inventoryService).releaseReservation(reservationId);
+
+        // When & Then: DELETE /inventory/reservations/{id} isteği gönderiliyor
+        mockMvc.perform(delete("/inventory/reservations/{reservationId}", reservationId))
+                .andExpect(status().isNoContent());
+
+        verify(inventoryService, times(1)).releaseReservation(reservationId);
+    }
+
     @Test
     void testDeleteInventory() throws Exception {
         // Given: Mock service davranışı
@@ -294,16 +393,27 @@ class InventoryControllerTest {
     }
 
     @Test
-    void testGetAllInventories() throws Exception {
+    void testGetInventories() throws Exception {
         // Given: Mock service davranışı
-        when(inventoryService.getAllInventories()).thenReturn(List.of(testInventory));
+        when(inventoryService.getInventories(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(testInventory), PageRequest.of(0, 20), 1));
 
-        // When & Then: GET isteği gönderiliyor
+        // When & Then: GET isteği gönderiliyor (varsayılan sayfa)
         mockMvc.perform(get("/inventory"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(inventoryService, times(1)).getInventories(PageRequest.of(0, 20, Sort.by("createdAt", "id")));
+    }
+
+    @Test
+    void testGetInventoriesPageSizeTooLarge() throws Exception {
+        // When & Then: size sınırı aşılırsa 400
+        mockMvc.perform(get("/inventory").param("size", "1000"))
+                .andExpect(status().isBadRequest());
 
-        verify(inventoryService, times(1)).getAllInventories();
+        verify(inventoryService, never()).getInventories(any(Pageable.class));
     }
 }
 
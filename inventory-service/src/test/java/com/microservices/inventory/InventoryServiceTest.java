@@ -2,30 +2,61 @@ package com.microservices.inventory;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Import;
-
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.microservices.inventory.DTO.ReservationRequest;
+import com.microservices.inventory.DTO.ReservationResponse;
+import com.microservices.inventory.DTO.StockAvailability;
 import com.microservices.inventory.Exception.DuplicateResourceException;
+import com.microservices.inventory.Exception.ReservationNotActiveException;
 import com.microservices.inventory.Exception.ResourceNotFoundException;
 import com.microservices.inventory.Model.Inventory;
+import com.microservices.inventory.Model.InventoryShard;
 import com.microservices.inventory.Model.InventoryStatus;
 import com.microservices.inventory.Model.Location;
+import com.microservices.inventory.Model.ReservationStatus;
+import com.microservices.inventory.Model.StockReservation;
 import com.microservices.inventory.Repository.InventoryRepository;
+import com.microservices.inventory.Repository.InventoryShardRepository;
+import com.microservices.inventory.Repository.StockReservationRepository;
+import com.microservices.inventory.Service.InventoryCacheWriter;
 import com.microservices.inventory.Service.InventoryService;
+import com.microservices.inventory.Service.InventoryShardService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 /**
  * InventoryService için Unit Test
  * @DataJpaTest: Sadece JPA katmanını test eder, veritabanı işlemleri için
  */
 @DataJpaTest
-@Import(InventoryService.class)  // InventoryService'i test context'ine ekle
+@Import({InventoryService.class, InventoryShardService.class, InventoryCacheWriter.class,
+        ConcurrentMapCacheManager.class, SimpleMeterRegistry.class})  // Servisleri, bellek içi cache'i ve metrik registry'sini test context'ine ekle
 class InventoryServiceTest {
 
     @Autowired
@@ -34,6 +65,15 @@ class InventoryServiceTest {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private InventoryShardRepository inventoryShardRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private Inventory testInventory;
     private UUID testProductId;
 
@@ -83,7 +123,7 @@ class InventoryServiceTest {
     }
 
     @Test
-    void testGetAllInventories() {
+    void testGetInventories() {
         // Given: Birkaç stok kaydı oluşturuluyor
         inventoryService.createInventory(testInventory);
         
@@ -93,11 +133,13 @@ class InventoryServiceTest {
         inventory2.setMinStockLevel(5);
         inventoryService.createInventory(inventory2);
 
-        // When: Tüm stok kayıtları getiriliyor
-        List<Inventory> inventories = inventoryService.getAllInventories();
+        // When: İlk sayfa (1 kayıt) getiriliyor
+        Page<Inventory> page = inventoryService.getInventories(PageRequest.of(0, 1, Sort.by("createdAt", "id")));
 
-        // Then: 2 kayıt olmalı
-        assertEquals(2, inventories.size());
+        // Then: Sayfada 1, toplamda 2 kayıt olmalı
+        assertEquals(1, page.getContent().size());
+        assertEquals(2, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
     }
 
     @Test
@@ -232,13 +274,16 @@ class InventoryServiceTest {
             productId2, 30,     // Yeterli (40 available)
             productId3, 10      // Stok kaydı yok
         );
-        Map<UUID, Boolean> availability = inventoryService.checkStockAvailability(productQuantities);
+        Map<UUID, StockAvailability> availability = inventoryService.checkStockAvailability(productQuantities);
 
-        // Then: Doğru sonuçlar dönmeli
+        // Then: Doğru sonuçlar ve kullanılabilir miktarlar dönmeli
         assertEquals(3, availability.size());
-        assertTrue(availability.get(testProductId));   // Yeterli
-        assertTrue(availability.get(productId2));     // Yeterli
-        assertFalse(availability.get(productId3));    // Stok kaydı yok
+        assertTrue(availability.get(testProductId).isAvailable());   // Yeterli
+        assertEquals(100, availability.get(testProductId).getAvailableQuantity());
+        assertTrue(availability.get(productId2).isAvailable());     // Yeterli
+        assertEquals(40, availability.get(productId2).getAvailableQuantity());
+        assertFalse(availability.get(productId3).isAvailable());    // Stok kaydı yok
+        assertFalse(availability.get(productId3).isFound());
     }
 
     @Test
@@ -250,10 +295,37 @@ class InventoryServiceTest {
 
         // When: Daha fazla miktar isteniyor
         Map<UUID, Integer> productQuantities = Map.of(testProductId, 50);
-        Map<UUID, Boolean> availability = inventoryService.checkStockAvailability(productQuantities);
+        Map<UUID, StockAvailability> availability = inventoryService.checkStockAvailability(productQuantities);
 
-        // Then: Yetersiz stok
-        assertFalse(availability.get(testProductId));
+        // Then: Yetersiz stok, hata mesajı için kullanılabilir miktar da döner
+        assertFalse(availability.get(testProductId).isAvailable());
+        assertTrue(availability.get(testProductId).isFound());
+        assertEquals(10, availability.get(testProductId).getAvailableQuantity());
+    }
+
+    @Test
+    void testCheckStockAvailabilityLargeCartAndShardedProduct() {
+        // Given: Chunk boyutundan (500) büyük sepet; ürünlerden biri sharded
+        Inventory sharded = inventoryService.createInventory(testInventory); // quantity=100
+        inventoryService.reserveStock(sharded.getId(), 30);
+        inventoryService.configureShards(sharded.getId(), 4);
+
+        Map<UUID, Integer> productQuantities = new HashMap<>();
+        productQuantities.put(testProductId, 70);
+        for (int i = 0; i < 1200; i++) {
+            Inventory inventory = inventoryRepository.save(newInventory(UUID.randomUUID(), i % 3));
+            productQuantities.put(inventory.getProductId(), 1);
+        }
+
+        // When
+        Map<UUID, StockAvailability> availability = inventoryService.checkStockAvailability(productQuantities);
+
+        // Then: Tüm ürünler sonuçlandı, sharded ürünün miktarı shard toplamı
+        assertEquals(1201, availability.size());
+        assertTrue(availability.get(testProductId).isAvailable());
+        assertEquals(70, availability.get(testProductId).getAvailableQuantity());
+        // Diğer 1200 üründen stoğu 0 olan 400'ü yetersiz
+        assertEquals(801, availability.values().stream().filter(StockAvailability::isAvailable).count());
     }
 
     @Test
@@ -265,7 +337,7 @@ class InventoryServiceTest {
         // When: Stok kaydı güncelleniyor
         Inventory updateData = new Inventory();
         updateData.setQuantity(200);
-        updateData.setReservedQuantity(20);
+        updateData.setReservedQuantity(20);  // Yok sayılmalı: rezerve miktar sadece rezervasyonlarla değişir
         updateData.setMinStockLevel(15);
         updateData.setLocation(Location.KADIKOY);
 
@@ -274,7 +346,7 @@ class InventoryServiceTest {
         // Then: Stok kaydı güncellendi
         assertEquals(inventoryId, updatedInventory.getId());
         assertEquals(200, updatedInventory.getQuantity());
-        assertEquals(20, updatedInventory.getReservedQuantity());
+        assertEquals(0, updatedInventory.getReservedQuantity());
         assertEquals(15, updatedInventory.getMinStockLevel());
         assertEquals(Location.KADIKOY, updatedInventory.getLocation());
         // ProductId değişmemeli
@@ -392,6 +464,516 @@ class InventoryServiceTest {
         assertTrue(exception.getMessage().contains("Cannot release more than reserved"));
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // Her rezervasyon kendi transaction'ında, gerçekten eşzamanlı çalışmalı
+    void testReserveStockConcurrentNoOversell() throws Exception {
+        // Given: 100 adet stok, 200 eşzamanlı alıcı (her biri 1 adet)
+        Inventory inventory = inventoryRepository.save(newInventory(UUID.randomUUID(), 100));
+        int reservers = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < reservers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        inventoryService.reserveStock(inventory.getId(), 1);
+                        successes.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        insufficient.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            // When: Hepsi aynı anda başlıyor
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            // Then: Tam olarak stok kadar rezervasyon başarılı, fazlası reddedildi (oversell yok)
+            assertEquals(0, errors.get());
+            assertEquals(100, successes.get());
+            assertEquals(100, insufficient.get());
+            Inventory reloaded = inventoryRepository.findById(inventory.getId()).orElseThrow();
+            assertEquals(100, reloaded.getReservedQuantity());
+            assertEquals(0, reloaded.getAvailableQuantity());
+            assertEquals(InventoryStatus.RESERVED, reloaded.getStatus());
+        } finally {
+            executor.shutdownNow();
+            stockReservationRepository.deleteAll();
+            inventoryRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void testReserveItems() {
+        // Given: İki ürün için stok kaydı
+        Inventory first = inventoryService.createInventory(testInventory);
+        Inventory second = inventoryService.createInventory(newInventory(UUID.randomUUID(), 50));
+
+        ReservationRequest request = new ReservationRequest(UUID.randomUUID(), List.of(
+            new ReservationRequest.Item(first.getProductId(), 10),
+            new ReservationRequest.Item(second.getProductId(), 5),
+            new ReservationRequest.Item(first.getProductId(), 2)));  // Aynı ürün tekrar → toplanır
+
+        // When: Tek istekte rezerve ediliyor
+        ReservationResponse response = inventoryService.reserveItems(request);
+
+        // Then: Tüm ürünler rezerve edildi, rezervasyon kaydı oluştu
+        assertNotNull(response.getReservationId());
+        assertEquals(2, response.getItems().size());
+        assertEquals(12, inventoryRepository.findById(first.getId()).orElseThrow().getReservedQuantity());
+        assertEquals(5, inventoryRepository.findById(second.getId()).orElseThrow().getReservedQuantity());
+        assertEquals(2, stockReservationRepository.findByReservationId(response.getReservationId()).size());
+    }
+
+    @Test
+    void testReserveItemsIdempotentPerOrder() {
+        // Given: Siparişin rezervasyonu yapıldı, cevap Order Service'e ulaşmadı (timeout)
+        Inventory created = inventoryService.createInventory(testInventory);
+        UUID orderId = UUID.randomUUID();
+        ReservationRequest request = new ReservationRequest(orderId, List.of(
+            new ReservationRequest.Item(created.getProductId(), 10)));
+        ReservationResponse first = inventoryService.reserveItems(request);
+
+        // When: Order Service aynı sipariş için tekrar deniyor
+        ReservationResponse retry = inventoryService.reserveItems(request);
+
+        // Then: Stok ikinci kez rezerve edilmedi, mevcut rezervasyon döndü
+        assertEquals(first.getReservationId(), retry.getReservationId());
+        assertEquals(orderId, retry.getOrderId());
+        assertEquals(1, retry.getItems().size());
+        assertEquals(10, retry.getItems().get(0).getQuantity());
+        assertEquals(10, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+        assertEquals(1, inventoryService.getReservationsByOrderId(orderId).size());
+
+        // Serbest bırakılan rezervasyondan sonra sipariş yeniden rezerve edebilir
+        inventoryService.releaseReservation(first.getReservationId());
+        ReservationResponse again = inventoryService.reserveItems(request);
+        assertNotEquals(first.getReservationId(), again.getReservationId());
+        assertEquals(10, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // Rollback'i gözlemlemek için servis kendi transaction'ını açmalı
+    void testReserveItemsAllOrNothing() {
+        // Given: ID sırasına göre önce yeterli, sonra yetersiz stoklu ürün
+        Inventory enough = newInventory(UUID.randomUUID(), 100);
+        enough.setId(new UUID(0L, 1L));
+        Inventory insufficient = newInventory(UUID.randomUUID(), 3);
+        insufficient.setId(new UUID(0L, 2L));
+        inventoryRepository.save(enough);
+        inventoryRepository.save(insufficient);
+
+        try {
+            ReservationRequest request = new ReservationRequest(null, List.of(
+                new ReservationRequest.Item(enough.getProductId(), 10),
+                new ReservationRequest.Item(insufficient.getProductId(), 5)));
+
+            // When & Then: Rezervasyon başarısız
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+                inventoryService.reserveItems(request);
+            });
+            assertTrue(exception.getMessage().contains("Insufficient stock"));
+
+            // İlk ürünün rezervasyonu da geri alındı
+            assertEquals(0, inventoryRepository.findById(enough.getId()).orElseThrow().getReservedQuantity());
+            assertEquals(0, inventoryRepository.findById(insufficient.getId()).orElseThrow().getReservedQuantity());
+            assertEquals(0, stockReservationRepository.count());
+        } finally {
+            stockReservationRepository.deleteAll();
+            inventoryRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void testReserveItemsInventoryNotFound() {
+        // Given: Stok kaydı olmayan bir ürün
+        ReservationRequest request = new ReservationRequest(null, List.of(
+            new ReservationRequest.Item(UUID.randomUUID(), 1)));
+
+        // When & Then: ResourceNotFoundException fırlatılmalı
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.reserveItems(request));
+    }
+
+    @Test
+    void testReleaseReservation() {
+        // Given: Rezerve edilmiş iki ürün
+        Inventory first = inventoryService.createInventory(testInventory);
+        Inventory second = inventoryService.createInventory(newInventory(UUID.randomUUID(), 50));
+        ReservationResponse response = inventoryService.reserveItems(new ReservationRequest(null, List.of(
+            new ReservationRequest.Item(first.getProductId(), 10),
+            new ReservationRequest.Item(second.getProductId(), 5))));
+
+        // When: Rezervasyon toplu olarak serbest bırakılıyor (iki kez - idempotent)
+        inventoryService.releaseReservation(response.getReservationId());
+        inventoryService.releaseReservation(response.getReservationId());
+
+        // Then: Rezerve miktarlar sıfırlandı, kalemler RELEASED
+        assertEquals(0, inventoryRepository.findById(first.getId()).orElseThrow().getReservedQuantity());
+        assertEquals(0, inventoryRepository.findById(second.getId()).orElseThrow().getReservedQuantity());
+        assertTrue(stockReservationRepository.findByReservationId(response.getReservationId()).stream()
+            .allMatch(item -> item.getStatus() == ReservationStatus.RELEASED));
+    }
+
+    @Test
+    void testReleaseReservationNotFound() {
+        // When & Then: Var olmayan rezervasyon
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
+            inventoryService.releaseReservation(UUID.randomUUID());
+        });
+        assertTrue(exception.getMessage().contains("Reservation not found"));
+    }
+
+    @Test
+    void testReserveItemsExpiresUnlessConfirmed() {
+        // Given: Süreli rezervasyon
+        Inventory created = inventoryService.createInventory(testInventory);
+        UUID orderId = UUID.randomUUID();
+        ReservationResponse response = inventoryService.reserveItems(new ReservationRequest(orderId, List.of(
+            new ReservationRequest.Item(testProductId, 10))));
+        assertNotNull(response.getExpiresAt());
+
+        // When: Süresi doluyor ve sweeper çalışıyor
+        StockReservation item = stockReservationRepository.findByReservationId(response.getReservationId()).get(0);
+        item.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        stockReservationRepository.saveAndFlush(item);
+        int expired = inventoryService.expireReservations(100);
+
+        // Then: Stok geri geldi, kalem EXPIRED oldu
+        assertEquals(1, expired);
+        assertEquals(0, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+        assertEquals(ReservationStatus.EXPIRED, inventoryService.getReservationsByOrderId(orderId).get(0).getStatus());
+        assertEquals(0, inventoryService.expireReservations(100));
+
+        // Geç gelen onay: stok hâlâ yetiyor, kalem yeniden rezerve edilir
+        inventoryService.confirmReservation(response.getReservationId());
+        StockReservation confirmed = stockReservationRepository.findByReservationId(response.getReservationId()).get(0);
+        assertEquals(ReservationStatus.ACTIVE, confirmed.getStatus());
+        assertNull(confirmed.getExpiresAt());
+        assertEquals(10, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+    }
+
+    @Test
+    void testConfirmExpiredReservationAfterStockSoldConflicts() {
+        // Given: Süresi dolan rezervasyonun stoğu başka siparişe satıldı
+        Inventory created = inventoryService.createInventory(testInventory);
+        ReservationResponse response = inventoryService.reserveItems(new ReservationRequest(UUID.randomUUID(), List.of(
+            new ReservationRequest.Item(testProductId, 80))));
+        StockReservation item = stockReservationRepository.findByReservationId(response.getReservationId()).get(0);
+        item.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        stockReservationRepository.saveAndFlush(item);
+        assertEquals(1, inventoryService.expireReservations(100));
+        inventoryService.reserveStock(created.getId(), 50);
+
+        // When & Then: Onay 409 ile reddedilir, kalem ve sayaç değişmez
+        assertThrows(ReservationNotActiveException.class,
+            () -> inventoryService.confirmReservation(response.getReservationId()));
+        assertEquals(ReservationStatus.EXPIRED,
+            stockReservationRepository.findByReservationId(response.getReservationId()).get(0).getStatus());
+        assertEquals(50, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+
+        // Serbest bırakılmış rezervasyon da onaylanamaz
+        ReservationResponse released = inventoryService.reserveItems(new ReservationRequest(UUID.randomUUID(), List.of(
+            new ReservationRequest.Item(testProductId, 10))));
+        inventoryService.releaseReservation(released.getReservationId());
+        assertThrows(ReservationNotActiveException.class,
+            () -> inventoryService.confirmReservation(released.getReservationId()));
+    }
+
+    @Test
+    void testConfirmedReservationDoesNotExpire() {
+        // Given: Onaylanmış rezervasyon
+        Inventory created = inventoryService.createInventory(testInventory);
+        ReservationResponse response = inventoryService.reserveItems(new ReservationRequest(null, List.of(
+            new ReservationRequest.Item(testProductId, 10))));
+
+        // When: Onaylanıyor (tekrar çağrılması güvenli)
+        inventoryService.confirmReservation(response.getReservationId());
+        inventoryService.confirmReservation(response.getReservationId());
+
+        // Then: Süre kaldırıldı, sweeper dokunmaz
+        StockReservation item = stockReservationRepository.findByReservationId(response.getReservationId()).get(0);
+        assertNull(item.getExpiresAt());
+        assertEquals(0, inventoryService.expireReservations(100));
+        assertEquals(10, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.confirmReservation(UUID.randomUUID()));
+    }
+
+    @Test
+    void testReserveStockWritesLedger() {
+        // Given: Tekil rezervasyonlar ledger'a süresiz yazılır
+        Inventory created = inventoryService.createInventory(testInventory);
+        inventoryService.reserveStock(created.getId(), 30);
+
+        // When: Bir kısmı serbest bırakılıyor
+        inventoryService.releaseReservedStock(created.getId(), 20);
+
+        // Then: Sayaç ve ACTIVE ledger toplamı aynı
+        List<StockReservation> active = stockReservationRepository.findAll().stream()
+                .filter(r -> r.getInventoryId().equals(created.getId()) && r.getStatus() == ReservationStatus.ACTIVE)
+                .toList();
+        assertEquals(1, active.size());
+        assertEquals(10, active.get(0).getQuantity());
+        assertNull(active.get(0).getExpiresAt());
+        assertEquals(10, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+    }
+
+    @Test
+    void testConfigureShardsSplitsStock() {
+        // Given: 100 adet stok, 10 adet rezerve
+        testInventory.setReservedQuantity(10);
+        Inventory created = inventoryService.createInventory(testInventory);
+
+        // When: 4 shard'a bölünüyor
+        Inventory sharded = inventoryService.configureShards(created.getId(), 4);
+
+        // Then: Toplamlar korunur, rezerve ve boştaki stok eşit bölünür (10 → 3,3,2,2 / 90 → 23,23,22,22)
+        assertTrue(sharded.isSharded());
+        assertEquals(100, sharded.getQuantity());
+        assertEquals(10, sharded.getReservedQuantity());
+        List<InventoryShard> shards = inventoryService.getShards(created.getId());
+        assertEquals(4, shards.size());
+        assertEquals(List.of(3, 3, 2, 2), shards.stream().map(InventoryShard::getReservedQuantity).toList());
+        assertEquals(List.of(23, 23, 22, 22), shards.stream().map(InventoryShard::getAvailableQuantity).toList());
+        assertEquals(90, inventoryService.getAvailableQuantity(testProductId));
+    }
+
+    @Test
+    void testShardedReserveItemsAndRelease() {
+        // Given: 8 shard'lı ürün
+        Inventory created = inventoryService.createInventory(testInventory);
+        inventoryService.configureShards(created.getId(), 8);
+
+        // When: Rezervasyon yapılıyor
+        ReservationResponse response = inventoryService.reserveItems(new ReservationRequest(null, List.of(
+            new ReservationRequest.Item(testProductId, 5))));
+
+        // Then: Bir shard'dan alındı, inventory satırı güncellenmedi
+        StockReservation item = stockReservationRepository.findByReservationId(response.getReservationId()).get(0);
+        assertNotNull(item.getShardIndex());
+        assertEquals(0, inventoryRepository.findById(created.getId()).orElseThrow().getReservedQuantity());
+        assertEquals(5, inventoryService.getInventoryById(created.getId()).getReservedQuantity());
+        assertEquals(95, inventoryService.getAvailableQuantity(testProductId));
+
+        // When: Serbest bırakılıyor → aynı shard'a iade edilir
+        inventoryService.releaseReservation(response.getReservationId());
+        assertEquals(100, inventoryService.getAvailableQuantity(testProductId));
+        inventoryShardRepository.findByInventoryIdOrderByShardIndex(created.getId())
+                .forEach(shard -> assertEquals(0, shard.getReservedQuantity()));
+    }
+
+    @Test
+    void testShardedReleaseReservedStockUsesLedgerShards() {
+        // Given: 8 shard'lı ürün, tekil ve sipariş rezervasyonları farklı shard'larda
+        Inventory created = inventoryService.createInventory(testInventory);
+        inventoryService.configureShards(created.getId(), 8);
+        inventoryService.reserveStock(created.getId(), 3);
+        inventoryService.reserveStock(created.getId(), 4);
+        ReservationResponse order = inventoryService.reserveItems(new ReservationRequest(UUID.randomUUID(), List.of(
+            new ReservationRequest.Item(testProductId, 5))));
+
+        // When: Tekil rezervasyonların bir kısmı serbest bırakılıyor (kalemlerden biri bölünür)
+        Inventory released = inventoryService.releaseReservedStock(created.getId(), 5);
+
+        // Then: Her kalem kendi shard'ından düşüldü, shard sayaçları ledger ile tutarlı
+        assertEquals(7, released.getReservedQuantity());
+        assertShardsMatchLedger(created.getId());
+
+        // Sipariş rezervasyonu kendi shard'ından sorunsuz serbest bırakılır
+        inventoryService.releaseReservation(order.getReservationId());
+        inventoryService.releaseReservedStock(created.getId(), 2);
+        assertEquals(100, inventoryService.getAvailableQuantity(testProductId));
+        assertShardsMatchLedger(created.getId());
+    }
+
+    private void assertShardsMatchLedger(UUID inventoryId) {
+        Map<Integer, Integer> ledger = new HashMap<>();
+        stockReservationRepository.findAll().stream()
+            .filter(item -> item.getInventoryId().equals(inventoryId) && item.getStatus() == ReservationStatus.ACTIVE)
+            .forEach(item -> ledger.merge(item.getShardIndex(), item.getQuantity(), Integer::sum));
+        inventoryShardRepository.findByInventoryIdOrderByShardIndex(inventoryId).forEach(shard ->
+            assertEquals(ledger.getOrDefault(shard.getShardIndex(), 0), shard.getReservedQuantity(),
+                "shard " + shard.getShardIndex()));
+    }
+
+    @Test
+    void testShardedReserveRebalancesDrainedShards() {
+        // Given: 8 adet stok, 4 shard (shard başına 2)
+        Inventory created = inventoryService.createInventory(newInventory(UUID.randomUUID(), 8));
+        inventoryService.configureShards(created.getId(), 4);
+
+        // When: Hiçbir shard'ın tek başına karşılayamayacağı miktar
+        Inventory reserved = inventoryService.reserveStock(created.getId(), 5);
+
+        // Then: Rebalance ile rezerve edildi
+        assertEquals(5, reserved.getReservedQuantity());
+        assertEquals(3, reserved.getAvailableQuantity());
+
+        // Toplam stok yetmiyorsa rebalance da yardımcı olmaz
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            inventoryService.reserveStock(created.getId(), 4);
+        });
+        assertTrue(exception.getMessage().contains("Available: 3"));
+    }
+
+    @Test
+    void testShardedReleaseReservedStockAcrossShards() {
+        // Given: 4 shard'a bölünmüş 40 adet rezerve (shard başına 10)
+        testInventory.setReservedQuantity(40);
+        Inventory created = inventoryService.createInventory(testInventory);
+        inventoryService.configureShards(created.getId(), 4);
+
+        // When: Tek shard'dan fazlası serbest bırakılıyor
+        Inventory released = inventoryService.releaseReservedStock(created.getId(), 25);
+
+        // Then: Shard'lardan toplanarak düşüldü
+        assertEquals(15, released.getReservedQuantity());
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.releaseReservedStock(created.getId(), 16));
+    }
+
+    @Test
+    void testDisableShardingMergesShards() {
+        // Given: Sharded ürün üzerinde rezervasyon ve stok güncellemesi
+        Inventory created = inventoryService.createInventory(testInventory);
+        inventoryService.configureShards(created.getId(), 4);
+        inventoryService.reserveStock(created.getId(), 7);
+        inventoryService.updateQuantity(created.getId(), 120);
+
+        // When: Sharded mod kapatılıyor
+        Inventory merged = inventoryService.configureShards(created.getId(), 0);
+
+        // Then: Toplamlar satıra taşındı, shard'lar silindi
+        assertFalse(merged.isSharded());
+        assertEquals(120, merged.getQuantity());
+        assertEquals(7, merged.getReservedQuantity());
+        assertTrue(inventoryShardRepository.findByInventoryIdOrderByShardIndex(created.getId()).isEmpty());
+
+        // Satır rezervasyonu tekrar çalışır
+        assertEquals(10, inventoryService.reserveStock(created.getId(), 3).getReservedQuantity());
+    }
+
+    @Test
+    void testConfigureShardsInvalidCount() {
+        Inventory created = inventoryService.createInventory(testInventory);
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.configureShards(created.getId(), -1));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.configureShards(created.getId(), 65));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // Her rezervasyon kendi transaction'ında
+    void testShardedReserveConcurrentNoOversell() throws Exception {
+        // Given: 100 adet stok 8 shard'a bölünmüş, 200 eşzamanlı alıcı
+        Inventory inventory = inventoryRepository.save(newInventory(UUID.randomUUID(), 100));
+        inventoryService.configureShards(inventory.getId(), 8);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        inventoryService.reserveStock(inventory.getId(), 1);
+                        successes.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        insufficient.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            // When: Hepsi aynı anda başlıyor
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            // Then: Shard'lar boşaldıkça rebalance edildi, toplamda oversell yok
+            assertEquals(0, errors.get());
+            assertEquals(100, successes.get());
+            assertEquals(100, insufficient.get());
+            List<InventoryShard> shards = inventoryShardRepository.findByInventoryIdOrderByShardIndex(inventory.getId());
+            assertEquals(100, shards.stream().mapToInt(InventoryShard::getReservedQuantity).sum());
+            shards.forEach(shard -> assertTrue(shard.getReservedQuantity() <= shard.getQuantity()));
+        } finally {
+            executor.shutdownNow();
+            stockReservationRepository.deleteAll();
+            inventoryShardRepository.deleteAll();
+            inventoryRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // Cache commit sonrası yazılır; servis kendi transaction'ını commit etmeli
+    void testCacheUpdatedAfterCommit() {
+        Cache cache = cacheManager.getCache("inventories");
+        cache.clear();
+        Inventory created = inventoryService.createInventory(newInventory(UUID.randomUUID(), 100));
+        UUID productId = created.getProductId();
+
+        try {
+            // Oluşturma: üç anahtar da yazılır
+            assertEquals(100, cache.get("available:" + productId, Integer.class));
+            assertEquals(created.getId(), cache.get(created.getId().toString(), Inventory.class).getId());
+
+            // Rezervasyon: sadece bu kaydın anahtarları commit'ten sonra silinir (sonraki okuma doldurur)
+            Inventory other = inventoryService.createInventory(newInventory(UUID.randomUUID(), 50));
+            inventoryService.reserveStock(created.getId(), 30);
+            assertNull(cache.get("available:" + productId));
+            assertNull(cache.get("product:" + productId));
+            assertNull(cache.get(created.getId().toString()));
+            assertEquals(50, cache.get("available:" + other.getProductId(), Integer.class));
+
+            // Başarısız (rollback olan) işlem cache'i değiştirmez
+            cache.put("available:" + productId, 70);  // Okuma ile tekrar doldurulmuş değer
+            assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveStock(created.getId(), 1000));
+            assertEquals(70, cache.get("available:" + productId, Integer.class));
+
+            // Sharded kayıt: shard toplamları yazılır
+            inventoryService.configureShards(created.getId(), 4);
+            inventoryService.updateQuantity(created.getId(), 130);
+            assertEquals(100, cache.get("available:" + productId, Integer.class));
+            assertEquals(130, cache.get(created.getId().toString(), Inventory.class).getQuantity());
+
+            // Silme: anahtarlar temizlenir
+            inventoryService.deleteInventory(other.getId());
+            assertNull(cache.get("available:" + other.getProductId()));
+            assertNull(cache.get("product:" + other.getProductId()));
+            assertNull(cache.get(other.getId().toString()));
+        } finally {
+            cache.clear();
+            stockReservationRepository.deleteAll();
+            inventoryShardRepository.deleteAll();
+            inventoryRepository.deleteAll();
+        }
+    }
+
+    private Inventory newInventory(UUID productId, int quantity) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(productId);
+        inventory.setQuantity(quantity);
+        inventory.setReservedQuantity(0);
+        inventory.setMinStockLevel(0);
+        return inventory;
+    }
+
     @Test
     void testDeleteInventory() {
         // Given: Bir stok kaydı oluşturuluyor
@@ -0,0 +1,22 @@
+package com.microservices.order.Client;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Hedged
+ * Feign client metodunu request hedging'e açar (order.hedging.enabled=true iken)
+ *
+ * Sadece idempotent okuma çağrılarına konmalıdır: aynı istek iki farklı instance'a
+ * gidebilir ve kaybeden iptal edilir. Yan etkisi olan (rezervasyon vb.) çağrılara konmaz.
+ *
+ * Detaylar: HedgingFeignClient
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+}
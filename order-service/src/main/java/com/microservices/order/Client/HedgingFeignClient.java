@@ -0,0 +1,280 @@
+package com.microservices.order.Client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Hedging Feign Client
+ * @Hedged işaretli okuma çağrılarında yavaş bir replica'nın tüm çağrıyı bekletmesini önler
+ *
+ * Akış:
+ * 1. Eureka'dan servisin instance'ları alınır; 2'den az instance varsa normal load-balanced çağrı yapılır
+ * 2. İstek round-robin ile seçilen instance'a gönderilir
+ * 3. Hedge gecikmesi içinde yanıt gelmezse aynı istek SONRAKİ instance'a da gönderilir
+ *    (gecikme = gözlenen p95, [min-delay-ms, max-delay-ms] aralığında; ilk örneklerde max-delay-ms)
+ * 4. İlk başarılı yanıt kazanır, diğer istek iptal edilir (thread interrupt, yanıtı kapatılır)
+ * 5. Hedging bütçesi: her istek budget-percent/100 token biriktirir, her hedge 1 token harcar
+ *    → ek yük istek sayısının budget-percent'ini geçmez (downstream yavaşken yükü ikiye katlamaz)
+ *
+ * Metrikler (service tag'i ile):
+ * - orders.hedging.requests / orders.hedging.hedges / orders.hedging.budget.exhausted
+ * - orders.hedging.wins{winner=primary|hedge}: hedge atılan çağrıların kazananı
+ * - orders.hedging.rate / orders.hedging.win.rate: hedge oranı ve hedge'in kazanma oranı (gauge)
+ * - orders.hedging.delay: güncel hedge gecikmesi (ms)
+ */
+public class HedgingFeignClient implements Client {
+
+    private static final int LATENCY_WINDOW_SIZE = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final double MAX_BUDGET_TOKENS = 10.0;
+
+    private final Client loadBalancedClient;
+    private final Client delegate;
+    private final DiscoveryClient discoveryClient;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final double budgetRatio;
+    private final Map<String, ServiceState> states = new ConcurrentHashMap<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    /**
+     * @param loadBalancedClient Hedging yapılmayan çağrılar için (FeignBlockingLoadBalancerClient)
+     * @param delegate Instance URL'i ile doğrudan çağrı yapan client (load balancer'ın delegate'i)
+     */
+    public HedgingFeignClient(
+            Client loadBalancedClient,
+            Client delegate,
+            DiscoveryClient discoveryClient,
+            Executor executor,
+            MeterRegistry meterRegistry,
+            long minDelayMs,
+            long maxDelayMs,
+            double budgetPercent) {
+        this.loadBalancedClient = loadBalancedClient;
+        this.delegate = delegate;
+        this.discoveryClient = discoveryClient;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.budgetRatio = budgetPercent / 100.0;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!isHedged(request)) {
+            return loadBalancedClient.execute(request, options);
+        }
+        URI original = URI.create(request.url());
+        String serviceId = original.getHost();
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        if (instances == null || instances.size() < 2) {
+            return loadBalancedClient.execute(request, options);
+        }
+
+        ServiceState state = states.computeIfAbsent(serviceId, ServiceState::new);
+        state.onRequest();
+        int first = Math.floorMod(roundRobin.getAndIncrement(), instances.size());
+        Request primary = rewrite(request, original, instances.get(first));
+        Request backup = rewrite(request, original, instances.get((first + 1) % instances.size()));
+        return executeHedged(state, primary, backup, options);
+    }
+
+    private static boolean isHedged(Request request) {
+        return request.requestTemplate() != null
+                && request.requestTemplate().methodMetadata() != null
+                && request.requestTemplate().methodMetadata().method() != null
+                && request.requestTemplate().methodMetadata().method().isAnnotationPresent(Hedged.class);
+    }
+
+    private static Request rewrite(Request request, URI original, ServiceInstance instance) {
+        URI target = LoadBalancerUriTools.reconstructURI(instance, original);
+        return Request.create(request.httpMethod(), target.toString(), request.headers(),
+                request.body(), request.charset(), request.requestTemplate());
+    }
+
+    private Response executeHedged(ServiceState state, Request primary, Request backup, Request.Options options)
+            throws IOException {
+        long startNanos = System.nanoTime();
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        AtomicBoolean decided = new AtomicBoolean();
+        List<FutureTask<Void>> attempts = new ArrayList<>(2);
+
+        if (!submit(new Attempt(primary, false), options, outcomes, decided, attempts)) {
+            // Executor dolu: hedging'siz, çağıran thread'de
+            return delegate.execute(primary, options);
+        }
+        try {
+            int pending = 1;
+            boolean hedged = false;
+            Outcome outcome = outcomes.poll(state.hedgeDelayMs(), TimeUnit.MILLISECONDS);
+            if (outcome == null) {
+                if (!state.tryAcquireBudget()) {
+                    state.budgetExhausted.increment();
+                } else if (submit(new Attempt(backup, true), options, outcomes, decided, attempts)) {
+                    state.hedges.increment();
+                    hedged = true;
+                    pending++;
+                }
+                outcome = outcomes.take();
+            }
+            while (true) {
+                pending--;
+                if (outcome.response != null) {
+                    decided.set(true);
+                    state.recordLatency(System.nanoTime() - startNanos);
+                    if (hedged) {
+                        (outcome.attempt.hedge ? state.hedgeWins : state.primaryWins).increment();
+                    }
+                    return outcome.response;
+                }
+                if (pending == 0) {
+                    throw outcome.failureAsIOException();
+                }
+                outcome = outcomes.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for hedged request " + primary.url(), e);
+        } finally {
+            decided.set(true);
+            attempts.forEach(attempt -> attempt.cancel(true));
+            for (Outcome loser = outcomes.poll(); loser != null; loser = outcomes.poll()) {
+                loser.close();
+            }
+        }
+    }
+
+    private boolean submit(Attempt attempt, Request.Options options, BlockingQueue<Outcome> outcomes,
+            AtomicBoolean decided, List<FutureTask<Void>> attempts) {
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            Outcome outcome;
+            try {
+                outcome = new Outcome(attempt, delegate.execute(attempt.request, options), null);
+            } catch (Exception e) {
+                outcome = new Outcome(attempt, null, e);
+            }
+            outcomes.add(outcome);
+            // Karar verildikten sonra gelen (kaybeden) yanıt kapatılır
+            if (decided.get() && outcomes.remove(outcome)) {
+                outcome.close();
+            }
+            return null;
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        attempts.add(task);
+        return true;
+    }
+
+    private record Attempt(Request request, boolean hedge) {
+    }
+
+    private record Outcome(Attempt attempt, Response response, Exception failure) {
+
+        IOException failureAsIOException() {
+            if (failure instanceof IOException ioException) {
+                return ioException;
+            }
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            return new IOException("Hedged request failed: " + attempt.request.url(), failure);
+        }
+
+        void close() {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Servis başına gecikme penceresi, bütçe ve metrikler
+     */
+    private final class ServiceState {
+        private final long[] latencies = new long[LATENCY_WINDOW_SIZE];
+        private int samples;
+        private double budgetTokens;
+        private volatile long delayMs = maxDelayMs;
+        private final Counter requests;
+        private final Counter hedges;
+        private final Counter budgetExhausted;
+        private final Counter primaryWins;
+        private final Counter hedgeWins;
+
+        ServiceState(String serviceId) {
+            Tags tags = Tags.of("service", serviceId);
+            this.requests = meterRegistry.counter("orders.hedging.requests", tags);
+            this.hedges = meterRegistry.counter("orders.hedging.hedges", tags);
+            this.budgetExhausted = meterRegistry.counter("orders.hedging.budget.exhausted", tags);
+            this.primaryWins = meterRegistry.counter("orders.hedging.wins", tags.and("winner", "primary"));
+            this.hedgeWins = meterRegistry.counter("orders.hedging.wins", tags.and("winner", "hedge"));
+            meterRegistry.gauge("orders.hedging.rate", tags, this,
+                    state -> state.requests.count() == 0 ? 0.0 : state.hedges.count() / state.requests.count());
+            meterRegistry.gauge("orders.hedging.win.rate", tags, this,
+                    state -> state.hedges.count() == 0 ? 0.0 : state.hedgeWins.count() / state.hedges.count());
+            meterRegistry.gauge("orders.hedging.delay", tags, this, state -> state.delayMs);
+        }
+
+        synchronized void onRequest() {
+            requests.increment();
+            budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + budgetRatio);
+        }
+
+        synchronized boolean tryAcquireBudget() {
+            if (budgetTokens < 1.0) {
+                return false;
+            }
+            budgetTokens -= 1.0;
+            return true;
+        }
+
+        long hedgeDelayMs() {
+            return delayMs;
+        }
+
+        /**
+         * Kazanan yanıtın süresini pencereye yaz; her 32 örnekte p95 yeniden hesaplanır
+         */
+        synchronized void recordLatency(long nanos) {
+            latencies[samples % LATENCY_WINDOW_SIZE] = nanos;
+            samples++;
+            if (samples == MIN_LATENCY_SAMPLES || (samples > MIN_LATENCY_SAMPLES && samples % 32 == 0)) {
+                long[] window = Arrays.copyOf(latencies, Math.min(samples, LATENCY_WINDOW_SIZE));
+                Arrays.sort(window);
+                long p95Ms = TimeUnit.NANOSECONDS.toMillis(window[(int) Math.ceil(window.length * 0.95) - 1]);
+                delayMs = Math.max(minDelayMs, Math.min(maxDelayMs, p95Ms));
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.microservices.order.Client;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,11 +20,14 @@ import org.springframework.web.bind.annotation.RequestBody;
  * 1. Stok kontrolü: Sipariş oluşturulmadan önce stok var mı?
  * 2. Stok rezerve etme: Sipariş onaylandığında stokları rezerve et
  * 3. Stok geri verme: Sipariş iptal edildiğinde stokları geri ver
+ * 
+ * Sipariş onayı/iptali çoklu ürün rezervasyon endpoint'lerini kullanır
+ * (reserveItems / confirmReservation / releaseReservation); tekil reserve/release eski siparişler için kalır.
  */
 @FeignClient(
     name = "inventory-service", 
     url = "${inventory.service.url:}",
-    fallback = InventoryServiceClientFallback.class  // Circuit Breaker açıldığında çağrılacak fallback
+    fallbackFactory = InventoryServiceClientFallbackFactory.class  // Circuit Breaker açıldığında / hata verdiğinde çağrılacak fallback
 )
 public interface InventoryServiceClient {
     
@@ -36,6 +41,7 @@ public interface InventoryServiceClient {
      * - Sipariş oluşturulmadan önce stok kontrolü
      * - Ürünün stokta olup olmadığını kontrol et
      */
+    @Hedged
     @GetMapping("/inventory/product/{productId}")
     InventoryResponse getInventoryByProductId(@PathVariable("productId") UUID productId);
     
@@ -48,6 +54,7 @@ public interface InventoryServiceClient {
      * Kullanım:
      * - Hızlı stok kontrolü (sadece miktar gerekliyse)
      */
+    @Hedged
     @GetMapping("/inventory/product/{productId}/available")
     Integer getAvailableQuantity(@PathVariable("productId") UUID productId);
     
@@ -55,11 +62,12 @@ public interface InventoryServiceClient {
      * Toplu stok kontrolü
      * 
      * @param request Map<ProductId, Quantity> - Hangi ürünlerden kaç adet isteniyor
-     * @return Map<ProductId, Boolean> - Her ürün için stok var mı?
+     * @return Map<ProductId, StockAvailability> - Her ürün için stok var mı, kullanılabilir miktar ne?
      * 
      * Kullanım:
      * - Sepet kontrolü: Birden fazla ürünün stok kontrolü
-     * - Sipariş oluşturulmadan önce tüm ürünlerin stok kontrolü
+     * - Sipariş oluşturulmadan önce tüm ürünlerin stok kontrolü (tek istek, Inventory Service'te tek sorgu;
+     *   ürün başına getInventoryByProductId gerekmez)
      * 
      * Örnek Request:
      * {
@@ -69,12 +77,12 @@ public interface InventoryServiceClient {
      * 
      * Örnek Response:
      * {
-     *   "product-id-1": true,
-     *   "product-id-2": false
+     *   "product-id-1": { "available": true, "availableQuantity": 40, "found": true },
+     *   "product-id-2": { "available": false, "availableQuantity": 0, "found": false }
      * }
      */
     @PostMapping("/inventory/check")
-    Map<UUID, Boolean> checkStockAvailability(@RequestBody Map<UUID, Integer> request);
+    Map<UUID, StockAvailability> checkStockAvailability(@RequestBody Map<UUID, Integer> request);
     
     /**
      * Stok rezerve et
@@ -107,6 +115,200 @@ public interface InventoryServiceClient {
             @PathVariable("inventoryId") UUID inventoryId,
             @org.springframework.web.bind.annotation.RequestParam("quantity") Integer quantity);
     
+    /**
+     * Çoklu ürün rezervasyonu (ya hepsi ya hiçbiri)
+     * 
+     * @param request Sipariş ID'si ve rezerve edilecek ürünler
+     * @return Rezervasyon ID'si (iptal için Order'da saklanır)
+     * 
+     * Kullanım:
+     * - Sipariş onaylandığında tüm kalemleri tek istekte rezerve et
+     * - Herhangi bir ürün yetersizse hiçbiri rezerve edilmez (Inventory Service 400 döner)
+     */
+    @PostMapping("/inventory/reservations")
+    ReservationResponse reserveItems(@RequestBody ReservationRequest request);
+    
+    /**
+     * Çoklu ürün rezervasyonunu serbest bırak
+     * 
+     * @param reservationId reserveItems'ın döndüğü rezervasyon ID'si
+     * 
+     * Kullanım:
+     * - Sipariş iptal edildiğinde tüm kalemleri tek istekte geri ver
+     */
+    @DeleteMapping("/inventory/reservations/{reservationId}")
+    void releaseReservation(@PathVariable("reservationId") UUID reservationId);
+    
+    /**
+     * Rezervasyonu onayla
+     * 
+     * @param reservationId reserveItems'ın döndüğü rezervasyon ID'si
+     * 
+     * Kullanım:
+     * - Rezervasyon ID'si siparişe kaydedildikten (commit) sonra çağrılır
+     * - Onaylanmayan rezervasyonlar Inventory Service'te süre sonunda serbest bırakılır; süresi dolmuş
+     *   rezervasyon stok yeterliyse tekrar rezerve edilir, değilse 409 döner (ReservationNotActiveException)
+     */
+    @PostMapping("/inventory/reservations/{reservationId}/confirm")
+    void confirmReservation(@PathVariable("reservationId") UUID reservationId);
+    
+    /**
+     * Reservation Request DTO
+     */
+    class ReservationRequest {
+        private UUID orderId;
+        private List<ReservationItem> items;
+        
+        public ReservationRequest() {
+        }
+        
+        public ReservationRequest(UUID orderId, List<ReservationItem> items) {
+            this.orderId = orderId;
+            this.items = items;
+        }
+        
+        public UUID getOrderId() {
+            return orderId;
+        }
+        
+        public void setOrderId(UUID orderId) {
+            this.orderId = orderId;
+        }
+        
+        public List<ReservationItem> getItems() {
+            return items;
+        }
+        
+        public void setItems(List<ReservationItem> items) {
+            this.items = items;
+        }
+    }
+    
+    /**
+     * Rezervasyon kalemi (request ve response için ortak)
+     */
+    class ReservationItem {
+        private UUID productId;
+        private UUID inventoryId;
+        private Integer quantity;
+        
+        public ReservationItem() {
+        }
+        
+        public ReservationItem(UUID productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+        
+        public UUID getProductId() {
+            return productId;
+        }
+        
+        public void setProductId(UUID productId) {
+            this.productId = productId;
+        }
+        
+        public UUID getInventoryId() {
+            return inventoryId;
+        }
+        
+        public void setInventoryId(UUID inventoryId) {
+            this.inventoryId = inventoryId;
+        }
+        
+        public Integer getQuantity() {
+            return quantity;
+        }
+        
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+    
+    /**
+     * Reservation Response DTO
+     */
+    class ReservationResponse {
+        private UUID reservationId;
+        private UUID orderId;
+        private List<ReservationItem> items;
+        
+        public UUID getReservationId() {
+            return reservationId;
+        }
+        
+        public void setReservationId(UUID reservationId) {
+            this.reservationId = reservationId;
+        }
+        
+        public UUID getOrderId() {
+            return orderId;
+        }
+        
+        public void setOrderId(UUID orderId) {
+            this.orderId = orderId;
+        }
+        
+        public List<ReservationItem> getItems() {
+            return items;
+        }
+        
+        public void setItems(List<ReservationItem> items) {
+            this.items = items;
+        }
+    }
+    
+    /**
+     * Stock Availability DTO (toplu stok kontrolünde bir ürünün sonucu)
+     */
+    class StockAvailability {
+        private boolean available;
+        private int availableQuantity;
+        private boolean found;
+        
+        public StockAvailability() {
+        }
+        
+        public StockAvailability(boolean available, int availableQuantity, boolean found) {
+            this.available = available;
+            this.availableQuantity = availableQuantity;
+            this.found = found;
+        }
+        
+        /**
+         * İstenen miktar karşılanabiliyor mu?
+         */
+        public boolean isAvailable() {
+            return available;
+        }
+        
+        public void setAvailable(boolean available) {
+            this.available = available;
+        }
+        
+        /**
+         * Kullanılabilir stok (quantity - reservedQuantity)
+         */
+        public int getAvailableQuantity() {
+            return availableQuantity;
+        }
+        
+        public void setAvailableQuantity(int availableQuantity) {
+            this.availableQuantity = availableQuantity;
+        }
+        
+        /**
+         * Ürünün stok kaydı var mı?
+         */
+        public boolean isFound() {
+            return found;
+        }
+        
+        public void setFound(boolean found) {
+            this.found = found;
+        }
+    }
+    
     /**
      * Inventory Response DTO
      */
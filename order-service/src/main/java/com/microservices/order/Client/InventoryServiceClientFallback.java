@@ -4,19 +4,53 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
-import org.springframework.stereotype.Component;
-
 import com.microservices.order.Client.InventoryServiceClient.InventoryResponse;
+import com.microservices.order.Client.InventoryServiceClient.ReservationRequest;
+import com.microservices.order.Client.InventoryServiceClient.ReservationResponse;
+import com.microservices.order.Client.InventoryServiceClient.StockAvailability;
+import com.microservices.order.Exception.ReservationNotActiveException;
+
+import feign.FeignException;
 
 /**
  * Inventory Service Client Fallback
  * 
  * Circuit Breaker açıldığında veya Inventory Service hata verdiğinde
  * bu fallback method'ları çağrılır.
+ * 
+ * Stok kontrolü ve kullanılabilir miktar, LastKnownGoodCache'teki son başarılı stok kontrolü sonucunu
+ * kullanır (stale-while-revalidate). Cache ürün başına kullanılabilir miktarı tutar; getInventoryByProductId
+ * cache'ten cevaplanmaz (sadece eski siparişlerin stok iadesinde, inventory ID'si için kullanılır).
+ * Rezervasyon gibi yazma işlemleri hiçbir zaman cache'ten cevaplanmaz: stok, sipariş onayında
+ * (reserveItems) Inventory Service tarafından kesin olarak düşülür.
+ * Rezervasyon onayı / serbest bırakma sessizce yutulmaz: fallback exception fırlatır ve
+ * ReservationCommandRelay komutu outbox'tan tekrar dener. Onay, rezervasyon artık aktif olmadığı için
+ * reddedildiyse (409) ReservationNotActiveException fırlatılır; tekrar denenmez, sipariş telafi edilir.
+ * 
+ * InventoryServiceClientFallbackFactory tarafından hatanın kendisiyle oluşturulur.
  */
-@Component
 public class InventoryServiceClientFallback implements InventoryServiceClient {
 
+    static final String UNAVAILABLE_STATUS = "UNAVAILABLE";
+
+    /**
+     * Son bilinen değeri olmayan ürünler için stok kontrolü sonucu (stok yok, miktar bilinmiyor)
+     * Paylaşılan tek nesnedir, değiştirilmemelidir; isPlaceholder() bu nesneyi tanır
+     */
+    private static final StockAvailability UNAVAILABLE_STOCK = new StockAvailability(false, 0, true);
+
+    private final LastKnownGoodCache lastKnownGoodCache;
+    private final Throwable cause;
+
+    public InventoryServiceClientFallback(LastKnownGoodCache lastKnownGoodCache) {
+        this(lastKnownGoodCache, null);
+    }
+
+    public InventoryServiceClientFallback(LastKnownGoodCache lastKnownGoodCache, Throwable cause) {
+        this.lastKnownGoodCache = lastKnownGoodCache;
+        this.cause = cause;
+    }
+
     @Override
     public InventoryResponse getInventoryByProductId(UUID productId) {
         // Fallback: Default değerler döndür
@@ -25,7 +59,7 @@ public class InventoryServiceClientFallback implements InventoryServiceClient {
         fallbackResponse.setProductId(productId);
         fallbackResponse.setQuantity(0);
         fallbackResponse.setReservedQuantity(0);
-        fallbackResponse.setStatus("UNAVAILABLE");
+        fallbackResponse.setStatus(UNAVAILABLE_STATUS);
         
         System.err.println("Inventory Service Fallback: Inventory for product " + productId + " unavailable");
         
@@ -33,15 +67,17 @@ public class InventoryServiceClientFallback implements InventoryServiceClient {
     }
 
     @Override
-    public Map<UUID, Boolean> checkStockAvailability(Map<UUID, Integer> request) {
-        // Fallback: Tüm ürünler için stok yok döndür
-        // Bu, sipariş oluşturmayı engeller (güvenli taraf)
-        Map<UUID, Boolean> fallbackResponse = new HashMap<>();
+    public Map<UUID, StockAvailability> checkStockAvailability(Map<UUID, Integer> request) {
+        // Fallback: Son bilinen stok bilgisi olan ürünler için cache'teki nesnenin kendisi döner
+        // (available alanı o anki istek için hesaplanmıştı; çağıran availableQuantity'ye göre karar verir),
+        // olmayanlar için stok yok döner (sipariş oluşturmayı engeller, güvenli taraf)
+        Map<UUID, StockAvailability> fallbackResponse = new HashMap<>();
         for (UUID productId : request.keySet()) {
-            fallbackResponse.put(productId, false);  // Stok yok
+            StockAvailability lastKnown = lastKnownStock(productId);
+            fallbackResponse.put(productId, lastKnown != null ? lastKnown : UNAVAILABLE_STOCK);
         }
         
-        System.err.println("Inventory Service Fallback: Stock check unavailable, returning false for all products");
+        System.err.println("Inventory Service Fallback: Stock check unavailable, using last known inventory");
         
         return fallbackResponse;
     }
@@ -53,7 +89,7 @@ public class InventoryServiceClientFallback implements InventoryServiceClient {
         fallbackResponse.setId(inventoryId);
         fallbackResponse.setQuantity(0);
         fallbackResponse.setReservedQuantity(0);
-        fallbackResponse.setStatus("UNAVAILABLE");
+        fallbackResponse.setStatus(UNAVAILABLE_STATUS);
         
         System.err.println("Inventory Service Fallback: Cannot reserve stock for inventory " + inventoryId);
         
@@ -67,18 +103,65 @@ public class InventoryServiceClientFallback implements InventoryServiceClient {
         fallbackResponse.setId(inventoryId);
         fallbackResponse.setQuantity(0);
         fallbackResponse.setReservedQuantity(0);
-        fallbackResponse.setStatus("UNAVAILABLE");
+        fallbackResponse.setStatus(UNAVAILABLE_STATUS);
         
         System.err.println("Inventory Service Fallback: Cannot release stock for inventory " + inventoryId);
         
         return fallbackResponse;
     }
 
+    @Override
+    public ReservationResponse reserveItems(ReservationRequest request) {
+        // Fallback: Rezervasyon yapılamadı (null → sipariş onaylanmaz, güvenli taraf)
+        System.err.println("Inventory Service Fallback: Cannot reserve items for order " + request.getOrderId());
+        return null;
+    }
+
+    @Override
+    public void releaseReservation(UUID reservationId) {
+        // Fallback: Rezervasyon serbest bırakılamadı; çağıran tekrar denemeli (aksi halde stok kilitli kalır)
+        throw new IllegalStateException("Inventory Service unavailable: cannot release reservation " + reservationId);
+    }
+
+    @Override
+    public void confirmReservation(UUID reservationId) {
+        if (cause instanceof FeignException.Conflict) {
+            // Rezervasyonun süresi dolmuş ve stok başka siparişe verilmiş: tekrar denemek sonucu değiştirmez
+            throw new ReservationNotActiveException(
+                "Reservation " + reservationId + " is no longer active", cause);
+        }
+        // Fallback: Rezervasyon onaylanamadı; çağıran tekrar denemeli
+        // (aksi halde süre sonunda Inventory Service onaylı siparişin stoğunu serbest bırakır)
+        throw new IllegalStateException("Inventory Service unavailable: cannot confirm reservation " + reservationId);
+    }
+
     @Override
     public Integer getAvailableQuantity(UUID productId) {
+        StockAvailability lastKnown = lastKnownStock(productId);
+        if (lastKnown != null) {
+            return lastKnown.getAvailableQuantity();
+        }
+        
         // Fallback: Kullanılabilir stok yok
         System.err.println("Inventory Service Fallback: Available quantity unavailable for product " + productId);
         return 0;
     }
-}
 
+    /**
+     * Yanıt bu fallback'in ürettiği default değer mi? (last-known-good cache'e yazılmaz)
+     */
+    public static boolean isPlaceholder(InventoryResponse inventory) {
+        return inventory != null && UNAVAILABLE_STATUS.equals(inventory.getStatus());
+    }
+
+    /**
+     * Stok kontrolü sonucu bu fallback'in ürettiği default değer mi? (last-known-good cache'e yazılmaz)
+     */
+    public static boolean isPlaceholder(StockAvailability stock) {
+        return stock == UNAVAILABLE_STOCK;
+    }
+
+    private StockAvailability lastKnownStock(UUID productId) {
+        return lastKnownGoodCache.serve(LastKnownGoodCache.Region.INVENTORY, productId, StockAvailability.class);
+    }
+}
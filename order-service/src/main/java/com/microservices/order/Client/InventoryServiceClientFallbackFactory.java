@@ -0,0 +1,25 @@
+package com.microservices.order.Client;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inventory Service Client Fallback Factory
+ * 
+ * Fallback'i hatanın kendisiyle oluşturur: Inventory Service'in iş kuralı gereği verdiği
+ * cevaplar (ör. süresi dolmuş rezervasyon onayına 409) erişilemezlikten ayırt edilebilsin.
+ */
+@Component
+public class InventoryServiceClientFallbackFactory implements FallbackFactory<InventoryServiceClient> {
+
+    private final LastKnownGoodCache lastKnownGoodCache;
+
+    public InventoryServiceClientFallbackFactory(LastKnownGoodCache lastKnownGoodCache) {
+        this.lastKnownGoodCache = lastKnownGoodCache;
+    }
+
+    @Override
+    public InventoryServiceClient create(Throwable cause) {
+        return new InventoryServiceClientFallback(lastKnownGoodCache, cause);
+    }
+}
@@ -0,0 +1,202 @@
+package com.microservices.order.Client;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Last-Known-Good Cache
+ * Feign client'larının son başarılı yanıtları (stale-while-revalidate)
+ *
+ * - Başarılı yanıtlar OrderService tarafından yazılır (record)
+ * - Circuit Breaker açıkken / servis hata verirken fallback'ler buradan okur (serve)
+ * - Her bölge (ürün, kullanıcı, stok) kendi TTL ve max-staleness değerine sahiptir:
+ *   yaş < ttl → fresh, yaş <= ttl + max-stale → stale (servis edilir, yeniden doğrulama kuyruğuna girer),
+ *   daha eskisi servis edilmez
+ * - Stale servis edilen anahtarlar LastKnownGoodRevalidator tarafından servis düzelince yenilenir
+ * - Bölge başına LRU ile sınırlıdır (order.client-cache.max-size)
+ *
+ * Fallback'in döndürdüğü nesne cache'teki nesnenin kendisidir; isServedValue() ile
+ * bir yanıtın remote'tan mı yoksa bu cache'ten mi geldiği ayırt edilir (degraded validation).
+ */
+@Component
+public class LastKnownGoodCache {
+
+    /**
+     * Cache bölgeleri (Feign client metodlarına karşılık gelir)
+     * PRODUCT: getProductById / getProductsByIds
+     * USER: getUserById
+     * INVENTORY: checkStockAvailability / getAvailableQuantity (ürün başına StockAvailability)
+     */
+    public enum Region {
+        PRODUCT, USER, INVENTORY
+    }
+
+    private final Map<Region, Map<UUID, Entry>> regions = new EnumMap<>(Region.class);
+    private final Map<Region, Policy> policies = new EnumMap<>(Region.class);
+    private final Map<Region, Set<UUID>> revalidation = new EnumMap<>(Region.class);
+    private final MeterRegistry meterRegistry;
+
+    public LastKnownGoodCache(
+            MeterRegistry meterRegistry,
+            @Value("${order.client-cache.max-size:10000}") int maxSize,
+            @Value("${order.client-cache.product.ttl-seconds:300}") long productTtlSeconds,
+            @Value("${order.client-cache.product.max-stale-seconds:3600}") long productMaxStaleSeconds,
+            @Value("${order.client-cache.user.ttl-seconds:300}") long userTtlSeconds,
+            @Value("${order.client-cache.user.max-stale-seconds:3600}") long userMaxStaleSeconds,
+            @Value("${order.client-cache.inventory.ttl-seconds:30}") long inventoryTtlSeconds,
+            @Value("${order.client-cache.inventory.max-stale-seconds:300}") long inventoryMaxStaleSeconds) {
+        this.meterRegistry = meterRegistry;
+        policies.put(Region.PRODUCT, Policy.ofSeconds(productTtlSeconds, productMaxStaleSeconds));
+        policies.put(Region.USER, Policy.ofSeconds(userTtlSeconds, userMaxStaleSeconds));
+        policies.put(Region.INVENTORY, Policy.ofSeconds(inventoryTtlSeconds, inventoryMaxStaleSeconds));
+        for (Region region : Region.values()) {
+            regions.put(region, new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            });
+            revalidation.put(region, ConcurrentHashMap.newKeySet());
+            meterRegistry.gauge("orders.client.cache.size", Tags.of("region", region.name().toLowerCase()),
+                    this, cache -> cache.size(region));
+        }
+    }
+
+    /**
+     * Remote'tan gelen başarılı yanıtı kaydet
+     * Fallback'in döndürdüğü (cache'ten gelen) nesne tekrar kaydedilmez
+     */
+    public void record(Region region, UUID key, Object value) {
+        if (key == null || value == null) {
+            return;
+        }
+        Map<UUID, Entry> entries = regions.get(region);
+        synchronized (entries) {
+            Entry current = entries.get(key);
+            if (current != null && current.value == value) {
+                return;
+            }
+            entries.put(key, new Entry(value, System.nanoTime()));
+        }
+        revalidation.get(region).remove(key);
+    }
+
+    /**
+     * Fallback için son bilinen değeri getir
+     *
+     * @return max-staleness içindeki değer, yoksa null
+     */
+    public <T> T serve(Region region, UUID key, Class<T> type) {
+        Map<UUID, Entry> entries = regions.get(region);
+        Policy policy = policies.get(region);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && policy.isExpired(entry)) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            servedCounter(region, "miss");
+            return null;
+        }
+        if (policy.isStale(entry)) {
+            revalidation.get(region).add(key);
+            servedCounter(region, "stale");
+        } else {
+            servedCounter(region, "fresh");
+        }
+        return type.cast(entry.value);
+    }
+
+    /**
+     * Yanıt bu cache'ten mi servis edildi? (remote başarısız, fallback son bilinen değeri döndü)
+     */
+    public boolean isServedValue(Region region, UUID key, Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        Map<UUID, Entry> entries = regions.get(region);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry != null && entry.value == value;
+        }
+    }
+
+    /**
+     * Yeniden doğrulanacak anahtarları al ve kuyruktan çıkar
+     */
+    public Set<UUID> drainRevalidation(Region region) {
+        Set<UUID> pending = revalidation.get(region);
+        Set<UUID> drained = new HashSet<>(pending);
+        pending.removeAll(drained);
+        return drained;
+    }
+
+    /**
+     * Yeniden doğrulama başarısız oldu (servis hâlâ erişilemez), anahtarı kuyruğa geri koy
+     * Cache'ten düşmüş (süresi dolmuş / LRU) anahtarlar tekrar denenmez
+     */
+    public void requeueRevalidation(Region region, UUID key) {
+        Map<UUID, Entry> entries = regions.get(region);
+        synchronized (entries) {
+            if (!entries.containsKey(key)) {
+                return;
+            }
+        }
+        revalidation.get(region).add(key);
+    }
+
+    /**
+     * Anahtarı sil (örn. yeniden doğrulamada kayıt artık yok: 404)
+     */
+    public void invalidate(Region region, UUID key) {
+        Map<UUID, Entry> entries = regions.get(region);
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        revalidation.get(region).remove(key);
+    }
+
+    public int size(Region region) {
+        Map<UUID, Entry> entries = regions.get(region);
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void servedCounter(Region region, String result) {
+        meterRegistry.counter("orders.client.cache.served",
+                "region", region.name().toLowerCase(), "result", result).increment();
+    }
+
+    private record Entry(Object value, long storedAtNanos) {
+    }
+
+    private record Policy(long ttlNanos, long maxAgeNanos) {
+        static Policy ofSeconds(long ttlSeconds, long maxStaleSeconds) {
+            return new Policy(TimeUnit.SECONDS.toNanos(ttlSeconds), TimeUnit.SECONDS.toNanos(ttlSeconds + maxStaleSeconds));
+        }
+
+        boolean isStale(Entry entry) {
+            return System.nanoTime() - entry.storedAtNanos >= ttlNanos;
+        }
+
+        boolean isExpired(Entry entry) {
+            return System.nanoTime() - entry.storedAtNanos > maxAgeNanos;
+        }
+    }
+}
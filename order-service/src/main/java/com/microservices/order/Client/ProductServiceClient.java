@@ -1,10 +1,14 @@
 package com.microservices.order.Client;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 /**
  * Product Service Client
@@ -45,9 +49,29 @@ public interface ProductServiceClient {
      * orderItem.setProductName(product.getName());
      * orderItem.setPrice(product.getPrice());
      */
+    @Hedged
     @GetMapping("/products/{productId}")
     ProductResponse getProductById(@PathVariable("productId") UUID productId);
     
+    /**
+     * Birden fazla ürünü tek istekte getir
+     * 
+     * @param productIds Ürün ID'leri
+     * @return productId → Product bilgisi (bulunamayan ID'ler map'te yer almaz)
+     * 
+     * POST /products/batch endpoint'ine istek gönderir.
+     * Rating zenginleştirmesi istenmez (Product Service'te varsayılan olarak kapalı),
+     * böylece sipariş oluşturma Review Service'e bağımlı kalmaz.
+     * 
+     * POST olmasına rağmen salt okumadır (idempotent), bu yüzden @Hedged ile işaretlidir.
+     * 
+     * Örnek Kullanım:
+     * Map<UUID, ProductResponse> products = productServiceClient.getProductsByIds(productIds);
+     */
+    @Hedged
+    @PostMapping("/products/batch")
+    Map<UUID, ProductResponse> getProductsByIds(@RequestBody Collection<UUID> productIds);
+    
     /**
      * Product Response DTO
      * Product Service'den dönen response'u map etmek için
@@ -60,6 +84,7 @@ public interface ProductServiceClient {
         private String name;
         private String description;
         private java.math.BigDecimal price;
+        private Long version;  // Product Service'te her güncellemede artar (snapshot cache anahtarı)
         
         // Getters and Setters
         public UUID getId() {
@@ -93,6 +118,14 @@ public interface ProductServiceClient {
         public void setPrice(java.math.BigDecimal price) {
             this.price = price;
         }
+        
+        public Long getVersion() {
+            return version;
+        }
+        
+        public void setVersion(Long version) {
+            this.version = version;
+        }
     }
 }
 
@@ -1,6 +1,9 @@
 package com.microservices.order.Client;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.stereotype.Component;
@@ -21,28 +24,40 @@ import org.springframework.stereotype.Component;
  * 2. Order Service, Product Service'e istek gönderir
  * 3. Circuit Breaker açılır (çok fazla hata)
  * 4. Fallback method çağrılır
- * 5. Fallback, default değerler döner veya cache'den okur
+ * 5. Fallback, LastKnownGoodCache'teki son başarılı yanıtı döner (stale-while-revalidate),
+ *    cache'te yoksa default değerler döner
  */
 @Component
 public class ProductServiceClientFallback implements ProductServiceClient {
 
+    static final String UNAVAILABLE_NAME = "Product Unavailable";
+
+    private final LastKnownGoodCache lastKnownGoodCache;
+
+    public ProductServiceClientFallback(LastKnownGoodCache lastKnownGoodCache) {
+        this.lastKnownGoodCache = lastKnownGoodCache;
+    }
+
     /**
      * Product Service hata verdiğinde çağrılır
      * 
      * @param productId Ürün ID'si
-     * @return Default ProductResponse veya null
-     * 
-     * Not: Gerçek uygulamada cache'den okuyabilir veya
-     * default değerler dönebilir
+     * @return Son bilinen ProductResponse veya default ProductResponse
      */
     @Override
     public ProductResponse getProductById(UUID productId) {
+        // Önce son başarılı yanıt (max-staleness içindeyse)
+        ProductResponse lastKnown = lastKnownGoodCache.serve(
+            LastKnownGoodCache.Region.PRODUCT, productId, ProductResponse.class);
+        if (lastKnown != null) {
+            System.err.println("Product Service Fallback: Serving last known product " + productId);
+            return lastKnown;
+        }
+        
         // Fallback: Default değerler döndür
-        // Gerçek uygulamada cache'den okuyabilir veya
-        // önceki başarılı response'ları saklayabilir
         ProductResponse fallbackResponse = new ProductResponse();
         fallbackResponse.setId(productId);
-        fallbackResponse.setName("Product Unavailable");
+        fallbackResponse.setName(UNAVAILABLE_NAME);
         fallbackResponse.setDescription("Product service is currently unavailable");
         fallbackResponse.setPrice(BigDecimal.ZERO);
         
@@ -51,5 +66,25 @@ public class ProductServiceClientFallback implements ProductServiceClient {
         
         return fallbackResponse;
     }
-}
 
+    /**
+     * Yanıt bu fallback'in ürettiği default değer mi? (last-known-good cache'e yazılmaz)
+     */
+    public static boolean isPlaceholder(ProductResponse product) {
+        return product != null && UNAVAILABLE_NAME.equals(product.getName())
+            && product.getPrice() != null && product.getPrice().signum() == 0;
+    }
+
+    /**
+     * Product Service batch endpoint'i hata verdiğinde çağrılır
+     * Her ürün için tekil fallback ile aynı değerleri döner (son bilinen veya default)
+     */
+    @Override
+    public Map<UUID, ProductResponse> getProductsByIds(Collection<UUID> productIds) {
+        Map<UUID, ProductResponse> fallbackResponses = new LinkedHashMap<>();
+        for (UUID productId : productIds) {
+            fallbackResponses.put(productId, getProductById(productId));
+        }
+        return fallbackResponses;
+    }
+}
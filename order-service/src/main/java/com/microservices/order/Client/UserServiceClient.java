@@ -43,6 +43,7 @@ public interface UserServiceClient {
      * order.setZipCode(user.getZip());
      * order.setPhoneNumber(user.getPhone());
      */
+    @Hedged
     @GetMapping("/users/{userId}")
     UserResponse getUserById(@PathVariable("userId") UUID userId);
     
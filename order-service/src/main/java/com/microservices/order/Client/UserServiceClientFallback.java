@@ -9,12 +9,28 @@ import org.springframework.stereotype.Component;
  * 
  * Circuit Breaker açıldığında veya User Service hata verdiğinde
  * bu fallback method'ları çağrılır.
+ * 
+ * Kullanıcının son başarılı yanıtı LastKnownGoodCache'te varsa o döner (stale-while-revalidate).
  */
 @Component
 public class UserServiceClientFallback implements UserServiceClient {
 
+    private final LastKnownGoodCache lastKnownGoodCache;
+
+    public UserServiceClientFallback(LastKnownGoodCache lastKnownGoodCache) {
+        this.lastKnownGoodCache = lastKnownGoodCache;
+    }
+
     @Override
     public UserResponse getUserById(UUID userId) {
+        // Önce son başarılı yanıt (max-staleness içindeyse)
+        UserResponse lastKnown = lastKnownGoodCache.serve(
+            LastKnownGoodCache.Region.USER, userId, UserResponse.class);
+        if (lastKnown != null) {
+            System.err.println("User Service Fallback: Serving last known user " + userId);
+            return lastKnown;
+        }
+        
         // Fallback: Default değerler döndür
         // Not: User bulunamadığında Order Service'de ResourceNotFoundException fırlatılır
         // Bu yüzden null döndürüyoruz ki Order Service hata fırlatsın
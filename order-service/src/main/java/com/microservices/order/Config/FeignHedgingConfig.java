@@ -0,0 +1,73 @@
+package com.microservices.order.Config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.microservices.order.Client.HedgingFeignClient;
+
+import feign.Capability;
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Feign Hedging Configuration
+ *
+ * order.hedging.enabled=true iken tüm Feign client'larının load-balanced Client'ı
+ * HedgingFeignClient ile sarılır; hedging sadece @Hedged işaretli metodlarda devreye girer.
+ *
+ * - url ile sabit adrese bağlanan client'lar sarılmaz (Eureka instance listesi yok)
+ * - Hedge istekleri ayrı, sınırlı bir executor'da çalışır; executor doluysa hedge atlanır
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.hedging.enabled", havingValue = "true")
+public class FeignHedgingConfig {
+
+    @Value("${order.hedging.pool-size:32}")
+    private int poolSize;
+
+    @Value("${order.hedging.min-delay-ms:20}")
+    private long minDelayMs;
+
+    @Value("${order.hedging.max-delay-ms:1000}")
+    private long maxDelayMs;
+
+    @Value("${order.hedging.budget-percent:10}")
+    private double budgetPercent;
+
+    @Bean(name = "feignHedgingExecutor")
+    public ThreadPoolTaskExecutor feignHedgingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);  // Kuyrukta bekleyen hedge anlamsız: reddedilir, hedge atlanır
+        executor.setThreadNamePrefix("feign-hedge-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public Capability hedgingCapability(
+            DiscoveryClient discoveryClient,
+            @Qualifier("feignHedgingExecutor") ThreadPoolTaskExecutor feignHedgingExecutor,
+            MeterRegistry meterRegistry) {
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                if (client instanceof FeignBlockingLoadBalancerClient loadBalancedClient) {
+                    return new HedgingFeignClient(loadBalancedClient, loadBalancedClient.getDelegate(),
+                            discoveryClient, feignHedgingExecutor, meterRegistry,
+                            minDelayMs, maxDelayMs, budgetPercent);
+                }
+                return client;
+            }
+        };
+    }
+}
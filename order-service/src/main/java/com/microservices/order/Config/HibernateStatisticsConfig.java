@@ -0,0 +1,45 @@
+package com.microservices.order.Config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate Statistics Configuration
+ *
+ * Hibernate istatistiklerini Micrometer metriği olarak yayınlar
+ * (hibernate.generate_statistics: true olmalı, aksi halde değerler 0 kalır)
+ *
+ * Prometheus:
+ * - hibernate_statements_total: Hazırlanan JDBC statement sayısı
+ * - hibernate_query_executions_total: Çalıştırılan HQL/JPQL sorgu sayısı
+ * - hibernate_entities_loaded_total / hibernate_collections_fetched_total
+ *   (collections.fetched hızla artıyorsa bir yerde N+1 lazy yükleme var)
+ */
+@Configuration
+public class HibernateStatisticsConfig {
+
+    @Bean
+    public MeterBinder hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            FunctionCounter.builder("hibernate.statements", statistics, Statistics::getPrepareStatementCount)
+                    .description("JDBC statements prepared")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.query.executions", statistics, Statistics::getQueryExecutionCount)
+                    .description("HQL/JPQL queries executed")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.entities.loaded", statistics, Statistics::getEntityLoadCount)
+                    .description("Entities loaded from the database")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.collections.fetched", statistics, Statistics::getCollectionFetchCount)
+                    .description("Collections fetched lazily with a separate select")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.microservices.order.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Order Orchestration Configuration
+ *
+ * Sipariş oluşturulurken User ve Product servislerine yapılan
+ * lookup çağrıları bu executor üzerinde paralel çalıştırılır.
+ *
+ * - Pool ve kuyruk sınırlıdır (downstream servisleri boğmamak için)
+ * - Kuyruk dolarsa çağrı reddedilir (AbortPolicy); LookupFanOut bunu deadline aşımı gibi
+ *   504 olarak döner. İsteği yapan thread'de çalıştırmak (CallerRunsPolicy) deadline'ı by-pass ederdi
+ * - Trace context'i worker thread'lere taşınır (Zipkin'de tek trace görünür)
+ *
+ * Asenkron sipariş kabulünde (OrderAcceptanceService) doğrulamalar ayrı bir
+ * orderAcceptanceExecutor üzerinde çalışır. Bu executor'ın kuyruğu taşmaz:
+ * OrderAcceptanceService pool + kuyruk kadar izin verir, fazlasına 503 döner.
+ */
+@Configuration
+public class OrderOrchestrationConfig {
+
+    @Value("${order.orchestration.lookup-pool-size:16}")
+    private int lookupPoolSize;
+
+    @Value("${order.orchestration.lookup-queue-capacity:200}")
+    private int lookupQueueCapacity;
+
+    @Value("${order.acceptance.worker-pool-size:8}")
+    private int acceptancePoolSize;
+
+    @Value("${order.acceptance.queue-capacity:500}")
+    private int acceptanceQueueCapacity;
+
+    @Bean(name = "orderLookupExecutor")
+    public ThreadPoolTaskExecutor orderLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(lookupPoolSize);
+        executor.setMaxPoolSize(lookupPoolSize);
+        executor.setQueueCapacity(lookupQueueCapacity);
+        executor.setThreadNamePrefix("order-lookup-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "orderAcceptanceExecutor")
+    public ThreadPoolTaskExecutor orderAcceptanceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(acceptancePoolSize);
+        executor.setMaxPoolSize(acceptancePoolSize);
+        // Asıl sınır OrderAcceptanceService'teki izinlerdir (pool + kuyruk); executor kuyruğu
+        // bir pool kadar pay bırakır, böylece biten task thread'i bırakmadan izin iade edildiğinde
+        // yeni task reddedilmez
+        executor.setQueueCapacity(acceptancePoolSize + acceptanceQueueCapacity);
+        executor.setThreadNamePrefix("order-accept-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.microservices.order.Config;
+
+import java.util.regex.Pattern;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+/**
+ * Order Subscription Interceptor
+ * Client'ların sadece tek bir siparişin veya kullanıcının topic'ine subscribe olmasına izin verir
+ * 
+ * İzin verilen destination'lar:
+ * - /topic/order-updates.{orderId}
+ * - /topic/user-orders.{userId}
+ * - /topic/user-orders.{userId}.batch
+ * 
+ * Eski global /topic/order-updates topic'i ve RabbitMQ wildcard'ları (*, #) reddedilir;
+ * aksi halde relay modunda tek bir subscription tüm siparişlerin akışını alabilirdi.
+ * 
+ * Client SEND frame'leri reddedilir: durum güncellemelerini sadece servis yayınlar
+ * (SimpMessagingTemplate inbound channel'dan geçmez); aksi halde bir client /topic'e
+ * doğrudan göndererek başka bir siparişin subscriber'larına sahte durum iletebilirdi.
+ */
+public class OrderSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String UUID_PATTERN = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+
+    private static final Pattern ALLOWED_DESTINATION = Pattern.compile(
+        "/topic/order-updates\\." + UUID_PATTERN
+            + "|/topic/user-orders\\." + UUID_PATTERN + "(\\.batch)?");
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.SEND.equals(accessor.getCommand())) {
+            throw new MessageDeliveryException(message, "Client messages not allowed: " + accessor.getDestination());
+        }
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination == null || !ALLOWED_DESTINATION.matcher(destination).matches()) {
+                throw new MessageDeliveryException(message, "Subscription not allowed: " + destination);
+            }
+        }
+        return message;
+    }
+}
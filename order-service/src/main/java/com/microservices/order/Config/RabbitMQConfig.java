@@ -1,5 +1,6 @@
 package com.microservices.order.Config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
@@ -28,6 +29,11 @@ import java.util.Map;
  * Queue'lar:
  * - order.created: Sipariş oluşturulduğunda gönderilir
  * - order.status.changed: Sipariş durumu değiştiğinde gönderilir
+ * 
+ * Tüketilen event'ler:
+ * - user.events.exchange / user.updated.key: Her instance kendi geçici (anonymous) queue'sunu
+ *   bağlar, böylece tüm instance'ların kullanıcı near-cache'i temizlenir
+ * - product.events.exchange / product.updated.key: Aynı şekilde ürün snapshot cache'i temizlenir
  */
 @Configuration
 public class RabbitMQConfig {
@@ -47,6 +53,14 @@ public class RabbitMQConfig {
     public static final String ORDER_CREATED_DLQ = "order.created.dlq";
     public static final String ORDER_STATUS_CHANGED_DLQ = "order.status.changed.dlq";
 
+    // User Service event'leri (User Service ile aynı olmalı)
+    public static final String USER_EXCHANGE = "user.events.exchange";
+    public static final String ROUTING_KEY_USER_UPDATED = "user.updated.key";
+
+    // Product Service event'leri (Product Service ile aynı olmalı)
+    public static final String PRODUCT_EXCHANGE = "product.events.exchange";
+    public static final String ROUTING_KEY_PRODUCT_UPDATED = "product.updated.key";
+
     /**
      * Order Created Queue
      * Sipariş oluşturulduğunda mesaj gönderilir
@@ -132,6 +146,48 @@ public class RabbitMQConfig {
                              .with(ROUTING_KEY_DLQ);
     }
 
+    /**
+     * User Updated Queue
+     * Instance'a özel, bağlantı kapanınca silinen queue (near-cache invalidation için)
+     */
+    @Bean
+    public Queue userUpdatedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public DirectExchange userExchange() {
+        return new DirectExchange(USER_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Binding userUpdatedBinding(@Qualifier("userUpdatedQueue") Queue userUpdatedQueue, DirectExchange userExchange) {
+        return BindingBuilder.bind(userUpdatedQueue)
+                             .to(userExchange)
+                             .with(ROUTING_KEY_USER_UPDATED);
+    }
+
+    /**
+     * Product Updated Queue
+     * Instance'a özel, bağlantı kapanınca silinen queue (snapshot cache invalidation için)
+     */
+    @Bean
+    public Queue productUpdatedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public DirectExchange productExchange() {
+        return new DirectExchange(PRODUCT_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Binding productUpdatedBinding(@Qualifier("productUpdatedQueue") Queue productUpdatedQueue, DirectExchange productExchange) {
+        return BindingBuilder.bind(productUpdatedQueue)
+                             .to(productExchange)
+                             .with(ROUTING_KEY_PRODUCT_UPDATED);
+    }
+
     /**
      * Jackson2JsonMessageConverter
      * Java objelerini JSON'a, JSON'ı Java objelerine çevirir
@@ -1,6 +1,8 @@
 package com.microservices.order.Config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -12,13 +14,38 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * 
  * STOMP (Simple Text Oriented Messaging Protocol) kullanıyoruz
  * - Client'lar /ws endpoint'ine bağlanır
- * - Server /topic/order-updates/{orderId} topic'ine mesaj gönderir
- * - Client'lar bu topic'i subscribe eder
+ * - Server /topic/order-updates.{orderId} ve /topic/user-orders.{userId} topic'lerine mesaj gönderir
+ * - Client'lar sadece kendi sipariş/kullanıcı topic'lerini subscribe edebilir (OrderSubscriptionInterceptor)
+ * 
+ * Broker modu (order.websocket.broker):
+ * - simple: In-memory broker; mesajlar sadece bu instance'a bağlı client'lara gider (testler, tek instance)
+ * - relay: RabbitMQ STOMP plugin'ine relay; herhangi bir instance'ın gönderdiği mesaj,
+ *   hangi instance'a bağlı olursa olsun subscriber'a ulaşır (birden fazla replica için gerekli)
+ * 
+ * Topic isimlerinde ayırıcı olarak "." kullanılır (RabbitMQ STOMP routing key formatı)
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${order.websocket.broker:simple}")
+    private String brokerMode;
+
+    @Value("${order.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${order.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${order.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${order.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${order.websocket.relay.virtual-host:/}")
+    private String relayVirtualHost;
+
     /**
      * Message Broker Configuration
      * - /topic: Broadcast messages (birden fazla client'a)
@@ -26,15 +53,39 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple broker (in-memory message broker)
-        // Production'da RabbitMQ veya Redis kullanılabilir
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // RabbitMQ STOMP plugin (rabbitmq_stomp, port 61613)
+            // System bağlantısı server'ın gönderdiği mesajlar için, client bağlantıları her WebSocket oturumu için
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setVirtualHost(relayVirtualHost);
+        } else {
+            // In-memory broker (testler ve tek instance için yerel karşılık)
+            config.enableSimpleBroker("/topic", "/queue");
+        }
+        
+        // Aynı oturuma giden mesajlar gönderim sırasıyla iletilsin (durum güncellemeleri sıralı)
+        config.setPreservePublishOrder(true);
         
         // Application destination prefix
-        // Client'lar /app prefix'i ile mesaj gönderir
+        // Client'tan gelen mesajlar için handler yoktur; SEND frame'leri OrderSubscriptionInterceptor reddeder
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    /**
+     * Client'tan gelen SUBSCRIBE ve SEND frame'lerini denetle
+     * Global veya wildcard subscription'lar ve client SEND'leri reddedilir
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new OrderSubscriptionInterceptor());
+    }
+
     /**
      * STOMP Endpoint Registration
      * Client'lar bu endpoint'e bağlanır
@@ -48,4 +99,3 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();  // SockJS fallback (WebSocket desteklemeyen browser'lar için)
     }
 }
-
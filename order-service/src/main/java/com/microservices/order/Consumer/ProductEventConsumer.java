@@ -0,0 +1,32 @@
+package com.microservices.order.Consumer;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.microservices.order.Event.ProductUpdatedEvent;
+import com.microservices.order.Service.ProductSnapshotCache;
+
+/**
+ * Product Event Consumer
+ * 
+ * Product Service'ten gelen product.updated event'lerini dinler ve
+ * ürün snapshot cache'indeki eski kaydı geçersiz kılar
+ */
+@Component
+public class ProductEventConsumer {
+
+    private final ProductSnapshotCache productSnapshotCache;
+
+    public ProductEventConsumer(ProductSnapshotCache productSnapshotCache) {
+        this.productSnapshotCache = productSnapshotCache;
+    }
+
+    @RabbitListener(queues = "#{productUpdatedQueue.name}")
+    public void handleProductUpdated(ProductUpdatedEvent event) {
+        if (event == null || event.getProductId() == null) {
+            return;
+        }
+        // Silinen ürünün version'ı yoktur → kayıt her durumda düşer
+        productSnapshotCache.invalidate(event.getProductId(), event.isDeleted() ? null : event.getVersion());
+    }
+}
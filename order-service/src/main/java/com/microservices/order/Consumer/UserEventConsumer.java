@@ -0,0 +1,31 @@
+package com.microservices.order.Consumer;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import com.microservices.order.Event.UserUpdatedEvent;
+import com.microservices.order.Service.UserNearCache;
+
+/**
+ * User Event Consumer
+ * 
+ * User Service'ten gelen user.updated event'lerini dinler ve
+ * kullanıcı near-cache'indeki kaydı geçersiz kılar
+ */
+@Component
+public class UserEventConsumer {
+
+    private final UserNearCache userNearCache;
+
+    public UserEventConsumer(UserNearCache userNearCache) {
+        this.userNearCache = userNearCache;
+    }
+
+    @RabbitListener(queues = "#{userUpdatedQueue.name}")
+    public void handleUserUpdated(UserUpdatedEvent event) {
+        if (event == null || event.getUserId() == null) {
+            return;
+        }
+        userNearCache.invalidate(event.getUserId());
+    }
+}
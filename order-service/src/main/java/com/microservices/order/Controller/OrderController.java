@@ -1,9 +1,12 @@
 package com.microservices.order.Controller;
 
-import java.util.List;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,85 +15,173 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.microservices.order.DTO.BulkStatusUpdateRequest;
+import com.microservices.order.DTO.BulkStatusUpdateResult;
+import com.microservices.order.DTO.OrderPage;
+import com.microservices.order.DTO.OrderStatsReport;
+import com.microservices.order.DTO.OrderStatusUpdate;
 import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderIntent;
 import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Service.IdempotencyService;
+import com.microservices.order.Service.OrderAcceptanceService;
+import com.microservices.order.Service.OrderExportService;
 import com.microservices.order.Service.OrderService;
+import com.microservices.order.Service.OrderStatsService;
 
 /**
  * Order Controller
  * Sipariş yönetimi için REST API endpoints
  * 
  * Önemli Endpoint'ler:
- * - POST /orders → Yeni sipariş oluştur
+ * - POST /orders → Yeni sipariş oluştur (Prefer: respond-async ile 202 + status URL)
+ * - GET /orders/intents/{id} → Asenkron kabul edilen siparişin durumu
  * - GET /orders/{id} → Sipariş detayı
  * - GET /orders/user/{userId} → Kullanıcının siparişleri
+ * - GET /orders/export → Tüm siparişler (NDJSON stream, admin)
+ * - GET /orders/stats → Durum bazında günlük/saatlik sayım ve ciro (rollup, dashboard)
  * - PATCH /orders/{id}/status → Sipariş durumu güncelle
+ * - PATCH /orders/status/bulk → Birden fazla siparişin durumunu güncelle
  * - PATCH /orders/{id}/cancel → Sipariş iptal et
+ * 
+ * POST /orders ve ödeme callback'leri Idempotency-Key header'ını destekler: aynı anahtarla
+ * tekrar gelen istek yeniden çalışmaz, ilk yanıt döner (IdempotencyService)
+ * 
+ * Liste endpoint'leri sayfalıdır (keyset pagination):
+ * - ?limit=20 (1-100) ve bir önceki yanıttaki nextCursor ile ?cursor=...
+ * - Sıralama: en yeni sipariş önce (createdAt, id)
  */
 @RestController
 @RequestMapping("/orders")  // Gateway zaten /api/orders/** alıyor
 public class OrderController {
+    private static final String DEFAULT_PAGE_SIZE = "20";
+    static final String DEGRADED_VALIDATION_HEADER = "X-Degraded-Validation";
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderAcceptanceService orderAcceptanceService;
+    private final OrderStatsService orderStatsService;
+    private final IdempotencyService idempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(
+            OrderService orderService,
+            OrderExportService orderExportService,
+            OrderAcceptanceService orderAcceptanceService,
+            OrderStatsService orderStatsService,
+            IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.orderAcceptanceService = orderAcceptanceService;
+        this.orderStatsService = orderStatsService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
-     * Tüm siparişleri getir
-     * GET /orders
+     * Tüm siparişleri getir (sayfalı)
+     * GET /orders?limit=20&cursor=...
      * Admin paneli için kullanılır
      */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
+    public ResponseEntity<OrderPage> getAllOrders(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        OrderPage orders = orderService.getAllOrders(cursor, limit);
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Tüm siparişleri NDJSON olarak stream et
+     * GET /orders/export
+     * Admin için: satırlar okundukça yazılır, tablo ne kadar büyük olursa olsun bellek sabit kalır
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = out -> orderExportService.exportOrders(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Sipariş hunisi istatistikleri
+     * GET /orders/stats?from=2024-01-01&to=2024-01-07&granularity=day|hour
+     * 
+     * order_stats_daily rollup'ından okunur (siparişler taranmaz); her kova o gün/saatte
+     * ilgili duruma giren sipariş sayısını ve tutar toplamını içerir.
+     * Varsayılan: son 7 gün, günlük. En fazla 366 gün.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsReport> getOrderStats(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "granularity", defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(orderStatsService.getStats(from, to, granularity));
+    }
+
     /**
      * ID'ye göre sipariş getir
      * GET /orders/{id}
+     * GET /orders/{id}?includeArchived=true → arşivlenmiş siparişlerde de arar (archived: true)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable("id") UUID id) {
-        Order order = orderService.getOrderById(id);
+    public ResponseEntity<Order> getOrderById(
+            @PathVariable("id") UUID id,
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
+        Order order = includeArchived
+                ? orderService.getOrderByIdIncludingArchive(id)
+                : orderService.getOrderById(id);
         return ResponseEntity.ok(order);
     }
 
     /**
-     * User ID'ye göre siparişleri getir
-     * GET /orders/user/{userId}
-     * Kullanıcının tüm siparişlerini listeler
+     * User ID'ye göre siparişleri getir (sayfalı)
+     * GET /orders/user/{userId}?limit=20&cursor=...
+     * Kullanıcının siparişlerini listeler
+     * 
+     * Varsayılan olarak son order.archive.search-window-days gün aranır;
+     * includeArchived=true ile daha eski ve arşivlenmiş siparişler de döner
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getOrdersByUserId(@PathVariable("userId") UUID userId) {
-        List<Order> orders = orderService.getOrdersByUserId(userId);
+    public ResponseEntity<OrderPage> getOrdersByUserId(
+            @PathVariable("userId") UUID userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
+        OrderPage orders = orderService.getOrdersByUserId(userId, cursor, limit, includeArchived);
         return ResponseEntity.ok(orders);
     }
 
     /**
-     * Sipariş durumuna göre filtrele
-     * GET /orders/status?status=PENDING
+     * Sipariş durumuna göre filtrele (sayfalı)
+     * GET /orders/status?status=PENDING&limit=20&cursor=...
      */
     @GetMapping("/status")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@RequestParam("status") OrderStatus status) {
-        List<Order> orders = orderService.getOrdersByStatus(status);
+    public ResponseEntity<OrderPage> getOrdersByStatus(
+            @RequestParam("status") OrderStatus status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        OrderPage orders = orderService.getOrdersByStatus(status, cursor, limit);
         return ResponseEntity.ok(orders);
     }
 
     /**
-     * Kullanıcının belirli durumdaki siparişlerini getir
-     * GET /orders/user/{userId}/status?status=DELIVERED
+     * Kullanıcının belirli durumdaki siparişlerini getir (sayfalı)
+     * GET /orders/user/{userId}/status?status=DELIVERED&limit=20&cursor=...&includeArchived=true
      */
     @GetMapping("/user/{userId}/status")
-    public ResponseEntity<List<Order>> getOrdersByUserIdAndStatus(
+    public ResponseEntity<OrderPage> getOrdersByUserIdAndStatus(
             @PathVariable("userId") UUID userId,
-            @RequestParam("status") OrderStatus status) {
-        List<Order> orders = orderService.getOrdersByUserIdAndStatus(userId, status);
+            @RequestParam("status") OrderStatus status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
+        OrderPage orders = orderService.getOrdersByUserIdAndStatus(userId, status, cursor, limit, includeArchived);
         return ResponseEntity.ok(orders);
     }
 
@@ -115,13 +206,56 @@ public class OrderController {
      *     }
      *   ]
      * }
+     * 
+     * Asenkron mod (order.acceptance.enabled=true iken):
+     * - Header: Prefer: respond-async
+     * - İstek doğrulanmadan kaydedilir, 202 ACCEPTED + Location: /orders/intents/{id} döner
+     * - Sonuç (PENDING/REJECTED) WebSocket'e ve status URL'e yansır
+     * - Kabul kuyruğu doluysa 503 + Retry-After
+     * 
+     * Downstream servislerden biri erişilemezken sipariş son bilinen yanıtlarla doğrulandıysa
+     * yanıtta X-Degraded-Validation: true header'ı döner (order.degradedValidation = true).
+     * 
+     * Idempotency-Key header'ı ile: timeout sonrası tekrar gönderilen istek doğrulama zincirini
+     * yeniden çalıştırmaz, ilk yanıt (Idempotent-Replayed: true) döner; ilk istek hâlâ
+     * işleniyorsa onun bitmesi beklenir. Aynı anahtar farklı gövdeyle kullanılırsa 422.
      */
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
+    public ResponseEntity<?> createOrder(
+            @RequestBody Order order,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("POST /orders", idempotencyKey, order,
+                () -> doCreateOrder(order, prefer));
+    }
+
+    private ResponseEntity<?> doCreateOrder(Order order, String prefer) {
+        if (prefer != null && prefer.contains("respond-async") && orderAcceptanceService.isEnabled()) {
+            OrderIntent intent = orderAcceptanceService.accept(order);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/orders/intents/" + intent.getId()))
+                    .header("Preference-Applied", "respond-async")
+                    .body(intent);
+        }
         Order createdOrder = orderService.createOrder(order);
+        if (createdOrder.isDegradedValidation()) {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(DEGRADED_VALIDATION_HEADER, "true")
+                    .body(createdOrder);
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
+    /**
+     * Asenkron kabul edilen siparişin durumu
+     * GET /orders/intents/{id}
+     * status: ACCEPTED (doğrulanıyor), PENDING (sipariş oluştu, GET /orders/{id}) veya REJECTED
+     */
+    @GetMapping("/intents/{id}")
+    public ResponseEntity<OrderIntent> getOrderIntent(@PathVariable("id") UUID id) {
+        return ResponseEntity.ok(orderAcceptanceService.getIntent(id));
+    }
+
     /**
      * Sipariş güncelle
      * PUT /orders/{id}
@@ -153,6 +287,20 @@ public class OrderController {
         return ResponseEntity.ok(updatedOrder);
     }
 
+    /**
+     * Toplu sipariş durumu güncelle
+     * PATCH /orders/status/bulk
+     * Body: {"orderIds": [...], "status": "SHIPPED"} (en fazla 500 sipariş)
+     * 
+     * Kısmi başarı mümkündür: yanıt her sipariş için success/error içerir
+     * (geçersiz geçişler ve bulunamayan siparişler diğerlerini engellemez)
+     */
+    @PatchMapping("/status/bulk")
+    public ResponseEntity<BulkStatusUpdateResult> updateOrderStatusBulk(@RequestBody BulkStatusUpdateRequest request) {
+        BulkStatusUpdateResult result = orderService.updateOrderStatusBulk(request.getOrderIds(), request.getStatus());
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Sipariş iptal et
      * PATCH /orders/{id}/cancel
@@ -167,31 +315,40 @@ public class OrderController {
     /**
      * Ödeme başlatıldı (payment intent created)
      * PATCH /orders/{id}/payment/pending
+     * 
+     * Ödeme/iade endpoint'leri siparişin tamamını değil durum geçişini (OrderStatusUpdate) döner:
+     * sipariş kalemleri yüklenmez. Sipariş zaten hedef durumdaysa geçiş tekrar yapılmaz (200).
+     * Eşzamanlı bir geçiş kazanırsa 409 CONCURRENT_MODIFICATION.
      */
     @PatchMapping("/{id}/payment/pending")
-    public ResponseEntity<Order> markPaymentPending(@PathVariable("id") UUID id) {
-        Order order = orderService.markPaymentPending(id);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<OrderStatusUpdate> markPaymentPending(@PathVariable("id") UUID id) {
+        return ResponseEntity.ok(orderService.markPaymentPending(id));
     }
 
     /**
      * Ödeme başarılı callback
      * PATCH /orders/{id}/payment/success
+     * PSP retry'ları Idempotency-Key ile gelirse ilk yanıt tekrar döner
      */
     @PatchMapping("/{id}/payment/success")
-    public ResponseEntity<Order> markPaymentSuccess(@PathVariable("id") UUID id) {
-        Order order = orderService.markPaymentSuccess(id);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<?> markPaymentSuccess(
+            @PathVariable("id") UUID id,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payment-success:" + id, idempotencyKey, null,
+                () -> ResponseEntity.ok(orderService.markPaymentSuccess(id)));
     }
 
     /**
      * Ödeme başarısız callback
      * PATCH /orders/{id}/payment/failed
+     * PSP retry'ları Idempotency-Key ile gelirse ilk yanıt tekrar döner
      */
     @PatchMapping("/{id}/payment/failed")
-    public ResponseEntity<Order> markPaymentFailed(@PathVariable("id") UUID id) {
-        Order order = orderService.markPaymentFailed(id);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<?> markPaymentFailed(
+            @PathVariable("id") UUID id,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payment-failed:" + id, idempotencyKey, null,
+                () -> ResponseEntity.ok(orderService.markPaymentFailed(id)));
     }
 
     /**
@@ -199,9 +356,8 @@ public class OrderController {
      * PATCH /orders/{id}/refund/request
      */
     @PatchMapping("/{id}/refund/request")
-    public ResponseEntity<Order> requestRefund(@PathVariable("id") UUID id) {
-        Order order = orderService.requestRefund(id);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<OrderStatusUpdate> requestRefund(@PathVariable("id") UUID id) {
+        return ResponseEntity.ok(orderService.requestRefund(id));
     }
 
     /**
@@ -209,9 +365,8 @@ public class OrderController {
      * PATCH /orders/{id}/refund/approve
      */
     @PatchMapping("/{id}/refund/approve")
-    public ResponseEntity<Order> approveRefund(@PathVariable("id") UUID id) {
-        Order order = orderService.approveRefund(id);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<OrderStatusUpdate> approveRefund(@PathVariable("id") UUID id) {
+        return ResponseEntity.ok(orderService.approveRefund(id));
     }
 
     /**
@@ -1,68 +1,89 @@
 package com.microservices.order.Controller;
 
+import java.util.List;
 import java.util.UUID;
 
-import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import com.microservices.order.DTO.OrderStatusUpdate;
+import com.microservices.order.Service.OrderUpdateCoalescer;
 
 import lombok.RequiredArgsConstructor;
 
 /**
  * WebSocket Controller
  * Real-time order status updates için
- * 
+ *
  * Kullanım:
- * - Client /topic/order-updates/{orderId} topic'ini subscribe eder
- * - Order status değiştiğinde bu controller mesaj gönderir
+ * - Client /topic/order-updates.{orderId} topic'ini subscribe eder (tek sipariş)
+ * - Client /topic/user-orders.{userId} topic'ini subscribe eder (kullanıcının siparişleri)
+ * - Order status değiştiğinde bu controller sadece ilgili topic'lere mesaj gönderir
+ *   (tüm subscriber'lara giden global broadcast yoktur)
+ * - Client'tan gelen (/app) mesajlar için handler yoktur: durum güncellemelerini sadece servis yayınlar,
+ *   bir client başka bir siparişin topic'ine sahte durum gönderemez
+ * - Toplu güncellemelerde /topic/user-orders.{userId}.batch topic'ine liste halinde tek frame gönderilir
+ * - Servis tarafı gönderimler OrderUpdateCoalescer üzerinden geçer: kısa pencere içinde
+ *   aynı siparişin ardışık geçişleri tek mesaja indirgenir
+ *
+ * Relay modunda (WebSocketConfig) mesajlar RabbitMQ üzerinden yönlendirilir;
+ * hangi instance gönderirse göndersin client'a ulaşır.
  */
 @Controller
 @RequiredArgsConstructor
 public class OrderWebSocketController {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    public static final String ORDER_TOPIC_PREFIX = "/topic/order-updates.";
+    public static final String USER_TOPIC_PREFIX = "/topic/user-orders.";
 
-    /**
-     * Order status update mesajını broadcast et
-     * 
-     * @param update Order status update DTO
-     * @return Update mesajı (tüm subscriber'lara gönderilir)
-     */
-    @MessageMapping("/order/status")
-    @SendTo("/topic/order-updates")
-    public OrderStatusUpdate broadcastOrderUpdate(OrderStatusUpdate update) {
-        return update;
+    private final OrderUpdateCoalescer orderUpdateCoalescer;
+
+    public static String orderDestination(UUID orderId) {
+        return ORDER_TOPIC_PREFIX + orderId;
+    }
+
+    public static String userDestination(UUID userId) {
+        return USER_TOPIC_PREFIX + userId;
+    }
+
+    public static String userBatchDestination(UUID userId) {
+        return USER_TOPIC_PREFIX + userId + ".batch";
     }
 
     /**
      * Belirli bir sipariş için status update gönder
      * OrderService'den çağrılır
-     * 
+     *
      * @param orderId Sipariş ID
      * @param update Status update DTO
      */
     public void sendOrderStatusUpdate(UUID orderId, OrderStatusUpdate update) {
-        // Belirli sipariş için topic'e mesaj gönder
-        // Client: /topic/order-updates/{orderId} subscribe eder
-        messagingTemplate.convertAndSend("/topic/order-updates/" + orderId, update);
-        
-        // Ayrıca genel topic'e de gönder (tüm siparişler için)
-        messagingTemplate.convertAndSend("/topic/order-updates", update);
+        // Client: /topic/order-updates.{orderId} subscribe eder
+        orderUpdateCoalescer.submitOrderUpdate(orderId, update);
     }
 
     /**
      * Kullanıcının tüm siparişleri için update gönder
-     * 
+     *
      * @param userId Kullanıcı ID
      * @param update Status update DTO
      */
     public void sendUserOrderUpdate(UUID userId, OrderStatusUpdate update) {
-        // Kullanıcı bazlı topic'e mesaj gönder
-        // Client: /topic/user-orders/{userId} subscribe eder
-        messagingTemplate.convertAndSend("/topic/user-orders/" + userId, update);
+        // Client: /topic/user-orders.{userId} subscribe eder
+        orderUpdateCoalescer.submitUserUpdate(userId, update);
     }
-}
 
+    /**
+     * Toplu durum güncellemelerini gönder
+     *
+     * - Sipariş bazlı topic'lere her sipariş için bir mesaj (subscriber'ları farklı)
+     * - Her kullanıcıya kendi siparişlerinin listesi tek frame (kullanıcı başına N mesaj yerine 1)
+     *
+     * @param updates Status update DTO listesi
+     */
+    public void sendOrderStatusUpdates(List<OrderStatusUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        orderUpdateCoalescer.submitAll(updates);
+    }
+}
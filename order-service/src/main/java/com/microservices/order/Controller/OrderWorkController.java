@@ -0,0 +1,44 @@
+package com.microservices.order.Controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.microservices.order.DTO.WorkClaim;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Service.OrderWorkQueueService;
+
+/**
+ * Order Work Controller
+ * Fulfilment worker'ları için iş kuyruğu API'si
+ *
+ * Worker'lar GET /orders/status ile tüm listeyi çekip aynı siparişler için yarışmak yerine
+ * kendilerine ayrılmış bir batch claim eder.
+ */
+@RestController
+@RequestMapping("/orders/work")
+public class OrderWorkController {
+    private final OrderWorkQueueService orderWorkQueueService;
+
+    public OrderWorkController(OrderWorkQueueService orderWorkQueueService) {
+        this.orderWorkQueueService = orderWorkQueueService;
+    }
+
+    /**
+     * Sipariş batch'i claim et
+     * POST /orders/work/claim?status=CONFIRMED&limit=50&workerId=warehouse-1
+     *
+     * Dönen siparişler lease süresi boyunca başka worker'a verilmez.
+     * Boş liste: şu an claim edilebilir sipariş yok.
+     */
+    @PostMapping("/claim")
+    public ResponseEntity<WorkClaim> claim(
+            @RequestParam(value = "status", defaultValue = "CONFIRMED") OrderStatus status,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "workerId", required = false) String workerId) {
+        WorkClaim claim = orderWorkQueueService.claim(status, limit, workerId);
+        return ResponseEntity.ok(claim);
+    }
+}
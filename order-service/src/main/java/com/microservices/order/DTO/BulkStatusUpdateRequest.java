@@ -0,0 +1,22 @@
+package com.microservices.order.DTO;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.microservices.order.Model.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bulk Status Update Request DTO
+ * PATCH /orders/status/bulk isteği
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+    private List<UUID> orderIds;
+    private OrderStatus status;
+}
@@ -0,0 +1,49 @@
+package com.microservices.order.DTO;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.microservices.order.Model.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bulk Status Update Result DTO
+ * PATCH /orders/status/bulk yanıtı
+ *
+ * Toplu güncelleme kısmi başarılı olabilir: geçersiz geçişler ve bulunamayan
+ * siparişler results içinde success=false ve hata mesajı ile raporlanır,
+ * geri kalanlar yine güncellenir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResult {
+    private OrderStatus status;
+    private int updated;
+    private int failed;
+    private List<Item> results;
+
+    /**
+     * Sipariş bazında sonuç (istekteki sırayla)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private UUID orderId;
+        private boolean success;
+        private OrderStatus oldStatus;
+        private String error;
+
+        public static Item success(UUID orderId, OrderStatus oldStatus) {
+            return new Item(orderId, true, oldStatus, null);
+        }
+
+        public static Item failure(UUID orderId, OrderStatus oldStatus, String error) {
+            return new Item(orderId, false, oldStatus, error);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.microservices.order.DTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.microservices.order.Model.Order;
+
+/**
+ * Order Cursor
+ * Keyset pagination için (createdAt, id) ikilisi
+ *
+ * Client'a opak bir string olarak verilir (Base64 URL-safe), bir sonraki sayfa
+ * bu değerden sonraki (daha eski) siparişlerle başlar. OFFSET kullanılmadığı için
+ * sayfa numarası ne olursa olsun sorgu maliyeti sabittir.
+ */
+public record OrderCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Client'tan gelen cursor'ı çöz
+     * Geçersizse IllegalArgumentException (400 Bad Request)
+     */
+    public static OrderCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw invalid(cursor);
+        }
+        try {
+            return new OrderCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String cursor) {
+        return new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.order.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.microservices.order.Model.OrderStatus;
+
+/**
+ * Order Export Row
+ * Admin NDJSON export'unun her satırı
+ *
+ * JPQL constructor projection ile doğrudan oluşturulur: entity yüklenmez,
+ * persistence context büyümez, OrderItem'lar için ek sorgu atılmaz.
+ */
+public record OrderExportRow(
+        UUID id,
+        UUID userId,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        String city,
+        String zipCode,
+        String customerEmail,
+        String customerName,
+        LocalDateTime orderDate,
+        LocalDateTime deliveryDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,24 @@
+package com.microservices.order.DTO;
+
+import java.util.List;
+
+import com.microservices.order.Model.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order Page DTO
+ * Keyset pagination ile dönen sipariş sayfası
+ *
+ * nextCursor: Bir sonraki sayfa için ?cursor= parametresine verilir (son sayfada null)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+    private List<Order> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
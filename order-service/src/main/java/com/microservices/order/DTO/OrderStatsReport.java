@@ -0,0 +1,58 @@
+package com.microservices.order.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.microservices.order.Model.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order Stats Report DTO
+ * GET /orders/stats yanıtı (order_stats_daily rollup'ından)
+ *
+ * buckets: Kova başlangıcı ve durum sırasıyla; sipariş olmayan kovalar dönmez.
+ * orderCount/revenue o kovada ilgili duruma GİREN siparişlerdir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsReport {
+    private Granularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Bucket> buckets;
+
+    public enum Granularity {
+        DAY,
+        HOUR
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDateTime start;
+        private OrderStatus status;
+        private long orderCount;
+        private BigDecimal revenue;
+
+        /**
+         * Günlük kova (JPQL constructor expression)
+         */
+        public Bucket(LocalDate day, OrderStatus status, Long orderCount, BigDecimal revenue) {
+            this(day.atStartOfDay(), status, orderCount, revenue);
+        }
+
+        /**
+         * Saatlik kova (JPQL constructor expression)
+         */
+        public Bucket(LocalDate day, Integer hour, OrderStatus status, Long orderCount, BigDecimal revenue) {
+            this(day.atTime(hour, 0), status, orderCount, revenue);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.order.DTO;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.microservices.order.Model.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order Status View DTO
+ * Durum geçişi için gereken sipariş alanları (OrderItem'lar yüklenmez)
+ *
+ * Ödeme/iade callback'leri siparişi entity olarak okumaz: bu projeksiyon okunur,
+ * durum koşullu UPDATE ile değiştirilir (OrderRepository.transitionStatus).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusView {
+    private UUID id;
+    private UUID userId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private String customerEmail;
+    private String customerName;
+}
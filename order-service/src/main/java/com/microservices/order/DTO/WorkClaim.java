@@ -0,0 +1,26 @@
+package com.microservices.order.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.microservices.order.Model.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Work Claim DTO
+ * POST /orders/work/claim yanıtı
+ *
+ * Worker, leaseExpiresAt'e kadar siparişleri işleyip durumlarını güncellemelidir;
+ * aksi halde siparişler tekrar kuyruğa düşer ve başka bir worker'a verilebilir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkClaim {
+    private String workerId;
+    private LocalDateTime leaseExpiresAt;
+    private List<Order> orders;
+}
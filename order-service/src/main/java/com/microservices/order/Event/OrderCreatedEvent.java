@@ -2,9 +2,13 @@ package com.microservices.order.Event;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderItem;
+
 /**
  * Order Created Event
  * 
@@ -51,6 +55,38 @@ public class OrderCreatedEvent {
         this.orderItems = orderItems;
     }
 
+    /**
+     * Kaydedilmiş siparişten event oluştur
+     * OrderItem'lar bellekteki listeden okunur (yeniden fetch gerekmez)
+     */
+    public static OrderCreatedEvent from(Order order) {
+        List<OrderItem> items = order.getOrderItems() != null ? order.getOrderItems() : List.of();
+        List<OrderItemInfo> orderItemInfos = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            orderItemInfos.add(new OrderItemInfo(
+                item.getProductId(),
+                item.getProductName(),
+                item.getQuantity(),
+                item.getPrice(),
+                item.getSubtotal()
+            ));
+        }
+        
+        return new OrderCreatedEvent(
+            order.getId(),
+            order.getUserId(),
+            order.getCustomerEmail(),
+            order.getCustomerName(),
+            order.getTotalAmount(),
+            order.getShippingAddress(),
+            order.getCity(),
+            order.getZipCode(),
+            order.getPhoneNumber(),
+            order.getOrderDate(),
+            orderItemInfos
+        );
+    }
+
     // Getters and Setters
     public UUID getOrderId() {
         return orderId;
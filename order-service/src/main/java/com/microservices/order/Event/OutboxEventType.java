@@ -0,0 +1,61 @@
+package com.microservices.order.Event;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.microservices.order.Config.RabbitMQConfig;
+
+/**
+ * Outbox Event Type
+ * order_outbox tablosundaki her satırın hangi event'i taşıdığını belirtir
+ * 
+ * Relay, payload'ı bu tipe göre deserialize eder ve ilgili routing key ile gönderir.
+ * Routing key'i olmayan tipler broker'a gitmez: Inventory Service'e iletilen rezervasyon
+ * komutlarıdır ve ReservationCommandRelay tarafından işlenir.
+ */
+public enum OutboxEventType {
+    
+    ORDER_CREATED(OrderCreatedEvent.class, RabbitMQConfig.ROUTING_KEY_CREATED),
+    
+    ORDER_STATUS_CHANGED(OrderStatusChangedEvent.class, RabbitMQConfig.ROUTING_KEY_STATUS_CHANGED),
+    
+    RESERVATION_CONFIRM(ReservationCommand.class, null),
+    
+    RESERVATION_RELEASE(ReservationCommand.class, null);
+    
+    private static final List<OutboxEventType> BROKER_EVENTS =
+        Arrays.stream(values()).filter(OutboxEventType::isBrokerEvent).toList();
+    private static final List<OutboxEventType> RESERVATION_COMMANDS =
+        Arrays.stream(values()).filter(type -> !type.isBrokerEvent()).toList();
+    
+    private final Class<?> payloadClass;
+    private final String routingKey;
+    
+    OutboxEventType(Class<?> payloadClass, String routingKey) {
+        this.payloadClass = payloadClass;
+        this.routingKey = routingKey;
+    }
+    
+    public Class<?> getPayloadClass() {
+        return payloadClass;
+    }
+    
+    public String getRoutingKey() {
+        return routingKey;
+    }
+    
+    /**
+     * RabbitMQ'ya yayınlanan event mi? (OrderOutboxRelay)
+     */
+    public boolean isBrokerEvent() {
+        return routingKey != null;
+    }
+    
+    public static List<OutboxEventType> brokerEvents() {
+        return BROKER_EVENTS;
+    }
+    
+    public static List<OutboxEventType> reservationCommands() {
+        return RESERVATION_COMMANDS;
+    }
+}
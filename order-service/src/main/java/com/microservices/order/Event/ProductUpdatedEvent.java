@@ -0,0 +1,65 @@
+package com.microservices.order.Event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Product Updated Event
+ * 
+ * Product Service bir ürünü güncellediğinde veya sildiğinde gönderilir
+ * Order Service bu event ile ürün snapshot cache'indeki eski kaydı geçersiz kılar
+ * 
+ * version: Güncelleme sonrası ürün version'ı (silmede null)
+ */
+public class ProductUpdatedEvent {
+
+    private UUID productId;
+    private Long version;
+    private boolean deleted;
+    private LocalDateTime updatedAt;
+
+    // Default constructor (Jackson için gerekli)
+    public ProductUpdatedEvent() {
+    }
+
+    // Constructor
+    public ProductUpdatedEvent(UUID productId, Long version, boolean deleted, LocalDateTime updatedAt) {
+        this.productId = productId;
+        this.version = version;
+        this.deleted = deleted;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
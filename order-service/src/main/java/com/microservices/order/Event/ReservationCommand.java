@@ -0,0 +1,41 @@
+package com.microservices.order.Event;
+
+import java.util.UUID;
+
+/**
+ * Reservation Command
+ * 
+ * Inventory Service'e iletilecek rezervasyon komutu (onay veya serbest bırakma)
+ * Siparişin durum değişikliğiyle aynı transaction'da order_outbox'a yazılır,
+ * ReservationCommandRelay başarılı olana kadar tekrar dener
+ */
+public class ReservationCommand {
+    
+    private UUID reservationId;
+    private UUID orderId;
+
+    // Default constructor (Jackson için gerekli)
+    public ReservationCommand() {
+    }
+
+    public ReservationCommand(UUID reservationId, UUID orderId) {
+        this.reservationId = reservationId;
+        this.orderId = orderId;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(UUID reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(UUID orderId) {
+        this.orderId = orderId;
+    }
+}
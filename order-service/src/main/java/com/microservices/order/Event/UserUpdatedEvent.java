@@ -0,0 +1,53 @@
+package com.microservices.order.Event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * User Updated Event
+ * 
+ * User Service bir kullanıcıyı güncellediğinde veya sildiğinde gönderilir
+ * Order Service bu event ile kullanıcı near-cache'indeki kaydı geçersiz kılar
+ */
+public class UserUpdatedEvent {
+
+    private UUID userId;
+    private boolean deleted;
+    private LocalDateTime updatedAt;
+
+    // Default constructor (Jackson için gerekli)
+    public UserUpdatedEvent() {
+    }
+
+    // Constructor
+    public UserUpdatedEvent(UUID userId, boolean deleted, LocalDateTime updatedAt) {
+        this.userId = userId;
+        this.deleted = deleted;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
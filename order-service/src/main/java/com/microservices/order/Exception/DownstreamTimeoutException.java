@@ -0,0 +1,16 @@
+package com.microservices.order.Exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Downstream servis çağrıları belirlenen süre içinde tamamlanmadığında fırlatılan exception
+ * @ResponseStatus: Otomatik olarak 504 GATEWAY_TIMEOUT döner
+ */
+@ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT, reason = "Downstream services timed out")
+public class DownstreamTimeoutException extends RuntimeException {
+    
+    public DownstreamTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.microservices.order.Exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Downstream servis erişilemediğinde ve son bilinen değer de olmadığında fırlatılan exception
+ * (ör. fiyatı bilinmeyen ürünle sipariş oluşturulamaz)
+ * @ResponseStatus: Otomatik olarak 503 SERVICE_UNAVAILABLE döner
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Downstream service unavailable")
+public class DownstreamUnavailableException extends RuntimeException {
+    
+    public DownstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,7 @@
 package com.microservices.order.Exception;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -64,6 +66,125 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * DownstreamTimeoutException için handler
+     * 504 GATEWAY_TIMEOUT döner
+     * 
+     * Örnek: Sipariş oluştururken User/Product lookup'ları deadline'ı aştığında
+     */
+    @ExceptionHandler(DownstreamTimeoutException.class)
+    public ResponseEntity<ErrorDetails> handleDownstreamTimeoutException(
+            DownstreamTimeoutException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "DOWNSTREAM_TIMEOUT",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    /**
+     * DownstreamUnavailableException için handler
+     * 503 SERVICE_UNAVAILABLE döner
+     * 
+     * Örnek: Product Service erişilemiyor ve ürünün son bilinen fiyatı yok
+     */
+    @ExceptionHandler(DownstreamUnavailableException.class)
+    public ResponseEntity<ErrorDetails> handleDownstreamUnavailableException(
+            DownstreamUnavailableException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "DOWNSTREAM_UNAVAILABLE",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * OrderIntakeSaturatedException için handler
+     * 503 SERVICE_UNAVAILABLE + Retry-After döner
+     * 
+     * Örnek: Asenkron sipariş kabul kuyruğu doluyken gelen istek (backpressure)
+     */
+    @ExceptionHandler(OrderIntakeSaturatedException.class)
+    public ResponseEntity<ErrorDetails> handleOrderIntakeSaturatedException(
+            OrderIntakeSaturatedException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "ORDER_INTAKE_SATURATED",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    /**
+     * IdempotencyKeyConflictException için handler
+     * 409 CONFLICT + Retry-After döner
+     * 
+     * Örnek: Aynı Idempotency-Key ile gelen ilk istek bekleme süresi içinde bitmedi
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ErrorDetails> handleIdempotencyKeyConflictException(
+            IdempotencyKeyConflictException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "IDEMPOTENCY_KEY_IN_PROGRESS",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    /**
+     * IdempotencyKeyMismatchException için handler
+     * 422 UNPROCESSABLE_ENTITY döner
+     * 
+     * Örnek: Idempotency-Key farklı bir sipariş gövdesiyle tekrar kullanıldı
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorDetails> handleIdempotencyKeyMismatchException(
+            IdempotencyKeyMismatchException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "IDEMPOTENCY_KEY_REUSED",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+    
+    /**
+     * ObjectOptimisticLockingFailureException için handler
+     * 409 CONFLICT döner
+     * 
+     * Örnek: Sipariş durumu aynı anda başka bir istek tarafından değiştirildi
+     * (@Version veya WHERE status = :expected koşulu tutmadı), istemci yeniden denemeli
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailureException(
+            ObjectOptimisticLockingFailureException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "CONCURRENT_MODIFICATION",
+            "Order was modified concurrently, please retry",
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     /**
      * IllegalArgumentException için handler
      * 400 BAD_REQUEST döner
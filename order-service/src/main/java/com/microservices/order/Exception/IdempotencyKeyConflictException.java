@@ -0,0 +1,19 @@
+package com.microservices.order.Exception;
+
+/**
+ * Aynı Idempotency-Key ile gelen ilk istek hâlâ işlenirken bekleme süresi dolduğunda fırlatılan exception
+ * GlobalExceptionHandler tarafından 409 CONFLICT + Retry-After olarak döner
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public IdempotencyKeyConflictException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
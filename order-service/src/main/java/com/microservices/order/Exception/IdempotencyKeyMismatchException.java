@@ -0,0 +1,12 @@
+package com.microservices.order.Exception;
+
+/**
+ * Idempotency-Key daha önce farklı bir istek gövdesiyle kullanıldığında fırlatılan exception
+ * GlobalExceptionHandler tarafından 422 UNPROCESSABLE_ENTITY olarak döner
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.microservices.order.Exception;
+
+/**
+ * Asenkron sipariş kabul kuyruğu dolu olduğunda fırlatılan exception
+ * GlobalExceptionHandler tarafından 503 SERVICE_UNAVAILABLE + Retry-After olarak döner
+ */
+public class OrderIntakeSaturatedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public OrderIntakeSaturatedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
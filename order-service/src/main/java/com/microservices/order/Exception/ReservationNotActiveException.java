@@ -0,0 +1,13 @@
+package com.microservices.order.Exception;
+
+/**
+ * Inventory Service rezervasyonu artık aktif olmadığı için reddettiğinde fırlatılan exception (409)
+ * Rezervasyonun süresi dolmuş ve stoğu başka bir siparişe verilmiştir; tekrar denemek sonucu
+ * değiştirmez, sipariş telafi edilmelidir (OrderService.compensateLostReservation)
+ */
+public class ReservationNotActiveException extends RuntimeException {
+    
+    public ReservationNotActiveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
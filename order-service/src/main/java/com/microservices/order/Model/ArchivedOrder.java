@@ -0,0 +1,83 @@
+package com.microservices.order.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Archived Order Entity
+ * OrderArchivalJob'ın orders tablosundan taşıdığı eski DELIVERED/CANCELLED/REFUNDED siparişler
+ * 
+ * Önemli Notlar:
+ * - Sipariş başına tek satır; kalemler items kolonunda JSON dizisi olarak tutulur
+ *   (PostgreSQL'de lz4 ile sıkıştırılır, order_items tablosunda satır kalmaz)
+ * - Salt okunur: sadece opt-in archive aramalarında (includeArchived=true) okunur
+ * - API'ye Order olarak döner (OrderArchiveService), Order.archived = true
+ */
+@Entity
+@Table(name = "orders_archive")
+@Data
+@NoArgsConstructor
+public class ArchivedOrder {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(length = 500)
+    private String shippingAddress;
+
+    @Column(length = 50)
+    private String city;
+
+    @Column(length = 10)
+    private String zipCode;
+
+    @Column(length = 15)
+    private String phoneNumber;
+
+    private String customerEmail;
+
+    private String customerName;
+
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+
+    private LocalDateTime deliveryDate;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    /**
+     * Kalemlerin JSON dizisi: [{"id", "productId", "productName", "quantity", "price", "subtotal"}, ...]
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String items;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,64 @@
+package com.microservices.order.Model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Idempotency Record Entity
+ * Idempotency-Key header'ı ile gelen isteğin durumu ve saklanan yanıtı (IdempotencyService)
+ * 
+ * Önemli Notlar:
+ * - id: "<scope>:<Idempotency-Key>" (ör. "POST /orders:abc-123"); tekrar istek tek PK okumasıdır
+ * - IN_PROGRESS: ilk istek çalışıyor, claimToken sahibi lockedUntil'e kadar tutar
+ * - COMPLETED: yanıt (status, header'lar, JSON body) expiresAt'e kadar aynen tekrar döner
+ * - requestHash: aynı anahtarla farklı body gönderilmesini yakalamak için (SHA-256)
+ */
+@Entity
+@Table(name = "order_idempotency_keys")
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    @Id
+    @Column(length = 400)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private UUID claimToken;
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseHeaders;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -16,6 +16,8 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -174,6 +176,17 @@ public class Order {
     @Size(min = 10, max = 15, message = "Phone number must be between 10 and 15 characters")
     private String phoneNumber;
     
+    /**
+     * Müşteri İletişim Snapshot'ı
+     * Sipariş oluşturulurken User Service'den zaten çekilen kullanıcıdan kopyalanır
+     * Durum değişikliği event'leri bu alanları kullanır (User Service'e tekrar gidilmez)
+     */
+    @Size(max = 255, message = "Customer email must be at most 255 characters")
+    private String customerEmail;
+    
+    @Size(max = 255, message = "Customer name must be at most 255 characters")
+    private String customerName;
+    
     /**
      * Sipariş Tarihi
      * Siparişin oluşturulduğu tarih
@@ -202,6 +215,48 @@ public class Order {
      */
     private String notes;
     
+    /**
+     * Stok Rezervasyon ID'si
+     * Sipariş onaylandığında (PENDING → CONFIRMED) Inventory Service'in döndüğü ID
+     * İptal edildiğinde rezervasyon bu ID ile toplu olarak serbest bırakılır
+     */
+    private UUID reservationId;
+    
+    /**
+     * Fulfilment İş Kuyruğu Lease'i
+     * POST /orders/work/claim ile siparişi alan worker ve lease bitiş zamanı
+     * Lease süresi dolarsa sipariş tekrar claim edilebilir (otomatik re-queue)
+     * Durum değiştiğinde lease temizlenir (iş tamamlandı)
+     */
+    private String claimedBy;
+    
+    private LocalDateTime claimExpiresAt;
+    
+    /**
+     * Degraded Validation
+     * Sipariş oluşturulurken User/Product/Inventory servislerinden biri erişilemezdi ve
+     * doğrulama son bilinen (stale) yanıtlarla yapıldı (LastKnownGoodCache)
+     * POST /orders yanıtında X-Degraded-Validation header'ı ile de bildirilir
+     */
+    private boolean degradedValidation;
+    
+    /**
+     * Optimistic Locking Versiyonu
+     * Entity kaydedilirken Hibernate kontrol eder ve artırır; eşzamanlı güncellemede
+     * ObjectOptimisticLockingFailureException (409)
+     * Toplu/koşullu JPQL UPDATE'ler (OrderRepository) versiyonu kendileri artırır
+     */
+    @Version
+    private Long version;
+    
+    /**
+     * Archive'dan okundu mu?
+     * Sadece opt-in archive aramalarında (includeArchived=true) orders_archive'dan gelen siparişlerde true
+     * Veritabanına yazılmaz
+     */
+    @Transient
+    private boolean archived;
+    
     /**
      * Toplam tutarı hesapla
      * Tüm OrderItem'ların subtotal'ları toplamı
@@ -244,9 +299,12 @@ public class Order {
     /**
      * Sipariş durumunu güncelle
      * DELIVERED durumunda deliveryDate set edilir
+     * İş kuyruğu lease'i serbest bırakılır
      */
     public void updateStatus(OrderStatus newStatus) {
         this.status = newStatus;
+        this.claimedBy = null;
+        this.claimExpiresAt = null;
         if (newStatus == OrderStatus.DELIVERED && deliveryDate == null) {
             deliveryDate = LocalDateTime.now();
         }
@@ -0,0 +1,82 @@
+package com.microservices.order.Model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order Intent Entity
+ * Asenkron sipariş kabulünde (POST /orders, Prefer: respond-async) kaydedilen hafif istek
+ * 
+ * Önemli Notlar:
+ * - Tomcat thread'i sadece bu satırı yazar ve 202 döner; doğrulama worker'da yapılır
+ * - Durum: ACCEPTED → PENDING (sipariş oluştu) veya REJECTED (rejectionReason dolu)
+ * - Sipariş aynı ID ile oluşturulur: PENDING olduktan sonra GET /orders/{id} ile okunabilir
+ */
+@Entity
+@Table(name = "order_intents")
+@Data
+@NoArgsConstructor
+public class OrderIntent {
+    
+    @Id
+    private UUID id;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (acceptedAt == null) {
+            acceptedAt = LocalDateTime.now();
+        }
+        if (status == null) {
+            status = OrderStatus.ACCEPTED;
+        }
+    }
+    
+    @Column(nullable = false)
+    private UUID userId;
+    
+    /**
+     * ACCEPTED, PENDING veya REJECTED
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+    
+    /**
+     * Orijinal sipariş isteğinin JSON hali (worker bunu createOrder'a verir)
+     */
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(length = 500)
+    private String rejectionReason;
+    
+    @Column(nullable = false)
+    private LocalDateTime acceptedAt;
+    
+    private LocalDateTime decidedAt;
+    
+    /**
+     * Worker kararını işle
+     */
+    public void decide(OrderStatus outcome, String reason) {
+        this.status = outcome;
+        this.rejectionReason = reason;
+        this.decidedAt = LocalDateTime.now();
+    }
+}
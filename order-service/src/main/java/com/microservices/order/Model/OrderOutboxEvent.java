@@ -0,0 +1,101 @@
+package com.microservices.order.Model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.microservices.order.Event.OutboxEventType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order Outbox Event Entity
+ * Transactional outbox: RabbitMQ'ya gidecek event'ler önce siparişle aynı
+ * transaction'da bu tabloya yazılır, OrderOutboxRelay arka planda yayınlar
+ * 
+ * Önemli Notlar:
+ * - ID artan bir sayıdır (yayın sırası = yazılma sırası, sipariş bazında sıra korunur)
+ * - publishedAt null ise event henüz broker'a iletilmemiştir
+ * - Yayınlanamayan satırın deneme sayısı (attempts) ve son hatası tutulur; deserialize edilemeyen
+ *   veya order.outbox.max-attempts kez yayınlanamayan satır failedAt ile dead-letter'a alınır
+ *   (relay artık bu satırı almaz, tablo elle incelenir)
+ * - Payload JSON olarak saklanır, tipi eventType ile belirlenir
+ */
+@Entity
+@Table(name = "order_outbox")
+@Data
+@NoArgsConstructor
+public class OrderOutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+    
+    /**
+     * Event'in ait olduğu sipariş
+     */
+    @Column(nullable = false)
+    private UUID orderId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private OutboxEventType eventType;
+    
+    /**
+     * Event'in JSON hali
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    /**
+     * Broker'ın publisher confirm ile onayladığı an
+     */
+    private LocalDateTime publishedAt;
+    
+    /**
+     * Başarısız yayın denemesi sayısı
+     */
+    @Column(nullable = false)
+    private int attempts;
+    
+    /**
+     * Son yayın hatası (kısaltılmış)
+     */
+    @Column(length = 500)
+    private String lastError;
+    
+    /**
+     * Dead-letter anı: satır artık relay tarafından alınmaz
+     */
+    private LocalDateTime failedAt;
+    
+    /**
+     * Bir sonraki deneme zamanı (rezervasyon komutlarının backoff'u; null = hemen)
+     */
+    private LocalDateTime nextAttemptAt;
+    
+    public OrderOutboxEvent(UUID orderId, OutboxEventType eventType, String payload) {
+        this.orderId = orderId;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+}
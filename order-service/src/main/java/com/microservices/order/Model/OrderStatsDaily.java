@@ -0,0 +1,39 @@
+package com.microservices.order.Model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order Stats Daily Entity
+ * Sipariş hunisi için saatlik rollup (GET /orders/stats)
+ * 
+ * Önemli Notlar:
+ * - Bir satır, o saatte ilgili duruma GİREN sipariş sayısını ve tutarlarının toplamını tutar
+ *   (oluşturma → PENDING, sonraki her geçiş → hedef durum)
+ * - Durum geçişiyle aynı transaction'da artırılır (OrderStatsService), azaltılmaz:
+ *   silinen veya arşivlenen siparişler geçmişi değiştirmez
+ * - Günlük değerler saatlik satırların toplamıdır
+ */
+@Entity
+@Table(name = "order_stats_daily")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsDaily {
+
+    @EmbeddedId
+    private OrderStatsKey id;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
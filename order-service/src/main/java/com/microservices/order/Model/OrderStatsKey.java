@@ -0,0 +1,36 @@
+package com.microservices.order.Model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order Stats Key
+ * order_stats_daily satırının anahtarı: (gün, saat, durum)
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsKey implements Serializable {
+
+    @Column(nullable = false)
+    private LocalDate statDate;
+
+    /**
+     * 0-23
+     */
+    @Column(nullable = false)
+    private int statHour;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+}
@@ -13,6 +13,13 @@ package com.microservices.order.Model;
  */
 public enum OrderStatus {
     
+    /**
+     * Kabul edildi (sadece asenkron sipariş kabulünde, OrderIntent için)
+     * İstek kaydedildi, doğrulama worker'da sürüyor
+     * Sonuç: PENDING (sipariş oluştu) veya REJECTED
+     */
+    ACCEPTED("Kabul edildi"),
+    
     /**
      * Beklemede
      * Sipariş oluşturuldu, henüz onaylanmadı
@@ -35,7 +42,8 @@ public enum OrderStatus {
 
     /**
      * Ödeme başarısız
-     * Stok rezervi varsa geri bırakılmalı
+     * Stok rezervi korunur: ödeme yeniden denenebilir (→ PAYMENT_PENDING)
+     * Sipariş iptal edilirse rezerv geri bırakılır
      */
     PAYMENT_FAILED("Ödeme başarısız"),
     
@@ -73,7 +81,13 @@ public enum OrderStatus {
      * Sipariş iptal edildi
      * Stok geri verilmeli
      */
-    CANCELLED("İptal edildi");
+    CANCELLED("İptal edildi"),
+    
+    /**
+     * Reddedildi (sadece asenkron sipariş kabulünde, OrderIntent için)
+     * Kullanıcı/ürün/stok doğrulaması başarısız oldu, sipariş oluşturulmadı
+     */
+    REJECTED("Reddedildi");
     
     private final String description;
     
@@ -0,0 +1,84 @@
+package com.microservices.order.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.microservices.order.Model.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    /**
+     * Anahtarı IN_PROGRESS olarak sahiplen
+     * Anahtar zaten varsa unique violation → DataIntegrityViolationException
+     * (save/merge kullanılmaz: var olan kaydın üzerine yazabilir)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_idempotency_keys (id, request_hash, status, claim_token, created_at, locked_until, expires_at)"
+            + " VALUES (:id, :requestHash, 'IN_PROGRESS', :claimToken, :now, :lockedUntil, :expiresAt)", nativeQuery = true)
+    int insertInProgress(
+            @Param("id") String id,
+            @Param("requestHash") String requestHash,
+            @Param("claimToken") UUID claimToken,
+            @Param("now") LocalDateTime now,
+            @Param("lockedUntil") LocalDateTime lockedUntil,
+            @Param("expiresAt") LocalDateTime expiresAt);
+    
+    /**
+     * Süresi dolmuş kaydı (yanıtın TTL'i geçmiş ya da sahibi lockedUntil'de bitirememiş) yeniden sahiplen
+     * 
+     * @return 1 ise anahtar artık bu isteğin
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :inProgress,"
+            + " r.requestHash = :requestHash, r.claimToken = :claimToken, r.responseStatus = NULL,"
+            + " r.responseHeaders = NULL, r.responseBody = NULL, r.createdAt = :now,"
+            + " r.lockedUntil = :lockedUntil, r.expiresAt = :expiresAt"
+            + " WHERE r.id = :id AND (r.expiresAt < :now OR (r.status = :inProgress"
+            + " AND r.lockedUntil < :now))")
+    int takeOverExpired(
+            @Param("id") String id,
+            @Param("inProgress") IdempotencyRecord.Status inProgress,
+            @Param("requestHash") String requestHash,
+            @Param("claimToken") UUID claimToken,
+            @Param("now") LocalDateTime now,
+            @Param("lockedUntil") LocalDateTime lockedUntil,
+            @Param("expiresAt") LocalDateTime expiresAt);
+    
+    /**
+     * Yanıtı sakla (sadece anahtar hâlâ bu isteğe aitse)
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :completed,"
+            + " r.responseStatus = :responseStatus, r.responseHeaders = :responseHeaders, r.responseBody = :responseBody,"
+            + " r.claimToken = NULL, r.lockedUntil = NULL, r.expiresAt = :expiresAt"
+            + " WHERE r.id = :id AND r.claimToken = :claimToken")
+    int complete(
+            @Param("id") String id,
+            @Param("completed") IdempotencyRecord.Status completed,
+            @Param("claimToken") UUID claimToken,
+            @Param("responseStatus") int responseStatus,
+            @Param("responseHeaders") String responseHeaders,
+            @Param("responseBody") String responseBody,
+            @Param("expiresAt") LocalDateTime expiresAt);
+    
+    /**
+     * Anahtarı bırak (istek hata ile bitti, tekrar denenebilir)
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.claimToken = :claimToken")
+    int release(@Param("id") String id, @Param("claimToken") UUID claimToken);
+    
+    /**
+     * Süresi dolmuş kayıtları temizle
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
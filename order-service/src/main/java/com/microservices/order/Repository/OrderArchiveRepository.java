@@ -0,0 +1,80 @@
+package com.microservices.order.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.microservices.order.Model.ArchivedOrder;
+
+/**
+ * Archived Order Repository
+ * 
+ * - Okuma: opt-in archive aramaları (findById, findPage)
+ * - Yazma: OrderArchivalJob'ın PostgreSQL'e özel native sorguları
+ *   (SKIP LOCKED, json_agg, partition fonksiyonu); H2 testlerinde çalıştırılmaz
+ */
+@Repository
+public interface OrderArchiveRepository extends JpaRepository<ArchivedOrder, UUID>, OrderArchiveRepositoryCustom {
+
+    /**
+     * Arşivlenecek siparişleri kilitle (en eski önce)
+     * order_date < cutoff → sadece eski partition'lar taranır
+     * SKIP LOCKED: o anda güncellenen siparişler atlanır, job kullanıcı işlemlerini beklemez
+     */
+    @Query(value = "SELECT o.id FROM orders o"
+            + " WHERE o.status IN (:statuses) AND o.order_date < :cutoff"
+            + " ORDER BY o.order_date LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> findArchivableIdsForUpdate(
+            @Param("statuses") Collection<String> statuses,
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("limit") int limit);
+
+    /**
+     * Siparişleri kalemleriyle birlikte orders_archive'a kopyala (sipariş başına tek satır, kalemler JSON)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, user_id, status, total_amount, shipping_address, city, zip_code,"
+            + " phone_number, customer_email, customer_name, order_date, delivery_date, created_at, updated_at, notes,"
+            + " items, archived_at)"
+            + " SELECT o.id, o.user_id, o.status, o.total_amount, o.shipping_address, o.city, o.zip_code,"
+            + " o.phone_number, o.customer_email, o.customer_name, o.order_date, o.delivery_date, o.created_at,"
+            + " o.updated_at, o.notes,"
+            + " COALESCE((SELECT CAST(json_agg(json_build_object("
+            + "     'id', i.id, 'productId', i.product_id, 'productName', i.product_name,"
+            + "     'quantity', i.quantity, 'price', i.price, 'subtotal', i.subtotal) ORDER BY i.id) AS TEXT)"
+            + "   FROM order_items i WHERE i.order_id = o.id), '[]'),"
+            + " :archivedAt"
+            + " FROM orders o WHERE o.id IN (:ids) AND o.order_date < :cutoff"
+            + " ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int copyToArchive(
+            @Param("ids") Collection<UUID> ids,
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteItemsByOrderIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Arşivlenen siparişleri hot tablodan sil (cutoff ile sadece eski partition'lara dokunur)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids) AND order_date < :cutoff", nativeQuery = true)
+    int deleteOrdersByIdIn(@Param("ids") Collection<UUID> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Ayın partition'ını oluştur (varsa dokunmaz)
+     * orders_default'ta o aya ait satırlar varsa yeni partition'a taşınır (V16)
+     * @return partition tablo adı (orders_pYYYYMM)
+     */
+    @Query(value = "SELECT create_orders_partition(CAST(:month AS DATE))", nativeQuery = true)
+    String createPartition(@Param("month") LocalDate month);
+}
@@ -0,0 +1,25 @@
+package com.microservices.order.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.microservices.order.DTO.OrderCursor;
+import com.microservices.order.Model.ArchivedOrder;
+import com.microservices.order.Model.OrderStatus;
+
+/**
+ * Order Archive Repository Custom
+ * Kullanıcının arşivlenmiş siparişleri için keyset pagination sorgusu (OrderArchiveRepositoryImpl)
+ */
+public interface OrderArchiveRepositoryCustom {
+
+    /**
+     * En yeniden eskiye (createdAt DESC, id DESC) sıralı arşiv sayfası
+     *
+     * @param userId Kullanıcı ID'si (zorunlu; archive sadece kullanıcı geçmişi için aranır)
+     * @param status null ise durum filtresi uygulanmaz
+     * @param after  null ise ilk sayfa, değilse bu cursor'dan sonraki siparişler
+     * @param limit  maksimum satır sayısı
+     */
+    List<ArchivedOrder> findPage(UUID userId, OrderStatus status, OrderCursor after, int limit);
+}
@@ -0,0 +1,52 @@
+package com.microservices.order.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.jpa.HibernateHints;
+
+import com.microservices.order.DTO.OrderCursor;
+import com.microservices.order.Model.ArchivedOrder;
+import com.microservices.order.Model.OrderStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * OrderArchiveRepositoryCustom implementasyonu
+ *
+ * Kalemler satırın kendisinde (JSON) tutulduğu için sayfa tek SQL ile okunur.
+ * OrderRepositoryImpl'deki gibi sadece verilen filtreler WHERE'e eklenir
+ * (user_id, created_at, id) index'i kullanılır.
+ */
+public class OrderArchiveRepositoryImpl implements OrderArchiveRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ArchivedOrder> findPage(UUID userId, OrderStatus status, OrderCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT a FROM ArchivedOrder a WHERE a.userId = :userId");
+        if (status != null) {
+            jpql.append(" AND a.status = :status");
+        }
+        if (after != null) {
+            jpql.append(" AND (a.createdAt < :cursorCreatedAt")
+                .append(" OR (a.createdAt = :cursorCreatedAt AND a.id < :cursorId))");
+        }
+        jpql.append(" ORDER BY a.createdAt DESC, a.id DESC");
+
+        TypedQuery<ArchivedOrder> query = entityManager.createQuery(jpql.toString(), ArchivedOrder.class)
+            .setParameter("userId", userId)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (after != null) {
+            query.setParameter("cursorCreatedAt", after.createdAt());
+            query.setParameter("cursorId", after.id());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
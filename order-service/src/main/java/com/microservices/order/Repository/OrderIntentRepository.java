@@ -0,0 +1,41 @@
+package com.microservices.order.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+import com.microservices.order.Model.OrderIntent;
+import com.microservices.order.Model.OrderStatus;
+
+@Repository
+public interface OrderIntentRepository extends JpaRepository<OrderIntent, UUID> {
+    
+    /**
+     * Intent'i karar süresince kilitle
+     * Aynı intent iki worker'da (ör. recovery sonrası) işlenirse ikincisi bekler
+     * ve ACCEPTED olmadığını görüp atlar
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM OrderIntent i WHERE i.id = :id")
+    Optional<OrderIntent> findByIdForUpdate(@Param("id") UUID id);
+    
+    /**
+     * Belirli bir andan önce kabul edilmiş ama hâlâ karar verilmemiş intent'ler
+     * (instance restart'ında kuyrukta kalanlar)
+     */
+    @Query("SELECT i.id FROM OrderIntent i WHERE i.status = :status AND i.acceptedAt < :cutoff ORDER BY i.acceptedAt")
+    List<UUID> findIdsByStatusAcceptedBefore(
+            @Param("status") OrderStatus status,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+}
@@ -0,0 +1,93 @@
+package com.microservices.order.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.microservices.order.Event.OutboxEventType;
+import com.microservices.order.Model.OrderOutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+    
+    /**
+     * Yayınlanmamış event'leri yazılma sırasıyla getir ve kilitle
+     * Birden fazla order-service instance'ı varsa relay'ler sırayla çalışır
+     * (ikinci relay, ilki commit edene kadar bekler; sipariş bazında sıra bozulmaz)
+     * Dead-letter'a alınmış satırlar (failedAt) alınmaz
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT e FROM OrderOutboxEvent e
+            WHERE e.eventType IN :types AND e.publishedAt IS NULL AND e.failedAt IS NULL
+            ORDER BY e.id
+            """)
+    List<OrderOutboxEvent> findUnpublishedForUpdate(@Param("types") Collection<OutboxEventType> types,
+                                                    Pageable pageable);
+    
+    /**
+     * Zamanı gelmiş bekleyen satırları yazılma sırasıyla getir ve kilitle (claim için)
+     * Rezervasyon komutları için: başarısız veya claim edilmiş komut nextAttemptAt'e kadar alınmaz
+     * (backoff / lease). lock.timeout = -2 → SKIP LOCKED: başka bir instance'ın o anda claim
+     * ettiği satırlar beklenmeden atlanır
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e FROM OrderOutboxEvent e
+            WHERE e.eventType IN :types AND e.publishedAt IS NULL AND e.failedAt IS NULL
+              AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now)
+            ORDER BY e.id
+            """)
+    List<OrderOutboxEvent> findDueForUpdate(@Param("types") Collection<OutboxEventType> types,
+                                            @Param("now") LocalDateTime now,
+                                            Pageable pageable);
+    
+    /**
+     * Tek satırı kilitleyerek getir (batch hatasında satır satır yayın için)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.id = :id")
+    Optional<OrderOutboxEvent> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * En eski bekleyen event (lag metriği için)
+     */
+    Optional<OrderOutboxEvent> findFirstByEventTypeInAndPublishedAtIsNullAndFailedAtIsNullOrderByIdAsc(
+            Collection<OutboxEventType> types);
+    
+    long countByEventTypeInAndPublishedAtIsNullAndFailedAtIsNull(Collection<OutboxEventType> types);
+    
+    /**
+     * Dead-letter'daki satır sayısı (metrik için)
+     */
+    long countByEventTypeInAndFailedAtIsNotNull(Collection<OutboxEventType> types);
+    
+    /**
+     * Siparişin bu satırdan önce yazılmış, henüz iletilmemiş komut sayısı
+     * (rezervasyon komutlarının sipariş bazında sırayla iletilmesi için)
+     */
+    long countByOrderIdAndEventTypeInAndIdLessThanAndPublishedAtIsNullAndFailedAtIsNull(
+            UUID orderId, Collection<OutboxEventType> types, Long id);
+    
+    /**
+     * Yayınlanmış eski event'leri temizle
+     */
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.publishedAt IS NOT NULL AND e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
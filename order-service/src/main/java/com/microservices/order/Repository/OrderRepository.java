@@ -1,33 +1,181 @@
 package com.microservices.order.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import com.microservices.order.DTO.OrderExportRow;
+import com.microservices.order.DTO.OrderStatusView;
 import com.microservices.order.Model.Order;
 import com.microservices.order.Model.OrderStatus;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, OrderRepositoryCustom {
+    
+    /**
+     * Siparişi OrderItem'larıyla birlikte tek SQL ile getir
+     * Cache'e yazılırken/JSON'a çevrilirken lazy yükleme olmaz
+     */
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(UUID id);
     
     /**
      * User ID'ye göre siparişleri getir
      * Kullanıcının tüm siparişlerini listeler
+     * EntityGraph: OrderItem'lar aynı SQL'de yüklenir (sipariş başına ek SELECT yok)
      */
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserId(UUID userId);
     
     /**
      * Sipariş durumuna göre filtrele
      * Örnek: PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
      */
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByStatus(OrderStatus status);
     
     /**
      * Kullanıcının belirli durumdaki siparişlerini getir
      * Örnek: Kullanıcının teslim edilmiş siparişleri
      */
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserIdAndStatus(UUID userId, OrderStatus status);
+    
+    /**
+     * Admin export için tüm siparişleri stream et
+     * 
+     * ÖNEMLİ:
+     * - Transaction içinde çağrılmalı ve Stream kapatılmalı (try-with-resources)
+     * - Fetch size ile JDBC satırları parça parça çeker (PostgreSQL'de server-side cursor)
+     * - Constructor projection: entity/persistence context yok, bellek kullanımı sabit
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.microservices.order.DTO.OrderExportRow("
+            + "o.id, o.userId, o.status, o.totalAmount, o.city, o.zipCode, o.customerEmail, o.customerName, "
+            + "o.orderDate, o.deliveryDate, o.createdAt, o.updatedAt) "
+            + "FROM Order o ORDER BY o.createdAt, o.id")
+    Stream<OrderExportRow> streamAllForExport();
+    
+    /**
+     * Fulfilment iş kuyruğu: claim edilebilir siparişleri kilitle
+     * 
+     * - Lease'i olmayan veya lease süresi dolmuş siparişler (otomatik re-queue)
+     * - En eski sipariş önce
+     * - lock.timeout = -2 → SKIP LOCKED: başka bir worker'ın o anda kilitlediği satırlar
+     *   beklenmeden atlanır, eşzamanlı worker'lar ayrık batch'ler alır
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM Order o WHERE o.status = :status"
+            + " AND (o.claimExpiresAt IS NULL OR o.claimExpiresAt < :now)"
+            + " ORDER BY o.createdAt, o.id")
+    List<Order> findClaimableForUpdate(
+            @Param("status") OrderStatus status,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+    
+    /**
+     * Siparişleri OrderItem'larıyla birlikte tek SQL ile getir
+     */
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findWithItemsByIdIn(Collection<UUID> ids);
+    
+    /**
+     * Toplu durum güncellemesi için siparişleri kilitle (OrderItem'lar YÜKLENMEZ)
+     * id sırasıyla kilitlenir; eşzamanlı toplu güncellemeler birbirini deadlock'a sokmaz
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllByIdInForUpdate(@Param("ids") Collection<UUID> ids);
+    
+    /**
+     * Siparişlerin durumunu tek UPDATE ile değiştir
+     * 
+     * - Order.updateStatus ile aynı alanlar güncellenir (lease temizlenir, DELIVERED ise deliveryDate)
+     * - version artırılır: yüklenmiş eski entity'lerin kaydı optimistic lock hatası alır
+     * - @PreUpdate çalışmaz; toplam tutar değişmediği için gerek yok
+     * - clearAutomatically: persistence context'teki eski durumlu entity'ler atılır
+     * 
+     * @param deliveredAt DELIVERED geçişinde şimdiki zaman, diğer geçişlerde null
+     *                    (mevcut deliveryDate korunur)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :now,"
+            + " o.claimedBy = NULL, o.claimExpiresAt = NULL, o.version = o.version + 1,"
+            + " o.deliveryDate = COALESCE(o.deliveryDate, :deliveredAt)"
+            + " WHERE o.id IN :ids")
+    int updateStatusByIdIn(
+            @Param("ids") Collection<UUID> ids,
+            @Param("status") OrderStatus status,
+            @Param("now") LocalDateTime now,
+            @Param("deliveredAt") LocalDateTime deliveredAt);
+    
+    /**
+     * Durum geçişi için siparişin sadece gereken kolonlarını oku
+     * Entity yüklenmez: OrderItem'lar, @PreUpdate ve dirty checking devreye girmez
+     */
+    @Query("SELECT new com.microservices.order.DTO.OrderStatusView("
+            + "o.id, o.userId, o.status, o.totalAmount, o.customerEmail, o.customerName) "
+            + "FROM Order o WHERE o.id = :id")
+    Optional<OrderStatusView> findStatusViewById(@Param("id") UUID id);
+    
+    /**
+     * Koşullu durum geçişi (compare-and-set)
+     * Sadece sipariş hâlâ expected durumundaysa güncellenir; 0 dönerse başka bir istek
+     * durumu önce değiştirmiştir. Satır kilidi sadece UPDATE süresince tutulur.
+     * 
+     * @param deliveredAt DELIVERED geçişinde şimdiki zaman, diğer geçişlerde null
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now,"
+            + " o.claimedBy = NULL, o.claimExpiresAt = NULL, o.version = o.version + 1,"
+            + " o.deliveryDate = COALESCE(o.deliveryDate, :deliveredAt)"
+            + " WHERE o.id = :id AND o.status = :expected")
+    int transitionStatus(
+            @Param("id") UUID id,
+            @Param("expected") OrderStatus expected,
+            @Param("to") OrderStatus to,
+            @Param("now") LocalDateTime now,
+            @Param("deliveredAt") LocalDateTime deliveredAt);
+    
+    /**
+     * Sipariş hâlâ bu rezervasyona mı bağlı?
+     */
+    boolean existsByIdAndReservationId(UUID id, UUID reservationId);
+    
+    /**
+     * Rezervasyon kaybı telafisi için koşullu durum geçişi (compare-and-set)
+     * transitionStatus ile aynıdır; ek olarak sipariş hâlâ o rezervasyona bağlıysa güncellenir
+     * (sipariş bu arada tekrar onaylanıp yeni rezervasyon aldıysa 0 döner)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now,"
+            + " o.claimedBy = NULL, o.claimExpiresAt = NULL, o.version = o.version + 1"
+            + " WHERE o.id = :id AND o.status = :expected AND o.reservationId = :reservationId")
+    int transitionStatusForReservation(
+            @Param("id") UUID id,
+            @Param("expected") OrderStatus expected,
+            @Param("to") OrderStatus to,
+            @Param("reservationId") UUID reservationId,
+            @Param("now") LocalDateTime now);
 }
-
@@ -0,0 +1,28 @@
+package com.microservices.order.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.microservices.order.DTO.OrderCursor;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderStatus;
+
+/**
+ * Order Repository Custom
+ * Filtreleri opsiyonel olan keyset pagination sorgusu (OrderRepositoryImpl)
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * En yeniden eskiye (createdAt DESC, id DESC) sıralı sipariş sayfası
+     *
+     * @param userId null ise kullanıcı filtresi uygulanmaz
+     * @param status null ise durum filtresi uygulanmaz
+     * @param after  null ise ilk sayfa, değilse bu cursor'dan sonraki siparişler
+     * @param orderedSince null değilse sadece orderDate >= orderedSince olan siparişler
+     *                     (orders aylık partition'lı: eski partition'lar taranmaz)
+     * @param limit  maksimum satır sayısı
+     */
+    List<Order> findPage(UUID userId, OrderStatus status, OrderCursor after, LocalDateTime orderedSince, int limit);
+}
@@ -0,0 +1,89 @@
+package com.microservices.order.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.jpa.HibernateHints;
+
+import com.microservices.order.DTO.OrderCursor;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * OrderRepositoryCustom implementasyonu
+ *
+ * Sayfa iki SQL ile okunur (sayfa boyutundan bağımsız):
+ * 1. Keyset sorgusu sadece sipariş ID'lerini LIMIT ile çeker
+ * 2. Bu ID'ler için siparişler OrderItem'larla birlikte fetch join ile yüklenir
+ *
+ * Fetch join doğrudan LIMIT ile kullanılmaz: Hibernate collection fetch'te
+ * sayfalamayı bellekte yapar. Lazy yükleme olmadığı için Jackson/Redis
+ * serialization sırasında sipariş başına ek SELECT atılmaz.
+ *
+ * Sadece verilen filtreler WHERE'e eklenir; böylece her kombinasyon
+ * (user_id|status, created_at, id) index'lerinden birini kullanır.
+ * "IS NULL OR ..." kalıbı kullanılmaz (planner index seçemez).
+ *
+ * orderedSince verildiğinde orderDate alt sınırı eklenir; orders tablosu order_date'e göre
+ * aylık partition'lı olduğundan PostgreSQL sınırdan eski partition'ları hiç taramaz (partition pruning).
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findPage(UUID userId, OrderStatus status, OrderCursor after, LocalDateTime orderedSince, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT o.id FROM Order o WHERE 1 = 1");
+        if (userId != null) {
+            jpql.append(" AND o.userId = :userId");
+        }
+        if (status != null) {
+            jpql.append(" AND o.status = :status");
+        }
+        if (orderedSince != null) {
+            jpql.append(" AND o.orderDate >= :orderedSince");
+        }
+        if (after != null) {
+            jpql.append(" AND (o.createdAt < :cursorCreatedAt")
+                .append(" OR (o.createdAt = :cursorCreatedAt AND o.id < :cursorId))");
+        }
+        jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+
+        TypedQuery<UUID> idQuery = entityManager.createQuery(jpql.toString(), UUID.class);
+        if (userId != null) {
+            idQuery.setParameter("userId", userId);
+        }
+        if (status != null) {
+            idQuery.setParameter("status", status);
+        }
+        if (orderedSince != null) {
+            idQuery.setParameter("orderedSince", orderedSince);
+        }
+        if (after != null) {
+            idQuery.setParameter("cursorCreatedAt", after.createdAt());
+            idQuery.setParameter("cursorId", after.id());
+        }
+        List<UUID> ids = idQuery.setMaxResults(limit).getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // İkinci sorgu da aynı orderDate sınırıyla budanır (id tek başına partition seçmez)
+        TypedQuery<Order> orderQuery = entityManager.createQuery(
+                "SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids"
+                    + (orderedSince != null ? " AND o.orderDate >= :orderedSince" : "")
+                    + " ORDER BY o.createdAt DESC, o.id DESC", Order.class)
+            .setParameter("ids", ids)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (orderedSince != null) {
+            orderQuery.setParameter("orderedSince", orderedSince);
+        }
+        return orderQuery.getResultList();
+    }
+}
@@ -0,0 +1,32 @@
+package com.microservices.order.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.microservices.order.DTO.OrderStatsReport;
+import com.microservices.order.Model.OrderStatsDaily;
+import com.microservices.order.Model.OrderStatsKey;
+
+@Repository
+public interface OrderStatsRepository extends JpaRepository<OrderStatsDaily, OrderStatsKey>, OrderStatsRepositoryCustom {
+    
+    /**
+     * Günlük toplamlar: gün başına en fazla 24 × durum sayısı satır okunur
+     */
+    @Query("SELECT new com.microservices.order.DTO.OrderStatsReport$Bucket("
+            + "s.id.statDate, s.id.status, SUM(s.orderCount), SUM(s.revenue))"
+            + " FROM OrderStatsDaily s WHERE s.id.statDate BETWEEN :from AND :to"
+            + " GROUP BY s.id.statDate, s.id.status ORDER BY s.id.statDate, s.id.status")
+    List<OrderStatsReport.Bucket> findDailyBuckets(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Query("SELECT new com.microservices.order.DTO.OrderStatsReport$Bucket("
+            + "s.id.statDate, s.id.statHour, s.id.status, s.orderCount, s.revenue)"
+            + " FROM OrderStatsDaily s WHERE s.id.statDate BETWEEN :from AND :to"
+            + " ORDER BY s.id.statDate, s.id.statHour, s.id.status")
+    List<OrderStatsReport.Bucket> findHourlyBuckets(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,25 @@
+package com.microservices.order.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.microservices.order.Model.OrderStatus;
+
+/**
+ * Order Stats Repository Custom
+ * Rollup kovasını tek SQL ile ekle/artır (OrderStatsRepositoryImpl)
+ */
+public interface OrderStatsRepositoryCustom {
+
+    /**
+     * Kova yoksa count/revenue ile ekle, varsa üzerine ekle
+     * Çağıranın transaction'ında çalışır; satır kilidi transaction sonuna kadar tutulur
+     *
+     * @param date    Kova günü
+     * @param hour    Kova saati (0-23)
+     * @param status  Duruma giren siparişlerin durumu
+     * @param count   Eklenecek sipariş sayısı
+     * @param revenue Eklenecek ciro
+     */
+    void upsert(LocalDate date, int hour, OrderStatus status, long count, BigDecimal revenue);
+}
@@ -0,0 +1,69 @@
+package com.microservices.order.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.microservices.order.Model.OrderStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * OrderStatsRepositoryCustom implementasyonu
+ *
+ * PostgreSQL'de INSERT ... ON CONFLICT DO UPDATE kullanılır: eşzamanlı ilk eklemeler de
+ * unique violation'a düşmeden aynı satırı artırır, çağıran transaction hiç bozulmaz.
+ * H2 (testler) ON CONFLICT DO UPDATE'i PostgreSQL modunda bile desteklemediği için
+ * aynı anlamdaki standart MERGE kullanılır. Native sorgu persistence context'i temizlemez.
+ */
+public class OrderStatsRepositoryImpl implements OrderStatsRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT =
+        "INSERT INTO order_stats_daily (stat_date, stat_hour, status, order_count, revenue)"
+            + " VALUES (:date, :hour, :status, :count, :revenue)"
+            + " ON CONFLICT (stat_date, stat_hour, status) DO UPDATE SET"
+            + " order_count = order_stats_daily.order_count + EXCLUDED.order_count,"
+            + " revenue = order_stats_daily.revenue + EXCLUDED.revenue";
+
+    private static final String MERGE_UPSERT =
+        "MERGE INTO order_stats_daily t USING (VALUES (CAST(:date AS DATE), CAST(:hour AS INTEGER),"
+            + " CAST(:status AS VARCHAR(20)), CAST(:count AS BIGINT), CAST(:revenue AS DECIMAL(19, 2))))"
+            + " AS s (stat_date, stat_hour, status, order_count, revenue)"
+            + " ON t.stat_date = s.stat_date AND t.stat_hour = s.stat_hour AND t.status = s.status"
+            + " WHEN MATCHED THEN UPDATE SET order_count = t.order_count + s.order_count,"
+            + " revenue = t.revenue + s.revenue"
+            + " WHEN NOT MATCHED THEN INSERT (stat_date, stat_hour, status, order_count, revenue)"
+            + " VALUES (s.stat_date, s.stat_hour, s.status, s.order_count, s.revenue)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String upsertSql;
+
+    @Override
+    public void upsert(LocalDate date, int hour, OrderStatus status, long count, BigDecimal revenue) {
+        entityManager.createNativeQuery(upsertSql())
+            .setParameter("date", date)
+            .setParameter("hour", hour)
+            .setParameter("status", status.name())
+            .setParameter("count", count)
+            .setParameter("revenue", revenue)
+            .executeUpdate();
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            boolean postgres = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+            sql = postgres ? POSTGRES_UPSERT : MERGE_UPSERT;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,273 @@
+package com.microservices.order.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.Exception.IdempotencyKeyConflictException;
+import com.microservices.order.Exception.IdempotencyKeyMismatchException;
+import com.microservices.order.Model.IdempotencyRecord;
+import com.microservices.order.Repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Idempotency Service
+ * Idempotency-Key header'ı ile tekrar gönderilen istekleri (client/k6 retry'ları, PSP callback'leri)
+ * yeniden çalıştırmadan ilk yanıtla cevaplar
+ *
+ * Çalışma Şekli:
+ * 1. Anahtar order_idempotency_keys'e IN_PROGRESS olarak eklenir (PK, ayrı transaction)
+ * 2. Ekleyen istek işi çalıştırır; yanıt (status < 500) COMPLETED olarak saklanır (ttl-hours),
+ *    exception veya 5xx'te anahtar silinir ve istek tekrar denenebilir
+ * 3. Anahtar zaten varsa tek PK okuması yapılır:
+ *    - COMPLETED → saklanan yanıt aynen döner (Idempotent-Replayed: true)
+ *    - IN_PROGRESS → ilk isteğin bitmesi beklenir (aynı instance'ta future ile, diğer instance'larda
+ *      poll-interval-ms ile); wait-timeout-ms dolarsa 409 + Retry-After
+ *    - Farklı istek gövdesi → 422
+ * 4. Sahibi in-progress-timeout-ms içinde bitiremeyen (ör. instance çöktü) anahtar başka istek tarafından
+ *    devralınır; süresi dolan kayıtlar periyodik olarak silinir
+ *
+ * Not: Yanıt, işin kendi transaction'ı commit edildikten sonra saklanır. Arada instance çökerse
+ * anahtar in-progress-timeout-ms sonunda serbest kalır.
+ *
+ * Metrikler: orders.idempotency.requests{result=executed|replayed|conflict|mismatch}
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long ttlHours;
+    private final long inProgressTimeoutMs;
+    private final long waitTimeoutMs;
+    private final long pollIntervalMs;
+
+    public IdempotencyService(
+            IdempotencyRecordRepository repository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${order.idempotency.enabled:true}") boolean enabled,
+            @Value("${order.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${order.idempotency.in-progress-timeout-ms:30000}") long inProgressTimeoutMs,
+            @Value("${order.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+            @Value("${order.idempotency.poll-interval-ms:50}") long pollIntervalMs) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.ttlHours = ttlHours;
+        this.inProgressTimeoutMs = inProgressTimeoutMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    /**
+     * İsteği anahtar başına en fazla bir kez çalıştır
+     *
+     * @param scope       Endpoint (ör. "POST /orders", "payment-success:{orderId}")
+     * @param key         Idempotency-Key header'ı; null ise istek doğrudan çalışır
+     * @param requestBody Anahtarın tekrar kullanımını doğrulamak için hash'lenir (null olabilir)
+     * @param action      Controller işi
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object requestBody, Supplier<ResponseEntity<?>> action) {
+        if (!enabled || key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String requestHash = hash(scope, requestBody);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        while (true) {
+            UUID claimToken = claim(id, requestHash);
+            if (claimToken != null) {
+                return run(id, claimToken, action);
+            }
+            IdempotencyRecord record = repository.findById(id).orElse(null);
+            if (record == null) {
+                continue;  // Sahibi hata ile bitirip anahtarı bıraktı, tekrar sahiplen
+            }
+            if (!record.getRequestHash().equals(requestHash)) {
+                meterRegistry.counter("orders.idempotency.requests", "result", "mismatch").increment();
+                throw new IdempotencyKeyMismatchException(
+                    IDEMPOTENCY_KEY_HEADER + " was already used with a different request");
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                meterRegistry.counter("orders.idempotency.requests", "result", "replayed").increment();
+                return replay(record);
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                meterRegistry.counter("orders.idempotency.requests", "result", "conflict").increment();
+                throw new IdempotencyKeyConflictException(
+                    "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed", 1);
+            }
+            awaitOwner(id, remainingNanos);
+        }
+    }
+
+    /**
+     * Süresi dolmuş anahtarları temizle
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        transactionTemplate.executeWithoutResult(status -> repository.deleteExpired(LocalDateTime.now()));
+    }
+
+    /**
+     * Anahtarı sahiplen: yeni kayıt ekle ya da süresi dolmuş kaydı devral
+     *
+     * @return Sahiplenildiyse claim token, anahtar başka bir istekteyse null
+     */
+    private UUID claim(String id, String requestHash) {
+        UUID claimToken = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plusNanos(TimeUnit.MILLISECONDS.toNanos(inProgressTimeoutMs));
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                repository.insertInProgress(id, requestHash, claimToken, now, lockedUntil, expiresAt));
+        } catch (DataIntegrityViolationException e) {
+            Integer takenOver = transactionTemplate.execute(status -> repository.takeOverExpired(
+                id, IdempotencyRecord.Status.IN_PROGRESS, requestHash, claimToken, now, lockedUntil, expiresAt));
+            if (takenOver == null || takenOver == 0) {
+                return null;
+            }
+        }
+        inFlight.put(id, new CompletableFuture<>());
+        return claimToken;
+    }
+
+    private ResponseEntity<?> run(String id, UUID claimToken, Supplier<ResponseEntity<?>> action) {
+        try {
+            ResponseEntity<?> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(id, claimToken);
+                throw e;
+            }
+            if (response.getStatusCode().is5xxServerError()) {
+                release(id, claimToken);
+            } else {
+                store(id, claimToken, response);
+            }
+            meterRegistry.counter("orders.idempotency.requests", "result", "executed").increment();
+            return response;
+        } finally {
+            CompletableFuture<Void> owner = inFlight.remove(id);
+            if (owner != null) {
+                owner.complete(null);
+            }
+        }
+    }
+
+    private void store(String id, UUID claimToken, ResponseEntity<?> response) {
+        try {
+            String headers = objectMapper.writeValueAsString(response.getHeaders());
+            String body = response.getBody() != null ? objectMapper.writeValueAsString(response.getBody()) : null;
+            transactionTemplate.executeWithoutResult(status -> repository.complete(id,
+                IdempotencyRecord.Status.COMPLETED, claimToken, response.getStatusCode().value(), headers, body,
+                LocalDateTime.now().plusHours(ttlHours)));
+        } catch (Exception e) {
+            // Yanıt saklanamazsa anahtar bırakılır; yanıt yine de istemciye döner
+            System.err.println("Error storing idempotent response for " + id + ": " + e.getMessage());
+            release(id, claimToken);
+        }
+    }
+
+    private void release(String id, UUID claimToken) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.release(id, claimToken));
+        } catch (Exception e) {
+            // Anahtar in-progress-timeout-ms sonunda devralınabilir
+            System.err.println("Error releasing idempotency key " + id + ": " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            if (record.getResponseHeaders() != null) {
+                headers.putAll(objectMapper.readValue(record.getResponseHeaders(),
+                    new TypeReference<Map<String, List<String>>>() { }));
+            }
+            headers.set(REPLAYED_HEADER, "true");
+            JsonNode body = record.getResponseBody() != null ? objectMapper.readTree(record.getResponseBody()) : null;
+            return ResponseEntity.status(record.getResponseStatus()).headers(headers).body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response for " + record.getId(), e);
+        }
+    }
+
+    /**
+     * İlk isteğin bitmesini bekle
+     * Aynı instance'taysa future ile hemen uyanılır, değilse poll-interval-ms kadar beklenir
+     */
+    private void awaitOwner(String id, long remainingNanos) {
+        long waitNanos = Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(pollIntervalMs));
+        CompletableFuture<Void> owner = inFlight.get(id);
+        try {
+            if (owner != null) {
+                owner.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } else {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            // Bir sonraki turda kayıt tekrar okunur
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException(
+                "Interrupted while waiting for request with the same " + IDEMPOTENCY_KEY_HEADER, 1);
+        }
+    }
+
+    private String hash(String scope, Object requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            if (requestBody != null) {
+                digest.update(objectMapper.writeValueAsBytes(requestBody));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash request for idempotency", e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.microservices.order.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.InventoryServiceClientFallback;
+import com.microservices.order.Client.LastKnownGoodCache;
+import com.microservices.order.Client.LastKnownGoodCache.Region;
+import com.microservices.order.Client.ProductServiceClient;
+import com.microservices.order.Client.ProductServiceClientFallback;
+import com.microservices.order.Client.UserServiceClient;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Last-Known-Good Revalidator
+ * Fallback'in stale olarak servis ettiği anahtarları arka planda yeniler (stale-while-revalidate)
+ *
+ * - Çağrılar normal Feign client'ları (Circuit Breaker) üzerinden yapılır
+ * - Breaker hâlâ açıksa fallback yine cache'teki nesneyi döner; anahtar bir sonraki tura kalır
+ * - Breaker kapanınca (servis düzelince) ilk turda taze yanıt cache'e yazılır
+ * - Kayıt artık yoksa (404) cache'ten silinir
+ *
+ * Metrik: orders.client.cache.revalidations{region, result=refreshed|pending|removed}
+ */
+@Component
+public class LastKnownGoodRevalidator {
+
+    private final LastKnownGoodCache lastKnownGoodCache;
+    private final ProductServiceClient productServiceClient;
+    private final UserServiceClient userServiceClient;
+    private final InventoryServiceClient inventoryServiceClient;
+    private final MeterRegistry meterRegistry;
+
+    public LastKnownGoodRevalidator(
+            LastKnownGoodCache lastKnownGoodCache,
+            ProductServiceClient productServiceClient,
+            UserServiceClient userServiceClient,
+            InventoryServiceClient inventoryServiceClient,
+            MeterRegistry meterRegistry) {
+        this.lastKnownGoodCache = lastKnownGoodCache;
+        this.productServiceClient = productServiceClient;
+        this.userServiceClient = userServiceClient;
+        this.inventoryServiceClient = inventoryServiceClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${order.client-cache.revalidate-interval-ms:5000}")
+    public void revalidate() {
+        revalidateProducts();
+        revalidateUsers();
+        revalidateInventories();
+    }
+
+    /**
+     * Ürünler tek batch isteği ile yenilenir
+     */
+    void revalidateProducts() {
+        Set<UUID> productIds = lastKnownGoodCache.drainRevalidation(Region.PRODUCT);
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<UUID, ProductServiceClient.ProductResponse> products;
+        try {
+            products = productServiceClient.getProductsByIds(new ArrayList<>(productIds));
+        } catch (Exception e) {
+            productIds.forEach(id -> pending(Region.PRODUCT, id));
+            return;
+        }
+        for (UUID productId : productIds) {
+            ProductServiceClient.ProductResponse product = products == null ? null : products.get(productId);
+            if (product == null) {
+                removed(Region.PRODUCT, productId);
+            } else if (lastKnownGoodCache.isServedValue(Region.PRODUCT, productId, product)
+                    || ProductServiceClientFallback.isPlaceholder(product)) {
+                pending(Region.PRODUCT, productId);
+            } else {
+                refreshed(Region.PRODUCT, productId, product);
+            }
+        }
+    }
+
+    void revalidateUsers() {
+        for (UUID userId : lastKnownGoodCache.drainRevalidation(Region.USER)) {
+            UserServiceClient.UserResponse user;
+            try {
+                user = userServiceClient.getUserById(userId);
+            } catch (FeignException.NotFound e) {
+                removed(Region.USER, userId);
+                continue;
+            } catch (Exception e) {
+                pending(Region.USER, userId);
+                continue;
+            }
+            if (user == null || lastKnownGoodCache.isServedValue(Region.USER, userId, user)) {
+                // Fallback: cache'te yok (null) veya hâlâ son bilinen değer
+                pending(Region.USER, userId);
+            } else {
+                refreshed(Region.USER, userId, user);
+            }
+        }
+    }
+
+    /**
+     * Stoklar tek toplu stok kontrolü isteği ile yenilenir (kullanılabilir miktar için 1'er adet)
+     */
+    void revalidateInventories() {
+        Set<UUID> productIds = lastKnownGoodCache.drainRevalidation(Region.INVENTORY);
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> request = new LinkedHashMap<>();
+        productIds.forEach(productId -> request.put(productId, 1));
+        Map<UUID, InventoryServiceClient.StockAvailability> stock;
+        try {
+            stock = inventoryServiceClient.checkStockAvailability(request);
+        } catch (Exception e) {
+            productIds.forEach(id -> pending(Region.INVENTORY, id));
+            return;
+        }
+        for (UUID productId : productIds) {
+            InventoryServiceClient.StockAvailability availability = stock == null ? null : stock.get(productId);
+            if (availability == null || lastKnownGoodCache.isServedValue(Region.INVENTORY, productId, availability)
+                    || InventoryServiceClientFallback.isPlaceholder(availability)) {
+                pending(Region.INVENTORY, productId);
+            } else if (!availability.isFound()) {
+                removed(Region.INVENTORY, productId);
+            } else {
+                refreshed(Region.INVENTORY, productId, availability);
+            }
+        }
+    }
+
+    private void refreshed(Region region, UUID key, Object value) {
+        lastKnownGoodCache.record(region, key, value);
+        count(region, "refreshed");
+    }
+
+    private void pending(Region region, UUID key) {
+        lastKnownGoodCache.requeueRevalidation(region, key);
+        count(region, "pending");
+    }
+
+    private void removed(Region region, UUID key) {
+        lastKnownGoodCache.invalidate(region, key);
+        count(region, "removed");
+    }
+
+    private void count(Region region, String result) {
+        meterRegistry.counter("orders.client.cache.revalidations",
+                "region", region.name().toLowerCase(), "result", result).increment();
+    }
+}
@@ -0,0 +1,128 @@
+package com.microservices.order.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.microservices.order.Exception.DownstreamTimeoutException;
+
+/**
+ * Lookup Fan-Out
+ * Bir sipariş için yapılan downstream lookup'ları tek bir deadline altında paralel çalıştırır
+ *
+ * Kullanım:
+ * LookupFanOut fanOut = new LookupFanOut(executor, deadlineMs);
+ * Future<UserResponse> user = fanOut.submit(() -> userServiceClient.getUserById(userId));
+ * fanOut.awaitAll();   // ilk hata veya deadline aşımında diğer çağrılar iptal edilir
+ * LookupFanOut.resultOf(user);  // awaitAll sonrası bloklamaz
+ *
+ * Thread-safe değildir; her createOrder çağrısı kendi instance'ını oluşturur.
+ */
+public class LookupFanOut {
+
+    private final ExecutorCompletionService<Object> completionService;
+    private final List<Future<?>> futures = new ArrayList<>();
+    private final long deadlineNanos;
+    private final long deadlineMs;
+    private boolean rejected;
+
+    public LookupFanOut(ThreadPoolTaskExecutor executor, long deadlineMs) {
+        this.completionService = new ExecutorCompletionService<>(executor);
+        this.deadlineMs = deadlineMs;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+    }
+
+    /**
+     * Lookup'ı executor'a gönder
+     *
+     * Executor doluysa (pool + kuyruk) lookup isteği yapan thread'de çalıştırılmaz
+     * (deadline dışında kalırdı): gönderilmiş lookup'lar iptal edilir, iptal edilmiş bir future
+     * döner ve awaitAll() deadline aşımı ile aynı şekilde DownstreamTimeoutException fırlatır
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> submit(Callable<T> lookup) {
+        if (!rejected) {
+            try {
+                Future<T> future = (Future<T>) completionService.submit((Callable<Object>) lookup);
+                futures.add(future);
+                return future;
+            } catch (RejectedExecutionException e) {
+                rejected = true;
+                cancelAll();
+            }
+        }
+        FutureTask<T> skipped = new FutureTask<>(lookup);
+        skipped.cancel(false);
+        return skipped;
+    }
+
+    /**
+     * Tüm lookup'ların tamamlanmasını bekle
+     *
+     * - İlk başarısız lookup'ın exception'ı aynen fırlatılır (örn. ResourceNotFoundException)
+     * - Deadline aşılırsa veya executor lookup'ı reddettiyse DownstreamTimeoutException fırlatılır
+     * - Her iki durumda da henüz bitmemiş lookup'lar iptal edilir (thread interrupt)
+     */
+    public void awaitAll() {
+        if (rejected) {
+            throw new DownstreamTimeoutException("Order lookups rejected: lookup executor is saturated");
+        }
+        try {
+            for (int completed = 0; completed < futures.size(); completed++) {
+                long remaining = deadlineNanos - System.nanoTime();
+                Future<Object> done = remaining > 0
+                        ? completionService.poll(remaining, TimeUnit.NANOSECONDS)
+                        : completionService.poll();
+                if (done == null) {
+                    cancelAll();
+                    throw new DownstreamTimeoutException(
+                            "Order lookups did not complete within " + deadlineMs + " ms");
+                }
+                done.get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Order lookup failed", cause);
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for order lookups", e);
+        }
+    }
+
+    private void cancelAll() {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * awaitAll() sonrası tamamlanmış bir future'ın sonucunu al
+     */
+    public static <T> T resultOf(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading order lookup result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Order lookup failed", cause);
+        }
+    }
+}
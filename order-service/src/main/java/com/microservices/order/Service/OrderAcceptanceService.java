@@ -0,0 +1,325 @@
+package com.microservices.order.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.Controller.OrderWebSocketController;
+import com.microservices.order.DTO.OrderStatusUpdate;
+import com.microservices.order.Exception.OrderIntakeSaturatedException;
+import com.microservices.order.Exception.ResourceNotFoundException;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderIntent;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderIntentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolationException;
+
+/**
+ * Order Acceptance Service
+ * Asenkron sipariş kabulü (POST /orders, Prefer: respond-async)
+ *
+ * Akış:
+ * 1. Request thread'i sadece ucuz kontrolleri yapar, OrderIntent'i ACCEPTED olarak yazar ve 202 döner
+ * 2. Sınırlı orderAcceptanceExecutor'daki worker, OrderService.createOrder ile
+ *    user/product/inventory doğrulamasını yapar (senkron mod ile aynı kurallar)
+ * 3. Sonuç: Sipariş intent ile aynı ID'de PENDING olarak oluşur veya intent REJECTED olur
+ *    (sadece doğrulama / iş kuralı hatalarında; geçici hatalarda intent ACCEPTED kalır)
+ * 4. Karar WebSocket'e gönderilir (/topic/order-updates.{id} ve /topic/user-orders.{userId})
+ *
+ * Backpressure:
+ * - Aynı anda en fazla worker-pool-size + queue-capacity intent işlemde olabilir
+ * - Fazlası kaydedilmeden 503 + Retry-After ile reddedilir (OrderIntakeSaturatedException)
+ * - Restart'ta kuyrukta kalan veya geçici hatayla karara bağlanamayan intent'ler recovery sweep ile
+ *   tekrar kuyruğa alınır
+ *
+ * Metrikler:
+ * - orders.acceptance.queue.depth: Worker bekleyen intent sayısı (gauge)
+ * - orders.acceptance.workers.active: Çalışan worker sayısı (gauge)
+ * - orders.acceptance.saturation: İşlemdeki intent / kapasite, 0-1 (gauge)
+ * - orders.acceptance.decision.latency{outcome}: Kabul → karar süresi
+ * - orders.acceptance.accepted / orders.acceptance.throttled / orders.acceptance.recovered
+ * - orders.acceptance.deferred{exception}: Geçici hata nedeniyle ertelenen kararlar
+ */
+@Service
+public class OrderAcceptanceService {
+
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final OrderIntentRepository intentRepository;
+    private final OrderService orderService;
+    private final OrderWebSocketController webSocketController;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor acceptanceExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int capacity;
+    private final long retryAfterSeconds;
+    private final long staleAfterSeconds;
+
+    private final Semaphore permits;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter acceptedCounter;
+    private final Counter throttledCounter;
+    private final Counter recoveredCounter;
+
+    public OrderAcceptanceService(
+            OrderIntentRepository intentRepository,
+            OrderService orderService,
+            OrderWebSocketController webSocketController,
+            ObjectMapper objectMapper,
+            @Qualifier("orderAcceptanceExecutor") ThreadPoolTaskExecutor acceptanceExecutor,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${order.acceptance.enabled:true}") boolean enabled,
+            @Value("${order.acceptance.worker-pool-size:8}") int workerPoolSize,
+            @Value("${order.acceptance.queue-capacity:500}") int queueCapacity,
+            @Value("${order.acceptance.retry-after-seconds:2}") long retryAfterSeconds,
+            @Value("${order.acceptance.stale-after-seconds:120}") long staleAfterSeconds) {
+        this.intentRepository = intentRepository;
+        this.orderService = orderService;
+        this.webSocketController = webSocketController;
+        this.objectMapper = objectMapper;
+        this.acceptanceExecutor = acceptanceExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.capacity = workerPoolSize + queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.staleAfterSeconds = staleAfterSeconds;
+        this.permits = new Semaphore(capacity);
+
+        this.acceptedCounter = meterRegistry.counter("orders.acceptance.accepted");
+        this.throttledCounter = meterRegistry.counter("orders.acceptance.throttled");
+        this.recoveredCounter = meterRegistry.counter("orders.acceptance.recovered");
+        meterRegistry.gauge("orders.acceptance.queue.depth", acceptanceExecutor,
+            executor -> executor.getThreadPoolExecutor().getQueue().size());
+        meterRegistry.gauge("orders.acceptance.workers.active", acceptanceExecutor,
+            ThreadPoolTaskExecutor::getActiveCount);
+        meterRegistry.gauge("orders.acceptance.saturation", permits,
+            semaphore -> (double) (capacity - semaphore.availablePermits()) / capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sipariş isteğini kabul et (request thread'inde çalışır, remote çağrı yapmaz)
+     *
+     * @return ACCEPTED durumundaki intent; ID'si oluşacak siparişin ID'sidir
+     * @throws OrderIntakeSaturatedException Kuyruk doluysa (intent kaydedilmez)
+     */
+    public OrderIntent accept(Order order) {
+        if (order.getUserId() == null) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+        if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
+            throw new IllegalArgumentException("Order must have at least one item");
+        }
+        if (!permits.tryAcquire()) {
+            throttledCounter.increment();
+            throw new OrderIntakeSaturatedException(
+                "Order intake is saturated, retry after " + retryAfterSeconds + " seconds", retryAfterSeconds);
+        }
+
+        OrderIntent intent = new OrderIntent();
+        try {
+            intent.setUserId(order.getUserId());
+            intent.setPayload(objectMapper.writeValueAsString(order));
+            intent = intentRepository.save(intent);
+        } catch (JsonProcessingException e) {
+            permits.release();
+            throw new IllegalArgumentException("Could not read order request: " + e.getOriginalMessage(), e);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        acceptedCounter.increment();
+        submit(intent.getId());
+        return intent;
+    }
+
+    /**
+     * Intent durumunu getir (202 yanıtındaki status URL'i)
+     */
+    public OrderIntent getIntent(UUID intentId) {
+        return intentRepository.findById(intentId)
+                .orElseThrow(() -> new ResourceNotFoundException("OrderIntent", "id", intentId));
+    }
+
+    /**
+     * Intent'i doğrula ve karara bağla (worker thread'inde çalışır)
+     * Zaten karar verilmiş intent'ler atlanır (recovery ile tekrar gelse bile sipariş bir kez oluşur)
+     *
+     * - Doğrulama / iş kuralı hatası (geçersiz istek, user/product/inventory bulunamadı, yetersiz stok):
+     *   intent REJECTED olur
+     * - Geçici hata (downstream timeout / 503, veritabanı hatası vb.): sipariş transaction'ı rollback olur,
+     *   intent ACCEPTED kalır ve exception tekrar fırlatılır; recovery sweep intent'i tekrar kuyruğa alır
+     */
+    public OrderIntent decide(UUID intentId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                OrderIntent intent = intentRepository.findByIdForUpdate(intentId).orElse(null);
+                if (intent == null || intent.getStatus() != OrderStatus.ACCEPTED) {
+                    return intent;
+                }
+                Order order = readPayload(intent);
+                order.setId(intent.getId());
+                order.setUserId(intent.getUserId());
+                order.setStatus(null);  // PENDING (Order.onCreate)
+                order.setOrderDate(intent.getAcceptedAt());
+                orderService.createOrder(order);
+
+                intent.decide(OrderStatus.PENDING, null);
+                publishDecisionAfterCommit(intent);
+                return intent;
+            });
+        } catch (RuntimeException e) {
+            if (isRejection(e)) {
+                return reject(intentId, e);
+            }
+            meterRegistry.counter("orders.acceptance.deferred", "exception", e.getClass().getSimpleName()).increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Sipariş isteğinin kendisinden kaynaklanan (tekrar denense de değişmeyecek) hatalar
+     */
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof IllegalArgumentException
+            || e instanceof ResourceNotFoundException
+            || e instanceof ConstraintViolationException;
+    }
+
+    /**
+     * Doğrulama başarısız: intent'i ayrı bir transaction'da REJECTED yap
+     * (sipariş transaction'ı rollback oldu)
+     */
+    private OrderIntent reject(UUID intentId, RuntimeException cause) {
+        String reason = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        String truncated = reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+        return transactionTemplate.execute(status -> {
+            OrderIntent intent = intentRepository.findByIdForUpdate(intentId).orElse(null);
+            if (intent == null || intent.getStatus() != OrderStatus.ACCEPTED) {
+                return intent;
+            }
+            intent.decide(OrderStatus.REJECTED, truncated);
+            publishDecisionAfterCommit(intent);
+            return intent;
+        });
+    }
+
+    private Order readPayload(OrderIntent intent) {
+        try {
+            return objectMapper.readValue(intent.getPayload(), Order.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not read order request: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Karar commit edildikten sonra metrik ve WebSocket bildirimi
+     */
+    private void publishDecisionAfterCommit(OrderIntent intent) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Timer.builder("orders.acceptance.decision.latency")
+                        .tag("outcome", intent.getStatus().name())
+                        .register(meterRegistry)
+                        .record(Duration.between(intent.getAcceptedAt(), intent.getDecidedAt()));
+                try {
+                    OrderStatusUpdate update = new OrderStatusUpdate(
+                        intent.getId(), OrderStatus.ACCEPTED, intent.getStatus(), intent.getUserId());
+                    if (intent.getRejectionReason() != null) {
+                        update.setMessage("Order rejected: " + intent.getRejectionReason());
+                    }
+                    webSocketController.sendOrderStatusUpdate(intent.getId(), update);
+                    webSocketController.sendUserOrderUpdate(intent.getUserId(), update);
+                } catch (Exception e) {
+                    // WebSocket hatası kararı etkilemez (client status URL'den okuyabilir)
+                    System.err.println("Error sending WebSocket update: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Intent'i worker kuyruğuna ver (çağıran bir izin almış olmalı)
+     * Executor yine de reddederse intent ACCEPTED kalır, recovery sweep tekrar dener
+     */
+    private void submit(UUID intentId) {
+        inFlight.add(intentId);
+        try {
+            acceptanceExecutor.execute(() -> {
+                try {
+                    decide(intentId);
+                } catch (RuntimeException e) {
+                    System.err.println("Order intent " + intentId + " deferred, recovery sweep will retry: "
+                        + e.getMessage());
+                } finally {
+                    inFlight.remove(intentId);
+                    permits.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(intentId);
+            permits.release();
+            System.err.println("Order intent " + intentId + " could not be queued: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recovery sweep
+     * stale-after-seconds'tan uzun süredir ACCEPTED kalan intent'leri (ör. restart'ta kuyrukta
+     * kalanlar) boş kapasite kadar tekrar kuyruğa al. Bu instance'ta zaten işlemde olanlar atlanır;
+     * başka instance'larla çakışma decide içindeki satır kilidi ile zararsızdır.
+     */
+    @Scheduled(fixedDelayString = "${order.acceptance.recovery-interval-ms:30000}")
+    public void resubmitStaleIntents() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+            List<UUID> staleIds = intentRepository.findIdsByStatusAcceptedBefore(
+                OrderStatus.ACCEPTED, cutoff, PageRequest.of(0, capacity));
+            for (UUID intentId : staleIds) {
+                if (inFlight.contains(intentId)) {
+                    continue;
+                }
+                if (!permits.tryAcquire()) {
+                    break;
+                }
+                recoveredCounter.increment();
+                submit(intentId);
+            }
+        } catch (Exception e) {
+            System.err.println("Order intent recovery failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.microservices.order.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderArchiveRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Order Archival Job
+ * orders tablosunun (order_date'e göre aylık partition'lı) çalışma kümesini küçük tutar
+ *
+ * Çalışma Şekli:
+ * 1. Önümüzdeki aylar için partition'lar önceden oluşturulur (order.archive.partition-months-ahead)
+ * 2. after-days'ten eski DELIVERED/CANCELLED/REFUNDED siparişler batch halinde kilitlenir (SKIP LOCKED)
+ * 3. Aynı transaction'da orders_archive'a kopyalanır (kalemler sıkıştırılmış JSON), sonra
+ *    order_items ve orders'tan silinir
+ * 4. Commit sonrası "orders" cache'i temizlenir
+ *
+ * Aktif (terminal olmayan) siparişlere yaşı ne olursa olsun dokunulmaz.
+ * Native sorgular PostgreSQL'e özeldir; testlerde order.archive.enabled=false.
+ *
+ * Metrikler: orders.archive.archived.count, orders.archive.fail, orders.archive.partition.fail
+ */
+@Component
+public class OrderArchivalJob {
+
+    /**
+     * Arşivlenebilir (terminal) durumlar
+     */
+    public static final List<OrderStatus> ARCHIVABLE_STATUSES =
+        List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+
+    private final OrderArchiveRepository archiveRepository;
+    private final OrderCacheEvictor orderCacheEvictor;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long afterDays;
+    private final int batchSize;
+    private final int partitionMonthsAhead;
+    private final Counter archivedCounter;
+    private final Counter failCounter;
+    private final Counter partitionFailCounter;
+
+    public OrderArchivalJob(
+            OrderArchiveRepository archiveRepository,
+            OrderCacheEvictor orderCacheEvictor,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${order.archive.enabled:true}") boolean enabled,
+            @Value("${order.archive.after-days:180}") long afterDays,
+            @Value("${order.archive.batch-size:500}") int batchSize,
+            @Value("${order.archive.partition-months-ahead:3}") int partitionMonthsAhead) {
+        this.archiveRepository = archiveRepository;
+        this.orderCacheEvictor = orderCacheEvictor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+        this.partitionMonthsAhead = partitionMonthsAhead;
+        this.archivedCounter = meterRegistry.counter("orders.archive.archived.count");
+        this.failCounter = meterRegistry.counter("orders.archive.fail");
+        this.partitionFailCounter = meterRegistry.counter("orders.archive.partition.fail");
+    }
+
+    /**
+     * Periyodik arşivleme
+     * Birikmiş siparişler varsa batch'ler arka arkaya işlenir
+     */
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:3600000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ensurePartitions();
+            int archived;
+            do {
+                archived = archiveBatch();
+            } while (archived == batchSize);
+        } catch (Exception e) {
+            failCounter.increment();
+            // Batch rollback edildi, bir sonraki turda tekrar denenecek
+            System.err.println("Error archiving orders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bu ay ve önümüzdeki partition-months-ahead ay için partition oluştur
+     * (yeni siparişler default partition'a düşmesin)
+     *
+     * O aya ait satırlar default partition'a düşmüşse create_orders_partition onları yeni
+     * partition'a taşır. Oluşturulamayan ay (ör. lock timeout) sayılır ve loglanır; diğer aylar
+     * ve arşivleme devam eder, bir sonraki turda tekrar denenir.
+     */
+    public void ensurePartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= partitionMonthsAhead; i++) {
+            LocalDate target = month.plusMonths(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> archiveRepository.createPartition(target));
+            } catch (Exception e) {
+                partitionFailCounter.increment();
+                // Production'da logger kullanılmalı
+                System.err.println("ERROR: Could not create orders partition for " + target
+                    + ", new orders for that month stay in orders_default: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tek bir batch'i arşivle
+     *
+     * @return Arşivlenen sipariş sayısı
+     */
+    public int archiveBatch() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        List<String> statuses = ARCHIVABLE_STATUSES.stream().map(Enum::name).toList();
+        List<UUID> archivedIds = transactionTemplate.execute(status -> {
+            List<UUID> ids = archiveRepository.findArchivableIdsForUpdate(statuses, cutoff, batchSize);
+            if (ids.isEmpty()) {
+                return ids;
+            }
+            archiveRepository.copyToArchive(ids, cutoff, LocalDateTime.now());
+            archiveRepository.deleteItemsByOrderIdIn(ids);
+            archiveRepository.deleteOrdersByIdIn(ids, cutoff);
+            return ids;
+        });
+        if (archivedIds == null || archivedIds.isEmpty()) {
+            return 0;
+        }
+        orderCacheEvictor.evictOrders(archivedIds);
+        archivedCounter.increment(archivedIds.size());
+        return archivedIds.size();
+    }
+}
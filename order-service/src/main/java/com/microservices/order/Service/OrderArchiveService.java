@@ -0,0 +1,95 @@
+package com.microservices.order.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.DTO.OrderCursor;
+import com.microservices.order.Model.ArchivedOrder;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderItem;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderArchiveRepository;
+
+/**
+ * Order Archive Service
+ * Opt-in archive aramaları (includeArchived=true) için orders_archive'ı okur
+ *
+ * Arşivlenmiş satırlar API'ye normal Order olarak döner (archived = true);
+ * kalemler items JSON'ından OrderItem'lara çevrilir. Dönen nesneler persistence
+ * context'e bağlı değildir, güncellenemez.
+ */
+@Service
+public class OrderArchiveService {
+
+    private final OrderArchiveRepository archiveRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderArchiveService(OrderArchiveRepository archiveRepository, ObjectMapper objectMapper) {
+        this.archiveRepository = archiveRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Order> findById(UUID orderId) {
+        return archiveRepository.findById(orderId).map(this::toOrder);
+    }
+
+    /**
+     * Kullanıcının arşivlenmiş siparişleri (createdAt DESC, id DESC)
+     */
+    @Transactional(readOnly = true)
+    public List<Order> findPage(UUID userId, OrderStatus status, OrderCursor after, int limit) {
+        return archiveRepository.findPage(userId, status, after, limit).stream()
+            .map(this::toOrder)
+            .toList();
+    }
+
+    private Order toOrder(ArchivedOrder archived) {
+        Order order = new Order();
+        order.setId(archived.getId());
+        order.setUserId(archived.getUserId());
+        order.setStatus(archived.getStatus());
+        order.setTotalAmount(archived.getTotalAmount());
+        order.setShippingAddress(archived.getShippingAddress());
+        order.setCity(archived.getCity());
+        order.setZipCode(archived.getZipCode());
+        order.setPhoneNumber(archived.getPhoneNumber());
+        order.setCustomerEmail(archived.getCustomerEmail());
+        order.setCustomerName(archived.getCustomerName());
+        order.setOrderDate(archived.getOrderDate());
+        order.setDeliveryDate(archived.getDeliveryDate());
+        order.setCreatedAt(archived.getCreatedAt());
+        order.setUpdatedAt(archived.getUpdatedAt());
+        order.setNotes(archived.getNotes());
+        order.setArchived(true);
+        order.setOrderItems(toItems(archived, order));
+        return order;
+    }
+
+    private List<OrderItem> toItems(ArchivedOrder archived, Order order) {
+        List<OrderItem> items = new ArrayList<>();
+        try {
+            for (JsonNode node : objectMapper.readTree(archived.getItems())) {
+                OrderItem item = new OrderItem();
+                item.setId(UUID.fromString(node.path("id").asText()));
+                item.setOrder(order);
+                item.setProductId(UUID.fromString(node.path("productId").asText()));
+                item.setProductName(node.path("productName").isNull() ? null : node.path("productName").asText());
+                item.setQuantity(node.path("quantity").asInt());
+                item.setPrice(node.path("price").decimalValue());
+                item.setSubtotal(node.path("subtotal").decimalValue());
+                items.add(item);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not read archived items of order " + archived.getId(), e);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,55 @@
+package com.microservices.order.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order Cache Evictor
+ * "orders" cache'inden birden fazla siparişi tek seferde temizler
+ *
+ * @CacheEvict sipariş başına bir Redis DEL komutu gönderir; toplu işlemlerde
+ * bunun yerine tüm anahtarlar tek bir DEL key1 key2 ... komutuyla silinir (tek round-trip).
+ * Cache Redis değilse (ör. testlerde farklı bir CacheManager) anahtar bazında evict edilir.
+ *
+ * Cache hatası çağıran işlemi durdurmaz; cache TTL'i (5 dk) güvenlik ağıdır.
+ */
+@Component
+public class OrderCacheEvictor {
+
+    static final String CACHE_NAME = "orders";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    public OrderCacheEvictor(CacheManager cacheManager, StringRedisTemplate redisTemplate) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void evictOrders(Collection<UUID> orderIds) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null || orderIds.isEmpty()) {
+            return;
+        }
+        try {
+            if (cache instanceof RedisCache redisCache) {
+                // RedisCacheManager anahtarı "<prefix><orderId>" olarak yazar (varsayılan prefix "orders::")
+                String prefix = redisCache.getCacheConfiguration().getKeyPrefixFor(CACHE_NAME);
+                List<String> keys = orderIds.stream().map(orderId -> prefix + orderId).toList();
+                redisTemplate.delete(keys);
+            } else {
+                orderIds.forEach(orderId -> cache.evict(orderId.toString()));
+            }
+        } catch (Exception e) {
+            // Production'da logger kullanılmalı
+            System.err.println("Error evicting " + orderIds.size() + " orders from cache: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.microservices.order.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.microservices.order.DTO.OrderExportRow;
+import com.microservices.order.Repository.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.Timer.Sample;
+
+/**
+ * Order Export Service
+ * Admin için tüm siparişleri NDJSON (satır başına bir JSON) olarak stream eder
+ *
+ * - Satırlar JDBC fetch size ile parça parça okunur (OrderRepository.streamAllForExport)
+ * - Her satır okunur okunmaz response'a yazılır; tablo boyutundan bağımsız sabit bellek
+ * - Read-only transaction stream boyunca açık kalır (PostgreSQL cursor'ı için gerekli)
+ */
+@Service
+public class OrderExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private final OrderRepository orderRepository;
+    private final ObjectWriter rowWriter;
+    private final Counter exportedRowsCounter;
+    private final MeterRegistry meterRegistry;
+
+    public OrderExportService(OrderRepository orderRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.rowWriter = objectMapper.writerFor(OrderExportRow.class);
+        this.meterRegistry = meterRegistry;
+        this.exportedRowsCounter = meterRegistry.counter("orders.export.rows");
+    }
+
+    /**
+     * Tüm siparişleri NDJSON olarak yaz
+     *
+     * @return Yazılan satır sayısı
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(OutputStream out) throws IOException {
+        Sample sample = Timer.start(meterRegistry);
+        long rows = 0;
+        try (Stream<OrderExportRow> stream = orderRepository.streamAllForExport()) {
+            Iterator<OrderExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                out.write(rowWriter.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                rows++;
+                if (rows % FLUSH_EVERY_ROWS == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } finally {
+            exportedRowsCounter.increment(rows);
+            sample.stop(Timer.builder("orders.export.duration").register(meterRegistry));
+        }
+        return rows;
+    }
+}
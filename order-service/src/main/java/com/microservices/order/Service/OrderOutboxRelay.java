@@ -0,0 +1,314 @@
+package com.microservices.order.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.Config.RabbitMQConfig;
+import com.microservices.order.Event.OutboxEventType;
+import com.microservices.order.Model.OrderOutboxEvent;
+import com.microservices.order.Repository.OrderOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Order Outbox Relay
+ * order_outbox tablosundaki event'leri arka planda RabbitMQ'ya yayınlar
+ * 
+ * Çalışma Şekli:
+ * 1. Yayınlanmamış event'ler id sırasıyla batch halinde okunur ve kilitlenir
+ *    (sadece broker event'leri; rezervasyon komutlarını ReservationCommandRelay işler)
+ * 2. Batch tek bir channel üzerinden sırayla gönderilir (sipariş bazında sıra korunur)
+ * 3. Publisher confirm beklenir (waitForConfirmsOrDie)
+ * 4. Onaylanan batch publishedAt ile işaretlenir; hata olursa transaction rollback,
+ *    batch bir sonraki turda tekrar gönderilir (at-least-once)
+ * 
+ * Poison satırlar (tek satır tüm outbox'ı durdurmasın):
+ * - Deserialize edilemeyen satır hemen dead-letter'a alınır (failedAt), batch'in geri kalanı gönderilir
+ * - Broker erişilemiyorsa (bağlantı / confirm timeout) satırlar suçlanmaz, batch sonraki turda denenir
+ * - Diğer yayın hatalarında batch satır satır tekrar gönderilir; hata veren satırın attempts'i artar,
+ *   order.outbox.max-attempts'e ulaşınca dead-letter'a alınır. Sipariş bazında sıra bozulmasın diye
+ *   hata veren satırdan sonrakiler bir sonraki tura kalır.
+ * 
+ * Metrikler:
+ * - orders.outbox.batch.size: Gönderilen batch boyutu
+ * - orders.outbox.publish.lag: Event'in yazılması ile yayınlanması arasındaki süre
+ * - orders.outbox.lag.seconds: En eski bekleyen event'in yaşı (gauge)
+ * - orders.outbox.pending: Bekleyen event sayısı (gauge)
+ * - orders.outbox.published.count / orders.outbox.publish.fail
+ * - orders.outbox.dead_lettered.count: Dead-letter'a alınan satır sayısı
+ * - orders.outbox.dead: Dead-letter'da bekleyen satır sayısı (gauge)
+ */
+@Component
+public class OrderOutboxRelay {
+    private static final int RECLAIM_BATCH = -1;
+    private static final List<OutboxEventType> BROKER_EVENTS = OutboxEventType.brokerEvents();
+
+    private final OrderOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final long retentionHours;
+    private final int maxAttempts;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer publishLagTimer;
+    private final Counter publishedCounter;
+    private final Counter publishFailCounter;
+    private final Counter deadLetteredCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong deadEvents = new AtomicLong();
+
+    public OrderOutboxRelay(
+            OrderOutboxRepository outboxRepository,
+            RabbitTemplate rabbitTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${order.outbox.relay-enabled:true}") boolean enabled,
+            @Value("${order.outbox.batch-size:100}") int batchSize,
+            @Value("${order.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+            @Value("${order.outbox.retention-hours:24}") long retentionHours,
+            @Value("${order.outbox.max-attempts:5}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.retentionHours = retentionHours;
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        this.batchSizeSummary = DistributionSummary.builder("orders.outbox.batch.size").register(meterRegistry);
+        this.publishLagTimer = Timer.builder("orders.outbox.publish.lag").register(meterRegistry);
+        this.publishedCounter = meterRegistry.counter("orders.outbox.published.count");
+        this.publishFailCounter = meterRegistry.counter("orders.outbox.publish.fail");
+        this.deadLetteredCounter = meterRegistry.counter("orders.outbox.dead_lettered.count");
+        meterRegistry.gauge("orders.outbox.lag.seconds", lagSeconds);
+        meterRegistry.gauge("orders.outbox.pending", pendingEvents);
+        meterRegistry.gauge("orders.outbox.dead", deadEvents);
+    }
+
+    /**
+     * Periyodik relay
+     * Birikmiş event varsa batch'ler arka arkaya gönderilir (backlog boşalana kadar)
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int published;
+            do {
+                published = publishPendingBatch();
+            } while (published == batchSize);
+        } catch (Exception e) {
+            publishFailCounter.increment();
+            // Batch rollback edildi, bir sonraki turda tekrar denenecek
+            System.err.println("Error relaying order outbox batch: " + e.getMessage());
+        } finally {
+            refreshLagMetrics();
+        }
+    }
+
+    /**
+     * Tek bir batch'i yayınla
+     * 
+     * @return Yayınlanan event sayısı
+     * @throws AmqpConnectException Broker erişilemiyor (batch bir sonraki turda tekrar denenir)
+     */
+    public int publishPendingBatch() {
+        List<Long> sent = new ArrayList<>();
+        try {
+            Integer published = transactionTemplate.execute(status -> {
+                List<OrderOutboxEvent> batch =
+                    outboxRepository.findUnpublishedForUpdate(BROKER_EVENTS, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+
+                // Deserialize edilemeyen satırlar tekrar denense de düzelmez: dead-letter'a alınıp
+                // hemen commit edilir (sonraki bir yayın hatası bu işaretleri geri almasın)
+                List<Object> payloads = new ArrayList<>(batch.size());
+                boolean poisoned = false;
+                for (OrderOutboxEvent event : batch) {
+                    try {
+                        payloads.add(toPayload(event));
+                    } catch (IllegalStateException e) {
+                        deadLetter(event, e);
+                        poisoned = true;
+                    }
+                }
+                if (poisoned) {
+                    return RECLAIM_BATCH;
+                }
+                batch.forEach(event -> sent.add(event.getId()));
+
+                rabbitTemplate.invoke(operations -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        operations.convertAndSend(
+                            RabbitMQConfig.ORDER_EXCHANGE,
+                            batch.get(i).getEventType().getRoutingKey(),
+                            payloads.get(i));
+                    }
+                    operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                    return null;
+                });
+
+                markPublished(batch);
+                return batch.size();
+            });
+            if (published != null && published == RECLAIM_BATCH) {
+                return publishPendingBatch();  // Poison satırlar ayıklandı, kalanlar yeniden alınır
+            }
+            return published != null ? published : 0;
+        } catch (AmqpConnectException | AmqpTimeoutException e) {
+            throw e;  // Broker erişilemiyor: satırların hatası değil
+        } catch (RuntimeException e) {
+            if (sent.isEmpty()) {
+                throw e;  // Batch alınamadı (ör. veritabanı hatası)
+            }
+            publishFailCounter.increment();
+            System.err.println("Error publishing order outbox batch, retrying row by row: " + e.getMessage());
+            return publishOneByOne(sent);
+        }
+    }
+
+    /**
+     * Batch hatasından sonra satırları tek tek yayınla (hata veren satırı bulmak için)
+     * Her satır kendi transaction'ındadır; hata veren satırın denemesi kaydedilir ve durulur
+     */
+    private int publishOneByOne(List<Long> eventIds) {
+        int published = 0;
+        for (Long eventId : eventIds) {
+            try {
+                Boolean sent = transactionTemplate.execute(status -> {
+                    OrderOutboxEvent event = outboxRepository.findByIdForUpdate(eventId).orElse(null);
+                    if (event == null || event.getPublishedAt() != null || event.getFailedAt() != null) {
+                        return false;  // Başka bir relay yayınladı veya dead-letter'da
+                    }
+                    Object payload = toPayload(event);
+                    rabbitTemplate.invoke(operations -> {
+                        operations.convertAndSend(
+                            RabbitMQConfig.ORDER_EXCHANGE, event.getEventType().getRoutingKey(), payload);
+                        operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                        return null;
+                    });
+                    markPublished(List.of(event));
+                    return true;
+                });
+                if (Boolean.TRUE.equals(sent)) {
+                    published++;
+                }
+            } catch (AmqpConnectException | AmqpTimeoutException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                recordFailedAttempt(eventId, e);
+                break;  // Sonraki satırlar (aynı siparişin event'leri olabilir) bir sonraki turda
+            }
+        }
+        return published;
+    }
+
+    /**
+     * Başarısız denemeyi kaydet (ayrı transaction); max-attempts'e ulaşan satır dead-letter'a alınır
+     */
+    private void recordFailedAttempt(Long eventId, RuntimeException cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.findByIdForUpdate(eventId).ifPresent(event -> {
+                    event.setAttempts(event.getAttempts() + 1);
+                    event.setLastError(truncate(cause.getMessage()));
+                    if (event.getAttempts() >= maxAttempts) {
+                        deadLetter(event, cause);
+                    }
+                }));
+        } catch (Exception e) {
+            System.err.println("Error recording failed attempt for outbox event " + eventId + ": " + e.getMessage());
+        }
+    }
+
+    private void deadLetter(OrderOutboxEvent event, RuntimeException cause) {
+        if (event.getAttempts() == 0) {
+            event.setAttempts(1);
+        }
+        event.setLastError(truncate(cause.getMessage()));
+        event.setFailedAt(LocalDateTime.now());
+        deadLetteredCounter.increment();
+        // Production'da logger kullanılmalı
+        System.err.println("Order outbox event " + event.getId() + " (" + event.getEventType() + ", order "
+            + event.getOrderId() + ") moved to dead letter after " + event.getAttempts() + " attempt(s): "
+            + cause.getMessage());
+    }
+
+    private void markPublished(List<OrderOutboxEvent> events) {
+        LocalDateTime publishedAt = LocalDateTime.now();
+        for (OrderOutboxEvent event : events) {
+            event.setPublishedAt(publishedAt);
+            publishLagTimer.record(Duration.between(event.getCreatedAt(), publishedAt));
+        }
+        batchSizeSummary.record(events.size());
+        publishedCounter.increment(events.size());
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    /**
+     * Yayınlanmış eski event'leri temizle (tablo büyümesin)
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.cleanup-interval-ms:3600000}")
+    public void purgePublished() {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+            outboxRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+    }
+
+    private Object toPayload(OrderOutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), event.getEventType().getPayloadClass());
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not deserialize outbox event " + event.getId(), e);
+        }
+    }
+
+    private void refreshLagMetrics() {
+        try {
+            pendingEvents.set(outboxRepository.countByEventTypeInAndPublishedAtIsNullAndFailedAtIsNull(BROKER_EVENTS));
+            deadEvents.set(outboxRepository.countByEventTypeInAndFailedAtIsNotNull(BROKER_EVENTS));
+            lagSeconds.set(outboxRepository.findFirstByEventTypeInAndPublishedAtIsNullAndFailedAtIsNullOrderByIdAsc(BROKER_EVENTS)
+                .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).getSeconds())
+                .orElse(0L));
+        } catch (Exception e) {
+            System.err.println("Error refreshing order outbox metrics: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.microservices.order.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.Event.OutboxEventType;
+import com.microservices.order.Model.OrderOutboxEvent;
+import com.microservices.order.Repository.OrderOutboxRepository;
+
+/**
+ * Order Outbox Service
+ * Event'leri siparişle aynı transaction'da order_outbox tablosuna yazar
+ * 
+ * Request thread'i RabbitMQ'ya hiç dokunmaz:
+ * - Sipariş commit edilirse event de commit edilir (kaybolmaz)
+ * - Sipariş rollback olursa event de yazılmaz (hayalet event yok)
+ * - Broker'a gönderim OrderOutboxRelay tarafından arka planda yapılır
+ * 
+ * Toplu işlemler (ör. bulk status update) enqueueAll ile tek JDBC batch'inde yazar;
+ * id IDENTITY olduğu için Hibernate insert'leri batch'leyemez.
+ */
+@Service
+public class OrderOutboxService {
+    private final OrderOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderOutboxService(OrderOutboxRepository outboxRepository, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Event'i outbox'a ekle
+     * MANDATORY: Çağıran tarafın transaction'ı olmalı (siparişle atomik yazım için)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderOutboxEvent enqueue(UUID orderId, OutboxEventType eventType, Object event) {
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            return outboxRepository.save(new OrderOutboxEvent(orderId, eventType, payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " for order " + orderId, e);
+        }
+    }
+
+    /**
+     * Aynı tipteki event'leri tek JDBC batch'i ile outbox'a ekle
+     * Satırlar map'in iterasyon sırasıyla yazılır (relay id sırasıyla yayınlar)
+     * 
+     * @param eventsByOrderId Sipariş ID → event (sıralı map verilmeli, ör. LinkedHashMap)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(OutboxEventType eventType, Map<UUID, ?> eventsByOrderId) {
+        if (eventsByOrderId.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(eventsByOrderId.size());
+        for (Map.Entry<UUID, ?> entry : eventsByOrderId.entrySet()) {
+            try {
+                String payload = objectMapper.writeValueAsString(entry.getValue());
+                rows.add(new Object[] { entry.getKey(), eventType.name(), payload, createdAt });
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize " + eventType + " for order " + entry.getKey(), e);
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO order_outbox (order_id, event_type, payload, created_at, attempts) VALUES (?, ?, ?, ?, 0)",
+            rows);
+    }
+}
@@ -1,29 +1,50 @@
 package com.microservices.order.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Timer.Sample;
 
 import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.InventoryServiceClientFallback;
+import com.microservices.order.Client.LastKnownGoodCache;
 import com.microservices.order.Client.ProductServiceClient;
+import com.microservices.order.Client.ProductServiceClientFallback;
 import com.microservices.order.Client.UserServiceClient;
-import com.microservices.order.Config.RabbitMQConfig;
 import com.microservices.order.Controller.OrderWebSocketController;
+import com.microservices.order.DTO.BulkStatusUpdateResult;
+import com.microservices.order.DTO.OrderCursor;
+import com.microservices.order.DTO.OrderPage;
 import com.microservices.order.DTO.OrderStatusUpdate;
+import com.microservices.order.DTO.OrderStatusView;
 import com.microservices.order.Event.OrderCreatedEvent;
 import com.microservices.order.Event.OrderStatusChangedEvent;
+import com.microservices.order.Event.OutboxEventType;
+import com.microservices.order.Event.ReservationCommand;
+import com.microservices.order.Exception.DownstreamUnavailableException;
 import com.microservices.order.Exception.ResourceNotFoundException;
 
 import feign.FeignException;
@@ -42,42 +63,90 @@ import com.microservices.order.Repository.OrderRepository;
  * - Sipariş durumu enum ile yönetilir
  * - Inventory Service ile stok kontrolü yapılır (Feign Client ile)
  * - Product Service ile ürün bilgileri çekilir (Feign Client ile)
- * - User Service ile kullanıcı doğrulama yapılır (Feign Client ile)
+ * - User Service ile kullanıcı doğrulama yapılır (Feign Client ile, UserNearCache önünde)
+ * - Müşteri e-posta/adı siparişte snapshot olarak tutulur (durum event'leri remote çağrı yapmaz)
+ * - Ürün ad/fiyat snapshot'ı ProductSnapshotCache'ten okunur, sadece cache'te olmayanlar Product Service'ten çekilir
+ * - Sipariş oluşturma lookup'ları paralel yapılır (orderLookupExecutor)
+ * - Başarılı lookup yanıtları LastKnownGoodCache'e yazılır; servis erişilemezken fallback'ler
+ *   son bilinen yanıtı döner ve sipariş degradedValidation olarak işaretlenir
+ * - Event'ler order_outbox'a aynı transaction'da yazılır, RabbitMQ'ya OrderOutboxRelay gönderir
+ * - Toplu durum güncellemesi tek UPDATE, tek outbox batch'i ve tek cache DEL ile yapılır
+ * - Her durum geçişi aynı transaction'da order_stats_daily rollup'ına yazılır (OrderStatsService)
+ * - Geçiş kuralları ve geçiş metrikleri OrderStateMachine'dedir; Order @Version ile korunur
+ * - Ödeme/iade callback'leri entity yüklemez: projeksiyon + koşullu UPDATE (WHERE status = :expected)
+ * - Liste sorguları son order.archive.search-window-days günle sınırlıdır (partition pruning);
+ *   includeArchived=true ile sınır kalkar ve orders_archive da aranır
  */
 @Service
 public class OrderService {
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BULK_STATUS_SIZE = 500;
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+    
     private final OrderRepository orderRepository;
     private final ProductServiceClient productServiceClient;
     private final InventoryServiceClient inventoryServiceClient;
     private final UserServiceClient userServiceClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final UserNearCache userNearCache;
+    private final ProductSnapshotCache productSnapshotCache;
+    private final LastKnownGoodCache lastKnownGoodCache;
+    private final OrderOutboxService orderOutboxService;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderStatsService orderStatsService;
+    private final OrderStateMachine orderStateMachine;
+    private final OrderCacheEvictor orderCacheEvictor;
     private final OrderWebSocketController webSocketController;
     private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor orderLookupExecutor;
+    private final long lookupDeadlineMs;
+    private final long searchWindowDays;
 
     public OrderService(
             OrderRepository orderRepository,
             ProductServiceClient productServiceClient,
             InventoryServiceClient inventoryServiceClient,
             UserServiceClient userServiceClient,
-            RabbitTemplate rabbitTemplate,
+            UserNearCache userNearCache,
+            ProductSnapshotCache productSnapshotCache,
+            LastKnownGoodCache lastKnownGoodCache,
+            OrderOutboxService orderOutboxService,
+            OrderArchiveService orderArchiveService,
+            OrderStatsService orderStatsService,
+            OrderStateMachine orderStateMachine,
+            OrderCacheEvictor orderCacheEvictor,
             OrderWebSocketController webSocketController,
-            MeterRegistry meterRegistry) {
+            MeterRegistry meterRegistry,
+            @Qualifier("orderLookupExecutor") ThreadPoolTaskExecutor orderLookupExecutor,
+            @Value("${order.orchestration.deadline-ms:4000}") long lookupDeadlineMs,
+            @Value("${order.archive.search-window-days:365}") long searchWindowDays) {
         this.orderRepository = orderRepository;
         this.productServiceClient = productServiceClient;
         this.inventoryServiceClient = inventoryServiceClient;
         this.userServiceClient = userServiceClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.userNearCache = userNearCache;
+        this.productSnapshotCache = productSnapshotCache;
+        this.lastKnownGoodCache = lastKnownGoodCache;
+        this.orderOutboxService = orderOutboxService;
+        this.orderArchiveService = orderArchiveService;
+        this.orderStatsService = orderStatsService;
+        this.orderStateMachine = orderStateMachine;
+        this.orderCacheEvictor = orderCacheEvictor;
         this.webSocketController = webSocketController;
         this.meterRegistry = meterRegistry;
+        this.orderLookupExecutor = orderLookupExecutor;
+        this.lookupDeadlineMs = lookupDeadlineMs;
+        this.searchWindowDays = searchWindowDays;
     }
 
     /**
-     * Tüm siparişleri getir
+     * Tüm siparişleri getir (sayfalı)
      * Admin paneli için kullanılır
+     * 
+     * Tüm tabloyu tek seferde yükleyip cache'lemek yerine keyset pagination kullanılır.
+     * Tam liste gerekiyorsa OrderExportService (NDJSON stream) kullanılmalı.
      */
-    @Cacheable(value = "orders", key = "'all'")
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public OrderPage getAllOrders(String cursor, int limit) {
+        return findPage(null, null, cursor, limit, false);
     }
 
     /**
@@ -85,31 +154,84 @@ public class OrderService {
      */
     @Cacheable(value = "orders", key = "#orderId.toString()")
     public Order getOrderById(UUID orderId) {
-        return orderRepository.findById(orderId)
+        return orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
     }
 
+    /**
+     * ID'ye göre sipariş getir, hot tabloda yoksa archive'da ara (opt-in, cache'lenmez)
+     */
+    public Order getOrderByIdIncludingArchive(UUID orderId) {
+        return orderRepository.findWithItemsById(orderId)
+                .or(() -> orderArchiveService.findById(orderId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+    }
+
+    /**
+     * User ID'ye göre siparişleri getir (sayfalı, en yeni önce)
+     */
+    public OrderPage getOrdersByUserId(UUID userId, String cursor, int limit) {
+        return getOrdersByUserId(userId, cursor, limit, false);
+    }
+
     /**
      * User ID'ye göre siparişleri getir
-     * Kullanıcının tüm siparişlerini listeler
+     * includeArchived=true: arama penceresi uygulanmaz ve arşivlenmiş siparişler de döner
      */
-    @Cacheable(value = "orders", key = "'user:' + #userId.toString()")
-    public List<Order> getOrdersByUserId(UUID userId) {
-        return orderRepository.findByUserId(userId);
+    public OrderPage getOrdersByUserId(UUID userId, String cursor, int limit, boolean includeArchived) {
+        return findPage(userId, null, cursor, limit, includeArchived);
     }
 
     /**
-     * Sipariş durumuna göre filtrele
+     * Sipariş durumuna göre filtrele (sayfalı, en yeni önce)
      */
-    public List<Order> getOrdersByStatus(OrderStatus status) {
-        return orderRepository.findByStatus(status);
+    public OrderPage getOrdersByStatus(OrderStatus status, String cursor, int limit) {
+        return findPage(null, status, cursor, limit, false);
     }
 
     /**
-     * Kullanıcının belirli durumdaki siparişlerini getir
+     * Kullanıcının belirli durumdaki siparişlerini getir (sayfalı, en yeni önce)
      */
-    public List<Order> getOrdersByUserIdAndStatus(UUID userId, OrderStatus status) {
-        return orderRepository.findByUserIdAndStatus(userId, status);
+    public OrderPage getOrdersByUserIdAndStatus(UUID userId, OrderStatus status, String cursor, int limit) {
+        return getOrdersByUserIdAndStatus(userId, status, cursor, limit, false);
+    }
+
+    public OrderPage getOrdersByUserIdAndStatus(UUID userId, OrderStatus status, String cursor, int limit,
+            boolean includeArchived) {
+        return findPage(userId, status, cursor, limit, includeArchived);
+    }
+
+    /**
+     * Keyset pagination
+     * limit + 1 satır çekilir; fazladan satır varsa bir sonraki sayfa vardır
+     * 
+     * Varsayılan: orderDate son searchWindowDays gün ile sınırlı (eski partition'lar taranmaz).
+     * includeArchived (sadece kullanıcı sorgularında): sınır yok, hot ve archive sayfaları
+     * aynı cursor ile okunup (createdAt DESC, id DESC) sırasıyla birleştirilir.
+     */
+    private OrderPage findPage(UUID userId, OrderStatus status, String cursor, int limit, boolean includeArchived) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        LocalDateTime orderedSince = includeArchived ? null : LocalDateTime.now().minusDays(searchWindowDays);
+        List<Order> rows = orderRepository.findPage(userId, status, after, orderedSince, limit + 1);
+        if (includeArchived && userId != null) {
+            rows = new ArrayList<>(rows);
+            rows.addAll(orderArchiveService.findPage(userId, status, after, limit + 1));
+            // PostgreSQL uuid sıralaması = küçük harf string sıralaması
+            rows.sort(Comparator.comparing(Order::getCreatedAt)
+                .thenComparing(order -> order.getId().toString())
+                .reversed());
+            if (rows.size() > limit + 1) {
+                rows = rows.subList(0, limit + 1);
+            }
+        }
+        
+        boolean hasMore = rows.size() > limit;
+        List<Order> items = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        String nextCursor = hasMore ? OrderCursor.of(items.get(items.size() - 1)).encode() : null;
+        return new OrderPage(items, nextCursor, hasMore);
     }
 
     /**
@@ -121,202 +243,274 @@ public class OrderService {
      * - Sipariş durumu PENDING olarak başlar
      * 
      * İşlem Adımları:
-     * 1. User Service ile kullanıcı doğrulama
-     * 2. Product Service ile ürün bilgilerini çek (snapshot için)
-     * 3. Inventory Service ile stok kontrolü
-     * 4. OrderItem'ları oluştur (ürün bilgileri ile)
-     * 5. Siparişi kaydet
+     * 1. Lookup fazı: User ve Product (tek batch isteği) çağrıları PARALEL yapılır
+     *    (tek bir deadline altında, ilk NotFound'da diğer çağrılar iptal edilir)
+     * 2. Stok kontrolü (toplu, tek istek): kullanılabilir miktar da döner, ürün başına inventory isteği yapılmaz
+     * 3. OrderItem'ları oluştur (ürün bilgileri ile snapshot)
+     * 4. Siparişi kaydet ve event'i outbox'a yaz (aynı transaction)
+     * 
+     * Lookup'lardan biri LastKnownGoodCache'ten (fallback) geldiyse sipariş degradedValidation=true
+     * olarak kaydedilir ("orders.created.degraded" counter'ı).
+     * 
+     * Her faz "orders.created.phase.duration" timer'ına phase tag'i ile yazılır.
      */
     @Transactional
-    @CacheEvict(value = "orders", key = "'user:' + #order.userId.toString()")  // Kullanıcının sipariş listesi cache'ini temizle
     public Order createOrder(Order order) {
         Sample sample = Timer.start(meterRegistry);
-        // 1. Kullanıcı doğrulama
-        UserServiceClient.UserResponse user;
         try {
-            user = userServiceClient.getUserById(order.getUserId());
-        } catch (FeignException.NotFound e) {
-            meterRegistry.counter("orders.created.fail", "exception", "UserNotFound").increment();
-            throw new ResourceNotFoundException("User", "id", order.getUserId());
-        } catch (RuntimeException e) {
-            meterRegistry.counter("orders.created.fail", "exception", e.getClass().getSimpleName()).increment();
-            sample.stop(Timer.builder("orders.created.duration").register(meterRegistry));
-            throw e;
-        }
-        
-        if (user == null) {
-            throw new ResourceNotFoundException("User", "id", order.getUserId());
-        }
-        
-        // Eğer adres bilgileri gönderilmediyse, kullanıcının default adresini kullan
-        if (order.getShippingAddress() == null || order.getShippingAddress().isEmpty()) {
-            order.setShippingAddress(user.getAddress());
-            order.setCity(user.getCity());
-            order.setZipCode(user.getZip());
-            order.setPhoneNumber(user.getPhone());
-        }
-        
-        // 2. Stok kontrolü ve ürün bilgilerini çek
-        if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
-            throw new IllegalArgumentException("Order must have at least one item");
-        }
-        
-        // Stok kontrolü için Map oluştur
-        Map<UUID, Integer> stockCheckRequest = new HashMap<>();
-        Map<UUID, ProductServiceClient.ProductResponse> productMap = new HashMap<>();
-        Map<UUID, InventoryServiceClient.InventoryResponse> inventoryMap = new HashMap<>();
-        
-        for (OrderItem item : order.getOrderItems()) {
-            UUID productId = item.getProductId();
-            Integer quantity = item.getQuantity();
+            if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
+                throw new IllegalArgumentException("Order must have at least one item");
+            }
+            
+            // 1. Lookup fazı: tüm downstream çağrıları aynı anda başlat
+            Sample lookupSample = Timer.start(meterRegistry);
+            LookupFanOut fanOut = new LookupFanOut(orderLookupExecutor, lookupDeadlineMs);
+            // Herhangi bir yanıt son bilinen değerden (fallback) geldiyse doğrulama degraded'dır
+            AtomicBoolean degraded = new AtomicBoolean();
+            Future<UserServiceClient.UserResponse> userFuture =
+                fanOut.submit(() -> fetchUser(order.getUserId(), degraded));
+            
+            // Stok kontrolü için Map oluştur (aynı ürün birden fazla kalemde olabilir)
+            Map<UUID, Integer> stockCheckRequest = new LinkedHashMap<>();
+            for (OrderItem item : order.getOrderItems()) {
+                stockCheckRequest.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+            
+            // Snapshot cache'te olmayan ürünler tek batch isteği ile çekilir (ürün başına ayrı GET yok)
+            List<UUID> productIds = new ArrayList<>(stockCheckRequest.keySet());
+            Future<Map<UUID, ProductServiceClient.ProductResponse>> productsFuture =
+                fanOut.submit(() -> fetchProducts(productIds, degraded));
             
-            // Ürün bilgilerini çek
-            ProductServiceClient.ProductResponse product;
             try {
-                product = productServiceClient.getProductById(productId);
-            } catch (FeignException.NotFound e) {
-                meterRegistry.counter("orders.created.fail", "exception", "ProductNotFound").increment();
-                sample.stop(Timer.builder("orders.created.duration").register(meterRegistry));
-                throw new ResourceNotFoundException("Product", "id", productId);
+                fanOut.awaitAll();
+            } catch (ResourceNotFoundException e) {
+                throw e;  // fail counter'ı fetch metodlarında artırıldı
+            } catch (RuntimeException e) {
+                meterRegistry.counter("orders.created.fail", "exception", e.getClass().getSimpleName()).increment();
+                throw e;
+            } finally {
+                lookupSample.stop(phaseTimer("lookup"));
             }
-            if (product == null) {
-                throw new ResourceNotFoundException("Product", "id", productId);
+            
+            UserServiceClient.UserResponse user = LookupFanOut.resultOf(userFuture);
+            
+            // Eğer adres bilgileri gönderilmediyse, kullanıcının default adresini kullan
+            if (order.getShippingAddress() == null || order.getShippingAddress().isEmpty()) {
+                order.setShippingAddress(user.getAddress());
+                order.setCity(user.getCity());
+                order.setZipCode(user.getZip());
+                order.setPhoneNumber(user.getPhone());
             }
-            productMap.put(productId, product);
             
-            // Stok bilgisini çek
-            InventoryServiceClient.InventoryResponse inventory;
+            // Müşteri iletişim snapshot'ı (durum event'leri için)
+            order.setCustomerEmail(user.getEmail());
+            order.setCustomerName(fullName(user));
+            
+            // 2. Toplu stok kontrolü
+            Sample stockSample = Timer.start(meterRegistry);
+            Map<UUID, InventoryServiceClient.StockAvailability> stockAvailability;
             try {
-                inventory = inventoryServiceClient.getInventoryByProductId(productId);
-            } catch (FeignException.NotFound e) {
-                meterRegistry.counter("orders.created.fail", "exception", "InventoryNotFound").increment();
-                sample.stop(Timer.builder("orders.created.duration").register(meterRegistry));
-                throw new ResourceNotFoundException("Inventory", "productId", productId);
+                stockAvailability = inventoryServiceClient.checkStockAvailability(stockCheckRequest);
+            } finally {
+                stockSample.stop(phaseTimer("stock_check"));
             }
-            if (inventory == null) {
-                throw new ResourceNotFoundException("Inventory", "productId", productId);
+            
+            // Stok kontrolü sonuçlarını kontrol et (hata mesajındaki miktar da aynı yanıttan gelir)
+            for (Map.Entry<UUID, Integer> entry : stockCheckRequest.entrySet()) {
+                UUID productId = entry.getKey();
+                Integer requestedQuantity = entry.getValue();
+                InventoryServiceClient.StockAvailability stock = stockAvailability.get(productId);
+                
+                if (stock == null || !stock.isFound()) {
+                    meterRegistry.counter("orders.created.fail", "exception", "InventoryNotFound").increment();
+                    throw new ResourceNotFoundException("Inventory", "productId", productId);
+                }
+                if (!isInStock(productId, stock, requestedQuantity, degraded)) {
+                    meterRegistry.counter("orders.created.fail", "exception", "InsufficientStock").increment();
+                    throw new IllegalArgumentException(
+                        String.format("Insufficient stock for product %s. Requested: %d, Available: %d",
+                            productId, requestedQuantity, stock.getAvailableQuantity()));
+                }
             }
-            inventoryMap.put(productId, inventory);
             
-            // Stok kontrolü için ekle
-            stockCheckRequest.put(productId, quantity);
-        }
-        
-        // Toplu stok kontrolü
-        Map<UUID, Boolean> stockAvailability = inventoryServiceClient.checkStockAvailability(stockCheckRequest);
-        
-        // Stok kontrolü sonuçlarını kontrol et
-        for (Map.Entry<UUID, Boolean> entry : stockAvailability.entrySet()) {
-            UUID productId = entry.getKey();
-            Boolean available = entry.getValue();
+            // 3. OrderItem'ları oluştur (ürün bilgileri ile snapshot)
+            Map<UUID, ProductServiceClient.ProductResponse> products = LookupFanOut.resultOf(productsFuture);
             
-            if (!available) {
-                InventoryServiceClient.InventoryResponse inventory = inventoryMap.get(productId);
-                Integer requestedQuantity = stockCheckRequest.get(productId);
-                Integer availableQuantity = inventory.getAvailableQuantity();
-                
-                throw new IllegalArgumentException(
-                    String.format("Insufficient stock for product %s. Requested: %d, Available: %d",
-                        productId, requestedQuantity, availableQuantity));
+            order.setDegradedValidation(degraded.get());
+            if (degraded.get()) {
+                meterRegistry.counter("orders.created.degraded").increment();
             }
-        }
-        
-        // 3. OrderItem'ları oluştur (ürün bilgileri ile snapshot)
-        List<OrderItem> itemsToAdd = new ArrayList<>(order.getOrderItems());
-        order.getOrderItems().clear();
-        
-        for (OrderItem item : itemsToAdd) {
-            UUID productId = item.getProductId();
-            ProductServiceClient.ProductResponse product = productMap.get(productId);
+            List<OrderItem> itemsToAdd = new ArrayList<>(order.getOrderItems());
+            order.getOrderItems().clear();
             
-            // Snapshot: Ürün bilgilerini OrderItem'a kaydet
-            item.setProductName(product.getName());
-            if (item.getPrice() == null) {
-                item.setPrice(product.getPrice());
+            for (OrderItem item : itemsToAdd) {
+                ProductServiceClient.ProductResponse product = products.get(item.getProductId());
+                
+                // Snapshot: Ürün bilgilerini OrderItem'a kaydet
+                item.setProductName(product.getName());
+                if (item.getPrice() == null) {
+                    item.setPrice(product.getPrice());
+                }
+                
+                // OrderItem'ı Order'a ekle
+                order.addOrderItem(item);
             }
             
-            // OrderItem'ı Order'a ekle
-            order.addOrderItem(item);
+            // Toplam tutarı hesapla
+            order.setTotalAmount(order.calculateTotalAmount());
+            
+            // 4. Siparişi kaydet
+            Sample persistSample = Timer.start(meterRegistry);
+            Order savedOrder = orderRepository.save(order);
+            persistSample.stop(phaseTimer("persist"));
+            meterRegistry.counter("orders.created.count").increment();
+            orderStatsService.record(savedOrder.getStatus(), 1, savedOrder.getTotalAmount());
+            
+            // OrderCreatedEvent'i outbox'a yaz (aynı transaction, RabbitMQ'ya relay gönderir)
+            // OrderItem'lar zaten bellekte, yeniden fetch gerekmez
+            Sample outboxSample = Timer.start(meterRegistry);
+            try {
+                enqueueOrderCreatedEvent(savedOrder);
+            } finally {
+                outboxSample.stop(phaseTimer("outbox"));
+            }
+            return savedOrder;
+        } finally {
+            sample.stop(Timer.builder("orders.created.duration").register(meterRegistry));
         }
-        
-        // 4. Toplam tutarı hesapla
-        order.setTotalAmount(order.calculateTotalAmount());
-        
-        // 5. Siparişi kaydet
-        Order savedOrder = orderRepository.save(order);
-        meterRegistry.counter("orders.created.count").increment();
-        
-        // 6. RabbitMQ'ya OrderCreatedEvent gönder (asenkron)
-        // OrderItems'ı initialize etmek için order'ı yeniden fetch et
+    }
+    
+    /**
+     * createOrder faz timer'ı
+     * Prometheus: orders_created_phase_duration_seconds{phase="lookup|stock_check|persist|outbox"}
+     */
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("orders.created.phase.duration")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Kullanıcıyı getir (lookup worker thread'inde çalışır)
+     * Önce near-cache'e bakılır, yoksa User Service'e gidilir ve sonuç cache'lenir
+     * (near-cache ve last-known-good)
+     * Bulunamazsa ResourceNotFoundException fırlatır → diğer lookup'lar iptal edilir
+     */
+    private UserServiceClient.UserResponse fetchUser(UUID userId, AtomicBoolean degraded) {
+        UserServiceClient.UserResponse user = userNearCache.getIfPresent(userId);
+        if (user != null) {
+            return user;
+        }
+        long loadToken = userNearCache.loadToken();
         try {
-            Order orderForEvent = orderRepository.findById(savedOrder.getId())
-                .orElse(savedOrder);
-            sendOrderCreatedEvent(orderForEvent, user);
-        } catch (Exception e) {
-            // RabbitMQ hatası sipariş oluşturmayı engellemez
-            // Log'a yazılmalı (production'da logger kullanılmalı)
-            System.err.println("Error sending OrderCreatedEvent: " + e.getMessage());
-            e.printStackTrace();
+            user = userServiceClient.getUserById(userId);
+        } catch (FeignException.NotFound e) {
+            user = null;
         }
-        sample.stop(Timer.builder("orders.created.duration").register(meterRegistry));
-        return savedOrder;
+        if (user == null) {
+            meterRegistry.counter("orders.created.fail", "exception", "UserNotFound").increment();
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        if (lastKnownGoodCache.isServedValue(LastKnownGoodCache.Region.USER, userId, user)) {
+            degraded.set(true);
+            return user;  // Fallback'ten gelen son bilinen değer, near-cache'e yazılmaz
+        }
+        lastKnownGoodCache.record(LastKnownGoodCache.Region.USER, userId, user);
+        userNearCache.put(user, loadToken);
+        return user;
+    }
+    
+    private static String fullName(UserServiceClient.UserResponse user) {
+        return user.getFirstName() + " " + user.getLastName();
     }
     
     /**
-     * OrderCreatedEvent gönder
-     * RabbitMQ'ya asenkron mesaj gönderir
+     * Siparişteki ürünleri getir (lookup worker thread'inde çalışır)
+     * Önce ProductSnapshotCache'e bakılır; cache'te olmayanlar tek batch isteği ile çekilir
+     * ve sonuç cache'lenir (snapshot cache ve last-known-good)
+     * Batch response'unda olmayan ilk ürün için ResourceNotFoundException, fallback'in default değeriyle
+     * (son bilinen değer yok) dönen ürün için DownstreamUnavailableException (503) fırlatır
      */
-    private void sendOrderCreatedEvent(Order order, UserServiceClient.UserResponse user) {
-        // OrderItem bilgilerini event için hazırla
-        // Lazy loading hatası önlemek için orderItems'ı yeni bir listeye kopyala
-        List<OrderItem> orderItems = order.getOrderItems();
-        if (orderItems == null) {
-            orderItems = new ArrayList<>();
+    private Map<UUID, ProductServiceClient.ProductResponse> fetchProducts(List<UUID> productIds, AtomicBoolean degraded) {
+        Map<UUID, ProductServiceClient.ProductResponse> products = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID productId : productIds) {
+            ProductServiceClient.ProductResponse product = productSnapshotCache.getIfPresent(productId);
+            if (product != null) {
+                products.put(productId, product);
+            } else {
+                misses.add(productId);
+            }
         }
-        
-        List<OrderCreatedEvent.OrderItemInfo> orderItemInfos = new ArrayList<>();
-        for (OrderItem item : orderItems) {
-            orderItemInfos.add(new OrderCreatedEvent.OrderItemInfo(
-                item.getProductId(),
-                item.getProductName(),
-                item.getQuantity(),
-                item.getPrice(),
-                item.getSubtotal()
-            ));
+        if (misses.isEmpty()) {
+            return products;
         }
         
-        // Event oluştur
-        OrderCreatedEvent event = new OrderCreatedEvent(
-            order.getId(),
-            order.getUserId(),
-            user.getEmail(),
-            user.getFirstName() + " " + user.getLastName(),
-            order.getTotalAmount(),
-            order.getShippingAddress(),
-            order.getCity(),
-            order.getZipCode(),
-            order.getPhoneNumber(),
-            order.getOrderDate(),
-            orderItemInfos
-        );
-        
-        // RabbitMQ'ya gönder (Exchange ve Routing Key kullanarak)
-        rabbitTemplate.convertAndSend(
-            RabbitMQConfig.ORDER_EXCHANGE,
-            RabbitMQConfig.ROUTING_KEY_CREATED,
-            event
-        );
+        long loadToken = productSnapshotCache.loadToken();
+        Map<UUID, ProductServiceClient.ProductResponse> fetched = productServiceClient.getProductsByIds(misses);
+        if (fetched == null) {
+            fetched = Map.of();
+        }
+        for (UUID productId : misses) {
+            ProductServiceClient.ProductResponse product = fetched.get(productId);
+            if (product == null) {
+                meterRegistry.counter("orders.created.fail", "exception", "ProductNotFound").increment();
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            if (ProductServiceClientFallback.isPlaceholder(product)) {
+                // Fallback'in default değeri (fiyat 0): sipariş bununla fiyatlandırılmaz
+                throw new DownstreamUnavailableException(
+                    "Product Service unavailable and no last known price for product " + productId);
+            }
+            products.put(productId, product);
+            if (lastKnownGoodCache.isServedValue(LastKnownGoodCache.Region.PRODUCT, productId, product)) {
+                degraded.set(true);  // Son bilinen değer, snapshot cache'e yazılmaz
+            } else {
+                lastKnownGoodCache.record(LastKnownGoodCache.Region.PRODUCT, productId, product);
+                productSnapshotCache.put(product, loadToken);
+            }
+        }
+        return products;
+    }
+    
+    /**
+     * Stok kontrolü sonucu istenen miktarı karşılıyor mu?
+     * Sonuç LastKnownGoodCache'ten (fallback) geldiyse doğrulama degraded'dır ve karar kullanılabilir
+     * miktara göre verilir (cache'teki available alanı başka bir istek için hesaplanmıştı).
+     * Remote'tan gelen sonuç son bilinen değer olarak kaydedilir.
+     */
+    private boolean isInStock(UUID productId, InventoryServiceClient.StockAvailability stock,
+                              int requestedQuantity, AtomicBoolean degraded) {
+        if (lastKnownGoodCache.isServedValue(LastKnownGoodCache.Region.INVENTORY, productId, stock)) {
+            degraded.set(true);
+            return stock.getAvailableQuantity() >= requestedQuantity;
+        }
+        if (!InventoryServiceClientFallback.isPlaceholder(stock)) {
+            lastKnownGoodCache.record(LastKnownGoodCache.Region.INVENTORY, productId, stock);
+        }
+        return stock.isAvailable();
+    }
+    
+    /**
+     * OrderCreatedEvent'i outbox'a yaz
+     * Siparişle aynı transaction'da commit edilir, RabbitMQ'ya OrderOutboxRelay gönderir
+     */
+    private void enqueueOrderCreatedEvent(Order order) {
+        orderOutboxService.enqueue(order.getId(), OutboxEventType.ORDER_CREATED, OrderCreatedEvent.from(order));
     }
 
     /**
      * Sipariş durumunu güncelle
      * 
-     * Örnek durum geçişleri:
+     * Örnek durum geçişleri (tam tablo: OrderStateMachine):
      * - PENDING → CONFIRMED (stok kontrolü yapıldı, stoklar rezerve edilir)
      * - CONFIRMED → PROCESSING (hazırlanıyor)
      * - PROCESSING → SHIPPED (kargoya verildi)
      * - SHIPPED → DELIVERED (teslim edildi)
-     * - Herhangi bir durum → CANCELLED (iptal edildi)
+     * - Son durumlara (DELIVERED hariç) gelmemiş siparişler → CANCELLED (iptal edildi)
+     * 
+     * Sipariş entity olarak yüklenir (rezervasyon için kalemler gerekir); eşzamanlı bir
+     * değişiklik @Version ile yakalanır (409)
      */
     @Transactional
     @CacheEvict(value = "orders", key = "#orderId.toString()")  // Bu siparişin cache'ini temizle
@@ -324,50 +518,24 @@ public class OrderService {
         Order order = getOrderById(orderId);
         
         // Durum geçişi kontrolü
-        validateStatusTransition(order.getStatus(), newStatus);
+        orderStateMachine.validate(order.getStatus(), newStatus);
         
-        // PENDING → CONFIRMED geçişinde stokları rezerve et
+        // PENDING → CONFIRMED geçişinde stokları rezerve et (tek istek, ya hepsi ya hiçbiri)
         if (order.getStatus() == OrderStatus.PENDING && newStatus == OrderStatus.CONFIRMED) {
-            for (OrderItem item : order.getOrderItems()) {
-                try {
-                    // Inventory bilgisini çek
-                    InventoryServiceClient.InventoryResponse inventory = 
-                        inventoryServiceClient.getInventoryByProductId(item.getProductId());
-                    
-                    if (inventory != null) {
-                        // Stokları rezerve et
-                        inventoryServiceClient.reserveStock(
-                            inventory.getId(), 
-                            item.getQuantity());
-                    }
-                } catch (Exception e) {
-                    // Log hatası ama sipariş onay işlemini durdurma
-                    // Production'da logger kullanılmalı
-                    System.err.println("Error reserving stock for product " + 
-                        item.getProductId() + ": " + e.getMessage());
-                }
-            }
+            UUID reservationId = reserveOrderItems(order);
+            order.setReservationId(reservationId);
+            confirmReservation(order.getId(), reservationId);
         }
         
         OrderStatus oldStatus = order.getStatus();
         order.updateStatus(newStatus);
         Order savedOrder = orderRepository.save(order);
-        meterRegistry.counter("orders.status.change.count", "to", newStatus.name()).increment();
-
-        // Success/failure funnels
-        if (newStatus == OrderStatus.DELIVERED) {
-            meterRegistry.counter("orders.delivered.count").increment();
-        } else if (newStatus == OrderStatus.CANCELLED) {
-            meterRegistry.counter("orders.cancelled.count").increment();
-        }
+        recordStatusChange(oldStatus, newStatus, 1, savedOrder.getTotalAmount());
         
-        // RabbitMQ'ya OrderStatusChangedEvent gönder (asenkron)
-        try {
-            sendOrderStatusChangedEvent(savedOrder, oldStatus);
-        } catch (Exception e) {
-            // RabbitMQ hatası durum güncellemeyi engellemez
-            System.err.println("Error sending OrderStatusChangedEvent: " + e.getMessage());
-        }
+        // OrderStatusChangedEvent'i outbox'a yaz (aynı transaction, RabbitMQ'ya relay gönderir)
+        orderOutboxService.enqueue(savedOrder.getId(), OutboxEventType.ORDER_STATUS_CHANGED,
+            buildOrderStatusChangedEvent(savedOrder.getId(), savedOrder.getUserId(),
+                savedOrder.getCustomerEmail(), savedOrder.getCustomerName(), oldStatus, newStatus));
         
         // WebSocket'e real-time update gönder
         try {
@@ -392,41 +560,402 @@ public class OrderService {
     }
     
     /**
-     * OrderStatusChangedEvent gönder
-     * RabbitMQ'ya asenkron mesaj gönderir
+     * Birden fazla siparişin durumunu tek seferde güncelle
+     * PATCH /orders/status/bulk
+     * 
+     * İşlem Adımları:
+     * 1. Siparişler id sırasıyla kilitlenir (OrderItem'lar yüklenmez)
+     * 2. Her sipariş OrderStateMachine ile doğrulanır; geçersizler raporlanır, diğerleri devam eder
+     * 3. Geçerli siparişler TEK UPDATE ile güncellenir
+     * 4. OrderStatusChangedEvent'ler tek JDBC batch'i ile outbox'a yazılır
+     * 5. Commit'ten sonra cache tek DEL ile temizlenir ve WebSocket mesajları
+     *    kullanıcı başına tek frame olarak gönderilir
+     * 
+     * PENDING → CONFIRMED toplu yapılamaz: her sipariş için ayrı stok rezervasyonu
+     * (remote çağrı) gerekir, bu siparişler PATCH /orders/{id}/status'a yönlendirilir.
+     * 
+     * @return Sipariş bazında başarı/hata raporu (istekteki sırayla, tekrar eden ID'ler bir kez)
+     */
+    @Transactional
+    public BulkStatusUpdateResult updateOrderStatusBulk(List<UUID> orderIds, OrderStatus newStatus) {
+        if (newStatus == null) {
+            throw new IllegalArgumentException("Status is required");
+        }
+        if (orderIds == null || orderIds.isEmpty() || orderIds.size() > MAX_BULK_STATUS_SIZE) {
+            throw new IllegalArgumentException("Bulk update must contain between 1 and " + MAX_BULK_STATUS_SIZE + " orders");
+        }
+        Set<UUID> requestedIds = new LinkedHashSet<>(orderIds);
+        
+        // 1. Kilitle
+        Map<UUID, Order> orders = new HashMap<>();
+        for (Order order : orderRepository.findAllByIdInForUpdate(requestedIds)) {
+            orders.put(order.getId(), order);
+        }
+        
+        // 2. Validasyon
+        List<BulkStatusUpdateResult.Item> results = new ArrayList<>(requestedIds.size());
+        List<Order> accepted = new ArrayList<>();
+        for (UUID orderId : requestedIds) {
+            Order order = orders.get(orderId);
+            if (order == null) {
+                results.add(BulkStatusUpdateResult.Item.failure(orderId, null,
+                    new ResourceNotFoundException("Order", "id", orderId).getMessage()));
+                continue;
+            }
+            OrderStatus oldStatus = order.getStatus();
+            if (oldStatus == OrderStatus.PENDING && newStatus == OrderStatus.CONFIRMED) {
+                results.add(BulkStatusUpdateResult.Item.failure(orderId, oldStatus,
+                    "PENDING to CONFIRMED requires stock reservation; use PATCH /orders/" + orderId + "/status"));
+                continue;
+            }
+            try {
+                orderStateMachine.validate(oldStatus, newStatus);
+            } catch (IllegalArgumentException e) {
+                results.add(BulkStatusUpdateResult.Item.failure(orderId, oldStatus, e.getMessage()));
+                continue;
+            }
+            results.add(BulkStatusUpdateResult.Item.success(orderId, oldStatus));
+            accepted.add(order);
+        }
+        
+        if (!accepted.isEmpty()) {
+            // 3. Tek UPDATE
+            List<UUID> acceptedIds = accepted.stream().map(Order::getId).toList();
+            LocalDateTime now = LocalDateTime.now();
+            orderRepository.updateStatusByIdIn(acceptedIds, newStatus, now,
+                newStatus == OrderStatus.DELIVERED ? now : null);
+            Map<OrderStatus, List<Order>> acceptedByOldStatus = new HashMap<>();
+            for (Order order : accepted) {
+                acceptedByOldStatus.computeIfAbsent(order.getStatus(), status -> new ArrayList<>()).add(order);
+            }
+            acceptedByOldStatus.forEach((oldStatus, group) -> recordStatusChange(oldStatus, newStatus, group.size(),
+                group.stream()
+                    .map(Order::getTotalAmount)
+                    .filter(amount -> amount != null)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)));
+            
+            // 4. Event'ler tek batch'te outbox'a
+            Map<UUID, OrderStatusChangedEvent> events = new LinkedHashMap<>();
+            List<OrderStatusUpdate> updates = new ArrayList<>(accepted.size());
+            for (Order order : accepted) {
+                events.put(order.getId(), buildOrderStatusChangedEvent(order.getId(), order.getUserId(),
+                    order.getCustomerEmail(), order.getCustomerName(), order.getStatus(), newStatus));
+                updates.add(new OrderStatusUpdate(order.getId(), order.getStatus(), newStatus, order.getUserId()));
+            }
+            orderOutboxService.enqueueAll(OutboxEventType.ORDER_STATUS_CHANGED, events);
+            
+            // 5. Commit'ten sonra cache ve WebSocket (rollback olursa hiçbiri yapılmaz)
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    orderCacheEvictor.evictOrders(acceptedIds);
+                    try {
+                        webSocketController.sendOrderStatusUpdates(updates);
+                    } catch (Exception e) {
+                        // WebSocket hatası durum güncellemeyi engellemez
+                        System.err.println("Error sending WebSocket updates: " + e.getMessage());
+                    }
+                }
+            });
+        }
+        
+        meterRegistry.counter("orders.status.bulk.count", "result", "success").increment(accepted.size());
+        meterRegistry.counter("orders.status.bulk.count", "result", "failure").increment(results.size() - accepted.size());
+        return new BulkStatusUpdateResult(newStatus, accepted.size(), results.size() - accepted.size(), results);
+    }
+    
+    /**
+     * Durum değişikliği metrikleri ve rollup (tekil/toplu güncelleme, iptal ve callback'ler için ortak)
+     * Micrometer counter'ları instance başınadır (OrderStateMachine); kalıcı sayım order_stats_daily'dedir
+     * 
+     * @param revenue Duruma giren siparişlerin toplam tutarı
+     */
+    private void recordStatusChange(OrderStatus oldStatus, OrderStatus newStatus, int count, BigDecimal revenue) {
+        orderStatsService.record(newStatus, count, revenue);
+        orderStateMachine.recordTransition(oldStatus, newStatus, count);
+    }
+    
+    /**
+     * Ödeme başlatıldı: CONFIRMED/PENDING/PAYMENT_FAILED → PAYMENT_PENDING
+     */
+    @Transactional
+    public OrderStatusUpdate markPaymentPending(UUID orderId) {
+        return transition(orderId, OrderStatus.PAYMENT_PENDING);
+    }
+    
+    /**
+     * Ödeme başarılı callback'i: PAYMENT_PENDING → PROCESSING
+     */
+    @Transactional
+    public OrderStatusUpdate markPaymentSuccess(UUID orderId) {
+        return transition(orderId, OrderStatus.PROCESSING);
+    }
+    
+    /**
+     * Ödeme başarısız callback'i: PAYMENT_PENDING → PAYMENT_FAILED
+     * Stok rezervi bırakılmaz: ödeme yeniden denenebilir (PAYMENT_FAILED → PAYMENT_PENDING);
+     * sipariş iptal edilirse cancelOrder rezervi serbest bırakır
+     */
+    @Transactional
+    public OrderStatusUpdate markPaymentFailed(UUID orderId) {
+        return transition(orderId, OrderStatus.PAYMENT_FAILED);
+    }
+    
+    /**
+     * İade talebi: DELIVERED → REFUND_REQUESTED
+     */
+    @Transactional
+    public OrderStatusUpdate requestRefund(UUID orderId) {
+        return transition(orderId, OrderStatus.REFUND_REQUESTED);
+    }
+    
+    /**
+     * İade onayı: REFUND_REQUESTED → REFUNDED
      */
-    private void sendOrderStatusChangedEvent(Order order, OrderStatus oldStatus) {
-        // Kullanıcı bilgilerini çek
-        UserServiceClient.UserResponse user;
+    @Transactional
+    public OrderStatusUpdate approveRefund(UUID orderId) {
+        return transition(orderId, OrderStatus.REFUNDED);
+    }
+    
+    /**
+     * Yüksek hacimli callback yolu: siparişi entity olarak yüklemeden durum değiştir
+     * 
+     * İşlem Adımları:
+     * 1. Sadece durum/iletişim kolonları okunur (OrderStatusView, OrderItem'lar yüklenmez)
+     * 2. Sipariş zaten hedef durumdaysa hiçbir şey yazılmaz (PSP retry'ı, idempotent no-op)
+     * 3. Geçiş OrderStateMachine ile doğrulanır
+     * 4. UPDATE ... WHERE status = :expected; 0 satır → başka bir istek durumu değiştirdi,
+     *    durum tekrar okunup en fazla MAX_TRANSITION_ATTEMPTS kez denenir, sonra 409
+     * 5. Rollup, metrikler ve outbox event'i aynı transaction'da; cache ve WebSocket commit'ten sonra
+     */
+    private OrderStatusUpdate transition(UUID orderId, OrderStatus target) {
+        for (int attempt = 1; attempt <= MAX_TRANSITION_ATTEMPTS; attempt++) {
+            OrderStatusView view = orderRepository.findStatusViewById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+            OrderStatus oldStatus = view.getStatus();
+            if (oldStatus == target) {
+                meterRegistry.counter("orders.status.transition.noop", "to", target.name()).increment();
+                return new OrderStatusUpdate(orderId, oldStatus, target, view.getUserId());
+            }
+            orderStateMachine.validate(oldStatus, target);
+            
+            LocalDateTime now = LocalDateTime.now();
+            if (orderRepository.transitionStatus(orderId, oldStatus, target, now,
+                    target == OrderStatus.DELIVERED ? now : null) == 0) {
+                continue;
+            }
+            
+            return publishTransition(view, oldStatus, target);
+        }
+        meterRegistry.counter("orders.status.transition.conflict", "to", target.name()).increment();
+        throw new ObjectOptimisticLockingFailureException(Order.class, orderId);
+    }
+    
+    /**
+     * Yazılmış bir durum geçişinin yan etkileri
+     * Rollup, metrikler ve outbox event'i aynı transaction'da; cache ve WebSocket commit'ten sonra
+     */
+    private OrderStatusUpdate publishTransition(OrderStatusView view, OrderStatus oldStatus, OrderStatus target) {
+        UUID orderId = view.getId();
+        recordStatusChange(oldStatus, target, 1, view.getTotalAmount());
+        orderOutboxService.enqueue(orderId, OutboxEventType.ORDER_STATUS_CHANGED,
+            buildOrderStatusChangedEvent(orderId, view.getUserId(),
+                view.getCustomerEmail(), view.getCustomerName(), oldStatus, target));
+        
+        OrderStatusUpdate statusUpdate = new OrderStatusUpdate(orderId, oldStatus, target, view.getUserId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderCacheEvictor.evictOrders(List.of(orderId));
+                try {
+                    webSocketController.sendOrderStatusUpdate(orderId, statusUpdate);
+                    webSocketController.sendUserOrderUpdate(view.getUserId(), statusUpdate);
+                } catch (Exception e) {
+                    // WebSocket hatası durum güncellemeyi engellemez
+                    System.err.println("Error sending WebSocket update: " + e.getMessage());
+                }
+            }
+        });
+        return statusUpdate;
+    }
+    
+    /**
+     * Kaybolan rezervasyonun telafisi
+     * Inventory Service süresi dolmuş ve stoğu başka siparişe verilmiş rezervasyonun onayını
+     * reddettiğinde (409) ReservationCommandRelay çağırır; sipariş stoksuz onaylı kalmaz:
+     * - CONFIRMED → PENDING, PAYMENT_PENDING → PAYMENT_FAILED (OrderStateMachine.reservationLostTarget)
+     * - Geçiş normal geçişlerle aynı yoldan duyurulur (outbox event'i, cache, WebSocket)
+     * - Sipariş bu arada yeni rezervasyon aldıysa veya geri alınamayacak bir durumdaysa
+     *   (ör. PROCESSING) durum değiştirilmez, sadece loglanır
+     * Her durumda orders.reservation.lost.count{from} sayılır
+     *
+     * @return Yapılan geçiş; durum değiştirilmediyse null
+     */
+    @Transactional
+    public OrderStatusUpdate compensateLostReservation(UUID orderId, UUID reservationId) {
+        for (int attempt = 1; attempt <= MAX_TRANSITION_ATTEMPTS; attempt++) {
+            OrderStatusView view = orderRepository.findStatusViewById(orderId).orElse(null);
+            OrderStatus oldStatus = view != null ? view.getStatus() : null;
+            OrderStatus target = orderStateMachine.reservationLostTarget(oldStatus);
+            if (target == null) {
+                meterRegistry.counter("orders.reservation.lost.count", "from", String.valueOf(oldStatus)).increment();
+                // Production'da logger kullanılmalı
+                System.err.println("ERROR: Reservation " + reservationId + " of order " + orderId
+                    + " expired before confirmation; order is " + oldStatus + " and was not rolled back");
+                return null;
+            }
+            if (orderRepository.transitionStatusForReservation(orderId, oldStatus, target, reservationId,
+                    LocalDateTime.now()) == 0) {
+                if (orderRepository.existsByIdAndReservationId(orderId, reservationId)) {
+                    continue;
+                }
+                // Sipariş yeni bir rezervasyonla tekrar onaylandı, kaybolan rezervasyon artık ilgisiz
+                return null;
+            }
+            meterRegistry.counter("orders.reservation.lost.count", "from", oldStatus.name()).increment();
+            System.err.println("Reservation " + reservationId + " of order " + orderId
+                + " expired before confirmation; order moved from " + oldStatus + " to " + target);
+            return publishTransition(view, oldStatus, target);
+        }
+        meterRegistry.counter("orders.status.transition.conflict", "to", "RESERVATION_LOST").increment();
+        throw new ObjectOptimisticLockingFailureException(Order.class, orderId);
+    }
+    
+    /**
+     * Siparişin tüm kalemlerini tek istekte rezerve et
+     * Inventory Service tüm ürünleri tek transaction'da rezerve eder; biri bile
+     * yetersizse hiçbiri rezerve edilmez ve sipariş onaylanmaz (PENDING kalır)
+     * 
+     * @return Rezervasyon ID'si
+     */
+    private UUID reserveOrderItems(Order order) {
+        List<InventoryServiceClient.ReservationItem> items = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            items.add(new InventoryServiceClient.ReservationItem(item.getProductId(), item.getQuantity()));
+        }
+        
+        InventoryServiceClient.ReservationResponse reservation;
         try {
-            user = userServiceClient.getUserById(order.getUserId());
-        } catch (Exception e) {
-            // Kullanıcı bilgisi alınamazsa event gönderilmez
-            System.err.println("Error getting user for OrderStatusChangedEvent: " + e.getMessage());
-            return;
+            reservation = inventoryServiceClient.reserveItems(
+                new InventoryServiceClient.ReservationRequest(order.getId(), items));
+        } catch (FeignException e) {
+            reservation = null;
         }
         
-        if (user == null) {
+        if (reservation == null || reservation.getReservationId() == null) {
+            meterRegistry.counter("orders.reservation.fail").increment();
+            throw new IllegalArgumentException(
+                "Could not reserve stock for order " + order.getId() + ". Order remains PENDING.");
+        }
+        return reservation.getReservationId();
+    }
+    
+    /**
+     * Rezervasyonu kesinleştir
+     * - Onay komutu sipariş ile aynı transaction'da outbox'a yazılır; ReservationCommandRelay
+     *   Inventory Service'e iletir ve erişilemezse tekrar dener (onaysız rezervasyon süre sonunda
+     *   serbest bırakılır, onaylı siparişin stoğu tekrar satılır)
+     * - Rollback: Sipariş PENDING kaldı, komut da yazılmadı; rezervasyon hemen serbest bırakılmaya
+     *   çalışılır, başarısız olursa süre sonunda Inventory Service serbest bırakır
+     */
+    private void confirmReservation(UUID orderId, UUID reservationId) {
+        orderOutboxService.enqueue(orderId, OutboxEventType.RESERVATION_CONFIRM,
+            new ReservationCommand(reservationId, orderId));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    inventoryServiceClient.releaseReservation(reservationId);
+                } catch (Exception e) {
+                    meterRegistry.counter("orders.reservation.release.fail").increment();
+                    System.err.println("Error releasing reservation " + reservationId
+                        + " after rollback (expires with TTL): " + e.getMessage());
+                }
+            }
+        });
+    }
+    
+    /**
+     * Siparişin stok rezervasyonunu serbest bırak
+     * - Rezervasyon ID'si varsa (durumdan bağımsız) serbest bırakma komutu outbox'a yazılır (iptal ile aynı
+     *   transaction); ReservationCommandRelay onay komutundan sonra iletir ve başarılı olana kadar tekrar dener.
+     *   Süresi dolmuş / zaten serbest bırakılmış rezervasyon için Inventory Service hiçbir şey yapmaz
+     * - Rezervasyon ID'si olmayan CONFIRMED siparişler ledger öncesi (eski) siparişlerdir: kalem bazında
+     *   serbest bırakılır, başarısız kalemler orders.reservation.release.fail ile sayılır. Ledger döneminde
+     *   PENDING → CONFIRMED her zaman rezervasyon ID'si yazar
+     * - Diğer durumlarda rezervasyon ID'si yoksa stok hiç rezerve edilmemiştir (ör. PENDING → PAYMENT_PENDING),
+     *   hiçbir şey yapılmaz
+     * Hatalar iptal işlemini durdurmaz
+     */
+    private void releaseOrderReservation(Order order, OrderStatus oldStatus) {
+        if (order.getReservationId() != null) {
+            orderOutboxService.enqueue(order.getId(), OutboxEventType.RESERVATION_RELEASE,
+                new ReservationCommand(order.getReservationId(), order.getId()));
+            return;
+        }
+        if (oldStatus != OrderStatus.CONFIRMED) {
             return;
         }
         
-        // Event oluştur
-        OrderStatusChangedEvent event = new OrderStatusChangedEvent(
-            order.getId(),
-            order.getUserId(),
-            user.getEmail(),
-            user.getFirstName() + " " + user.getLastName(),
+        for (OrderItem item : order.getOrderItems()) {
+            try {
+                // Inventory bilgisini çek
+                InventoryServiceClient.InventoryResponse inventory = 
+                    inventoryServiceClient.getInventoryByProductId(item.getProductId());
+                
+                if (inventory == null || InventoryServiceClientFallback.isPlaceholder(inventory)) {
+                    throw new IllegalStateException("Inventory unavailable");
+                }
+                // Rezerve edilmiş stoku geri ver
+                InventoryServiceClient.InventoryResponse released = inventoryServiceClient.releaseReservedStock(
+                    inventory.getId(), 
+                    item.getQuantity());
+                if (InventoryServiceClientFallback.isPlaceholder(released)) {
+                    throw new IllegalStateException("Inventory Service unavailable");
+                }
+            } catch (Exception e) {
+                // Log hatası ama sipariş iptal işlemini durdurma
+                // Production'da logger kullanılmalı
+                meterRegistry.counter("orders.reservation.release.fail").increment();
+                System.err.println("Error releasing stock for product " + 
+                    item.getProductId() + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * OrderStatusChangedEvent oluştur (outbox'a yazılmak üzere)
+     * 
+     * Remote çağrı YAPMAZ: iletişim bilgisi siparişteki snapshot'tan gelir.
+     * Snapshot'ı olmayan eski siparişler için sadece near-cache'e bakılır;
+     * orada da yoksa event yine gönderilir (e-posta alanı boş kalır).
+     */
+    private OrderStatusChangedEvent buildOrderStatusChangedEvent(UUID orderId, UUID userId,
+            String customerEmail, String customerName, OrderStatus oldStatus, OrderStatus newStatus) {
+        String userEmail = customerEmail;
+        String userName = customerName;
+        if (userEmail == null) {
+            UserServiceClient.UserResponse cachedUser = userNearCache.getIfPresent(userId);
+            if (cachedUser != null) {
+                userEmail = cachedUser.getEmail();
+                userName = fullName(cachedUser);
+            } else {
+                meterRegistry.counter("orders.status.event.missing_contact").increment();
+            }
+        }
+        
+        return new OrderStatusChangedEvent(
+            orderId,
+            userId,
+            userEmail,
+            userName,
             oldStatus != null ? oldStatus.name() : "UNKNOWN",
-            order.getStatus().name(),
+            newStatus.name(),
             LocalDateTime.now()
         );
-        
-        // RabbitMQ'ya gönder (Exchange ve Routing Key kullanarak)
-        rabbitTemplate.convertAndSend(
-            RabbitMQConfig.ORDER_EXCHANGE,
-            RabbitMQConfig.ROUTING_KEY_STATUS_CHANGED,
-            event
-        );
     }
 
     /**
@@ -479,8 +1008,11 @@ public class OrderService {
      * Sipariş iptal et
      * 
      * ÖNEMLİ:
-     * - Sadece PENDING veya CONFIRMED durumundaki siparişler iptal edilebilir
-     * - İptal edildiğinde stok geri verilir (Inventory Service ile)
+     * - Kargoya verilmemiş siparişler iptal edilebilir: PENDING, CONFIRMED, PAYMENT_PENDING,
+     *   PAYMENT_FAILED, PROCESSING (OrderStateMachine)
+     * - İptal edildiğinde stok geri verilir (releaseOrderReservation)
+     * - Durum değişikliği diğer geçişlerle aynı yoldan duyurulur: outbox event'i aynı transaction'da,
+     *   cache ve WebSocket commit'ten sonra
      */
     @Transactional
     public Order cancelOrder(UUID orderId) {
@@ -491,7 +1023,7 @@ public class OrderService {
             order.getStatus() == OrderStatus.DELIVERED) {
             throw new IllegalArgumentException(
                 "Cannot cancel order with status: " + order.getStatus() + 
-                ". Only PENDING or CONFIRMED orders can be cancelled.");
+                ". Orders can only be cancelled before they are shipped.");
         }
         
         // Eğer zaten iptal edilmişse
@@ -500,31 +1032,17 @@ public class OrderService {
                 "Order is already cancelled.");
         }
         
-        // Eğer CONFIRMED durumundaysa, rezerve edilmiş stokları geri ver
-        if (order.getStatus() == OrderStatus.CONFIRMED) {
-            for (OrderItem item : order.getOrderItems()) {
-                try {
-                    // Inventory bilgisini çek
-                    InventoryServiceClient.InventoryResponse inventory = 
-                        inventoryServiceClient.getInventoryByProductId(item.getProductId());
-                    
-                    if (inventory != null) {
-                        // Rezerve edilmiş stoku geri ver
-                        inventoryServiceClient.releaseReservedStock(
-                            inventory.getId(), 
-                            item.getQuantity());
-                    }
-                } catch (Exception e) {
-                    // Log hatası ama sipariş iptal işlemini durdurma
-                    // Production'da logger kullanılmalı
-                    System.err.println("Error releasing stock for product " + 
-                        item.getProductId() + ": " + e.getMessage());
-                }
-            }
-        }
+        OrderStatus oldStatus = order.getStatus();
+        orderStateMachine.validate(oldStatus, OrderStatus.CANCELLED);
+        
+        releaseOrderReservation(order, oldStatus);
         
         order.updateStatus(OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        publishTransition(new OrderStatusView(savedOrder.getId(), savedOrder.getUserId(), OrderStatus.CANCELLED,
+                savedOrder.getTotalAmount(), savedOrder.getCustomerEmail(), savedOrder.getCustomerName()),
+            oldStatus, OrderStatus.CANCELLED);
+        return savedOrder;
     }
 
     /**
@@ -537,24 +1055,5 @@ public class OrderService {
         }
         orderRepository.deleteById(orderId);
     }
-
-    /**
-     * Durum geçişi validasyonu
-     * Geçerli durum geçişlerini kontrol eder
-     */
-    private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
-        // CANCELLED durumundan başka duruma geçilemez
-        if (currentStatus == OrderStatus.CANCELLED) {
-            throw new IllegalArgumentException("Cannot change status from CANCELLED");
-        }
-        
-        // DELIVERED durumundan başka duruma geçilemez
-        if (currentStatus == OrderStatus.DELIVERED) {
-            throw new IllegalArgumentException("Cannot change status from DELIVERED");
-        }
-        
-        // Geçerli durum geçişleri (basit kontrol, gelecekte daha detaylı yapılabilir)
-        // Şimdilik sadece CANCELLED ve DELIVERED kontrolü yapılıyor
-    }
 }
 
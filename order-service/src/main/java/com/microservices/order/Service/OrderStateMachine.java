@@ -0,0 +1,143 @@
+package com.microservices.order.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.microservices.order.Model.OrderStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Order State Machine
+ * Sipariş durum geçişlerinin tek kaynağı: hangi geçişin geçerli olduğu ve geçişte hangi
+ * metriğin yazılacağı aynı tabloda tanımlıdır
+ *
+ * Geçiş tablosu (kaynak → hedef [metrik]):
+ * - PENDING → CONFIRMED, PAYMENT_PENDING [orders.payment.pending.count], PROCESSING, SHIPPED,
+ *   DELIVERED [orders.delivered.count], CANCELLED [orders.cancelled.count]
+ * - CONFIRMED → PAYMENT_PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+ * - PAYMENT_PENDING → PROCESSING [orders.payment.success.count], PAYMENT_FAILED [orders.payment.fail.count],
+ *   CANCELLED
+ * - PAYMENT_FAILED → PAYMENT_PENDING (yeniden deneme, stok rezervi korunur), CANCELLED
+ * - PROCESSING → SHIPPED, DELIVERED, CANCELLED
+ * - SHIPPED → DELIVERED
+ * - DELIVERED → REFUND_REQUESTED [orders.refund.request.count]
+ * - REFUND_REQUESTED → REFUNDED [orders.refunded.count], DELIVERED (iade reddedildi)
+ * - CANCELLED, REFUNDED → (son durum)
+ * - ACCEPTED, REJECTED → sadece OrderIntent durumlarıdır, siparişte kullanılmaz
+ *
+ * Rezervasyon kaybı (kullanıcı geçişi değildir, validate ile kabul edilmez): Inventory Service süresi
+ * dolmuş rezervasyonun onayını reddederse sipariş stoksuz kalır ve geri alınır
+ * - CONFIRMED → PENDING (tekrar onaylanınca yeni rezervasyon yapılır)
+ * - PAYMENT_PENDING → PAYMENT_FAILED
+ *
+ * Metrik isimleri observability/prometheus/payment_rules.yml ile aynıdır; her geçiş ayrıca
+ * orders.status.change.count{from,to} olarak sayılır. Geçiş hangi yoldan yapılırsa yapılsın
+ * (tekil, toplu, callback) metrikler buradan yazılır.
+ */
+@Component
+public class OrderStateMachine {
+
+    private static final Map<OrderStatus, Map<OrderStatus, String>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    private static final Map<OrderStatus, OrderStatus> RESERVATION_LOST_TARGETS = Map.of(
+        OrderStatus.CONFIRMED, OrderStatus.PENDING,
+        OrderStatus.PAYMENT_PENDING, OrderStatus.PAYMENT_FAILED);
+
+    static {
+        rule(OrderStatus.PENDING, OrderStatus.CONFIRMED, null);
+        rule(OrderStatus.PENDING, OrderStatus.PAYMENT_PENDING, "orders.payment.pending.count");
+        rule(OrderStatus.PENDING, OrderStatus.PROCESSING, null);
+        rule(OrderStatus.PENDING, OrderStatus.SHIPPED, null);
+        rule(OrderStatus.PENDING, OrderStatus.DELIVERED, "orders.delivered.count");
+        rule(OrderStatus.PENDING, OrderStatus.CANCELLED, "orders.cancelled.count");
+
+        rule(OrderStatus.CONFIRMED, OrderStatus.PAYMENT_PENDING, "orders.payment.pending.count");
+        rule(OrderStatus.CONFIRMED, OrderStatus.PROCESSING, null);
+        rule(OrderStatus.CONFIRMED, OrderStatus.SHIPPED, null);
+        rule(OrderStatus.CONFIRMED, OrderStatus.DELIVERED, "orders.delivered.count");
+        rule(OrderStatus.CONFIRMED, OrderStatus.CANCELLED, "orders.cancelled.count");
+
+        rule(OrderStatus.PAYMENT_PENDING, OrderStatus.PROCESSING, "orders.payment.success.count");
+        rule(OrderStatus.PAYMENT_PENDING, OrderStatus.PAYMENT_FAILED, "orders.payment.fail.count");
+        rule(OrderStatus.PAYMENT_PENDING, OrderStatus.CANCELLED, "orders.cancelled.count");
+
+        rule(OrderStatus.PAYMENT_FAILED, OrderStatus.PAYMENT_PENDING, "orders.payment.pending.count");
+        rule(OrderStatus.PAYMENT_FAILED, OrderStatus.CANCELLED, "orders.cancelled.count");
+
+        rule(OrderStatus.PROCESSING, OrderStatus.SHIPPED, null);
+        rule(OrderStatus.PROCESSING, OrderStatus.DELIVERED, "orders.delivered.count");
+        rule(OrderStatus.PROCESSING, OrderStatus.CANCELLED, "orders.cancelled.count");
+
+        rule(OrderStatus.SHIPPED, OrderStatus.DELIVERED, "orders.delivered.count");
+
+        rule(OrderStatus.DELIVERED, OrderStatus.REFUND_REQUESTED, "orders.refund.request.count");
+
+        rule(OrderStatus.REFUND_REQUESTED, OrderStatus.REFUNDED, "orders.refunded.count");
+        rule(OrderStatus.REFUND_REQUESTED, OrderStatus.DELIVERED, null);
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public OrderStateMachine(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private static void rule(OrderStatus from, OrderStatus to, String metric) {
+        // Değer olarak boş string: EnumMap null değer tutabilir ama "metrik yok" ile "geçiş yok" karışmasın
+        TRANSITIONS.computeIfAbsent(from, key -> new EnumMap<>(OrderStatus.class)).put(to, metric != null ? metric : "");
+    }
+
+    public boolean canTransition(OrderStatus from, OrderStatus to) {
+        return from != null && TRANSITIONS.getOrDefault(from, Collections.emptyMap()).containsKey(to);
+    }
+
+    /**
+     * Geçerli hedef durumlar (kaynak son durumsa boş)
+     */
+    public Set<OrderStatus> targetsOf(OrderStatus from) {
+        return Collections.unmodifiableSet(TRANSITIONS.getOrDefault(from, Collections.emptyMap()).keySet());
+    }
+
+    /**
+     * Rezervasyonu kaybolan siparişin geri alınacağı durum
+     *
+     * @return Hedef durum; sipariş bu durumda geri alınmıyorsa null
+     */
+    public OrderStatus reservationLostTarget(OrderStatus from) {
+        return from != null ? RESERVATION_LOST_TARGETS.get(from) : null;
+    }
+
+    /**
+     * Geçişi doğrula
+     *
+     * @throws IllegalArgumentException Geçiş tabloda yoksa
+     */
+    public void validate(OrderStatus from, OrderStatus to) {
+        if (to == OrderStatus.ACCEPTED || to == OrderStatus.REJECTED) {
+            throw new IllegalArgumentException("Status " + to + " is only used for asynchronous order intents");
+        }
+        if (!canTransition(from, to)) {
+            throw new IllegalArgumentException("Cannot change status from " + from + " to " + to
+                + ". Allowed: " + targetsOf(from));
+        }
+    }
+
+    /**
+     * Gerçekleşen geçiş(ler)in metriklerini yaz
+     *
+     * @param count Aynı kaynak → hedef geçişini yapan sipariş sayısı
+     */
+    public void recordTransition(OrderStatus from, OrderStatus to, long count) {
+        meterRegistry.counter("orders.status.change.count", "from", String.valueOf(from), "to", to.name())
+            .increment(count);
+        String metric = TRANSITIONS.getOrDefault(from, Collections.emptyMap()).get(to);
+        if (metric != null && !metric.isEmpty()) {
+            meterRegistry.counter(metric).increment(count);
+        }
+    }
+}
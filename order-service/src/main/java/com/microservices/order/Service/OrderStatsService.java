@@ -0,0 +1,91 @@
+package com.microservices.order.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.microservices.order.DTO.OrderStatsReport;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderStatsRepository;
+
+/**
+ * Order Stats Service
+ * order_stats_daily rollup'ını durum geçişleriyle birlikte günceller ve GET /orders/stats'ı okur
+ *
+ * Çalışma Şekli:
+ * - record() durum değiştiren transaction'ın İÇİNDE çağrılır (MANDATORY): geçiş rollback olursa
+ *   sayaç da geri alınır, instance restart'ında kaybolmaz (Micrometer counter'larının aksine)
+ * - Kova (gün, saat, durum) tek upsert ile eklenir veya artırılır (PostgreSQL'de ON CONFLICT DO UPDATE);
+ *   ayrı transaction açılmaz, eşzamanlı ilk eklemeler de unique violation'a düşmez
+ * - Okumalar sadece rollup'a bakar: maliyet sipariş sayısından değil gün sayısından bağımsızdır
+ */
+@Service
+public class OrderStatsService {
+
+    public static final int MAX_RANGE_DAYS = 366;
+    private static final int DEFAULT_RANGE_DAYS = 7;
+
+    private final OrderStatsRepository statsRepository;
+
+    public OrderStatsService(OrderStatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+
+    /**
+     * Şu anki saat kovasında duruma giren siparişleri say
+     *
+     * @param count   Duruma giren sipariş sayısı
+     * @param revenue Bu siparişlerin toplam tutarı
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OrderStatus status, long count, BigDecimal revenue) {
+        if (count <= 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        statsRepository.upsert(now.toLocalDate(), now.getHour(), status, count,
+            revenue != null ? revenue : BigDecimal.ZERO);
+    }
+
+    /**
+     * Rollup'tan sayım ve ciro
+     *
+     * @param from        Başlangıç günü (dahil); null ise to'dan 6 gün öncesi
+     * @param to          Bitiş günü (dahil); null ise bugün
+     * @param granularity "day" veya "hour"
+     */
+    @Transactional(readOnly = true)
+    public OrderStatsReport getStats(LocalDate from, LocalDate to, String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Stats range must be at most " + MAX_RANGE_DAYS + " days");
+        }
+        OrderStatsReport.Granularity resolved = parseGranularity(granularity);
+        List<OrderStatsReport.Bucket> buckets = resolved == OrderStatsReport.Granularity.HOUR
+            ? statsRepository.findHourlyBuckets(start, end)
+            : statsRepository.findDailyBuckets(start, end);
+        return new OrderStatsReport(resolved, start, end, buckets);
+    }
+
+    private static OrderStatsReport.Granularity parseGranularity(String granularity) {
+        if (granularity == null || granularity.isBlank()) {
+            return OrderStatsReport.Granularity.DAY;
+        }
+        try {
+            return OrderStatsReport.Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularity must be 'day' or 'hour'");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.microservices.order.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.microservices.order.Controller.OrderWebSocketController;
+import com.microservices.order.DTO.OrderStatusUpdate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Order Update Coalescer
+ * WebSocket durum güncellemelerini kısa bir pencerede (order.websocket.coalesce.window-ms) biriktirir
+ *
+ * Pencere içinde:
+ * - Sipariş başına sadece en son durum tutulur (PENDING→CONFIRMED→PROCESSING tek mesaj:
+ *   oldStatus ilk geçişten, newStatus son geçişten)
+ * - Topic sözleşmeleri değişmez: /topic/user-orders.{userId} her zaman tek bir OrderStatusUpdate
+ *   taşır (pencerede değişen her sipariş için bir frame); toplu güncellemeler (submitAll) kullanıcı
+ *   başına liste halinde tek frame olarak /topic/user-orders.{userId}.batch'e gider
+ *
+ * window-ms = 0 ise biriktirme yapılmaz, her çağrı hemen gönderilir.
+ *
+ * Metrikler:
+ * - orders.websocket.frames.sent: Broker'a gönderilen frame sayısı
+ * - orders.websocket.frames.saved: Coalescing sayesinde gönderilmeyen frame sayısı
+ */
+@Component
+public class OrderUpdateCoalescer {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long windowMs;
+    private final Counter framesSentCounter;
+    private final Counter framesSavedCounter;
+    private final ScheduledExecutorService flushScheduler;
+
+    private final Object lock = new Object();
+    private Map<UUID, OrderStatusUpdate> pendingByOrder = new LinkedHashMap<>();
+    private Map<UUID, Map<UUID, OrderStatusUpdate>> pendingByUser = new LinkedHashMap<>();
+    private Map<UUID, Map<UUID, OrderStatusUpdate>> pendingBatchByUser = new LinkedHashMap<>();
+    private long requestedFrames;
+    private boolean flushScheduled;
+
+    public OrderUpdateCoalescer(
+            SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${order.websocket.coalesce.window-ms:100}") long windowMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.windowMs = windowMs;
+        this.framesSentCounter = meterRegistry.counter("orders.websocket.frames.sent");
+        this.framesSavedCounter = meterRegistry.counter("orders.websocket.frames.saved");
+        this.flushScheduler = windowMs > 0
+            ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-ws-coalescer");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+    }
+
+    /**
+     * Sipariş topic'i için güncelleme
+     */
+    public void submitOrderUpdate(UUID orderId, OrderStatusUpdate update) {
+        synchronized (lock) {
+            pendingByOrder.merge(orderId, update, OrderUpdateCoalescer::latest);
+            requestedFrames++;
+        }
+        afterSubmit();
+    }
+
+    /**
+     * Kullanıcı topic'i için güncelleme
+     */
+    public void submitUserUpdate(UUID userId, OrderStatusUpdate update) {
+        synchronized (lock) {
+            pendingByUser.computeIfAbsent(userId, id -> new LinkedHashMap<>())
+                .merge(update.getOrderId(), update, OrderUpdateCoalescer::latest);
+            requestedFrames++;
+        }
+        afterSubmit();
+    }
+
+    /**
+     * Toplu güncelleme: her sipariş kendi topic'ine, her kullanıcıya .batch topic'inde tek liste frame'i
+     * Coalescing kapalı olsa bile kullanıcı başına tek frame gönderilir
+     */
+    public void submitAll(List<OrderStatusUpdate> updates) {
+        synchronized (lock) {
+            for (OrderStatusUpdate update : updates) {
+                pendingByOrder.merge(update.getOrderId(), update, OrderUpdateCoalescer::latest);
+                pendingBatchByUser.computeIfAbsent(update.getUserId(), id -> new LinkedHashMap<>())
+                    .merge(update.getOrderId(), update, OrderUpdateCoalescer::latest);
+            }
+            requestedFrames += 2L * updates.size();
+        }
+        afterSubmit();
+    }
+
+    private void afterSubmit() {
+        if (windowMs <= 0) {
+            flush();
+            return;
+        }
+        synchronized (lock) {
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        flushScheduler.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Biriken güncellemeleri gönder
+     * Gönderim lock dışında yapılır; flush sırasında gelen güncellemeler bir sonraki pencereye kalır
+     */
+    public void flush() {
+        Map<UUID, OrderStatusUpdate> byOrder;
+        Map<UUID, Map<UUID, OrderStatusUpdate>> byUser;
+        Map<UUID, Map<UUID, OrderStatusUpdate>> batchByUser;
+        long requested;
+        synchronized (lock) {
+            byOrder = pendingByOrder;
+            byUser = pendingByUser;
+            batchByUser = pendingBatchByUser;
+            requested = requestedFrames;
+            pendingByOrder = new LinkedHashMap<>();
+            pendingByUser = new LinkedHashMap<>();
+            pendingBatchByUser = new LinkedHashMap<>();
+            requestedFrames = 0;
+            flushScheduled = false;
+        }
+        if (requested == 0) {
+            return;
+        }
+
+        long sent = 0;
+        for (Map.Entry<UUID, OrderStatusUpdate> entry : byOrder.entrySet()) {
+            sent += send(OrderWebSocketController.orderDestination(entry.getKey()), entry.getValue());
+        }
+        // Kullanıcı topic'inin payload'ı tek güncellemedir (mevcut client'lar liste beklemez)
+        for (Map.Entry<UUID, Map<UUID, OrderStatusUpdate>> entry : byUser.entrySet()) {
+            String destination = OrderWebSocketController.userDestination(entry.getKey());
+            for (OrderStatusUpdate update : entry.getValue().values()) {
+                sent += send(destination, update);
+            }
+        }
+        for (Map.Entry<UUID, Map<UUID, OrderStatusUpdate>> entry : batchByUser.entrySet()) {
+            sent += send(OrderWebSocketController.userBatchDestination(entry.getKey()),
+                new ArrayList<>(entry.getValue().values()));
+        }
+        framesSentCounter.increment(sent);
+        framesSavedCounter.increment(Math.max(0, requested - sent));
+    }
+
+    private int send(String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
+            return 1;
+        } catch (Exception e) {
+            // WebSocket hatası diğer frame'leri engellemez
+            System.err.println("Error sending WebSocket update to " + destination + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Aynı sipariş için ikinci güncelleme: en son durum, ilk eski durum
+     */
+    private static OrderStatusUpdate latest(OrderStatusUpdate previous, OrderStatusUpdate next) {
+        OrderStatusUpdate merged = new OrderStatusUpdate(
+            next.getOrderId(), previous.getOldStatus(), next.getNewStatus(), next.getUserId());
+        String defaultMessage = new OrderStatusUpdate(
+            next.getOrderId(), next.getOldStatus(), next.getNewStatus(), next.getUserId()).getMessage();
+        if (next.getMessage() != null && !next.getMessage().equals(defaultMessage)) {
+            merged.setMessage(next.getMessage());  // Örn. red gerekçesi
+        }
+        merged.setTimestamp(next.getTimestamp());
+        return merged;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushScheduler != null) {
+            flushScheduler.shutdown();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,96 @@
+package com.microservices.order.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.microservices.order.DTO.WorkClaim;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Order Work Queue Service
+ * Fulfilment worker'larına ayrık sipariş batch'leri dağıtır
+ *
+ * Akış:
+ * 1. Worker POST /orders/work/claim?status=CONFIRMED&limit=50 çağırır
+ * 2. Claim edilebilir siparişler FOR UPDATE SKIP LOCKED ile kilitlenir
+ *    (eşzamanlı worker'lar birbirini beklemez, aynı siparişi almaz)
+ * 3. Siparişlere worker ID'si ve lease bitiş zamanı yazılır
+ * 4. Worker durumu güncellediğinde lease temizlenir (Order.updateStatus)
+ * 5. Lease süresi dolan siparişler bir sonraki claim'de tekrar verilir (re-queue)
+ */
+@Service
+public class OrderWorkQueueService {
+
+    public static final int MAX_CLAIM_SIZE = 200;
+
+    private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
+    private final long leaseSeconds;
+
+    public OrderWorkQueueService(
+            OrderRepository orderRepository,
+            MeterRegistry meterRegistry,
+            @Value("${order.work.lease-seconds:300}") long leaseSeconds) {
+        this.orderRepository = orderRepository;
+        this.meterRegistry = meterRegistry;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * Verilen durumdaki en eski siparişlerden en fazla limit kadarını claim et
+     *
+     * @param workerId null veya boş ise rastgele bir ID atanır
+     */
+    @Transactional
+    public WorkClaim claim(OrderStatus status, int limit, String workerId) {
+        if (limit < 1 || limit > MAX_CLAIM_SIZE) {
+            throw new IllegalArgumentException("Claim limit must be between 1 and " + MAX_CLAIM_SIZE);
+        }
+        String worker = workerId == null || workerId.isBlank() ? UUID.randomUUID().toString() : workerId;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiresAt = now.plusSeconds(leaseSeconds);
+
+        List<Order> locked = orderRepository.findClaimableForUpdate(status, now, PageRequest.of(0, limit));
+        if (locked.isEmpty()) {
+            return new WorkClaim(worker, leaseExpiresAt, List.of());
+        }
+
+        // OrderItem'ları tek sorguda yükle (flush sırasında @PreUpdate toplamı hesaplarken
+        // ve JSON serialization'da sipariş başına lazy SELECT olmasın)
+        Map<UUID, Integer> position = new HashMap<>();
+        for (int i = 0; i < locked.size(); i++) {
+            position.put(locked.get(i).getId(), i);
+        }
+        List<Order> orders = new ArrayList<>(orderRepository.findWithItemsByIdIn(position.keySet()));
+        orders.sort(Comparator.comparing(order -> position.get(order.getId())));
+
+        int requeued = 0;
+        for (Order order : orders) {
+            if (order.getClaimedBy() != null) {
+                requeued++;  // Önceki worker'ın lease'i dolmuş
+            }
+            order.setClaimedBy(worker);
+            order.setClaimExpiresAt(leaseExpiresAt);
+        }
+
+        meterRegistry.counter("orders.work.claimed", "status", status.name()).increment(orders.size());
+        if (requeued > 0) {
+            meterRegistry.counter("orders.work.lease.expired", "status", status.name()).increment(requeued);
+        }
+        return new WorkClaim(worker, leaseExpiresAt, orders);
+    }
+}
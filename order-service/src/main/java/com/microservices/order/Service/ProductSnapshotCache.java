@@ -0,0 +1,138 @@
+package com.microservices.order.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.microservices.order.Client.ProductServiceClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Product Snapshot Cache
+ * Order Service instance'ı içinde tutulan, sipariş kalemine snapshot'lanan ürün bilgisi (ad, fiyat)
+ *
+ * - Kayıt productId ile tutulur ve Product Service'teki ürün version'ını taşır
+ * - Tembel doldurulur: sadece createOrder'ın batch isteğinde gelen ürünler yazılır
+ * - Product Service'in product.updated event'i ile geçersiz kılınır (ProductEventConsumer):
+ *   event'teki version'dan eski snapshot düşer, aynı/yeni version'lı snapshot korunur
+ * - Eski version'lı bir yanıt, cache'te daha yeni version varsa onu ezmez
+ * - LRU ile sınırlı (order.product-cache.max-size), TTL güvenlik ağıdır (order.product-cache.ttl-seconds)
+ *
+ * Kullanım:
+ * long token = snapshotCache.loadToken();
+ * Map<UUID, ProductResponse> products = productServiceClient.getProductsByIds(misses);
+ * snapshotCache.put(product, token);  // yükleme sırasında invalidation geldiyse yazılmaz
+ */
+@Component
+public class ProductSnapshotCache {
+
+    private final Map<UUID, Entry> entries;
+    private final long ttlNanos;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    public ProductSnapshotCache(
+            MeterRegistry meterRegistry,
+            @Value("${order.product-cache.max-size:10000}") int maxSize,
+            @Value("${order.product-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.hitCounter = meterRegistry.counter("orders.product.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("orders.product.cache.requests", "result", "miss");
+        this.invalidationCounter = meterRegistry.counter("orders.product.cache.invalidations");
+        meterRegistry.gauge("orders.product.cache.size", this, ProductSnapshotCache::size);
+    }
+
+    /**
+     * Cache'teki ürün snapshot'ını getir (yoksa veya süresi dolduysa null)
+     */
+    public ProductServiceClient.ProductResponse getIfPresent(UUID productId) {
+        synchronized (entries) {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hitCounter.increment();
+                return entry.product;
+            }
+            if (entry != null) {
+                entries.remove(productId);
+            }
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * Remote çağrıdan ÖNCE alınır, put() ile birlikte kullanılır
+     */
+    public long loadToken() {
+        return invalidationSequence.get();
+    }
+
+    /**
+     * Remote çağrıdan dönen ürünü cache'e yaz
+     * - Çağrı sürerken bir invalidation geldiyse yanıt eski fiyatı taşıyabilir, yazılmaz
+     * - Cache'te daha yeni version'lı snapshot varsa ezilmez
+     */
+    public void put(ProductServiceClient.ProductResponse product, long loadToken) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        synchronized (entries) {
+            if (invalidationSequence.get() != loadToken) {
+                return;
+            }
+            Entry current = entries.get(product.getId());
+            if (current != null && isNewer(current.product.getVersion(), product.getVersion())) {
+                return;
+            }
+            entries.put(product.getId(), new Entry(product, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * product.updated event'i: version'ı event'tekinden eski snapshot'ı çıkar
+     *
+     * @param version Güncelleme sonrası version; null ise (silme / version'sız event) kayıt her durumda düşer
+     */
+    public void invalidate(UUID productId, Long version) {
+        synchronized (entries) {
+            invalidationSequence.incrementAndGet();
+            Entry entry = entries.get(productId);
+            if (entry != null && (version == null || !isAtLeast(entry.product.getVersion(), version))) {
+                entries.remove(productId);
+            }
+        }
+        invalidationCounter.increment();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static boolean isNewer(Long cached, Long candidate) {
+        return cached != null && (candidate == null || cached > candidate);
+    }
+
+    private static boolean isAtLeast(Long cached, long version) {
+        return cached != null && cached >= version;
+    }
+
+    private record Entry(ProductServiceClient.ProductResponse product, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,313 @@
+package com.microservices.order.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Event.OutboxEventType;
+import com.microservices.order.Event.ReservationCommand;
+import com.microservices.order.Exception.ReservationNotActiveException;
+import com.microservices.order.Model.OrderOutboxEvent;
+import com.microservices.order.Repository.OrderOutboxRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reservation Command Relay
+ * order_outbox'taki rezervasyon komutlarını (onay / serbest bırakma) Inventory Service'e iletir
+ *
+ * Komut, siparişin durum değişikliğiyle aynı transaction'da yazılır; bu yüzden Inventory Service
+ * o anda erişilemese de kaybolmaz:
+ * - Claim: Zamanı gelmiş komutlar kısa bir transaction'da SKIP LOCKED ile kilitlenir ve
+ *   order.reservation.claim-timeout-ms süresince kiralanır (nextAttemptAt); başka instance'lar
+ *   bu satırları atlar, instance çökerse kira dolunca komut tekrar alınır
+ * - HTTP çağrıları transaction dışında yapılır (veritabanı bağlantısı ve satır kilidi tutulmaz)
+ * - Her komutun sonucu kendi kısa transaction'ında yazılır (diğer komutların sonucunu etkilemez)
+ * - Komutlar id sırasıyla işlenir; başarısız komut nextAttemptAt'e kadar bekletilir (üstel backoff,
+ *   en fazla order.reservation.max-backoff-ms) ve aynı siparişin sonraki komutları da beklenir
+ *   (onaydan önce serbest bırakma gönderilmez)
+ * - order.reservation.max-attempts denemeden sonra komut dead-letter'a alınır (failedAt) ve loglanır
+ * - Onaylanmamış rezervasyon inventory.reservation.ttl-seconds sonunda Inventory Service'te serbest
+ *   bırakılır ve denemeler bu süreyi aşabilir. Geç gelen onayda Inventory Service stoğu tekrar rezerve
+ *   eder; stok bu arada satıldıysa 409 döner (ReservationNotActiveException). Bu durumda komut tekrar
+ *   denenmez: sipariş aynı transaction'da telafi edilir (OrderService.compensateLostReservation,
+ *   CONFIRMED → PENDING / PAYMENT_PENDING → PAYMENT_FAILED) ve komut işlenmiş sayılır
+ *
+ * Metrikler:
+ * - orders.reservation.confirm.fail / orders.reservation.release.fail: Başarısız deneme sayısı
+ * - orders.reservation.command.dead_lettered{command}: Vazgeçilen komut sayısı
+ * - orders.reservation.lost.count{from}: Onayı reddedilen (kaybolan) rezervasyon sayısı
+ * - orders.reservation.command.pending / orders.reservation.command.dead (gauge)
+ */
+@Component
+public class ReservationCommandRelay {
+    private static final List<OutboxEventType> COMMANDS = OutboxEventType.reservationCommands();
+
+    private final OrderOutboxRepository outboxRepository;
+    private final InventoryServiceClient inventoryServiceClient;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long claimTimeoutMs;
+
+    private final AtomicLong pendingCommands = new AtomicLong();
+    private final AtomicLong deadCommands = new AtomicLong();
+
+    public ReservationCommandRelay(
+            OrderOutboxRepository outboxRepository,
+            InventoryServiceClient inventoryServiceClient,
+            OrderService orderService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${order.outbox.relay-enabled:true}") boolean enabled,
+            @Value("${order.reservation.batch-size:50}") int batchSize,
+            @Value("${order.reservation.max-attempts:12}") int maxAttempts,
+            @Value("${order.reservation.initial-backoff-ms:1000}") long initialBackoffMs,
+            @Value("${order.reservation.max-backoff-ms:60000}") long maxBackoffMs,
+            @Value("${order.reservation.claim-timeout-ms:30000}") long claimTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.inventoryServiceClient = inventoryServiceClient;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+
+        meterRegistry.gauge("orders.reservation.command.pending", pendingCommands);
+        meterRegistry.gauge("orders.reservation.command.dead", deadCommands);
+    }
+
+    /**
+     * Periyodik relay
+     */
+    @Scheduled(fixedDelayString = "${order.reservation.poll-interval-ms:1000}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int processed;
+            do {
+                processed = processPendingBatch();
+            } while (processed == batchSize);
+        } catch (Exception e) {
+            // Batch alınamadı (ör. veritabanı hatası), bir sonraki turda tekrar denenecek
+            System.err.println("Error relaying reservation commands: " + e.getMessage());
+        } finally {
+            refreshMetrics();
+        }
+    }
+
+    /**
+     * Zamanı gelmiş komutlardan bir batch'i işle
+     *
+     * @return İşlenen (gönderilen, ertelenen veya dead-letter'a alınan) komut sayısı
+     */
+    public int processPendingBatch() {
+        List<Claim> claims = new ArrayList<>();
+        Integer processed = transactionTemplate.execute(status -> claimBatch(claims));
+
+        Set<UUID> failedOrders = new HashSet<>();
+        for (Claim claim : claims) {
+            if (failedOrders.contains(claim.orderId())) {
+                // Aynı batch'teki önceki komut iletilemedi, sıra bozulmasın diye bu komut ertelenir
+                recordDeferred(claim);
+                continue;
+            }
+            Exception failure = null;
+            try {
+                send(claim.type(), claim.reservationId());
+            } catch (ReservationNotActiveException e) {
+                // Kesin cevap: sonraki komutlar (ör. serbest bırakma) beklemeden iletilebilir
+                failure = e;
+            } catch (Exception e) {
+                failure = e;
+                failedOrders.add(claim.orderId());
+            }
+            recordOutcome(claim, failure);
+        }
+        return processed != null ? processed : 0;
+    }
+
+    /**
+     * Zamanı gelmiş komutları kilitle ve gönderilecek olanları kirala (claim transaction'ı)
+     *
+     * @param claims Gönderilecek komutlar (çıktı)
+     * @return Alınan satır sayısı
+     */
+    private int claimBatch(List<Claim> claims) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> batch =
+            outboxRepository.findDueForUpdate(COMMANDS, now, PageRequest.of(0, batchSize));
+        Map<UUID, Integer> claimedPerOrder = new HashMap<>();
+        for (OrderOutboxEvent event : batch) {
+            ReservationCommand command;
+            try {
+                command = objectMapper.readValue(event.getPayload(), ReservationCommand.class);
+            } catch (Exception e) {
+                deadLetter(event, "Could not deserialize reservation command: " + e.getMessage());
+                continue;
+            }
+            long earlier = outboxRepository.countByOrderIdAndEventTypeInAndIdLessThanAndPublishedAtIsNullAndFailedAtIsNull(
+                event.getOrderId(), COMMANDS, event.getId());
+            if (earlier > claimedPerOrder.getOrDefault(event.getOrderId(), 0)) {
+                // Siparişin önceki komutu (ör. onay) henüz iletilmedi ve bu batch'te değil,
+                // sıra bozulmasın diye beklenir
+                event.setNextAttemptAt(now.plusNanos(initialBackoffMs * 1_000_000));
+                continue;
+            }
+            // Kira: gönderim sürerken başka instance'lar bu satırı almaz
+            event.setNextAttemptAt(now.plusNanos(claimTimeoutMs * 1_000_000));
+            claims.add(new Claim(event.getId(), event.getEventType(), event.getOrderId(), command.getReservationId()));
+            claimedPerOrder.merge(event.getOrderId(), 1, Integer::sum);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Gönderim sonucunu komutun kendi transaction'ında yaz
+     * Satır bu arada başka bir instance tarafından tamamlandıysa (kira dolmuş) dokunulmaz
+     */
+    private void recordOutcome(Claim claim, Exception failure) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.findByIdForUpdate(claim.id())
+                    .filter(event -> event.getPublishedAt() == null && event.getFailedAt() == null)
+                    .ifPresent(event -> {
+                        if (failure == null) {
+                            event.setPublishedAt(LocalDateTime.now());
+                            event.setNextAttemptAt(null);
+                        } else if (failure instanceof ReservationNotActiveException) {
+                            compensate(event, claim, failure);
+                        } else {
+                            recordFailedAttempt(event, claim, failure, LocalDateTime.now());
+                        }
+                    }));
+        } catch (Exception e) {
+            // Sonuç yazılamadı: kira dolunca komut tekrar gönderilir (Inventory Service tarafı idempotent)
+            System.err.println("Error recording reservation command outcome (outbox " + claim.id() + "): "
+                + e.getMessage());
+        }
+    }
+
+    /**
+     * Önceki komutu iletilemeyen komutu deneme saymadan ertele
+     */
+    private void recordDeferred(Claim claim) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.findByIdForUpdate(claim.id())
+                    .filter(event -> event.getPublishedAt() == null && event.getFailedAt() == null)
+                    .ifPresent(event -> event.setNextAttemptAt(
+                        LocalDateTime.now().plusNanos(initialBackoffMs * 1_000_000))));
+        } catch (Exception e) {
+            // Yazılamadı: kira dolunca komut tekrar değerlendirilir
+            System.err.println("Error deferring reservation command (outbox " + claim.id() + "): "
+                + e.getMessage());
+        }
+    }
+
+    /**
+     * Onayı reddedilen rezervasyon: siparişi telafi et ve komutu işlenmiş say (tekrar denenmez)
+     * Telafi başarısız olursa transaction rollback edilir, komut kira dolunca tekrar gönderilir
+     */
+    private void compensate(OrderOutboxEvent event, Claim claim, Exception cause) {
+        orderService.compensateLostReservation(claim.orderId(), claim.reservationId());
+        event.setLastError(truncate(cause.getMessage()));
+        event.setPublishedAt(LocalDateTime.now());
+        event.setNextAttemptAt(null);
+    }
+
+    private void send(OutboxEventType type, UUID reservationId) {
+        switch (type) {
+            case RESERVATION_CONFIRM -> inventoryServiceClient.confirmReservation(reservationId);
+            case RESERVATION_RELEASE -> inventoryServiceClient.releaseReservation(reservationId);
+            default -> throw new IllegalStateException("Not a reservation command: " + type);
+        }
+    }
+
+    private void recordFailedAttempt(OrderOutboxEvent event, Claim claim, Exception cause, LocalDateTime now) {
+        meterRegistry.counter(failMetric(event.getEventType())).increment();
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(truncate(cause.getMessage()));
+        if (event.getAttempts() >= maxAttempts) {
+            deadLetter(event, cause.getMessage());
+            return;
+        }
+        long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(event.getAttempts() - 1, 20));
+        event.setNextAttemptAt(now.plusNanos(backoffMs * 1_000_000));
+        // Production'da logger kullanılmalı
+        System.err.println("Reservation command " + event.getEventType() + " for reservation "
+            + claim.reservationId() + " failed (attempt " + event.getAttempts() + "), retrying in "
+            + backoffMs + " ms: " + cause.getMessage());
+    }
+
+    private void deadLetter(OrderOutboxEvent event, String reason) {
+        if (event.getAttempts() == 0) {
+            event.setAttempts(1);
+        }
+        event.setLastError(truncate(reason));
+        event.setFailedAt(LocalDateTime.now());
+        meterRegistry.counter("orders.reservation.command.dead_lettered",
+            "command", commandTag(event.getEventType())).increment();
+        System.err.println("ERROR: Reservation command " + event.getEventType() + " (outbox " + event.getId()
+            + ", order " + event.getOrderId() + ") gave up after " + event.getAttempts() + " attempt(s): " + reason);
+    }
+
+    private void refreshMetrics() {
+        try {
+            pendingCommands.set(outboxRepository.countByEventTypeInAndPublishedAtIsNullAndFailedAtIsNull(COMMANDS));
+            deadCommands.set(outboxRepository.countByEventTypeInAndFailedAtIsNotNull(COMMANDS));
+        } catch (Exception e) {
+            System.err.println("Error refreshing reservation command metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Claim transaction'ında kiralanan, gönderilecek komut
+     */
+    private record Claim(Long id, OutboxEventType type, UUID orderId, UUID reservationId) {
+    }
+
+    private static String failMetric(OutboxEventType type) {
+        return "orders.reservation." + commandTag(type) + ".fail";
+    }
+
+    private static String commandTag(OutboxEventType type) {
+        return type == OutboxEventType.RESERVATION_CONFIRM ? "confirm" : "release";
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,117 @@
+package com.microservices.order.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.microservices.order.Client.UserServiceClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * User Near-Cache
+ * Order Service instance'ı içinde tutulan, User Service yanıtlarının yerel kopyası
+ *
+ * - LRU ile sınırlı (order.user-cache.max-size), TTL güvenlik ağıdır (order.user-cache.ttl-seconds)
+ * - User Service'in user.updated event'i ile anında geçersiz kılınır (UserEventConsumer)
+ * - Redis'e gitmez: amaç her siparişte ağ çağrısı yapmamak
+ *
+ * Kullanım:
+ * long token = nearCache.loadToken();
+ * UserResponse user = userServiceClient.getUserById(userId);
+ * nearCache.put(user, token);  // yükleme sırasında invalidation geldiyse yazılmaz
+ */
+@Component
+public class UserNearCache {
+
+    private final Map<UUID, Entry> entries;
+    private final long ttlNanos;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    public UserNearCache(
+            MeterRegistry meterRegistry,
+            @Value("${order.user-cache.max-size:10000}") int maxSize,
+            @Value("${order.user-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.hitCounter = meterRegistry.counter("orders.user.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("orders.user.cache.requests", "result", "miss");
+        this.invalidationCounter = meterRegistry.counter("orders.user.cache.invalidations");
+        meterRegistry.gauge("orders.user.cache.size", this, UserNearCache::size);
+    }
+
+    /**
+     * Cache'teki kullanıcıyı getir (yoksa veya süresi dolduysa null)
+     */
+    public UserServiceClient.UserResponse getIfPresent(UUID userId) {
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hitCounter.increment();
+                return entry.user;
+            }
+            if (entry != null) {
+                entries.remove(userId);
+            }
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * Remote çağrıdan ÖNCE alınır, put() ile birlikte kullanılır
+     */
+    public long loadToken() {
+        return invalidationSequence.get();
+    }
+
+    /**
+     * Remote çağrıdan dönen kullanıcıyı cache'e yaz
+     * Çağrı sürerken bir invalidation geldiyse yanıt eski olabilir, yazılmaz
+     */
+    public void put(UserServiceClient.UserResponse user, long loadToken) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        synchronized (entries) {
+            if (invalidationSequence.get() != loadToken) {
+                return;
+            }
+            entries.put(user.getId(), new Entry(user, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Kullanıcıyı cache'ten çıkar (user.updated event'i)
+     */
+    public void invalidate(UUID userId) {
+        synchronized (entries) {
+            invalidationSequence.incrementAndGet();
+            entries.remove(userId);
+        }
+        invalidationCounter.increment();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry(UserServiceClient.UserResponse user, long expiresAtNanos) {
+    }
+}
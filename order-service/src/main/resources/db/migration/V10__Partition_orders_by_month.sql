@@ -0,0 +1,92 @@
+-- Order Service - Monthly Range Partitioning and Archive
+-- Migration: V10__Partition_orders_by_month.sql
+-- Description: Re-creates orders as a table range-partitioned by order_date (one partition per month)
+--              and adds orders_archive, where OrderArchivalJob moves old DELIVERED/CANCELLED/REFUNDED orders
+--
+-- Notes:
+-- - A partitioned table's primary key must contain the partition key → PRIMARY KEY (id, order_date).
+--   id is a random UUID generated by the application, uniqueness is not enforced across partitions.
+-- - A foreign key cannot reference (id) alone any more, so fk_order_items_order is dropped.
+--   OrderItem rows are still written/removed only through the Order aggregate (JPA cascade),
+--   and the archival job deletes the items of archived orders explicitly.
+-- - Rows outside every monthly partition land in orders_default; OrderArchivalJob creates
+--   the upcoming months' partitions ahead of time (create_orders_partition).
+
+ALTER TABLE order_items DROP CONSTRAINT IF EXISTS fk_order_items_order;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+
+CREATE TABLE orders (
+    LIKE orders_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (order_date);
+
+ALTER TABLE orders ADD PRIMARY KEY (id, order_date);
+
+CREATE TABLE IF NOT EXISTS orders_default PARTITION OF orders DEFAULT;
+
+-- Ayın partition'ını oluştur (varsa dokunma): orders_pYYYYMM, [ayın ilk günü, sonraki ayın ilk günü)
+-- Partition adını döner
+CREATE OR REPLACE FUNCTION create_orders_partition(p_month DATE) RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', p_month)::DATE;
+    partition_name TEXT := 'orders_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, (month_start + INTERVAL '1 month')::DATE);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Mevcut verinin ilk ayından itibaren 3 ay sonrasına kadar partition'lar
+DO $$
+DECLARE
+    month_cursor DATE := date_trunc('month', COALESCE((SELECT MIN(order_date) FROM orders_unpartitioned), now()))::DATE;
+    last_month DATE := (date_trunc('month', now()) + INTERVAL '3 months')::DATE;
+BEGIN
+    WHILE month_cursor <= last_month LOOP
+        PERFORM create_orders_partition(month_cursor);
+        month_cursor := (month_cursor + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO orders SELECT * FROM orders_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+-- Index'ler parent'ta tanımlanır, her partition'a otomatik uygulanır
+CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders(user_id);
+CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
+CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders(order_date);
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_at_id ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at_id ON orders(status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_user_status_created_at_id ON orders(user_id, status, created_at DESC, id DESC);
+-- Archival job: terminal durumdaki eski siparişler
+CREATE INDEX IF NOT EXISTS idx_orders_status_order_date ON orders(status, order_date);
+
+-- Archive: sipariş başına tek satır, kalemler JSON olarak (lz4 ile sıkıştırılmış TOAST)
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(19, 2) NOT NULL,
+    shipping_address VARCHAR(500),
+    city VARCHAR(50),
+    zip_code VARCHAR(10),
+    phone_number VARCHAR(15),
+    customer_email VARCHAR(255),
+    customer_name VARCHAR(255),
+    order_date TIMESTAMP NOT NULL,
+    delivery_date TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    notes TEXT,
+    items TEXT NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+ALTER TABLE orders_archive ALTER COLUMN items SET COMPRESSION lz4;
+
+-- Opt-in archive araması kullanıcı geçmişi üzerinden yapılır (keyset, en yeni önce)
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_created_at_id ON orders_archive(user_id, created_at DESC, id DESC);
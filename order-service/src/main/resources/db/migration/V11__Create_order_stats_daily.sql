@@ -0,0 +1,20 @@
+-- Order Service - Order funnel rollup
+-- Migration: V11__Create_order_stats_daily.sql
+-- Description: Per (day, hour, status) counters maintained by OrderStatsService in the same
+--              transaction as every status transition; GET /orders/stats reads only this table
+--
+-- Notes:
+-- - A row counts the orders that ENTERED the status in that hour (creation → PENDING,
+--   every later transition → its target status) and the sum of their total_amount.
+-- - Rows are never decremented: deleting or archiving orders does not change the history.
+-- - Dashboards read O(days × hours × statuses) rows instead of scanning orders.
+
+CREATE TABLE IF NOT EXISTS order_stats_daily (
+    stat_date DATE NOT NULL,
+    stat_hour INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, stat_hour, status),
+    CONSTRAINT chk_order_stats_daily_hour CHECK (stat_hour BETWEEN 0 AND 23)
+);
@@ -0,0 +1,23 @@
+-- Order Service - Idempotency keys
+-- Migration: V12__Create_order_idempotency_keys.sql
+-- Description: Idempotency-Key store for POST /orders and payment callbacks (IdempotencyService)
+--
+-- Notes:
+-- - id = "<scope>:<Idempotency-Key>", a replay is a single primary key lookup
+-- - IN_PROGRESS rows are owned by claim_token until locked_until; after that another request may take over
+-- - COMPLETED rows keep the response (status, headers, JSON body) until expires_at, then they are purged
+
+CREATE TABLE IF NOT EXISTS order_idempotency_keys (
+    id VARCHAR(400) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    claim_token UUID,
+    response_status INTEGER,
+    response_headers TEXT,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_idempotency_keys_expires_at ON order_idempotency_keys(expires_at);
@@ -0,0 +1,7 @@
+-- Order Service - Optimistic Locking
+-- Migration: V13__Add_order_version.sql
+-- Description: Version column for JPA @Version; conditional status UPDATEs (payment callbacks,
+--              bulk updates) increment it as well so concurrent entity writes fail instead of
+--              overwriting a newer status
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Order Service - Outbox failure tracking
+-- Migration: V14__Add_order_outbox_failure_tracking.sql
+-- Description: Tracks publish attempts per outbox row; rows that keep failing are dead-lettered (failed_at)
+-- so a single poison row can no longer block the relay
+
+ALTER TABLE order_outbox ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE order_outbox ADD COLUMN IF NOT EXISTS last_error VARCHAR(500);
+ALTER TABLE order_outbox ADD COLUMN IF NOT EXISTS failed_at TIMESTAMP;
+
+-- Relay only claims rows that are neither published nor dead-lettered
+DROP INDEX IF EXISTS idx_order_outbox_unpublished;
+CREATE INDEX IF NOT EXISTS idx_order_outbox_unpublished ON order_outbox(id)
+    WHERE published_at IS NULL AND failed_at IS NULL;
+
+-- Dead-lettered rows (inspection / manual replay)
+CREATE INDEX IF NOT EXISTS idx_order_outbox_failed ON order_outbox(failed_at) WHERE failed_at IS NOT NULL;
@@ -0,0 +1,11 @@
+-- Order Service - Reservation commands in the outbox
+-- Migration: V15__Add_order_outbox_next_attempt.sql
+-- Description: Reservation confirm/release commands share order_outbox with broker events;
+-- failed commands are retried with backoff (next_attempt_at)
+
+ALTER TABLE order_outbox ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+
+-- Each relay claims only its own event types
+DROP INDEX IF EXISTS idx_order_outbox_unpublished;
+CREATE INDEX IF NOT EXISTS idx_order_outbox_unpublished ON order_outbox(event_type, id)
+    WHERE published_at IS NULL AND failed_at IS NULL;
@@ -0,0 +1,44 @@
+-- Order Service - Partition creation with rows already in orders_default
+-- Migration: V16__Move_default_rows_on_partition_create.sql
+-- Description: CREATE TABLE ... PARTITION OF orders fails when orders_default already holds rows
+--              for that month (e.g. the job did not run before the month started, or orders were
+--              written with a far-future order_date). create_orders_partition now detaches the
+--              default partition, creates the monthly partition, moves the month's rows into it
+--              and re-attaches the default partition, all in the caller's transaction.
+--
+-- Notes:
+-- - DETACH PARTITION takes an ACCESS EXCLUSIVE lock on orders until the transaction ends;
+--   concurrent writes wait instead of failing with "no partition of relation orders found".
+-- - The slow path only runs when the default partition has rows for that month.
+
+CREATE OR REPLACE FUNCTION create_orders_partition(p_month DATE) RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', p_month)::DATE;
+    month_end DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'orders_p' || to_char(month_start, 'YYYYMM');
+    moved BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM orders_default WHERE order_date >= month_start AND order_date < month_end) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, month_end);
+        RETURN partition_name;
+    END IF;
+
+    -- Default partition'da bu aya ait satırlar var: ayır, partition'ı oluştur, satırları taşı, geri bağla
+    ALTER TABLE orders DETACH PARTITION orders_default;
+    EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, month_end);
+    EXECUTE format('INSERT INTO %I SELECT * FROM orders_default WHERE order_date >= %L AND order_date < %L',
+                   partition_name, month_start, month_end);
+    DELETE FROM orders_default WHERE order_date >= month_start AND order_date < month_end;
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    ALTER TABLE orders ATTACH PARTITION orders_default DEFAULT;
+
+    RAISE NOTICE 'Moved % row(s) from orders_default into %', moved, partition_name;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,5 @@
+-- Order Service - Stock Reservation Reference
+-- Migration: V3__Add_order_reservation_id.sql
+-- Description: Stores the inventory reservation id created when an order is confirmed
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS reservation_id UUID;
@@ -0,0 +1,16 @@
+-- Order Service - Transactional Outbox
+-- Migration: V4__Create_order_outbox.sql
+-- Description: Creates the order_outbox table drained by the background event relay
+
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    order_id UUID NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP
+);
+
+-- Relay reads unpublished rows in id order
+CREATE INDEX IF NOT EXISTS idx_order_outbox_unpublished ON order_outbox(id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_order_outbox_order_id ON order_outbox(order_id);
@@ -0,0 +1,7 @@
+-- Order Service - Customer Contact Snapshot
+-- Migration: V5__Add_order_customer_snapshot.sql
+-- Description: Stores the customer's email and name at order creation so that
+--              status change events do not need a User Service lookup
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS customer_email VARCHAR(255);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS customer_name VARCHAR(255);
@@ -0,0 +1,9 @@
+-- Order Service - Keyset Pagination Indexes
+-- Migration: V6__Add_order_keyset_indexes.sql
+-- Description: Supports ORDER BY created_at DESC, id DESC with optional user/status filters
+--              so that every page is an index range scan regardless of cursor depth
+
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_at_id ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at_id ON orders(status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_user_status_created_at_id ON orders(user_id, status, created_at DESC, id DESC);
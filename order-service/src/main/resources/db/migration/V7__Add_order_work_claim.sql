@@ -0,0 +1,6 @@
+-- Order Service - Fulfilment Work Queue Lease
+-- Migration: V7__Add_order_work_claim.sql
+-- Description: Lease columns used by POST /orders/work/claim (FOR UPDATE SKIP LOCKED)
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(100);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP;
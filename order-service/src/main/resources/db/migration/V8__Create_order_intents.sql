@@ -0,0 +1,16 @@
+-- Order Service - Asynchronous order acceptance
+-- Migration: V8__Create_order_intents.sql
+-- Description: Stores accepted order requests until a worker validates them into an order or rejects them
+
+CREATE TABLE IF NOT EXISTS order_intents (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    rejection_reason VARCHAR(500),
+    accepted_at TIMESTAMP NOT NULL,
+    decided_at TIMESTAMP
+);
+
+-- Recovery sweep looks for intents still ACCEPTED after a restart
+CREATE INDEX IF NOT EXISTS idx_order_intents_accepted ON order_intents(accepted_at) WHERE status = 'ACCEPTED';
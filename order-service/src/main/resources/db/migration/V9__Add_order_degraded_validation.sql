@@ -0,0 +1,5 @@
+-- Order Service - Degraded Validation Flag
+-- Migration: V9__Add_order_degraded_validation.sql
+-- Description: Marks orders validated against last-known-good (stale) downstream responses
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS degraded_validation BOOLEAN NOT NULL DEFAULT FALSE;
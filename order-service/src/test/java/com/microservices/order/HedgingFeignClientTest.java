@@ -0,0 +1,174 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.microservices.order.Client.HedgingFeignClient;
+import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.ProductServiceClient;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Util;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * HedgingFeignClient için Unit Test
+ * Yavaş replica'da hedge'in kazanması, bütçe sınırı ve hedging dışı kalan çağrıları test eder
+ */
+class HedgingFeignClientTest {
+
+    private DiscoveryClient discoveryClient;
+    private Client loadBalancedClient;
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private long slowReplicaDelayMs;
+
+    @BeforeEach
+    void setUp() {
+        discoveryClient = mock(DiscoveryClient.class);
+        loadBalancedClient = mock(Client.class);
+        executor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+        slowReplicaDelayMs = 5000;
+        // İlk istek round-robin ile "slow" instance'a gider
+        when(discoveryClient.getInstances("product-service")).thenReturn(List.of(
+            new DefaultServiceInstance("product-1", "product-service", "slow", 8081, false),
+            new DefaultServiceInstance("product-2", "product-service", "fast", 8082, false)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSlowReplicaHedgedAndHedgeWins() throws IOException {
+        // Given: Bütçe her isteğe hedge izni veriyor (%100)
+        HedgingFeignClient client = client(100);
+
+        // When
+        long start = System.nanoTime();
+        Response response = client.execute(request(ProductServiceClient.class, "getProductById"), options());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then: Hızlı replica'nın yanıtı, yavaş replica beklenmeden döndü
+        assertEquals("fast", Util.toString(response.body().asReader(StandardCharsets.UTF_8)));
+        assertTrue(elapsedMs < 2000, "Hedged call took " + elapsedMs + " ms");
+        assertEquals(1.0, meterRegistry.get("orders.hedging.hedges").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.hedging.wins").tag("winner", "hedge").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.hedging.rate").gauge().value());
+        verifyNoInteractions(loadBalancedClient);
+    }
+
+    @Test
+    void testHedgeSkippedWhenBudgetExhausted() throws IOException {
+        // Given: Bütçe yok, yavaş replica 200 ms'de yanıt veriyor
+        slowReplicaDelayMs = 200;
+        HedgingFeignClient client = client(0);
+
+        // When
+        Response response = client.execute(request(ProductServiceClient.class, "getProductById"), options());
+
+        // Then: Hedge atılmadı, ilk istek beklendi
+        assertEquals("slow", Util.toString(response.body().asReader(StandardCharsets.UTF_8)));
+        assertEquals(0.0, meterRegistry.get("orders.hedging.hedges").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.hedging.budget.exhausted").counter().count());
+    }
+
+    @Test
+    void testNonHedgedMethodUsesLoadBalancer() throws IOException {
+        // Given: Rezervasyon serbest bırakma @Hedged değil (yan etkili çağrı)
+        HedgingFeignClient client = client(100);
+        Request request = request(InventoryServiceClient.class, "releaseReservation");
+        when(loadBalancedClient.execute(any(Request.class), any(Request.Options.class))).thenReturn(response(request, "lb"));
+
+        // When
+        client.execute(request, options());
+
+        // Then: Normal load-balanced çağrı
+        verify(loadBalancedClient).execute(any(Request.class), any(Request.Options.class));
+        assertTrue(meterRegistry.find("orders.hedging.requests").counters().isEmpty());
+    }
+
+    @Test
+    void testSingleInstanceUsesLoadBalancer() throws IOException {
+        // Given: Tek instance (hedge edilecek başka replica yok)
+        when(discoveryClient.getInstances("product-service")).thenReturn(List.of(
+            new DefaultServiceInstance("product-1", "product-service", "slow", 8081, false)));
+        HedgingFeignClient client = client(100);
+        Request request = request(ProductServiceClient.class, "getProductById");
+        when(loadBalancedClient.execute(any(Request.class), any(Request.Options.class))).thenReturn(response(request, "lb"));
+
+        // When
+        Response response = client.execute(request, options());
+
+        // Then
+        assertEquals("lb", Util.toString(response.body().asReader(StandardCharsets.UTF_8)));
+    }
+
+    private HedgingFeignClient client(double budgetPercent) {
+        return new HedgingFeignClient(loadBalancedClient, this::replica, discoveryClient, executor,
+            meterRegistry, 10, 50, budgetPercent);
+    }
+
+    /**
+     * Instance host'una göre yanıt veren sahte HTTP client ("slow" instance bekletir)
+     */
+    private Response replica(Request request, Request.Options options) throws IOException {
+        String host = URI.create(request.url()).getHost();
+        if ("slow".equals(host)) {
+            try {
+                Thread.sleep(slowReplicaDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Cancelled", e);
+            }
+        }
+        return response(request, host);
+    }
+
+    private static Response response(Request request, String body) {
+        return Response.builder()
+            .status(200)
+            .request(request)
+            .headers(Map.of())
+            .body(body, StandardCharsets.UTF_8)
+            .build();
+    }
+
+    private static Request request(Class<?> clientType, String methodName) {
+        MethodMetadata metadata = new SpringMvcContract().parseAndValidateMetadata(clientType).stream()
+            .filter(candidate -> candidate.method().getName().equals(methodName))
+            .findFirst()
+            .orElseThrow();
+        RequestTemplate template = new RequestTemplate();
+        template.methodMetadata(metadata);
+        return Request.create(Request.HttpMethod.GET, "http://product-service/products/" + UUID.randomUUID(),
+            Map.of(), null, StandardCharsets.UTF_8, template);
+    }
+
+    private static Request.Options options() {
+        return new Request.Options();
+    }
+}
@@ -0,0 +1,166 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.ProductServiceClient;
+import com.microservices.order.Client.UserServiceClient;
+import com.microservices.order.Exception.IdempotencyKeyMismatchException;
+import com.microservices.order.Service.IdempotencyService;
+
+/**
+ * IdempotencyService için Integration Test
+ * Tekrar isteklerin saklanan yanıtı almasını, eşzamanlı tekrarların ilk isteği beklemesini,
+ * farklı gövdeyle anahtar kullanımını ve hata sonrası anahtarın bırakılmasını test eder
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private ProductServiceClient productServiceClient;
+
+    @MockBean
+    private InventoryServiceClient inventoryServiceClient;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @Test
+    void testReplayReturnsStoredResponseWithoutRunningAgain() {
+        // Given
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+
+        // When: Aynı anahtarla iki istek
+        ResponseEntity<?> first = idempotencyService.execute("POST /orders", key, Map.of("userId", "u-1"),
+            () -> created(executions));
+        ResponseEntity<?> second = idempotencyService.execute("POST /orders", key, Map.of("userId", "u-1"),
+            () -> created(executions));
+
+        // Then: İş bir kez çalıştı, ikinci yanıt saklanan yanıt
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals("/orders/1", second.getHeaders().getFirst("Location"));
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("PENDING", ((JsonNode) second.getBody()).get("status").asText());
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForFirstExecution() throws Exception {
+        // Given: İlk istek yavaş (downstream doğrulama zinciri gibi)
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return idempotencyService.execute("POST /orders", key, Map.of("userId", "u-1"), () -> {
+                        sleep(300);
+                        return created(executions);
+                    });
+                }));
+            }
+
+            // When
+            start.countDown();
+            List<ResponseEntity<?>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<?>> future : futures) {
+                responses.add(future.get(20, TimeUnit.SECONDS));
+            }
+
+            // Then: İş tek kez çalıştı, herkes aynı yanıtı aldı
+            assertEquals(1, executions.get());
+            assertTrue(responses.stream().allMatch(response -> response.getStatusCode() == HttpStatus.CREATED));
+            assertEquals(7, responses.stream()
+                .filter(response -> "true".equals(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)))
+                .count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testKeyReusedWithDifferentBodyRejected() {
+        // Given
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        idempotencyService.execute("POST /orders", key, Map.of("userId", "u-1"), () -> created(executions));
+
+        // When & Then: Aynı anahtar farklı gövde ile
+        assertThrows(IdempotencyKeyMismatchException.class, () ->
+            idempotencyService.execute("POST /orders", key, Map.of("userId", "u-2"), () -> created(executions)));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testFailedExecutionReleasesKey() {
+        // Given: İlk deneme hata ile bitiyor
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        assertThrows(IllegalArgumentException.class, () ->
+            idempotencyService.execute("payment-success:1", key, null, () -> {
+                executions.incrementAndGet();
+                throw new IllegalArgumentException("Invalid status transition");
+            }));
+
+        // When: Aynı anahtarla tekrar
+        ResponseEntity<?> retry = idempotencyService.execute("payment-success:1", key, null, () -> created(executions));
+
+        // Then: İstek yeniden çalıştı
+        assertEquals(2, executions.get());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testRequestWithoutKeyAlwaysRuns() {
+        AtomicInteger executions = new AtomicInteger();
+
+        idempotencyService.execute("POST /orders", null, Map.of("userId", "u-1"), () -> created(executions));
+        idempotencyService.execute("POST /orders", null, Map.of("userId", "u-1"), () -> created(executions));
+
+        assertEquals(2, executions.get());
+    }
+
+    private static ResponseEntity<?> created(AtomicInteger executions) {
+        int execution = executions.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .header("Location", "/orders/" + execution)
+            .body(Map.of("status", "PENDING", "execution", execution));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microservices.order.Client.LastKnownGoodCache;
+import com.microservices.order.Client.LastKnownGoodCache.Region;
+import com.microservices.order.Client.UserServiceClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * LastKnownGoodCache için Unit Test
+ * Fresh/stale/expired ayrımı, yeniden doğrulama kuyruğu ve LRU sınırını test eder
+ */
+class LastKnownGoodCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testFreshValueServedWithoutRevalidation() {
+        // Given: TTL 5 dk
+        LastKnownGoodCache cache = cache(100, 300, 3600);
+        UUID userId = UUID.randomUUID();
+        UserServiceClient.UserResponse user = new UserServiceClient.UserResponse();
+        cache.record(Region.USER, userId, user);
+
+        // When & Then: Aynı nesne döner, servis edilen değer olarak tanınır
+        assertSame(user, cache.serve(Region.USER, userId, UserServiceClient.UserResponse.class));
+        assertTrue(cache.isServedValue(Region.USER, userId, user));
+        assertFalse(cache.isServedValue(Region.USER, userId, new UserServiceClient.UserResponse()));
+        assertTrue(cache.drainRevalidation(Region.USER).isEmpty());
+        assertEquals(1.0, meterRegistry.counter("orders.client.cache.served", "region", "user", "result", "fresh").count());
+    }
+
+    @Test
+    void testStaleValueServedAndQueuedForRevalidation() {
+        // Given: TTL 0 → her kayıt hemen stale, max-stale 1 saat
+        LastKnownGoodCache cache = cache(100, 0, 3600);
+        UUID userId = UUID.randomUUID();
+        UserServiceClient.UserResponse user = new UserServiceClient.UserResponse();
+        cache.record(Region.USER, userId, user);
+
+        // When
+        assertSame(user, cache.serve(Region.USER, userId, UserServiceClient.UserResponse.class));
+
+        // Then: Anahtar yeniden doğrulama kuyruğunda; taze yanıt kaydedilince kuyruktan çıkar
+        Set<UUID> pending = cache.drainRevalidation(Region.USER);
+        assertEquals(Set.of(userId), pending);
+        cache.requeueRevalidation(Region.USER, userId);
+        cache.record(Region.USER, userId, new UserServiceClient.UserResponse());
+        assertTrue(cache.drainRevalidation(Region.USER).isEmpty());
+        assertEquals(1.0, meterRegistry.counter("orders.client.cache.served", "region", "user", "result", "stale").count());
+    }
+
+    @Test
+    void testExpiredValueNotServed() throws InterruptedException {
+        // Given: TTL ve max-stale 0 → kayıt hemen kullanılamaz
+        LastKnownGoodCache cache = cache(100, 0, 0);
+        UUID userId = UUID.randomUUID();
+        cache.record(Region.USER, userId, new UserServiceClient.UserResponse());
+        Thread.sleep(1);
+
+        // When & Then
+        assertNull(cache.serve(Region.USER, userId, UserServiceClient.UserResponse.class));
+        assertEquals(0, cache.size(Region.USER));
+        cache.requeueRevalidation(Region.USER, userId);
+        assertTrue(cache.drainRevalidation(Region.USER).isEmpty());
+    }
+
+    @Test
+    void testRegionsBoundedByMaxSize() {
+        // Given: Bölge başına en fazla 2 kayıt
+        LastKnownGoodCache cache = cache(2, 300, 3600);
+        UUID first = UUID.randomUUID();
+
+        // When
+        cache.record(Region.PRODUCT, first, new Object());
+        cache.record(Region.PRODUCT, UUID.randomUUID(), new Object());
+        cache.record(Region.PRODUCT, UUID.randomUUID(), new Object());
+        cache.record(Region.USER, UUID.randomUUID(), new Object());
+
+        // Then: En eski ürün düştü, diğer bölge etkilenmedi
+        assertEquals(2, cache.size(Region.PRODUCT));
+        assertEquals(1, cache.size(Region.USER));
+        assertNull(cache.serve(Region.PRODUCT, first, Object.class));
+    }
+
+    private LastKnownGoodCache cache(int maxSize, long ttlSeconds, long maxStaleSeconds) {
+        return new LastKnownGoodCache(meterRegistry, maxSize,
+            ttlSeconds, maxStaleSeconds, ttlSeconds, maxStaleSeconds, ttlSeconds, maxStaleSeconds);
+    }
+}
@@ -0,0 +1,142 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.microservices.order.Exception.DownstreamTimeoutException;
+import com.microservices.order.Exception.ResourceNotFoundException;
+import com.microservices.order.Service.LookupFanOut;
+
+/**
+ * LookupFanOut için Unit Test
+ * Paralel lookup, deadline ve iptal davranışını test eder
+ */
+class LookupFanOutTest {
+
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testLookupsRunConcurrently() {
+        // Given: Birbirini bekleyen iki lookup (seri çalışsaydı deadlock olurdu)
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        LookupFanOut fanOut = new LookupFanOut(executor, 2000);
+
+        Future<String> first = fanOut.submit(() -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+            return "user";
+        });
+        Future<Integer> second = fanOut.submit(() -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+            return 42;
+        });
+
+        // When
+        fanOut.awaitAll();
+
+        // Then
+        assertEquals("user", LookupFanOut.resultOf(first));
+        assertEquals(42, LookupFanOut.resultOf(second));
+        assertEquals(0, bothStarted.getCount());
+    }
+
+    @Test
+    void testFirstNotFoundCancelsSiblings() throws InterruptedException {
+        // Given: Bir lookup hemen NotFound, diğeri uzun süren bir çağrı
+        AtomicBoolean siblingInterrupted = new AtomicBoolean(false);
+        CountDownLatch siblingFinished = new CountDownLatch(1);
+        LookupFanOut fanOut = new LookupFanOut(executor, 5000);
+
+        fanOut.submit(() -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                siblingInterrupted.set(true);
+            } finally {
+                siblingFinished.countDown();
+            }
+            return null;
+        });
+        fanOut.submit(() -> {
+            throw new ResourceNotFoundException("Product", "id", "missing");
+        });
+
+        // When & Then: NotFound aynen fırlatılır, diğer lookup iptal edilir
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, fanOut::awaitAll);
+        assertTrue(exception.getMessage().contains("Product not found"));
+        assertTrue(siblingFinished.await(1, TimeUnit.SECONDS));
+        assertTrue(siblingInterrupted.get());
+    }
+
+    @Test
+    void testDeadlineExceeded() {
+        // Given: Deadline'dan uzun süren bir lookup
+        LookupFanOut fanOut = new LookupFanOut(executor, 100);
+        fanOut.submit(() -> {
+            Thread.sleep(2000);
+            return "late";
+        });
+
+        // When & Then: DownstreamTimeoutException fırlatılır
+        assertThrows(DownstreamTimeoutException.class, fanOut::awaitAll);
+    }
+
+    @Test
+    void testSaturatedExecutorRejectsInsteadOfRunningOnCaller() throws InterruptedException {
+        // Given: Pool ve kuyruğu dolu bir executor (AbortPolicy)
+        ThreadPoolTaskExecutor saturated = new ThreadPoolTaskExecutor();
+        saturated.setCorePoolSize(1);
+        saturated.setMaxPoolSize(1);
+        saturated.setQueueCapacity(0);
+        saturated.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        saturated.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ranOnCaller = new AtomicBoolean(false);
+        Thread caller = Thread.currentThread();
+        try {
+            LookupFanOut fanOut = new LookupFanOut(saturated, 2000);
+            Future<String> first = fanOut.submit(() -> {
+                release.await(2, TimeUnit.SECONDS);
+                return "busy";
+            });
+
+            // When: İkinci lookup reddedilir (isteği yapan thread'de çalışmaz)
+            Future<String> second = fanOut.submit(() -> {
+                ranOnCaller.set(Thread.currentThread() == caller);
+                return "rejected";
+            });
+
+            // Then: Deadline aşımı ile aynı exception; ilk lookup iptal edildi
+            assertThrows(DownstreamTimeoutException.class, fanOut::awaitAll);
+            assertFalse(ranOnCaller.get());
+            assertTrue(second.isCancelled());
+            assertTrue(first.isCancelled());
+        } finally {
+            release.countDown();
+            saturated.shutdown();
+        }
+    }
+}
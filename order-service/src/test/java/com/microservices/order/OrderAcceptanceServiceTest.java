@@ -0,0 +1,230 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.ProductServiceClient;
+import com.microservices.order.Client.UserServiceClient;
+import com.microservices.order.Exception.DownstreamTimeoutException;
+import com.microservices.order.Exception.OrderIntakeSaturatedException;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderIntent;
+import com.microservices.order.Model.OrderItem;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderIntentRepository;
+import com.microservices.order.Repository.OrderRepository;
+import com.microservices.order.Service.OrderAcceptanceService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * OrderAcceptanceService için Integration Test
+ * Tek worker ve boş kuyruk ile: kabul → PENDING/REJECTED kararı ve kuyruk doluyken 503 (backpressure)
+ */
+@SpringBootTest(properties = {
+    "order.acceptance.worker-pool-size=1",
+    "order.acceptance.queue-capacity=0"
+})
+@ActiveProfiles("test")
+class OrderAcceptanceServiceTest {
+
+    @Autowired
+    private OrderAcceptanceService orderAcceptanceService;
+
+    @Autowired
+    private OrderIntentRepository orderIntentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private ProductServiceClient productServiceClient;
+
+    @MockBean
+    private InventoryServiceClient inventoryServiceClient;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    private UUID userId;
+    private UUID productId;
+    private UserServiceClient.UserResponse user;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        productId = UUID.randomUUID();
+
+        user = new UserServiceClient.UserResponse();
+        user.setId(userId);
+        user.setEmail("test@example.com");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        when(userServiceClient.getUserById(userId)).thenReturn(user);
+
+        ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
+        product.setId(productId);
+        product.setName("MacBook Pro");
+        product.setPrice(new BigDecimal("45000.00"));
+        when(productServiceClient.getProductsByIds(anyCollection())).thenReturn(Map.of(productId, product));
+
+        when(inventoryServiceClient.checkStockAvailability(any(Map.class)))
+            .thenReturn(Map.of(productId, new InventoryServiceClient.StockAvailability(true, 100, true)));
+    }
+
+    @Test
+    void testAcceptedOrderBecomesPending() {
+        // When: Sipariş asenkron kabul ediliyor
+        OrderIntent accepted = orderAcceptanceService.accept(newOrder());
+
+        // Then: Hemen ACCEPTED döner, worker siparişi aynı ID ile PENDING olarak oluşturur
+        assertEquals(OrderStatus.ACCEPTED, accepted.getStatus());
+        OrderIntent decided = awaitDecision(accepted.getId());
+        assertEquals(OrderStatus.PENDING, decided.getStatus());
+        assertNull(decided.getRejectionReason());
+
+        Order order = orderRepository.findWithItemsById(accepted.getId()).orElseThrow();
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        assertEquals("MacBook Pro", order.getOrderItems().get(0).getProductName());
+        assertEquals("test@example.com", order.getCustomerEmail());
+        assertTrue(meterRegistry.timer("orders.acceptance.decision.latency", "outcome", "PENDING").count() >= 1);
+    }
+
+    @Test
+    void testAcceptedOrderRejected() {
+        // Given: Ürün bulunamıyor
+        when(productServiceClient.getProductsByIds(anyCollection())).thenReturn(Map.of());
+
+        // When
+        OrderIntent accepted = orderAcceptanceService.accept(newOrder());
+
+        // Then: Intent REJECTED, sipariş oluşmadı
+        OrderIntent decided = awaitDecision(accepted.getId());
+        assertEquals(OrderStatus.REJECTED, decided.getStatus());
+        assertTrue(decided.getRejectionReason().contains("Product"));
+        assertFalse(orderRepository.existsById(accepted.getId()));
+    }
+
+    @Test
+    void testTransientFailureLeavesIntentAccepted() {
+        // Given: Product Service zaman aşımına uğruyor (geçici hata)
+        when(productServiceClient.getProductsByIds(anyCollection()))
+            .thenThrow(new DownstreamTimeoutException("Product lookup timed out"));
+        double deferredBefore = deferredCount();
+
+        // When
+        OrderIntent accepted = orderAcceptanceService.accept(newOrder());
+
+        // Then: Intent REJECTED olmaz, recovery sweep için ACCEPTED kalır
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (deferredCount() == deferredBefore && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(deferredBefore + 1, deferredCount());
+        OrderIntent intent = orderIntentRepository.findById(accepted.getId()).orElseThrow();
+        assertEquals(OrderStatus.ACCEPTED, intent.getStatus());
+        assertNull(intent.getRejectionReason());
+        assertFalse(orderRepository.existsById(accepted.getId()));
+
+        // Downstream geri gelince tekrar deneme siparişi oluşturur
+        reset(productServiceClient);
+        ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
+        product.setId(productId);
+        product.setName("MacBook Pro");
+        product.setPrice(new BigDecimal("45000.00"));
+        when(productServiceClient.getProductsByIds(anyCollection())).thenReturn(Map.of(productId, product));
+        assertEquals(OrderStatus.PENDING, orderAcceptanceService.decide(accepted.getId()).getStatus());
+        assertTrue(orderRepository.existsById(accepted.getId()));
+    }
+
+    @Test
+    void testAcceptThrottledWhenSaturated() throws InterruptedException {
+        // Given: Tek worker User Service yanıtını bekliyor (kapasite = 1)
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        when(userServiceClient.getUserById(userId)).thenAnswer(invocation -> {
+            workerBusy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return user;
+        });
+        OrderIntent first = orderAcceptanceService.accept(newOrder());
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+
+        // When & Then: İkinci istek kaydedilmeden reddedilir
+        long intentsBefore = orderIntentRepository.count();
+        assertThrows(OrderIntakeSaturatedException.class, () -> orderAcceptanceService.accept(newOrder()));
+        assertEquals(intentsBefore, orderIntentRepository.count());
+        assertEquals(1.0, meterRegistry.get("orders.acceptance.saturation").gauge().value());
+
+        // Worker serbest kalınca kapasite geri gelir
+        release.countDown();
+        assertEquals(OrderStatus.PENDING, awaitDecision(first.getId()).getStatus());
+    }
+
+    @Test
+    void testInvalidRequestRejectedSynchronously() {
+        Order order = newOrder();
+        order.setOrderItems(new ArrayList<>());
+        assertThrows(IllegalArgumentException.class, () -> orderAcceptanceService.accept(order));
+    }
+
+    private double deferredCount() {
+        return meterRegistry.counter("orders.acceptance.deferred", "exception", "DownstreamTimeoutException").count();
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setShippingAddress("Test Adresi, Levent");
+        order.setCity("İstanbul");
+        order.setZipCode("34394");
+        order.setPhoneNumber("5551234567");
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        return order;
+    }
+
+    /**
+     * Worker'ın kararını bekle (en fazla 10 sn)
+     */
+    private OrderIntent awaitDecision(UUID intentId) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            OrderIntent intent = orderIntentRepository.findById(intentId).orElseThrow();
+            if (intent.getStatus() != OrderStatus.ACCEPTED) {
+                return intent;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("Order intent " + intentId + " was not decided in time");
+        return null;
+    }
+}
@@ -1,14 +1,17 @@
 package com.microservices.order;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,15 +19,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservices.order.Controller.OrderController;
+import com.microservices.order.DTO.BulkStatusUpdateRequest;
+import com.microservices.order.DTO.BulkStatusUpdateResult;
+import com.microservices.order.DTO.OrderPage;
+import com.microservices.order.DTO.OrderStatsReport;
+import com.microservices.order.DTO.OrderStatusUpdate;
+import com.microservices.order.Exception.OrderIntakeSaturatedException;
 import com.microservices.order.Exception.ResourceNotFoundException;
 import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderIntent;
 import com.microservices.order.Model.OrderItem;
 import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Service.IdempotencyService;
+import com.microservices.order.Service.OrderAcceptanceService;
+import com.microservices.order.Service.OrderExportService;
 import com.microservices.order.Service.OrderService;
+import com.microservices.order.Service.OrderStatsService;
 
 /**
  * OrderController için Integration Test
@@ -40,6 +57,18 @@ class OrderControllerTest {
     @MockBean
     private OrderService orderService;  // OrderService mock'lanıyor
 
+    @MockBean
+    private OrderExportService orderExportService;
+
+    @MockBean
+    private OrderAcceptanceService orderAcceptanceService;
+
+    @MockBean
+    private OrderStatsService orderStatsService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     @Autowired
     private ObjectMapper objectMapper;  // JSON dönüşümleri için
 
@@ -68,6 +97,10 @@ class OrderControllerTest {
         item.setQuantity(1);
         item.setPrice(new BigDecimal("45000.00"));
         testOrder.setOrderItems(List.of(item));
+        
+        // Idempotency: anahtar store'u mock'lanır, iş doğrudan çalışır
+        when(idempotencyService.execute(anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(3).get());
     }
 
     @Test
@@ -83,12 +116,101 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.id").exists())
                 .andExpect(jsonPath("$.userId").value(testUserId.toString()))
                 .andExpect(jsonPath("$.status").value("PENDING"))
-                .andExpect(jsonPath("$.totalAmount").value(115000.00));
+                .andExpect(jsonPath("$.totalAmount").value(115000.00))
+                .andExpect(header().doesNotExist("X-Degraded-Validation"));
 
         // Verify: Service metodu çağrıldı
         verify(orderService, times(1)).createOrder(any(Order.class));
     }
 
+    @Test
+    void testCreateOrderWithIdempotencyKey() throws Exception {
+        // Given
+        when(orderService.createOrder(any(Order.class))).thenReturn(testOrder);
+
+        // When & Then: Anahtar POST /orders scope'u ile store'a iletilir
+        mockMvc.perform(post("/orders")
+                .header("Idempotency-Key", "retry-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrder)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(testOrderId.toString()));
+
+        verify(idempotencyService).execute(eq("POST /orders"), eq("retry-123"), any(Order.class), any());
+    }
+
+    @Test
+    void testCreateOrderDegradedValidation() throws Exception {
+        // Given: Sipariş son bilinen (stale) downstream yanıtlarıyla doğrulandı
+        testOrder.setDegradedValidation(true);
+        when(orderService.createOrder(any(Order.class))).thenReturn(testOrder);
+
+        // When & Then: 201 + degraded header'ı
+        mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrder)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("X-Degraded-Validation", "true"))
+                .andExpect(jsonPath("$.degradedValidation").value(true));
+    }
+
+    @Test
+    void testCreateOrderAsync() throws Exception {
+        // Given: Asenkron mod açık
+        OrderIntent intent = new OrderIntent();
+        intent.setId(testOrderId);
+        intent.setUserId(testUserId);
+        intent.setStatus(OrderStatus.ACCEPTED);
+        when(orderAcceptanceService.isEnabled()).thenReturn(true);
+        when(orderAcceptanceService.accept(any(Order.class))).thenReturn(intent);
+
+        // When & Then: Prefer: respond-async ile 202 + status URL
+        mockMvc.perform(post("/orders")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrder)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/orders/intents/" + testOrderId))
+                .andExpect(jsonPath("$.id").value(testOrderId.toString()))
+                .andExpect(jsonPath("$.status").value("ACCEPTED"))
+                .andExpect(jsonPath("$.payload").doesNotExist());
+
+        // Senkron doğrulama zinciri request thread'inde çalışmadı
+        verify(orderService, never()).createOrder(any(Order.class));
+    }
+
+    @Test
+    void testCreateOrderAsyncSaturated() throws Exception {
+        // Given: Kabul kuyruğu dolu
+        when(orderAcceptanceService.isEnabled()).thenReturn(true);
+        when(orderAcceptanceService.accept(any(Order.class)))
+                .thenThrow(new OrderIntakeSaturatedException("Order intake is saturated", 2));
+
+        // When & Then: 503 + Retry-After
+        mockMvc.perform(post("/orders")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrder)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void testGetOrderIntent() throws Exception {
+        // Given: Reddedilmiş intent
+        OrderIntent intent = new OrderIntent();
+        intent.setId(testOrderId);
+        intent.setStatus(OrderStatus.REJECTED);
+        intent.setRejectionReason("Product not found");
+        when(orderAcceptanceService.getIntent(testOrderId)).thenReturn(intent);
+
+        // When & Then
+        mockMvc.perform(get("/orders/intents/{id}", testOrderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.rejectionReason").value("Product not found"));
+    }
+
     @Test
     void testGetOrderById() throws Exception {
         // Given: Mock service davranışı
@@ -104,6 +226,21 @@ class OrderControllerTest {
         verify(orderService, times(1)).getOrderById(testOrderId);
     }
 
+    @Test
+    void testGetOrderByIdIncludingArchive() throws Exception {
+        // Given: Sipariş arşivde
+        testOrder.setArchived(true);
+        when(orderService.getOrderByIdIncludingArchive(testOrderId)).thenReturn(testOrder);
+
+        // When & Then: includeArchived=true arşive de bakar
+        mockMvc.perform(get("/orders/{id}", testOrderId).param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(testOrderId.toString()))
+                .andExpect(jsonPath("$.archived").value(true));
+
+        verify(orderService, never()).getOrderById(testOrderId);
+    }
+
     @Test
     void testGetOrderByIdNotFound() throws Exception {
         // Given: Sipariş bulunamıyor
@@ -121,44 +258,70 @@ class OrderControllerTest {
     @Test
     void testGetOrdersByUserId() throws Exception {
         // Given: Mock service davranışı
-        when(orderService.getOrdersByUserId(testUserId)).thenReturn(List.of(testOrder));
+        when(orderService.getOrdersByUserId(testUserId, null, 20, false))
+                .thenReturn(new OrderPage(List.of(testOrder), "next-cursor", true));
 
-        // When & Then: GET isteği gönderiliyor
+        // When & Then: GET isteği gönderiliyor (varsayılan limit 20)
         mockMvc.perform(get("/orders/user/{userId}", testUserId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].userId").value(testUserId.toString()));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].userId").value(testUserId.toString()))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasMore").value(true));
 
-        verify(orderService, times(1)).getOrdersByUserId(testUserId);
+        verify(orderService, times(1)).getOrdersByUserId(testUserId, null, 20, false);
+    }
+
+    @Test
+    void testGetOrderStats() throws Exception {
+        // Given: Rollup'tan günlük kova
+        LocalDate day = LocalDate.of(2024, 1, 15);
+        OrderStatsReport report = new OrderStatsReport(OrderStatsReport.Granularity.DAY, day, day, List.of(
+                new OrderStatsReport.Bucket(day.atStartOfDay(), OrderStatus.DELIVERED, 3, new BigDecimal("450.00"))));
+        when(orderStatsService.getStats(day, day, "day")).thenReturn(report);
+
+        // When & Then
+        mockMvc.perform(get("/orders/stats")
+                .param("from", "2024-01-15")
+                .param("to", "2024-01-15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("DAY"))
+                .andExpect(jsonPath("$.buckets[0].status").value("DELIVERED"))
+                .andExpect(jsonPath("$.buckets[0].orderCount").value(3))
+                .andExpect(jsonPath("$.buckets[0].revenue").value(450.00));
     }
 
     @Test
     void testGetOrdersByStatus() throws Exception {
         // Given: Mock service davranışı
-        when(orderService.getOrdersByStatus(OrderStatus.PENDING)).thenReturn(List.of(testOrder));
+        when(orderService.getOrdersByStatus(OrderStatus.PENDING, "abc", 50))
+                .thenReturn(new OrderPage(List.of(testOrder), null, false));
 
-        // When & Then: GET isteği gönderiliyor
+        // When & Then: GET isteği cursor ve limit ile gönderiliyor
         mockMvc.perform(get("/orders/status")
-                .param("status", "PENDING"))
+                .param("status", "PENDING")
+                .param("cursor", "abc")
+                .param("limit", "50"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.hasMore").value(false));
 
-        verify(orderService, times(1)).getOrdersByStatus(OrderStatus.PENDING);
+        verify(orderService, times(1)).getOrdersByStatus(OrderStatus.PENDING, "abc", 50);
     }
 
     @Test
     void testGetOrdersByUserIdAndStatus() throws Exception {
         // Given: Mock service davranışı
-        when(orderService.getOrdersByUserIdAndStatus(testUserId, OrderStatus.DELIVERED))
-                .thenReturn(List.of(testOrder));
+        when(orderService.getOrdersByUserIdAndStatus(testUserId, OrderStatus.DELIVERED, null, 20, false))
+                .thenReturn(new OrderPage(List.of(testOrder), null, false));
 
         // When & Then: GET isteği gönderiliyor
         mockMvc.perform(get("/orders/user/{userId}/status", testUserId)
                 .param("status", "DELIVERED"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.items").isArray());
 
-        verify(orderService, times(1)).getOrdersByUserIdAndStatus(testUserId, OrderStatus.DELIVERED);
+        verify(orderService, times(1)).getOrdersByUserIdAndStatus(testUserId, OrderStatus.DELIVERED, null, 20, false);
     }
 
     @Test
@@ -202,6 +365,71 @@ class OrderControllerTest {
         verify(orderService, times(1)).updateOrderStatus(testOrderId, OrderStatus.CONFIRMED);
     }
 
+    @Test
+    void testMarkPaymentSuccess() throws Exception {
+        // Given: Callback durum geçişini döner (sipariş gövdesi değil)
+        when(orderService.markPaymentSuccess(testOrderId)).thenReturn(
+            new OrderStatusUpdate(testOrderId, OrderStatus.PAYMENT_PENDING, OrderStatus.PROCESSING, testUserId));
+
+        // When & Then
+        mockMvc.perform(patch("/orders/{id}/payment/success", testOrderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.oldStatus").value("PAYMENT_PENDING"))
+                .andExpect(jsonPath("$.newStatus").value("PROCESSING"));
+    }
+
+    @Test
+    void testConcurrentTransitionReturnsConflict() throws Exception {
+        // Given: Eşzamanlı bir geçiş kazandı
+        when(orderService.markPaymentPending(testOrderId))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, testOrderId));
+
+        // When & Then: 409
+        mockMvc.perform(patch("/orders/{id}/payment/pending", testOrderId))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("CONCURRENT_MODIFICATION"));
+    }
+
+    @Test
+    void testUpdateOrderStatusBulk() throws Exception {
+        // Given: Bir sipariş güncellendi, biri bulunamadı
+        UUID missingOrderId = UUID.randomUUID();
+        BulkStatusUpdateResult result = new BulkStatusUpdateResult(OrderStatus.SHIPPED, 1, 1, List.of(
+                BulkStatusUpdateResult.Item.success(testOrderId, OrderStatus.PROCESSING),
+                BulkStatusUpdateResult.Item.failure(missingOrderId, null, "Order not found")));
+        when(orderService.updateOrderStatusBulk(List.of(testOrderId, missingOrderId), OrderStatus.SHIPPED))
+                .thenReturn(result);
+
+        // When & Then: PATCH isteği gönderiliyor
+        mockMvc.perform(patch("/orders/status/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new BulkStatusUpdateRequest(List.of(testOrderId, missingOrderId), OrderStatus.SHIPPED))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].oldStatus").value("PROCESSING"))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].error").value("Order not found"));
+
+        verify(orderService, times(1)).updateOrderStatusBulk(List.of(testOrderId, missingOrderId), OrderStatus.SHIPPED);
+    }
+
+    @Test
+    void testUpdateOrderStatusBulkTooLarge() throws Exception {
+        // Given: Sınırı aşan istek
+        when(orderService.updateOrderStatusBulk(any(), eq(OrderStatus.SHIPPED)))
+                .thenThrow(new IllegalArgumentException("Bulk update must contain between 1 and 500 orders"));
+
+        // When & Then: 400 dönmeli
+        mockMvc.perform(patch("/orders/status/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new BulkStatusUpdateRequest(List.of(), OrderStatus.SHIPPED))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testCancelOrder() throws Exception {
         // Given: Mock service davranışı
@@ -248,14 +476,43 @@ class OrderControllerTest {
     @Test
     void testGetAllOrders() throws Exception {
         // Given: Mock service davranışı
-        when(orderService.getAllOrders()).thenReturn(List.of(testOrder));
+        when(orderService.getAllOrders(null, 20)).thenReturn(new OrderPage(List.of(testOrder), null, false));
 
         // When & Then: GET isteği gönderiliyor
         mockMvc.perform(get("/orders"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.items").isArray());
 
-        verify(orderService, times(1)).getAllOrders();
+        verify(orderService, times(1)).getAllOrders(null, 20);
+    }
+
+    @Test
+    void testGetAllOrdersInvalidCursor() throws Exception {
+        // Given: Bozuk cursor
+        when(orderService.getAllOrders("bad", 20)).thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        // When & Then: 400 dönmeli
+        mockMvc.perform(get("/orders").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportOrders() throws Exception {
+        // Given: Export servisi iki satır yazıyor
+        when(orderExportService.exportOrders(any())).thenAnswer(invocation -> {
+            java.io.OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":\"1\"}\n{\"id\":\"2\"}\n".getBytes());
+            return 2L;
+        });
+
+        // When & Then: NDJSON stream (async dispatch)
+        MvcResult result = mockMvc.perform(get("/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"1\"}\n{\"id\":\"2\"}\n"));
     }
 }
 
@@ -0,0 +1,171 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.microservices.order.Config.OrderSubscriptionInterceptor;
+import com.microservices.order.Controller.OrderWebSocketController;
+import com.microservices.order.DTO.OrderStatusUpdate;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Service.OrderUpdateCoalescer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * WebSocket routing için Unit Test
+ * Mesajların sadece sipariş/kullanıcı topic'lerine gittiğini ve
+ * global/wildcard subscription'ların reddedildiğini test eder
+ * Coalescing penceresi içinde ardışık güncellemelerin birleştirildiğini test eder
+ */
+class OrderWebSocketRoutingTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private OrderWebSocketController controller;
+    private OrderSubscriptionInterceptor interceptor;
+    private MessageChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        controller = new OrderWebSocketController(new OrderUpdateCoalescer(messagingTemplate, new SimpleMeterRegistry(), 0));
+        interceptor = new OrderSubscriptionInterceptor();
+        channel = mock(MessageChannel.class);
+    }
+
+    @Test
+    void testUpdatesRoutedOnlyToOrderAndUserTopics() {
+        // Given
+        UUID orderId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        OrderStatusUpdate update = new OrderStatusUpdate(orderId, OrderStatus.PENDING, OrderStatus.CONFIRMED, userId);
+
+        // When
+        controller.sendOrderStatusUpdate(orderId, update);
+        controller.sendUserOrderUpdate(userId, update);
+
+        // Then: Global broadcast yok
+        verify(messagingTemplate).convertAndSend("/topic/order-updates." + orderId, update);
+        verify(messagingTemplate).convertAndSend("/topic/user-orders." + userId, update);
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/order-updates"), any(Object.class));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void testBulkUpdatesBatchedPerUser() {
+        // Given: Aynı kullanıcının iki siparişi, başka bir kullanıcının bir siparişi
+        UUID userA = UUID.randomUUID();
+        UUID userB = UUID.randomUUID();
+        OrderStatusUpdate a1 = new OrderStatusUpdate(UUID.randomUUID(), OrderStatus.PROCESSING, OrderStatus.SHIPPED, userA);
+        OrderStatusUpdate a2 = new OrderStatusUpdate(UUID.randomUUID(), OrderStatus.PROCESSING, OrderStatus.SHIPPED, userA);
+        OrderStatusUpdate b1 = new OrderStatusUpdate(UUID.randomUUID(), OrderStatus.PROCESSING, OrderStatus.SHIPPED, userB);
+
+        // When
+        controller.sendOrderStatusUpdates(List.of(a1, a2, b1));
+
+        // Then: Sipariş başına bir, kullanıcı başına .batch topic'inde tek liste frame'i (tek siparişte de liste)
+        verify(messagingTemplate, times(3)).convertAndSend(startsWith("/topic/order-updates."), any(OrderStatusUpdate.class));
+        verify(messagingTemplate).convertAndSend("/topic/user-orders." + userA + ".batch", List.of(a1, a2));
+        verify(messagingTemplate).convertAndSend("/topic/user-orders." + userB + ".batch", List.of(b1));
+        verify(messagingTemplate, times(5)).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void testUpdatesCoalescedWithinWindow() {
+        // Given: 10 sn pencere (flush elle tetiklenir)
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderUpdateCoalescer coalescer = new OrderUpdateCoalescer(messagingTemplate, meterRegistry, 10_000);
+        OrderWebSocketController coalescingController = new OrderWebSocketController(coalescer);
+        UUID orderId = UUID.randomUUID();
+        UUID otherOrderId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        // When: Aynı sipariş pencere içinde üç kez değişiyor, aynı kullanıcının bir siparişi daha değişiyor
+        OrderStatus[] path = { OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PROCESSING, OrderStatus.SHIPPED };
+        for (int i = 0; i < 3; i++) {
+            OrderStatusUpdate update = new OrderStatusUpdate(orderId, path[i], path[i + 1], userId);
+            coalescingController.sendOrderStatusUpdate(orderId, update);
+            coalescingController.sendUserOrderUpdate(userId, update);
+        }
+        OrderStatusUpdate other = new OrderStatusUpdate(otherOrderId, OrderStatus.PENDING, OrderStatus.CANCELLED, userId);
+        coalescingController.sendOrderStatusUpdate(otherOrderId, other);
+        coalescingController.sendUserOrderUpdate(userId, other);
+        verifyNoInteractions(messagingTemplate);
+        coalescer.flush();
+
+        // Then: Sipariş başına son durum (PENDING → SHIPPED); kullanıcı topic'i sipariş başına
+        // tek OrderStatusUpdate alır (liste veya .batch topic'i yok, mevcut client'lar etkilenmez)
+        verify(messagingTemplate).convertAndSend(eq("/topic/order-updates." + orderId), argThat((OrderStatusUpdate u) ->
+            u.getOldStatus() == OrderStatus.PENDING && u.getNewStatus() == OrderStatus.SHIPPED));
+        verify(messagingTemplate).convertAndSend("/topic/order-updates." + otherOrderId, other);
+        verify(messagingTemplate).convertAndSend(eq("/topic/user-orders." + userId), argThat((OrderStatusUpdate u) ->
+            u.getOrderId().equals(orderId) && u.getNewStatus() == OrderStatus.SHIPPED));
+        verify(messagingTemplate).convertAndSend("/topic/user-orders." + userId, other);
+        verify(messagingTemplate, never()).convertAndSend(endsWith(".batch"), any(Object.class));
+        verify(messagingTemplate, times(4)).convertAndSend(anyString(), any(Object.class));
+        assertEquals(4.0, meterRegistry.get("orders.websocket.frames.sent").counter().count());
+        assertEquals(4.0, meterRegistry.get("orders.websocket.frames.saved").counter().count());
+        coalescer.shutdown();
+    }
+
+    @Test
+    void testSubscriptionToOrderAndUserTopicsAllowed() {
+        UUID id = UUID.randomUUID();
+        assertNotNull(interceptor.preSend(subscribe("/topic/order-updates." + id), channel));
+        assertNotNull(interceptor.preSend(subscribe("/topic/user-orders." + id), channel));
+        assertNotNull(interceptor.preSend(subscribe("/topic/user-orders." + id + ".batch"), channel));
+    }
+
+    @Test
+    void testGlobalAndWildcardSubscriptionsRejected() {
+        assertThrows(MessageDeliveryException.class,
+            () -> interceptor.preSend(subscribe("/topic/order-updates"), channel));
+        assertThrows(MessageDeliveryException.class,
+            () -> interceptor.preSend(subscribe("/topic/order-updates.*"), channel));
+        assertThrows(MessageDeliveryException.class,
+            () -> interceptor.preSend(subscribe("/topic/user-orders.#"), channel));
+    }
+
+    @Test
+    void testClientSendRejected() {
+        // Client başka bir siparişin topic'ine veya /app'e durum gönderemez
+        UUID id = UUID.randomUUID();
+        assertThrows(MessageDeliveryException.class,
+            () -> interceptor.preSend(send("/topic/order-updates." + id), channel));
+        assertThrows(MessageDeliveryException.class,
+            () -> interceptor.preSend(send("/app/order/status"), channel));
+    }
+
+    private Message<byte[]> send(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination(destination);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<byte[]> subscribe(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
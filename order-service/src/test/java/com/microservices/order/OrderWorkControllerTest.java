@@ -0,0 +1,70 @@
+package com.microservices.order;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.microservices.order.Controller.OrderWorkController;
+import com.microservices.order.DTO.WorkClaim;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Service.OrderWorkQueueService;
+
+/**
+ * OrderWorkController için Integration Test
+ */
+@WebMvcTest(OrderWorkController.class)
+class OrderWorkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderWorkQueueService orderWorkQueueService;
+
+    @Test
+    void testClaim() throws Exception {
+        // Given: Mock service davranışı
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(OrderStatus.CONFIRMED);
+        when(orderWorkQueueService.claim(OrderStatus.CONFIRMED, 50, "warehouse-1"))
+                .thenReturn(new WorkClaim("warehouse-1", LocalDateTime.now().plusMinutes(5), List.of(order)));
+
+        // When & Then: POST isteği gönderiliyor
+        mockMvc.perform(post("/orders/work/claim")
+                .param("status", "CONFIRMED")
+                .param("limit", "50")
+                .param("workerId", "warehouse-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.workerId").value("warehouse-1"))
+                .andExpect(jsonPath("$.leaseExpiresAt").exists())
+                .andExpect(jsonPath("$.orders[0].id").value(order.getId().toString()));
+
+        verify(orderWorkQueueService, times(1)).claim(OrderStatus.CONFIRMED, 50, "warehouse-1");
+    }
+
+    @Test
+    void testClaimInvalidLimit() throws Exception {
+        // Given: Limit sınır dışı
+        when(orderWorkQueueService.claim(eq(OrderStatus.CONFIRMED), anyInt(), any()))
+                .thenThrow(new IllegalArgumentException("Claim limit must be between 1 and 200"));
+
+        // When & Then: 400 dönmeli
+        mockMvc.perform(post("/orders/work/claim").param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+}
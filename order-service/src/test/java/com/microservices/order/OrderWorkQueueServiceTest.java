@@ -0,0 +1,170 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.ProductServiceClient;
+import com.microservices.order.Client.UserServiceClient;
+import com.microservices.order.DTO.WorkClaim;
+import com.microservices.order.Model.Order;
+import com.microservices.order.Model.OrderItem;
+import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderRepository;
+import com.microservices.order.Service.OrderService;
+import com.microservices.order.Service.OrderWorkQueueService;
+
+/**
+ * OrderWorkQueueService için Integration Test
+ * Claim edilen batch'lerin ayrık olmasını, lease süresi dolunca re-queue'yu
+ * ve durum değişikliğinde lease'in temizlenmesini test eder
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderWorkQueueServiceTest {
+
+    @Autowired
+    private OrderWorkQueueService orderWorkQueueService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ProductServiceClient productServiceClient;
+
+    @MockBean
+    private InventoryServiceClient inventoryServiceClient;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    private List<UUID> confirmedOrderIds;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+
+        // 5 CONFIRMED + 1 PENDING sipariş (en eski önce claim edilir)
+        confirmedOrderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            confirmedOrderIds.add(saveOrder(OrderStatus.CONFIRMED).getId());
+        }
+        saveOrder(OrderStatus.PENDING);
+    }
+
+    @Test
+    void testClaimHandsOutDisjointBatches() {
+        // When: İki worker sırayla claim ediyor
+        WorkClaim first = orderWorkQueueService.claim(OrderStatus.CONFIRMED, 3, "worker-1");
+        WorkClaim second = orderWorkQueueService.claim(OrderStatus.CONFIRMED, 3, "worker-2");
+        WorkClaim third = orderWorkQueueService.claim(OrderStatus.CONFIRMED, 3, "worker-3");
+
+        // Then: Batch'ler ayrık, toplamda tüm CONFIRMED siparişler, PENDING hiç verilmedi
+        assertEquals(3, first.getOrders().size());
+        assertEquals(2, second.getOrders().size());
+        assertTrue(third.getOrders().isEmpty());
+
+        Set<UUID> claimed = new HashSet<>();
+        first.getOrders().forEach(order -> assertTrue(claimed.add(order.getId())));
+        second.getOrders().forEach(order -> assertTrue(claimed.add(order.getId())));
+        assertEquals(new HashSet<>(confirmedOrderIds), claimed);
+
+        // En eski siparişler ilk batch'te, kalemleri yüklenmiş olarak
+        assertEquals(confirmedOrderIds.subList(0, 3),
+            first.getOrders().stream().map(Order::getId).toList());
+        assertEquals(1, first.getOrders().get(0).getOrderItems().size());
+
+        // Lease veritabanına yazıldı
+        Order stored = orderRepository.findById(first.getOrders().get(0).getId()).orElseThrow();
+        assertEquals("worker-1", stored.getClaimedBy());
+        assertNotNull(stored.getClaimExpiresAt());
+    }
+
+    @Test
+    void testExpiredLeaseIsRequeued() {
+        // Given: worker-1 tüm siparişleri aldı ama lease süresi doldu
+        WorkClaim first = orderWorkQueueService.claim(OrderStatus.CONFIRMED, 10, "worker-1");
+        assertEquals(5, first.getOrders().size());
+        assertTrue(orderWorkQueueService.claim(OrderStatus.CONFIRMED, 10, "worker-2").getOrders().isEmpty());
+        jdbcTemplate.update("UPDATE orders SET claim_expires_at = ? WHERE claimed_by = ?",
+            LocalDateTime.now().minusSeconds(1), "worker-1");
+
+        // When: Başka bir worker claim ediyor
+        WorkClaim second = orderWorkQueueService.claim(OrderStatus.CONFIRMED, 10, "worker-2");
+
+        // Then: Siparişler tekrar verildi
+        assertEquals(5, second.getOrders().size());
+        assertTrue(second.getOrders().stream().allMatch(order -> "worker-2".equals(order.getClaimedBy())));
+    }
+
+    @Test
+    void testStatusChangeReleasesClaim() {
+        // Given: Claim edilmiş bir sipariş
+        WorkClaim claim = orderWorkQueueService.claim(OrderStatus.CONFIRMED, 1, "worker-1");
+        UUID orderId = claim.getOrders().get(0).getId();
+
+        // When: Worker siparişi işleyip durumunu güncelliyor
+        orderService.updateOrderStatus(orderId, OrderStatus.PROCESSING);
+
+        // Then: Lease temizlendi
+        Order stored = orderRepository.findById(orderId).orElseThrow();
+        assertEquals(OrderStatus.PROCESSING, stored.getStatus());
+        assertNull(stored.getClaimedBy());
+        assertNull(stored.getClaimExpiresAt());
+    }
+
+    @Test
+    void testInvalidClaimLimit() {
+        assertThrows(IllegalArgumentException.class,
+            () -> orderWorkQueueService.claim(OrderStatus.CONFIRMED, 0, "worker-1"));
+        assertThrows(IllegalArgumentException.class,
+            () -> orderWorkQueueService.claim(OrderStatus.CONFIRMED, OrderWorkQueueService.MAX_CLAIM_SIZE + 1, "worker-1"));
+    }
+
+    private Order saveOrder(OrderStatus status) {
+        Order order = new Order();
+        order.setUserId(UUID.randomUUID());
+        order.setShippingAddress("Test Adresi, Levent");
+        order.setCity("İstanbul");
+        order.setZipCode("34394");
+        order.setPhoneNumber("5551234567");
+        order.setStatus(status);
+
+        OrderItem item = new OrderItem();
+        item.setProductId(UUID.randomUUID());
+        item.setProductName("Test Product");
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("100.00"));
+        order.addOrderItem(item);
+
+        Order saved = orderRepository.save(order);
+        // createdAt sırası belirgin olsun (en eski önce claim edilir)
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,133 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microservices.order.Client.ProductServiceClient;
+import com.microservices.order.Service.ProductSnapshotCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ProductSnapshotCache için Unit Test
+ * Version'a göre invalidation, eski version'ın yeniyi ezmemesi ve yükleme sırasında gelen invalidation'ı test eder
+ */
+class ProductSnapshotCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testOlderVersionInvalidated() {
+        // Given: version 1 snapshot'ı cache'te
+        ProductSnapshotCache cache = new ProductSnapshotCache(meterRegistry, 100, 300);
+        ProductServiceClient.ProductResponse product = product(UUID.randomUUID(), 1L, "100.00");
+        cache.put(product, cache.loadToken());
+        assertSame(product, cache.getIfPresent(product.getId()));
+
+        // When: Fiyat güncellendi, event version 2 taşıyor
+        cache.invalidate(product.getId(), 2L);
+
+        // Then: Eski fiyat artık kullanılmaz
+        assertNull(cache.getIfPresent(product.getId()));
+        assertEquals(1.0, meterRegistry.counter("orders.product.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("orders.product.cache.requests", "result", "miss").count());
+        assertEquals(1.0, meterRegistry.counter("orders.product.cache.invalidations").count());
+    }
+
+    @Test
+    void testCurrentVersionSurvivesLateEvent() {
+        // Given: Güncelleme sonrası version 2 zaten yüklenmiş
+        ProductSnapshotCache cache = new ProductSnapshotCache(meterRegistry, 100, 300);
+        ProductServiceClient.ProductResponse product = product(UUID.randomUUID(), 2L, "120.00");
+        cache.put(product, cache.loadToken());
+
+        // When: Aynı güncellemenin event'i geç geldi
+        cache.invalidate(product.getId(), 2L);
+
+        // Then: Güncel snapshot korunur
+        assertSame(product, cache.getIfPresent(product.getId()));
+    }
+
+    @Test
+    void testDeleteInvalidatesRegardlessOfVersion() {
+        // Given
+        ProductSnapshotCache cache = new ProductSnapshotCache(meterRegistry, 100, 300);
+        ProductServiceClient.ProductResponse product = product(UUID.randomUUID(), 5L, "100.00");
+        cache.put(product, cache.loadToken());
+
+        // When: Ürün silindi (version null)
+        cache.invalidate(product.getId(), null);
+
+        // Then
+        assertNull(cache.getIfPresent(product.getId()));
+    }
+
+    @Test
+    void testOlderVersionDoesNotOverwriteNewer() {
+        // Given: version 3 cache'te
+        ProductSnapshotCache cache = new ProductSnapshotCache(meterRegistry, 100, 300);
+        UUID productId = UUID.randomUUID();
+        ProductServiceClient.ProductResponse current = product(productId, 3L, "150.00");
+        cache.put(current, cache.loadToken());
+
+        // When: Başka bir replica'dan gecikmeli version 2 yanıtı geldi
+        cache.put(product(productId, 2L, "120.00"), cache.loadToken());
+
+        // Then
+        assertSame(current, cache.getIfPresent(productId));
+    }
+
+    @Test
+    void testInvalidationDuringLoadDiscardsResponse() {
+        // Given: Batch isteği başlamadan token alındı
+        ProductSnapshotCache cache = new ProductSnapshotCache(meterRegistry, 100, 300);
+        ProductServiceClient.ProductResponse product = product(UUID.randomUUID(), 1L, "100.00");
+        long token = cache.loadToken();
+
+        // When: İstek sürerken product.updated event'i geldi
+        cache.invalidate(product.getId(), 2L);
+        cache.put(product, token);
+
+        // Then: Eski fiyatı taşıyabilecek yanıt cache'lenmedi
+        assertNull(cache.getIfPresent(product.getId()));
+    }
+
+    @Test
+    void testBoundedBySizeAndTtl() {
+        // Given: En fazla 1 ürün, TTL 0
+        ProductSnapshotCache bounded = new ProductSnapshotCache(meterRegistry, 1, 300);
+        ProductSnapshotCache expiring = new ProductSnapshotCache(new SimpleMeterRegistry(), 100, 0);
+        ProductServiceClient.ProductResponse first = product(UUID.randomUUID(), 1L, "100.00");
+        ProductServiceClient.ProductResponse second = product(UUID.randomUUID(), 1L, "200.00");
+
+        // When
+        bounded.put(first, bounded.loadToken());
+        bounded.put(second, bounded.loadToken());
+        expiring.put(first, expiring.loadToken());
+
+        // Then
+        assertEquals(1, bounded.size());
+        assertNull(bounded.getIfPresent(first.getId()));
+        assertNotNull(bounded.getIfPresent(second.getId()));
+        assertNull(expiring.getIfPresent(first.getId()));
+    }
+
+    private ProductServiceClient.ProductResponse product(UUID id, Long version, String price) {
+        ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal(price));
+        product.setVersion(version);
+        return product;
+    }
+}
@@ -0,0 +1,101 @@
+package com.microservices.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microservices.order.Client.UserServiceClient;
+import com.microservices.order.Service.UserNearCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * UserNearCache için Unit Test
+ * LRU sınırı, invalidation ve yükleme sırasında gelen invalidation davranışını test eder
+ */
+class UserNearCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testPutAndInvalidate() {
+        // Given
+        UserNearCache cache = new UserNearCache(meterRegistry, 100, 600);
+        UserServiceClient.UserResponse user = user(UUID.randomUUID());
+
+        // When
+        cache.put(user, cache.loadToken());
+
+        // Then: Hit, invalidation sonrası miss
+        assertSame(user, cache.getIfPresent(user.getId()));
+        cache.invalidate(user.getId());
+        assertNull(cache.getIfPresent(user.getId()));
+        assertEquals(1.0, meterRegistry.counter("orders.user.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("orders.user.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void testInvalidationDuringLoadDiscardsResponse() {
+        // Given: Remote çağrı başlamadan token alındı
+        UserNearCache cache = new UserNearCache(meterRegistry, 100, 600);
+        UserServiceClient.UserResponse user = user(UUID.randomUUID());
+        long token = cache.loadToken();
+
+        // When: Çağrı sürerken user.updated event'i geldi
+        cache.invalidate(user.getId());
+        cache.put(user, token);
+
+        // Then: Eski olabilecek yanıt cache'lenmedi
+        assertNull(cache.getIfPresent(user.getId()));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEvicted() {
+        // Given: En fazla 2 kullanıcı tutan cache
+        UserNearCache cache = new UserNearCache(meterRegistry, 2, 600);
+        UserServiceClient.UserResponse first = user(UUID.randomUUID());
+        UserServiceClient.UserResponse second = user(UUID.randomUUID());
+        UserServiceClient.UserResponse third = user(UUID.randomUUID());
+
+        // When: first kullanılıyor, sonra third ekleniyor
+        cache.put(first, cache.loadToken());
+        cache.put(second, cache.loadToken());
+        cache.getIfPresent(first.getId());
+        cache.put(third, cache.loadToken());
+
+        // Then: En az kullanılan (second) çıkarıldı
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getIfPresent(first.getId()));
+        assertNull(cache.getIfPresent(second.getId()));
+        assertNotNull(cache.getIfPresent(third.getId()));
+    }
+
+    @Test
+    void testExpiredEntryIsMiss() {
+        // Given: TTL 0 (her kayıt hemen süresi dolmuş sayılır)
+        UserNearCache cache = new UserNearCache(meterRegistry, 100, 0);
+        UserServiceClient.UserResponse user = user(UUID.randomUUID());
+
+        // When
+        cache.put(user, cache.loadToken());
+
+        // Then
+        assertNull(cache.getIfPresent(user.getId()));
+        assertEquals(0, cache.size());
+    }
+
+    private UserServiceClient.UserResponse user(UUID id) {
+        UserServiceClient.UserResponse user = new UserServiceClient.UserResponse();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        return user;
+    }
+}
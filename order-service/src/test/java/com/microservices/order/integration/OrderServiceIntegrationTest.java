@@ -4,10 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,7 +21,6 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.microservices.order.Client.InventoryServiceClient;
 import com.microservices.order.Client.ProductServiceClient;
 import com.microservices.order.Client.UserServiceClient;
 import com.microservices.order.Exception.ResourceNotFoundException;
@@ -29,6 +30,7 @@ import com.microservices.order.Model.OrderStatus;
 import com.microservices.order.Repository.OrderRepository;
 import com.microservices.order.Service.OrderService;
 
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -63,6 +65,11 @@ class OrderServiceIntegrationTest {
     private static MockWebServer mockInventoryServer;
     private static MockWebServer mockUserServer;
 
+    // Lookup'lar paralel yapıldığı için response'lar FIFO değil, "METHOD path" bazında eşleştirilir
+    private static final RoutingDispatcher productDispatcher = new RoutingDispatcher();
+    private static final RoutingDispatcher inventoryDispatcher = new RoutingDispatcher();
+    private static final RoutingDispatcher userDispatcher = new RoutingDispatcher();
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
     private UUID testUserId;
@@ -74,14 +81,17 @@ class OrderServiceIntegrationTest {
         // Mock server'ları başlat (sadece bir kez, static olarak)
         if (mockProductServer == null) {
             mockProductServer = new MockWebServer();
+            mockProductServer.setDispatcher(productDispatcher);
             mockProductServer.start();
         }
         if (mockInventoryServer == null) {
             mockInventoryServer = new MockWebServer();
+            mockInventoryServer.setDispatcher(inventoryDispatcher);
             mockInventoryServer.start();
         }
         if (mockUserServer == null) {
             mockUserServer = new MockWebServer();
+            mockUserServer.setDispatcher(userDispatcher);
             mockUserServer.start();
         }
         
@@ -97,17 +107,21 @@ class OrderServiceIntegrationTest {
     @BeforeEach
     void setUp() throws Exception {
         // Her test öncesi UUID'leri yeniden oluştur
-        // Not: Mock server queue'ları test'ler arası paylaşılıyor
-        // Her test kendi mock response'larını enqueue eder, bu yeterli
-
+        // Mock server'lar static olduğu için önceki testten kalan response/request'ler temizlenir
         testUserId = UUID.randomUUID();
         testProductId1 = UUID.randomUUID();
         testProductId2 = UUID.randomUUID();
+
+        productDispatcher.clear();
+        inventoryDispatcher.clear();
+        userDispatcher.clear();
+        drainRequests(mockProductServer);
+        drainRequests(mockInventoryServer);
+        drainRequests(mockUserServer);
     }
 
     @AfterEach
     void tearDown() throws Exception {
-        // Her test sonrası queue'yu temizle (server'ı kapatma)
         // Mock server'lar static olduğu için tüm testler boyunca açık kalır
     }
 
@@ -124,95 +138,34 @@ class OrderServiceIntegrationTest {
         userResponse.setCity("İstanbul");
         userResponse.setZip("34394");
         userResponse.setPhone("5551234567");
-        
-        mockUserServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(userResponse))
-            .addHeader("Content-Type", "application/json"));
+        userDispatcher.enqueue("GET", "/users/" + testUserId, jsonResponse(userResponse));
 
         // Product Service Mock Responses
         ProductServiceClient.ProductResponse product1 = new ProductServiceClient.ProductResponse();
         product1.setId(testProductId1);
         product1.setName("MacBook Pro");
         product1.setPrice(new BigDecimal("45000.00"));
-        
-        mockProductServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(product1))
-            .addHeader("Content-Type", "application/json"));
 
         ProductServiceClient.ProductResponse product2 = new ProductServiceClient.ProductResponse();
         product2.setId(testProductId2);
         product2.setName("iPhone 15");
         product2.setPrice(new BigDecimal("35000.00"));
-        
-        mockProductServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(product2))
-            .addHeader("Content-Type", "application/json"));
-
-        // Inventory Service Mock Responses
-        InventoryServiceClient.InventoryResponse inventory1 = new InventoryServiceClient.InventoryResponse();
-        inventory1.setId(UUID.randomUUID());
-        inventory1.setProductId(testProductId1);
-        inventory1.setQuantity(100);
-        inventory1.setReservedQuantity(0);
-        inventory1.setStatus("IN_STOCK");
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory1))
-            .addHeader("Content-Type", "application/json"));
-
-        InventoryServiceClient.InventoryResponse inventory2 = new InventoryServiceClient.InventoryResponse();
-        inventory2.setId(UUID.randomUUID());
-        inventory2.setProductId(testProductId2);
-        inventory2.setQuantity(50);
-        inventory2.setReservedQuantity(0);
-        inventory2.setStatus("IN_STOCK");
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory2))
-            .addHeader("Content-Type", "application/json"));
+        productDispatcher.enqueue("POST", "/products/batch",
+            jsonResponse(Map.of(testProductId1, product1, testProductId2, product2)));
 
-        // Stock Check Mock Response
-        // Not: Jackson Map<UUID, Boolean> serialize ederken key'leri string'e çevirir
-        // Feign Client Map<UUID, Boolean> bekliyor, bu yüzden JSON'u doğru formatta oluşturuyoruz
+        // Stock Check Mock Response (createOrder'ın tek inventory isteği)
+        // Not: Jackson Map<UUID, StockAvailability> serialize ederken key'leri string'e çevirir
+        // Feign Client Map<UUID, StockAvailability> bekliyor, bu yüzden JSON'u doğru formatta oluşturuyoruz
         String stockAvailabilityJson = String.format(
-            "{\"%s\":true,\"%s\":true}",
+            "{\"%s\":{\"available\":true,\"availableQuantity\":100,\"found\":true},"
+                + "\"%s\":{\"available\":true,\"availableQuantity\":50,\"found\":true}}",
             testProductId1.toString(),
             testProductId2.toString()
         );
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(stockAvailabilityJson)
-            .addHeader("Content-Type", "application/json"));
-
-        // Order oluştur
-        Order order = new Order();
-        order.setUserId(testUserId);
-        order.setShippingAddress("Test Adresi, Levent");
-        order.setCity("İstanbul");
-        order.setZipCode("34394");
-        order.setPhoneNumber("5551234567");
-        
-        List<OrderItem> orderItems = new ArrayList<>();
-        OrderItem item1 = new OrderItem();
-        item1.setProductId(testProductId1);
-        item1.setQuantity(1);
-        orderItems.add(item1);
-        
-        OrderItem item2 = new OrderItem();
-        item2.setProductId(testProductId2);
-        item2.setQuantity(2);
-        orderItems.add(item2);
-        
-        order.setOrderItems(orderItems);
+        inventoryDispatcher.enqueue("POST", "/inventory/check", jsonResponse(stockAvailabilityJson));
 
         // When: Sipariş oluşturuluyor
-        Order createdOrder = orderService.createOrder(order);
+        Order createdOrder = orderService.createOrder(createTestOrder("Test Adresi, Levent"));
 
         // Then: Sipariş başarıyla oluşturuldu
         assertNotNull(createdOrder.getId());
@@ -230,40 +183,28 @@ class OrderServiceIntegrationTest {
         assertEquals("iPhone 15", createdItem2.getProductName());
         assertEquals(new BigDecimal("35000.00"), createdItem2.getPrice());
 
-        // HTTP isteklerinin yapıldığını doğrula
-        RecordedRequest userRequest = mockUserServer.takeRequest();
-        assertEquals("GET", userRequest.getMethod());
-        assertTrue(userRequest.getPath().contains("/users/" + testUserId));
-
-        RecordedRequest productRequest1 = mockProductServer.takeRequest();
-        assertEquals("GET", productRequest1.getMethod());
-        assertTrue(productRequest1.getPath().contains("/products/" + testProductId1));
-
-        RecordedRequest productRequest2 = mockProductServer.takeRequest();
-        assertEquals("GET", productRequest2.getMethod());
-        assertTrue(productRequest2.getPath().contains("/products/" + testProductId2));
-
-        RecordedRequest inventoryRequest1 = mockInventoryServer.takeRequest();
-        assertEquals("GET", inventoryRequest1.getMethod());
-        assertTrue(inventoryRequest1.getPath().contains("/inventory/product/" + testProductId1));
-
-        RecordedRequest inventoryRequest2 = mockInventoryServer.takeRequest();
-        assertEquals("GET", inventoryRequest2.getMethod());
-        assertTrue(inventoryRequest2.getPath().contains("/inventory/product/" + testProductId2));
-
-        RecordedRequest stockCheckRequest = mockInventoryServer.takeRequest();
-        assertEquals("POST", stockCheckRequest.getMethod());
-        assertEquals("/inventory/check", stockCheckRequest.getPath());
+        // HTTP isteklerinin yapıldığını doğrula (lookup'lar paralel, sıra önemli değil)
+        assertEquals(List.of("GET /users/" + testUserId), recordedRequests(mockUserServer));
+        // Ürünler tek batch isteği ile çekildi
+        assertEquals(List.of("POST /products/batch"), recordedRequests(mockProductServer));
+        // Stok tek toplu kontrolle doğrulandı (ürün başına inventory isteği yok)
+        assertEquals(List.of("POST /inventory/check"), recordedRequests(mockInventoryServer));
     }
 
     @Test
     void testCreateOrderUserNotFoundIntegration() throws Exception {
-        // Given: User Service 404 döndürüyor
-        mockUserServer.enqueue(new MockResponse()
+        // Given: User Service 404 döndürüyor (diğer lookup'lar için response tanımlı değil → 404)
+        userDispatcher.enqueue("GET", "/users/" + testUserId, new MockResponse()
             .setResponseCode(404)
             .setBody("{\"error\":\"User not found\"}")
             .addHeader("Content-Type", "application/json"));
 
+        ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
+        product.setId(testProductId1);
+        product.setName("MacBook Pro");
+        product.setPrice(new BigDecimal("45000.00"));
+        productDispatcher.enqueue("POST", "/products/batch", jsonResponse(Map.of(testProductId1, product)));
+
         // Order oluştur
         Order order = new Order();
         order.setUserId(testUserId);
@@ -295,47 +236,22 @@ class OrderServiceIntegrationTest {
         userResponse.setCity("İstanbul");
         userResponse.setZip("34000");
         userResponse.setPhone("5551234567");
-        
-        mockUserServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(userResponse))
-            .addHeader("Content-Type", "application/json"));
+        userDispatcher.enqueue("GET", "/users/" + testUserId, jsonResponse(userResponse));
 
         // Product Service Mock Response
         ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
         product.setId(testProductId1);
         product.setName("MacBook Pro");
         product.setPrice(new BigDecimal("45000.00"));
-        
-        mockProductServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(product))
-            .addHeader("Content-Type", "application/json"));
-
-        // Inventory Service Mock Response
-        InventoryServiceClient.InventoryResponse inventory = new InventoryServiceClient.InventoryResponse();
-        inventory.setId(UUID.randomUUID());
-        inventory.setProductId(testProductId1);
-        inventory.setQuantity(10);
-        inventory.setReservedQuantity(0);
-        inventory.setStatus("IN_STOCK");
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory))
-            .addHeader("Content-Type", "application/json"));
+        productDispatcher.enqueue("POST", "/products/batch", jsonResponse(Map.of(testProductId1, product)));
 
         // Stock Check Mock Response: Yetersiz stok
-        // Not: Jackson Map<UUID, Boolean> serialize ederken key'leri string'e çevirir
+        // Not: Jackson Map<UUID, StockAvailability> serialize ederken key'leri string'e çevirir
         String stockAvailabilityJson = String.format(
-            "{\"%s\":false}",
+            "{\"%s\":{\"available\":false,\"availableQuantity\":10,\"found\":true}}",
             testProductId1.toString()
         );
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(stockAvailabilityJson)
-            .addHeader("Content-Type", "application/json"));
+        inventoryDispatcher.enqueue("POST", "/inventory/check", jsonResponse(stockAvailabilityJson));
 
         // Order oluştur
         Order order = new Order();
@@ -362,55 +278,24 @@ class OrderServiceIntegrationTest {
         // Given: Önce bir sipariş oluştur (mock'ları hazırla)
         setupMockServersForOrderCreation();
         
-        Order order = createTestOrder();
-        Order createdOrder = orderService.createOrder(order);
+        Order createdOrder = orderService.createOrder(createTestOrder("Test Adresi"));
         UUID orderId = createdOrder.getId();
 
-        // Inventory bilgisini çekmek için mock
-        InventoryServiceClient.InventoryResponse inventory1 = new InventoryServiceClient.InventoryResponse();
-        inventory1.setId(UUID.randomUUID());
-        inventory1.setProductId(testProductId1);
-        inventory1.setQuantity(100);
-        inventory1.setReservedQuantity(0);
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory1))
-            .addHeader("Content-Type", "application/json"));
-
-        InventoryServiceClient.InventoryResponse inventory2 = new InventoryServiceClient.InventoryResponse();
-        inventory2.setId(UUID.randomUUID());
-        inventory2.setProductId(testProductId2);
-        inventory2.setQuantity(50);
-        inventory2.setReservedQuantity(0);
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory2))
-            .addHeader("Content-Type", "application/json"));
-
-        // Stok rezerve mock'ları
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory1))
-            .addHeader("Content-Type", "application/json"));
-
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory2))
-            .addHeader("Content-Type", "application/json"));
+        // Çoklu ürün rezervasyonu mock'u
+        UUID reservationId = UUID.randomUUID();
+        inventoryDispatcher.enqueue("POST", "/inventory/reservations",
+            jsonResponse(Map.of("reservationId", reservationId, "orderId", orderId)));
+        drainRequests(mockInventoryServer);
 
         // When: PENDING → CONFIRMED geçişi (stoklar rezerve edilmeli)
         Order updatedOrder = orderService.updateOrderStatus(orderId, OrderStatus.CONFIRMED);
 
-        // Then: Durum CONFIRMED oldu
+        // Then: Durum CONFIRMED oldu, rezervasyon ID'si saklandı
         assertEquals(OrderStatus.CONFIRMED, updatedOrder.getStatus());
+        assertEquals(reservationId, updatedOrder.getReservationId());
 
-        // Not: MockWebServer PATCH request'i desteklemiyor
-        // Bu yüzden stok rezerve request'lerini doğrulamıyoruz
-        // Gerçek uygulamada Inventory Service PATCH'i destekler ve stoklar rezerve edilir
-        // Bu test sadece order status'unun CONFIRMED olduğunu doğrular
-        // Stok rezerve işlemi OrderService'de try-catch içinde olduğu için hata fırlatılmaz
+        // Tüm kalemler tek istekte rezerve edildi
+        assertEquals(List.of("POST /inventory/reservations"), recordedRequests(mockInventoryServer));
     }
 
     // Helper methods
@@ -422,76 +307,36 @@ class OrderServiceIntegrationTest {
         userResponse.setCity("İstanbul");
         userResponse.setZip("34000");
         userResponse.setPhone("5551234567");
-        
-        mockUserServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(userResponse))
-            .addHeader("Content-Type", "application/json"));
+        userDispatcher.enqueue("GET", "/users/" + testUserId, jsonResponse(userResponse));
 
         // Product Service Mocks
         ProductServiceClient.ProductResponse product1 = new ProductServiceClient.ProductResponse();
         product1.setId(testProductId1);
         product1.setName("MacBook Pro");
         product1.setPrice(new BigDecimal("45000.00"));
-        
-        mockProductServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(product1))
-            .addHeader("Content-Type", "application/json"));
 
         ProductServiceClient.ProductResponse product2 = new ProductServiceClient.ProductResponse();
         product2.setId(testProductId2);
         product2.setName("iPhone 15");
         product2.setPrice(new BigDecimal("35000.00"));
-        
-        mockProductServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(product2))
-            .addHeader("Content-Type", "application/json"));
-
-        // Inventory Service Mocks
-        InventoryServiceClient.InventoryResponse inventory1 = new InventoryServiceClient.InventoryResponse();
-        inventory1.setId(UUID.randomUUID());
-        inventory1.setProductId(testProductId1);
-        inventory1.setQuantity(100);
-        inventory1.setReservedQuantity(0);
-        inventory1.setStatus("IN_STOCK");
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory1))
-            .addHeader("Content-Type", "application/json"));
-
-        InventoryServiceClient.InventoryResponse inventory2 = new InventoryServiceClient.InventoryResponse();
-        inventory2.setId(UUID.randomUUID());
-        inventory2.setProductId(testProductId2);
-        inventory2.setQuantity(50);
-        inventory2.setReservedQuantity(0);
-        inventory2.setStatus("IN_STOCK");
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(objectMapper.writeValueAsString(inventory2))
-            .addHeader("Content-Type", "application/json"));
+        productDispatcher.enqueue("POST", "/products/batch",
+            jsonResponse(Map.of(testProductId1, product1, testProductId2, product2)));
 
-        // Stock Check Mock
-        // Not: Jackson Map<UUID, Boolean> serialize ederken key'leri string'e çevirir
+        // Inventory Service Mock: Stok kontrolü (createOrder'ın tek inventory isteği)
+        // Not: Jackson Map<UUID, StockAvailability> serialize ederken key'leri string'e çevirir
         String stockAvailabilityJson = String.format(
-            "{\"%s\":true,\"%s\":true}",
+            "{\"%s\":{\"available\":true,\"availableQuantity\":100,\"found\":true},"
+                + "\"%s\":{\"available\":true,\"availableQuantity\":50,\"found\":true}}",
             testProductId1.toString(),
             testProductId2.toString()
         );
-        
-        mockInventoryServer.enqueue(new MockResponse()
-            .setResponseCode(200)
-            .setBody(stockAvailabilityJson)
-            .addHeader("Content-Type", "application/json"));
+        inventoryDispatcher.enqueue("POST", "/inventory/check", jsonResponse(stockAvailabilityJson));
     }
 
-    private Order createTestOrder() {
+    private Order createTestOrder(String shippingAddress) {
         Order order = new Order();
         order.setUserId(testUserId);
-        order.setShippingAddress("Test Adresi");
+        order.setShippingAddress(shippingAddress);
         order.setCity("İstanbul");
         order.setZipCode("34000");
         order.setPhoneNumber("5551234567");
@@ -510,5 +355,53 @@ class OrderServiceIntegrationTest {
         order.setOrderItems(orderItems);
         return order;
     }
-}
 
+    private MockResponse jsonResponse(Object body) throws Exception {
+        String json = body instanceof String ? (String) body : objectMapper.writeValueAsString(body);
+        return new MockResponse()
+            .setResponseCode(200)
+            .setBody(json)
+            .addHeader("Content-Type", "application/json");
+    }
+
+    /**
+     * Server'a gelen istekleri "METHOD path" formatında, geliş sırasıyla döndür
+     */
+    private List<String> recordedRequests(MockWebServer server) throws InterruptedException {
+        List<String> requests = new ArrayList<>();
+        RecordedRequest request;
+        while ((request = server.takeRequest(100, java.util.concurrent.TimeUnit.MILLISECONDS)) != null) {
+            requests.add(request.getMethod() + " " + request.getPath());
+        }
+        return requests;
+    }
+
+    private void drainRequests(MockWebServer server) throws InterruptedException {
+        while (server.takeRequest(10, java.util.concurrent.TimeUnit.MILLISECONDS) != null) {
+            // önceki testten kalan istekleri at
+        }
+    }
+
+    /**
+     * Path bazlı MockWebServer dispatcher'ı
+     * Aynı path için birden fazla response sırayla döner, tanımsız path → 404
+     */
+    private static class RoutingDispatcher extends Dispatcher {
+        private final Map<String, Queue<MockResponse>> responses = new ConcurrentHashMap<>();
+
+        void enqueue(String method, String path, MockResponse response) {
+            responses.computeIfAbsent(method + " " + path, key -> new ConcurrentLinkedQueue<>()).add(response);
+        }
+
+        void clear() {
+            responses.clear();
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            Queue<MockResponse> queue = responses.get(request.getMethod() + " " + request.getPath());
+            MockResponse response = queue != null ? queue.poll() : null;
+            return response != null ? response : new MockResponse().setResponseCode(404);
+        }
+    }
+}
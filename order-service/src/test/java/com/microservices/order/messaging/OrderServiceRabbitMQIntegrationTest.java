@@ -6,15 +6,21 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -24,16 +30,21 @@ import com.microservices.order.Client.UserServiceClient;
 import com.microservices.order.Config.RabbitMQConfig;
 import com.microservices.order.Event.OrderCreatedEvent;
 import com.microservices.order.Event.OrderStatusChangedEvent;
+import com.microservices.order.Event.OutboxEventType;
 import com.microservices.order.Model.Order;
 import com.microservices.order.Model.OrderItem;
+import com.microservices.order.Model.OrderOutboxEvent;
 import com.microservices.order.Model.OrderStatus;
+import com.microservices.order.Repository.OrderOutboxRepository;
 import com.microservices.order.Repository.OrderRepository;
+import com.microservices.order.Service.OrderOutboxRelay;
 import com.microservices.order.Service.OrderService;
 
 /**
  * Order Service RabbitMQ Integration Test
  * 
- * OrderService'in RabbitMQ'ya event gönderme işlemlerini test eder
+ * OrderService'in event'leri outbox'a yazmasını ve OrderOutboxRelay'in
+ * bunları RabbitMQ'ya yayınlamasını test eder
  * MockRabbitTemplate kullanarak gerçek RabbitMQ'ya bağlanmadan test yapar
  */
 @SpringBootTest
@@ -59,6 +70,12 @@ class OrderServiceRabbitMQIntegrationTest {
     @MockBean
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private OrderOutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
     private Order testOrder;
     private UserServiceClient.UserResponse testUser;
     private ProductServiceClient.ProductResponse testProduct;
@@ -113,85 +130,169 @@ class OrderServiceRabbitMQIntegrationTest {
     }
 
     @Test
-    void testCreateOrderSendsRabbitMQEvent() {
+    void testCreateOrderWritesOutboxEventWithoutTouchingRabbitMQ() {
         // Given: Mock service responses
-        when(userServiceClient.getUserById(testUserId)).thenReturn(testUser);
-        when(productServiceClient.getProductById(testProductId)).thenReturn(testProduct);
-        when(inventoryServiceClient.getInventoryByProductId(testProductId)).thenReturn(testInventory);
-        
-        Map<UUID, Boolean> stockAvailability = new HashMap<>();
-        stockAvailability.put(testProductId, true);
-        when(inventoryServiceClient.checkStockAvailability(anyMap())).thenReturn(stockAvailability);
+        stubOrderCreation();
 
         // When: Order oluşturuluyor
         Order createdOrder = orderService.createOrder(testOrder);
 
-        // Then: RabbitMQ'ya OrderCreatedEvent gönderilmiş olmalı
+        // Then: Request thread'i RabbitMQ'ya event göndermedi, event outbox'a yazıldı
+        verify(rabbitTemplate, never()).convertAndSend(
+            anyString(), anyString(), org.mockito.ArgumentMatchers.any(Object.class));
+        List<OrderOutboxEvent> events = outboxEvents(createdOrder.getId());
+        assertEquals(1, events.size());
+        assertEquals(OutboxEventType.ORDER_CREATED, events.get(0).getEventType());
+        assertNull(events.get(0).getPublishedAt());
+
+        // When: Relay batch'i yayınlıyor
+        stubRabbitInvoke();
+        assertEquals(1, outboxRelay.publishPendingBatch());
+
+        // Then: Event exchange'e gönderildi, publisher confirm beklendi
         verify(rabbitTemplate, times(1)).convertAndSend(
-            eq(RabbitMQConfig.ORDER_CREATED_QUEUE),
+            eq(RabbitMQConfig.ORDER_EXCHANGE),
+            eq(RabbitMQConfig.ROUTING_KEY_CREATED),
             org.mockito.ArgumentMatchers.any(OrderCreatedEvent.class)
         );
-
-        // Order başarıyla oluşturuldu
-        assertNotNull(createdOrder.getId());
-        assertEquals(testUserId, createdOrder.getUserId());
+        verify(rabbitTemplate, times(1)).waitForConfirmsOrDie(anyLong());
+        assertNotNull(outboxEvents(createdOrder.getId()).get(0).getPublishedAt());
     }
 
     @Test
-    void testUpdateOrderStatusSendsRabbitMQEvent() {
-        // Given: Bir order oluşturuluyor
-        when(userServiceClient.getUserById(testUserId)).thenReturn(testUser);
-        when(productServiceClient.getProductById(testProductId)).thenReturn(testProduct);
-        when(inventoryServiceClient.getInventoryByProductId(testProductId)).thenReturn(testInventory);
-        
-        Map<UUID, Boolean> stockAvailability = new HashMap<>();
-        stockAvailability.put(testProductId, true);
-        when(inventoryServiceClient.checkStockAvailability(anyMap())).thenReturn(stockAvailability);
-
+    void testUpdateOrderStatusEventsRelayedInOrder() {
+        // Given: Bir order oluşturuluyor ve onaylanıyor
+        stubOrderCreation();
         Order createdOrder = orderService.createOrder(testOrder);
         UUID orderId = createdOrder.getId();
 
-        // Mock'ları temizle
-        reset(rabbitTemplate);
-
-        // When: Order durumu güncelleniyor
-        when(userServiceClient.getUserById(testUserId)).thenReturn(testUser);
+        InventoryServiceClient.ReservationResponse reservation = new InventoryServiceClient.ReservationResponse();
+        reservation.setReservationId(UUID.randomUUID());
+        when(inventoryServiceClient.reserveItems(org.mockito.ArgumentMatchers.any(InventoryServiceClient.ReservationRequest.class)))
+            .thenReturn(reservation);
         Order updatedOrder = orderService.updateOrderStatus(orderId, OrderStatus.CONFIRMED);
+        assertEquals(OrderStatus.CONFIRMED, updatedOrder.getStatus());
 
-        // Then: RabbitMQ'ya OrderStatusChangedEvent gönderilmiş olmalı
-        verify(rabbitTemplate, times(1)).convertAndSend(
-            eq(RabbitMQConfig.ORDER_STATUS_CHANGED_QUEUE),
-            org.mockito.ArgumentMatchers.any(OrderStatusChangedEvent.class)
-        );
+        // Then: Request thread'i RabbitMQ'ya event göndermedi, iki event ve rezervasyon onay komutu sırayla outbox'ta
+        verify(rabbitTemplate, never()).convertAndSend(
+            anyString(), anyString(), org.mockito.ArgumentMatchers.any(Object.class));
+        List<OrderOutboxEvent> events = outboxEvents(orderId);
+        assertEquals(List.of(OutboxEventType.ORDER_CREATED, OutboxEventType.RESERVATION_CONFIRM,
+                OutboxEventType.ORDER_STATUS_CHANGED),
+            events.stream().map(OrderOutboxEvent::getEventType).toList());
 
-        // Order durumu güncellendi
-        assertEquals(OrderStatus.CONFIRMED, updatedOrder.getStatus());
+        // When: Relay batch'i yayınlıyor (rezervasyon komutu broker'a gitmez)
+        stubRabbitInvoke();
+        assertEquals(2, outboxRelay.publishPendingBatch());
+        assertNull(outboxEvents(orderId).get(1).getPublishedAt());
+
+        // Then: Event'ler yazılma sırasıyla gönderildi
+        InOrder inOrder = inOrder(rabbitTemplate);
+        inOrder.verify(rabbitTemplate).convertAndSend(
+            eq(RabbitMQConfig.ORDER_EXCHANGE),
+            eq(RabbitMQConfig.ROUTING_KEY_CREATED),
+            org.mockito.ArgumentMatchers.any(OrderCreatedEvent.class));
+        inOrder.verify(rabbitTemplate).convertAndSend(
+            eq(RabbitMQConfig.ORDER_EXCHANGE),
+            eq(RabbitMQConfig.ROUTING_KEY_STATUS_CHANGED),
+            org.mockito.ArgumentMatchers.any(OrderStatusChangedEvent.class));
+        inOrder.verify(rabbitTemplate).waitForConfirmsOrDie(anyLong());
     }
 
     @Test
     void testRabbitMQFailureDoesNotBlockOrderCreation() {
         // Given: RabbitMQ hatası simüle ediliyor
+        stubOrderCreation();
+        when(rabbitTemplate.invoke(org.mockito.ArgumentMatchers.<RabbitOperations.OperationsCallback<Object>>any()))
+            .thenThrow(new AmqpConnectException(new java.net.ConnectException("RabbitMQ connection error")));
+
+        // When: Order oluşturuluyor
+        // Then: Order yine de oluşturulmalı (RabbitMQ request path'inde değil)
+        Order createdOrder = orderService.createOrder(testOrder);
+        assertNotNull(createdOrder.getId());
+
+        // Relay başarısız olursa event yayınlanmamış olarak kalır
+        assertThrows(AmqpConnectException.class, () -> outboxRelay.publishPendingBatch());
+        assertNull(outboxEvents(createdOrder.getId()).get(0).getPublishedAt());
+
+        // Broker geri geldiğinde event bir sonraki turda yayınlanır
+        reset(rabbitTemplate);
+        stubRabbitInvoke();
+        assertEquals(1, outboxRelay.publishPendingBatch());
+        assertNotNull(outboxEvents(createdOrder.getId()).get(0).getPublishedAt());
+    }
+
+    @Test
+    void testUndeserializableOutboxRowIsDeadLetteredWithoutBlockingRelay() {
+        // Given: Okunamayan bir satır, arkasında geçerli bir sipariş event'i
+        UUID poisonOrderId = UUID.randomUUID();
+        outboxRepository.save(new OrderOutboxEvent(poisonOrderId, OutboxEventType.ORDER_CREATED, "{not json"));
+        stubOrderCreation();
+        Order createdOrder = orderService.createOrder(testOrder);
+
+        // When: Relay batch'i yayınlıyor
+        stubRabbitInvoke();
+        assertEquals(1, outboxRelay.publishPendingBatch());
+
+        // Then: Geçerli event yayınlandı, okunamayan satır dead-letter'da ve bir daha alınmıyor
+        assertNotNull(outboxEvents(createdOrder.getId()).get(0).getPublishedAt());
+        OrderOutboxEvent poison = outboxEvents(poisonOrderId).get(0);
+        assertNull(poison.getPublishedAt());
+        assertNotNull(poison.getFailedAt());
+        assertNotNull(poison.getLastError());
+        assertEquals(0, outboxRelay.publishPendingBatch());
+        verify(rabbitTemplate, times(1)).convertAndSend(
+            eq(RabbitMQConfig.ORDER_EXCHANGE),
+            eq(RabbitMQConfig.ROUTING_KEY_CREATED),
+            org.mockito.ArgumentMatchers.any(OrderCreatedEvent.class));
+    }
+
+    @Test
+    void testRepeatedlyFailingOutboxRowIsDeadLettered() {
+        // Given: Broker bu event'i her seferinde reddediyor (bağlantı hatası değil)
+        stubOrderCreation();
+        Order createdOrder = orderService.createOrder(testOrder);
+        when(rabbitTemplate.invoke(org.mockito.ArgumentMatchers.<RabbitOperations.OperationsCallback<Object>>any()))
+            .thenThrow(new AmqpException("Publisher confirm nack"));
+
+        // When: Relay max-attempts (5) kez deniyor
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            assertEquals(0, outboxRelay.publishPendingBatch());
+            assertEquals(attempt, outboxEvents(createdOrder.getId()).get(0).getAttempts());
+        }
+
+        // Then: Satır dead-letter'a alındı, relay artık onu almıyor
+        OrderOutboxEvent event = outboxEvents(createdOrder.getId()).get(0);
+        assertNull(event.getPublishedAt());
+        assertNotNull(event.getFailedAt());
+        assertTrue(event.getLastError().contains("nack"));
+        reset(rabbitTemplate);
+        assertEquals(0, outboxRelay.publishPendingBatch());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private void stubOrderCreation() {
         when(userServiceClient.getUserById(testUserId)).thenReturn(testUser);
-        when(productServiceClient.getProductById(testProductId)).thenReturn(testProduct);
+        when(productServiceClient.getProductsByIds(anyCollection())).thenReturn(Map.of(testProductId, testProduct));
         when(inventoryServiceClient.getInventoryByProductId(testProductId)).thenReturn(testInventory);
-        
-        Map<UUID, Boolean> stockAvailability = new HashMap<>();
-        stockAvailability.put(testProductId, true);
+
+        Map<UUID, InventoryServiceClient.StockAvailability> stockAvailability = new HashMap<>();
+        stockAvailability.put(testProductId, new InventoryServiceClient.StockAvailability(true, 100, true));
         when(inventoryServiceClient.checkStockAvailability(anyMap())).thenReturn(stockAvailability);
-        
-        // RabbitMQ exception fırlatıyor
-        doThrow(new RuntimeException("RabbitMQ connection error"))
-            .when(rabbitTemplate).convertAndSend(
-                org.mockito.ArgumentMatchers.anyString(), 
-                org.mockito.ArgumentMatchers.any(OrderCreatedEvent.class)
-            );
+    }
 
-        // When: Order oluşturuluyor
-        // Then: Order yine de oluşturulmalı (RabbitMQ hatası engellememeli)
-        assertDoesNotThrow(() -> {
-            Order createdOrder = orderService.createOrder(testOrder);
-            assertNotNull(createdOrder.getId());
-        });
+    /**
+     * RabbitTemplate.invoke callback'ini mock template üzerinde çalıştır
+     */
+    private void stubRabbitInvoke() {
+        when(rabbitTemplate.invoke(org.mockito.ArgumentMatchers.<RabbitOperations.OperationsCallback<Object>>any()))
+            .thenAnswer(invocation -> invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0)
+                .doInRabbit(rabbitTemplate));
     }
-}
 
+    private List<OrderOutboxEvent> outboxEvents(UUID orderId) {
+        return outboxRepository.findAll(Sort.by("id")).stream()
+            .filter(event -> event.getOrderId().equals(orderId))
+            .toList();
+    }
+}
@@ -17,8 +17,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 
 import com.microservices.order.Client.InventoryServiceClient;
+import com.microservices.order.Client.LastKnownGoodCache;
 import com.microservices.order.Client.ProductServiceClient;
 import com.microservices.order.Client.UserServiceClient;
+import com.microservices.order.Exception.DownstreamUnavailableException;
+import com.microservices.order.Exception.ReservationNotActiveException;
 import com.microservices.order.Exception.ResourceNotFoundException;
 import com.microservices.order.Model.Order;
 import com.microservices.order.Model.OrderItem;
@@ -27,6 +30,8 @@ import com.microservices.order.Service.OrderService;
 
 import feign.FeignException;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.when;
 
 /**
@@ -36,6 +41,7 @@ import static org.mockito.Mockito.when;
  * 1. Servis hata verdiğinde fallback method'ları çağrılır
  * 2. Circuit Breaker açıldığında servise istek gönderilmez
  * 3. Fallback method'ları doğru değerler döner
+ * 4. Son bilinen yanıt varsa fallback onu döner ve sipariş degradedValidation olarak işaretlenir
  * 
  * Circuit Breaker States:
  * - CLOSED: Normal çalışma, istekler servise gönderilir
@@ -49,6 +55,9 @@ class CircuitBreakerTest {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private LastKnownGoodCache lastKnownGoodCache;
+
     @MockBean
     private ProductServiceClient productServiceClient;
 
@@ -75,7 +84,7 @@ class CircuitBreakerTest {
         
         // Fallback class'ını doğrudan test et
         com.microservices.order.Client.ProductServiceClientFallback fallback = 
-            new com.microservices.order.Client.ProductServiceClientFallback();
+            new com.microservices.order.Client.ProductServiceClientFallback(lastKnownGoodCache);
         
         ProductServiceClient.ProductResponse product = fallback.getProductById(testProductId);
         
@@ -85,11 +94,26 @@ class CircuitBreakerTest {
         assertEquals(BigDecimal.ZERO, product.getPrice());
     }
 
+    @Test
+    void testProductServiceBatchFallback() {
+        // Fallback class'ını doğrudan test et
+        com.microservices.order.Client.ProductServiceClientFallback fallback = 
+            new com.microservices.order.Client.ProductServiceClientFallback(lastKnownGoodCache);
+        
+        Map<UUID, ProductServiceClient.ProductResponse> products = 
+            fallback.getProductsByIds(List.of(testProductId));
+        
+        // Then: İstenen her ürün için default değerler döndü
+        assertEquals(1, products.size());
+        assertEquals("Product Unavailable", products.get(testProductId).getName());
+        assertEquals(BigDecimal.ZERO, products.get(testProductId).getPrice());
+    }
+
     @Test
     void testInventoryServiceFallback() {
         // Fallback class'ını doğrudan test et
         com.microservices.order.Client.InventoryServiceClientFallback fallback = 
-            new com.microservices.order.Client.InventoryServiceClientFallback();
+            new com.microservices.order.Client.InventoryServiceClientFallback(lastKnownGoodCache);
         
         InventoryServiceClient.InventoryResponse inventory = 
             fallback.getInventoryByProductId(testProductId);
@@ -104,24 +128,55 @@ class CircuitBreakerTest {
     void testInventoryServiceStockCheckFallback() {
         // Fallback class'ını doğrudan test et
         com.microservices.order.Client.InventoryServiceClientFallback fallback = 
-            new com.microservices.order.Client.InventoryServiceClientFallback();
+            new com.microservices.order.Client.InventoryServiceClientFallback(lastKnownGoodCache);
         
         Map<UUID, Integer> request = new HashMap<>();
         request.put(testProductId, 1);
 
         // When: Stok kontrolü yapılıyor
-        Map<UUID, Boolean> result = fallback.checkStockAvailability(request);
+        Map<UUID, InventoryServiceClient.StockAvailability> result = fallback.checkStockAvailability(request);
 
-        // Then: Fallback method doğru değerler döndü (tüm ürünler için false)
+        // Then: Fallback method doğru değerler döndü (tüm ürünler için stok yok)
         assertNotNull(result);
-        assertEquals(false, result.get(testProductId));
+        assertFalse(result.get(testProductId).isAvailable());
+        assertTrue(com.microservices.order.Client.InventoryServiceClientFallback.isPlaceholder(result.get(testProductId)));
+    }
+
+    @Test
+    void testInventoryServiceReservationFallbackFails() {
+        // Fallback class'ını doğrudan test et
+        com.microservices.order.Client.InventoryServiceClientFallback fallback = 
+            new com.microservices.order.Client.InventoryServiceClientFallback(lastKnownGoodCache);
+        UUID reservationId = UUID.randomUUID();
+
+        // Then: Onay / serbest bırakma sessizce yutulmaz (ReservationCommandRelay tekrar dener)
+        assertThrows(IllegalStateException.class, () -> fallback.confirmReservation(reservationId));
+        assertThrows(IllegalStateException.class, () -> fallback.releaseReservation(reservationId));
+    }
+
+    @Test
+    void testInventoryServiceConfirmConflictIsNotRetried() {
+        // Given: Inventory Service süresi dolmuş rezervasyonun onayını 409 ile reddetti
+        UUID reservationId = UUID.randomUUID();
+        feign.Request request = feign.Request.create(feign.Request.HttpMethod.POST,
+            "/inventory/reservations/" + reservationId + "/confirm", Map.of(), null,
+            java.nio.charset.StandardCharsets.UTF_8, null);
+        InventoryServiceClient conflictFallback = new com.microservices.order.Client.InventoryServiceClientFallbackFactory(
+            lastKnownGoodCache).create(new FeignException.Conflict("Reservation is no longer active", request, null, null));
+        InventoryServiceClient unavailableFallback = new com.microservices.order.Client.InventoryServiceClientFallbackFactory(
+            lastKnownGoodCache).create(new java.net.ConnectException("Connection refused"));
+
+        // Then: 409 ayrı bir exception ile bildirilir (relay siparişi telafi eder), erişilemezlik tekrar denenir
+        assertThrows(ReservationNotActiveException.class, () -> conflictFallback.confirmReservation(reservationId));
+        assertThrows(IllegalStateException.class, () -> unavailableFallback.confirmReservation(reservationId));
+        assertThrows(IllegalStateException.class, () -> conflictFallback.releaseReservation(reservationId));
     }
 
     @Test
     void testUserServiceFallback() {
         // Fallback class'ını doğrudan test et
         com.microservices.order.Client.UserServiceClientFallback fallback = 
-            new com.microservices.order.Client.UserServiceClientFallback();
+            new com.microservices.order.Client.UserServiceClientFallback(lastKnownGoodCache);
 
         // When: User bilgisi çekilmeye çalışılıyor
         UserServiceClient.UserResponse user = fallback.getUserById(testUserId);
@@ -135,6 +190,12 @@ class CircuitBreakerTest {
         // Given: User Service null döndürüyor (fallback davranışı)
         when(userServiceClient.getUserById(testUserId))
             .thenReturn(null);
+        // Ürün bulunuyor: paralel lookup'ta ilk NotFound kullanıcıdan gelmeli
+        ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
+        product.setId(testProductId);
+        product.setName("MacBook Pro");
+        product.setPrice(new BigDecimal("45000.00"));
+        when(productServiceClient.getProductsByIds(anyCollection())).thenReturn(Map.of(testProductId, product));
 
         // Order oluştur
         Order order = new Order();
@@ -157,5 +218,102 @@ class CircuitBreakerTest {
         
         assertTrue(exception.getMessage().contains("User not found"));
     }
-}
 
+    @Test
+    void testFallbacksServeLastKnownGood() {
+        // Given: Daha önce başarılı yanıtlar kaydedildi
+        ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
+        product.setId(testProductId);
+        product.setName("MacBook Pro");
+        product.setPrice(new BigDecimal("45000.00"));
+        lastKnownGoodCache.record(LastKnownGoodCache.Region.PRODUCT, testProductId, product);
+
+        InventoryServiceClient.StockAvailability stock = new InventoryServiceClient.StockAvailability(true, 2, true);
+        lastKnownGoodCache.record(LastKnownGoodCache.Region.INVENTORY, testProductId, stock);
+
+        com.microservices.order.Client.ProductServiceClientFallback productFallback = 
+            new com.microservices.order.Client.ProductServiceClientFallback(lastKnownGoodCache);
+        com.microservices.order.Client.InventoryServiceClientFallback inventoryFallback = 
+            new com.microservices.order.Client.InventoryServiceClientFallback(lastKnownGoodCache);
+
+        // Then: Default değerler yerine son bilinen yanıtlar döner
+        assertSame(product, productFallback.getProductsByIds(List.of(testProductId)).get(testProductId));
+        assertSame(stock, inventoryFallback.checkStockAvailability(Map.of(testProductId, 3)).get(testProductId));
+        assertEquals(2, inventoryFallback.getAvailableQuantity(testProductId));
+    }
+
+    @Test
+    void testOrderCreationWithLastKnownGoodUser() {
+        // Given: User Service erişilemiyor, fallback son bilinen kullanıcıyı döndürüyor
+        UserServiceClient.UserResponse user = new UserServiceClient.UserResponse();
+        user.setId(testUserId);
+        user.setEmail("test@example.com");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        lastKnownGoodCache.record(LastKnownGoodCache.Region.USER, testUserId, user);
+        com.microservices.order.Client.UserServiceClientFallback userFallback = 
+            new com.microservices.order.Client.UserServiceClientFallback(lastKnownGoodCache);
+        when(userServiceClient.getUserById(testUserId)).thenAnswer(invocation -> userFallback.getUserById(testUserId));
+
+        ProductServiceClient.ProductResponse product = new ProductServiceClient.ProductResponse();
+        product.setId(testProductId);
+        product.setName("MacBook Pro");
+        product.setPrice(new BigDecimal("45000.00"));
+        when(productServiceClient.getProductsByIds(anyCollection())).thenReturn(Map.of(testProductId, product));
+
+        when(inventoryServiceClient.checkStockAvailability(any(Map.class)))
+            .thenReturn(Map.of(testProductId, new InventoryServiceClient.StockAvailability(true, 100, true)));
+
+        Order order = new Order();
+        order.setUserId(testUserId);
+        order.setShippingAddress("Test Adresi");
+        order.setCity("İstanbul");
+        order.setZipCode("34000");
+        order.setPhoneNumber("5551234567");
+        OrderItem item = new OrderItem();
+        item.setProductId(testProductId);
+        item.setQuantity(1);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+
+        // When
+        Order createdOrder = orderService.createOrder(order);
+
+        // Then: Sipariş oluştu ama doğrulamanın stale veriyle yapıldığı işaretlendi
+        assertEquals(OrderStatus.PENDING, createdOrder.getStatus());
+        assertEquals("test@example.com", createdOrder.getCustomerEmail());
+        assertTrue(createdOrder.isDegradedValidation());
+    }
+
+    @Test
+    void testOrderCreationFailsWithoutProductPrice() {
+        // Given: Product Service erişilemiyor ve ürünün son bilinen değeri yok (fallback default değer döner)
+        UserServiceClient.UserResponse user = new UserServiceClient.UserResponse();
+        user.setId(testUserId);
+        user.setEmail("test@example.com");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        when(userServiceClient.getUserById(testUserId)).thenReturn(user);
+        com.microservices.order.Client.ProductServiceClientFallback productFallback = 
+            new com.microservices.order.Client.ProductServiceClientFallback(lastKnownGoodCache);
+        when(productServiceClient.getProductsByIds(anyCollection()))
+            .thenAnswer(invocation -> productFallback.getProductsByIds(List.of(testProductId)));
+        when(inventoryServiceClient.checkStockAvailability(any(Map.class)))
+            .thenReturn(Map.of(testProductId, new InventoryServiceClient.StockAvailability(true, 100, true)));
+
+        Order order = new Order();
+        order.setUserId(testUserId);
+        order.setShippingAddress("Test Adresi");
+        order.setCity("İstanbul");
+        order.setZipCode("34000");
+        order.setPhoneNumber("5551234567");
+        OrderItem item = new OrderItem();
+        item.setProductId(testProductId);
+        item.setQuantity(1);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+
+        // When & Then: Sipariş 0 fiyatla oluşturulmaz, 503 döner
+        DownstreamUnavailableException exception = assertThrows(DownstreamUnavailableException.class,
+            () -> orderService.createOrder(order));
+        assertTrue(exception.getMessage().contains(testProductId.toString()));
+    }
+}
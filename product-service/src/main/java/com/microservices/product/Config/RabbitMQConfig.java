@@ -0,0 +1,61 @@
+package com.microservices.product.Config;
+
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * RabbitMQ Configuration
+ * 
+ * Exchange:
+ * - product.events.exchange: Ürün event'lerinin gönderildiği exchange
+ * 
+ * Queue'ları tüketici servisler tanımlar (örn. Order Service her instance için
+ * kendi geçici queue'sunu bağlar ve ürün snapshot cache'ini temizler)
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    // Exchange ismi (Order Service ile aynı olmalı)
+    public static final String PRODUCT_EXCHANGE = "product.events.exchange";
+
+    // Routing Key (Order Service ile aynı olmalı)
+    public static final String ROUTING_KEY_UPDATED = "product.updated.key";
+
+    /**
+     * Direct Exchange
+     * Tüm product event'lerinin gönderildiği exchange
+     */
+    @Bean
+    public DirectExchange productExchange() {
+        return new DirectExchange(PRODUCT_EXCHANGE, true, false); // durable: true, auto-delete: false
+    }
+
+    /**
+     * Jackson2JsonMessageConverter
+     * JavaTimeModule: LocalDateTime desteği için
+     */
+    @Bean
+    public Jackson2JsonMessageConverter jsonMessageConverter() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+
+    /**
+     * RabbitTemplate
+     * Event'ler JSON formatında gönderilir
+     */
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, Jackson2JsonMessageConverter jsonMessageConverter) {
+        RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(jsonMessageConverter);
+        return rabbitTemplate;
+    }
+}
@@ -1,6 +1,7 @@
 package com.microservices.product.Controller;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.http.HttpStatus;
@@ -85,6 +86,20 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
     
+    /**
+     * Birden fazla ürünü tek istekte getir
+     * POST /products/batch?includeRatings=false
+     * Body: ["uuid-1", "uuid-2", ...]
+     * Response: { "uuid-1": {...}, "uuid-2": {...} } (bulunamayan ID'ler yer almaz)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<UUID, Product>> getProductsByIds(
+            @RequestBody List<UUID> productIds,
+            @RequestParam(value = "includeRatings", defaultValue = "false") boolean includeRatings) {
+        Map<UUID, Product> products = productService.getProductsByIds(productIds, includeRatings);
+        return ResponseEntity.ok(products);
+    }
+    
     /**
      * Yeni ürün oluştur
      * POST /products
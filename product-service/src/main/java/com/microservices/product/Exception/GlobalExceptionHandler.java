@@ -53,6 +53,24 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * IllegalArgumentException için handler
+     * Geçersiz istek parametreleri (örn. batch limiti aşımı)
+     * 400 BAD_REQUEST döner
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorDetails> handleIllegalArgumentException(
+            IllegalArgumentException ex, WebRequest request) {
+        
+        ErrorDetails errorDetails = new ErrorDetails(
+            "BAD_REQUEST",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Validation hataları için handler
      * @Valid annotation'ı ile yapılan validasyon hatalarını yakalar
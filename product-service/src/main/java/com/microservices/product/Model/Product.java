@@ -12,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -177,5 +178,13 @@ public class Product {
      */
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime updatedAt;
+    
+    /**
+     * Versiyon (Optimistic Locking)
+     * - Her güncellemede Hibernate tarafından artırılır
+     * - product.updated event'inde gönderilir; Order Service ürün snapshot'larını bu version ile tutar
+     */
+    @Version
+    private Long version;
 }
 
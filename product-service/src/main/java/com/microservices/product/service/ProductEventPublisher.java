@@ -0,0 +1,55 @@
+package com.microservices.product.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.microservices.product.Config.RabbitMQConfig;
+import com.microservices.product.Event.ProductUpdatedEvent;
+
+/**
+ * Product Event Publisher
+ * 
+ * Ürün değişikliklerini RabbitMQ'ya yayınlar
+ * 
+ * ÖNEMLİ:
+ * - Aktif bir transaction varsa event commit'ten SONRA gönderilir
+ *   (tüketici snapshot'ı temizleyip hemen yeniden okursa eski fiyatı görmesin)
+ * - RabbitMQ hatası ürün işlemini durdurmaz; tüketicilerdeki TTL güvenlik ağıdır
+ */
+@Component
+public class ProductEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public ProductEventPublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    public void publishProductUpdated(UUID productId, Long version, boolean deleted) {
+        ProductUpdatedEvent event = new ProductUpdatedEvent(productId, version, deleted, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(ProductUpdatedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.PRODUCT_EXCHANGE, RabbitMQConfig.ROUTING_KEY_UPDATED, event);
+        } catch (Exception e) {
+            // Production'da logger kullanılmalı
+            System.err.println("Error sending ProductUpdatedEvent for product " + event.getProductId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.microservices.product.service;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -18,12 +24,20 @@ import com.microservices.product.service.ReviewServiceClient.RatingSummary;
 @Service
 public class ProductService {
 
+    /**
+     * Batch endpoint'inde tek istekte istenebilecek maksimum ürün sayısı
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final ProductRepository productRepository;
     private final ReviewServiceClient reviewServiceClient;
+    private final ProductEventPublisher productEventPublisher;
 
-    public ProductService(ProductRepository productRepository, ReviewServiceClient reviewServiceClient) {
+    public ProductService(ProductRepository productRepository, ReviewServiceClient reviewServiceClient,
+            ProductEventPublisher productEventPublisher) {
         this.productRepository = productRepository;
         this.reviewServiceClient = reviewServiceClient;
+        this.productEventPublisher = productEventPublisher;
     }
 
     /**
@@ -47,6 +61,42 @@ public class ProductService {
         return enrichProductWithRating(product);
     }
 
+    /**
+     * Birden fazla ürünü tek sorguda getir (findAllById → tek IN sorgusu)
+     * Order Service gibi toplu lookup yapan servisler için kullanılır
+     *
+     * - Bulunamayan ID'ler map'te yer almaz (çağıran taraf eksikleri kontrol eder)
+     * - Rating zenginleştirmesi varsayılan olarak kapalıdır; her ürün için
+     *   Review Service'e ayrı çağrı yapıldığı için sadece istenirse yapılır
+     * - Tekil ürün cache'i kullanılmaz (ID kümeleri her istekte farklı)
+     *
+     * @param productIds Ürün ID'leri (tekrarlar tekilleştirilir)
+     * @param includeRatings true ise rating ve reviewCount eklenir
+     * @return productId → Product (istek sırasında)
+     */
+    public Map<UUID, Product> getProductsByIds(Collection<UUID> productIds, boolean includeRatings) {
+        Set<UUID> uniqueIds = new LinkedHashSet<>(productIds);
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                "Batch size " + uniqueIds.size() + " exceeds maximum of " + MAX_BATCH_SIZE);
+        }
+        
+        Map<UUID, Product> found = new HashMap<>();
+        for (Product product : productRepository.findAllById(uniqueIds)) {
+            found.put(product.getId(), includeRatings ? enrichProductWithRating(product) : product);
+        }
+        
+        // Sonucu istek sırasına göre döndür
+        Map<UUID, Product> products = new LinkedHashMap<>();
+        for (UUID id : uniqueIds) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.put(id, product);
+            }
+        }
+        return products;
+    }
+
     /**
      * Kategoriye göre ürünleri getir
      * Review-service'den rating ve reviewCount bilgilerini çekip ekler
@@ -160,7 +210,11 @@ public class ProductService {
             product.setIsActive(productDetails.getIsActive());
         }
         
-        return productRepository.save(product);
+        // saveAndFlush: event'teki version güncelleme sonrası değer olmalı
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        // Order Service snapshot cache'i commit sonrası gelen event ile temizlenir
+        productEventPublisher.publishProductUpdated(productId, updatedProduct.getVersion(), false);
+        return updatedProduct;
     }
 
     /**
@@ -172,6 +226,7 @@ public class ProductService {
             throw new ResourceNotFoundException("Product", "id", productId);
         }
         productRepository.deleteById(productId);
+        productEventPublisher.publishProductUpdated(productId, null, true);
     }
 }
 
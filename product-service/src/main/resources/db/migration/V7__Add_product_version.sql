@@ -0,0 +1,3 @@
+-- Optimistic locking / snapshot version
+-- Her güncellemede artar; Order Service ürün snapshot cache'i bu version ile tutulur
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
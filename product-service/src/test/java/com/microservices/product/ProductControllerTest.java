@@ -4,6 +4,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -93,6 +95,25 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductById(productId);
     }
 
+    @Test
+    void testGetProductsByIds() throws Exception {
+        // Given: Mock service davranışı (rating zenginleştirmesi varsayılan olarak kapalı)
+        UUID productId = testProduct.getId();
+        UUID missingId = UUID.randomUUID();
+        when(productService.getProductsByIds(List.of(productId, missingId), false))
+                .thenReturn(Map.of(productId, testProduct));
+
+        // When & Then: POST /products/batch isteği gönderiliyor
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productId, missingId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + productId + "'].name").value("MacBook Pro 16 inch"))
+                .andExpect(jsonPath("$['" + missingId + "']").doesNotExist());
+
+        verify(productService, times(1)).getProductsByIds(List.of(productId, missingId), false);
+    }
+
     @Test
     void testGetProductByIdNotFound() throws Exception {
         // Given: Ürün bulunamıyor
@@ -1,20 +1,26 @@
 package com.microservices.product;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import com.microservices.product.Exception.ResourceNotFoundException;
 import com.microservices.product.Model.Product;
 import com.microservices.product.Repository.ProductRepository;
+import com.microservices.product.service.ProductEventPublisher;
 import com.microservices.product.service.ProductService;
 
 /**
@@ -31,6 +37,9 @@ class ProductServiceTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @MockBean
+    private ProductEventPublisher productEventPublisher;  // RabbitMQ'ya bağlanmadan test
+
     private Product testProduct;
 
     @BeforeEach
@@ -110,6 +119,46 @@ class ProductServiceTest {
             productService.getProductById(nonExistentId);
         });
         assertTrue(exception.getMessage().contains("Product not found"));
+        verify(productEventPublisher, never()).publishProductUpdated(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void testGetProductsByIds() {
+        // Given: İki ürün oluşturuluyor
+        Product first = productService.createProduct(testProduct);
+        
+        Product secondProduct = new Product();
+        secondProduct.setName("iPhone 15 Pro");
+        secondProduct.setPrice(new BigDecimal("55000.00"));
+        secondProduct.setCategory("Electronics");
+        secondProduct.setStockQuantity(5);
+        secondProduct.setSku("IPH-15-PRO-2024");
+        secondProduct.setIsActive(true);
+        Product second = productService.createProduct(secondProduct);
+        
+        UUID missingId = UUID.randomUUID();
+
+        // When: Tek istekte (tekrarlı ve olmayan ID dahil) ürünler getiriliyor
+        Map<UUID, Product> products = productService.getProductsByIds(
+                List.of(second.getId(), first.getId(), missingId, first.getId()), false);
+
+        // Then: Bulunan ürünler istek sırasında, olmayan ID yok
+        assertEquals(2, products.size());
+        assertEquals(List.of(second.getId(), first.getId()), List.copyOf(products.keySet()));
+        assertEquals("MacBook Pro 16 inch", products.get(first.getId()).getName());
+        assertFalse(products.containsKey(missingId));
+    }
+
+    @Test
+    void testGetProductsByIdsExceedsBatchLimit() {
+        // Given: Limitten fazla ID
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i <= ProductService.MAX_BATCH_SIZE; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        // When & Then: IllegalArgumentException fırlatılmalı
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(ids, false));
     }
 
     @Test
@@ -188,6 +237,10 @@ class ProductServiceTest {
         // Güncellenmeyen alanlar korunmalı
         assertEquals("Electronics", updatedProduct.getCategory());
         assertEquals("Apple", updatedProduct.getBrand());
+
+        // Order Service snapshot cache'i için yeni version ile product.updated event'i gönderildi
+        assertNotNull(updatedProduct.getVersion());
+        verify(productEventPublisher, times(1)).publishProductUpdated(productId, updatedProduct.getVersion(), false);
     }
 
     @Test
@@ -219,6 +272,7 @@ class ProductServiceTest {
 
         // Then: Ürün artık bulunamaz
         assertFalse(productRepository.existsById(productId));
+        verify(productEventPublisher, times(1)).publishProductUpdated(productId, null, true);
     }
 
     @Test
@@ -231,6 +285,7 @@ class ProductServiceTest {
             productService.deleteProductById(nonExistentId);
         });
         assertTrue(exception.getMessage().contains("Product not found"));
+        verify(productEventPublisher, never()).publishProductUpdated(any(), any(), anyBoolean());
     }
 }
 
@@ -31,9 +31,8 @@ Write-Host "2. WEBSOCKET ENDPOINT" -ForegroundColor Yellow
 Write-Host ""
 Write-Host "  WebSocket Endpoint: ws://localhost:8083/ws" -ForegroundColor Cyan
 Write-Host "  STOMP Topics:" -ForegroundColor Cyan
-Write-Host "    • /topic/order-updates/{orderId} - Belirli sipariş için" -ForegroundColor Gray
-Write-Host "    • /topic/order-updates - Tüm siparişler için" -ForegroundColor Gray
-Write-Host "    • /topic/user-orders/{userId} - Kullanıcının siparişleri için" -ForegroundColor Gray
+Write-Host "    • /topic/order-updates.{orderId} - Belirli sipariş için" -ForegroundColor Gray
+Write-Host "    • /topic/user-orders.{userId} - Kullanıcının siparişleri için" -ForegroundColor Gray
 Write-Host ""
 
 # 3. Test Adımları
@@ -59,7 +58,7 @@ Write-Host "       const socket = new SockJS('http://localhost:8083/ws');" -Fore
 Write-Host "       const stomp = Stomp.over(socket);" -ForegroundColor Gray
 Write-Host "       stomp.connect({}, () => {" -ForegroundColor Gray
 Write-Host "           console.log('Connected!');" -ForegroundColor Gray
-Write-Host "           stomp.subscribe('/topic/order-updates', (msg) => {" -ForegroundColor Gray
+Write-Host "           stomp.subscribe('/topic/order-updates.' + orderId, (msg) => {" -ForegroundColor Gray
 Write-Host "               console.log('Update:', JSON.parse(msg.body));" -ForegroundColor Gray
 Write-Host "           });" -ForegroundColor Gray
 Write-Host "       });" -ForegroundColor Gray
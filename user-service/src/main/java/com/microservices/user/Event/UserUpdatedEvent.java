@@ -0,0 +1,54 @@
+package com.microservices.user.Event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * User Updated Event
+ * 
+ * Kullanıcı güncellendiğinde veya silindiğinde RabbitMQ'ya gönderilir
+ * Order Service bu event ile kullanıcı near-cache'indeki kaydı geçersiz kılar
+ * (event sadece bir invalidation sinyalidir, kullanıcı verisi taşımaz)
+ */
+public class UserUpdatedEvent {
+
+    private UUID userId;
+    private boolean deleted;
+    private LocalDateTime updatedAt;
+
+    // Default constructor (Jackson için gerekli)
+    public UserUpdatedEvent() {
+    }
+
+    // Constructor
+    public UserUpdatedEvent(UUID userId, boolean deleted, LocalDateTime updatedAt) {
+        this.userId = userId;
+        this.deleted = deleted;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.microservices.user.Service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.microservices.user.Config.RabbitMQConfig;
+import com.microservices.user.Event.UserUpdatedEvent;
+
+/**
+ * User Event Publisher
+ * 
+ * Kullanıcı değişikliklerini RabbitMQ'ya yayınlar
+ * 
+ * ÖNEMLİ:
+ * - Aktif bir transaction varsa event commit'ten SONRA gönderilir
+ *   (tüketici cache'i temizleyip hemen yeniden okursa eski veriyi görmesin)
+ * - RabbitMQ hatası kullanıcı işlemini durdurmaz; tüketicilerdeki TTL güvenlik ağıdır
+ */
+@Component
+public class UserEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public UserEventPublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    public void publishUserUpdated(UUID userId, boolean deleted) {
+        UserUpdatedEvent event = new UserUpdatedEvent(userId, deleted, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(UserUpdatedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.USER_EXCHANGE, RabbitMQConfig.ROUTING_KEY_UPDATED, event);
+        } catch (Exception e) {
+            // Production'da logger kullanılmalı
+            System.err.println("Error sending UserUpdatedEvent for user " + event.getUserId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -16,9 +16,11 @@ import com.microservices.user.Repository.UserRepository;
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final UserEventPublisher userEventPublisher;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserEventPublisher userEventPublisher) {
         this.userRepository = userRepository;
+        this.userEventPublisher = userEventPublisher;
     }
 
     @Cacheable(value = "users", key = "'all'")
@@ -83,6 +85,8 @@ public class UserService {
         
         User updatedUser = userRepository.save(user);
         // Cache'i temizledik, bir sonraki getUserById çağrısında cache'e yazılacak
+        // Order Service near-cache'i commit sonrası gelen event ile temizlenir
+        userEventPublisher.publishUserUpdated(id, false);
         return updatedUser;
     }
 
@@ -92,5 +96,6 @@ public class UserService {
             throw new ResourceNotFoundException("User", "id", id);
         }
         userRepository.deleteById(id);
+        userEventPublisher.publishUserUpdated(id, true);
     }
 }
@@ -1,6 +1,8 @@
 package com.microservices.user;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 import java.util.List;
 import java.util.UUID;
@@ -9,12 +11,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import com.microservices.user.Exception.DuplicateResourceException;
 import com.microservices.user.Exception.ResourceNotFoundException;
 import com.microservices.user.Model.User;
 import com.microservices.user.Repository.UserRepository;
+import com.microservices.user.Service.UserEventPublisher;
 import com.microservices.user.Service.UserService;
 
 /**
@@ -31,6 +35,9 @@ class UserServiceTest {
     @Autowired
     private UserRepository userRepository;
 
+    @MockBean
+    private UserEventPublisher userEventPublisher;  // RabbitMQ'ya bağlanmadan test
+
     private User testUser;
 
     @BeforeEach
@@ -189,6 +196,9 @@ class UserServiceTest {
         assertEquals("updateduser", updatedUser.getUsername());
         assertEquals("updated@example.com", updatedUser.getEmail());
         assertEquals("Updated", updatedUser.getFirstName());
+
+        // Order Service near-cache'i için user.updated event'i gönderildi
+        verify(userEventPublisher, times(1)).publishUserUpdated(userId, false);
     }
 
     @Test
@@ -202,6 +212,7 @@ class UserServiceTest {
 
         // Then: Kullanıcı artık bulunamaz
         assertFalse(userRepository.existsById(userId));
+        verify(userEventPublisher, times(1)).publishUserUpdated(userId, true);
     }
 
     @Test
@@ -214,6 +225,7 @@ class UserServiceTest {
             userService.deleteUser(nonExistentId);
         });
         assertTrue(exception.getMessage().contains("User not found"));
+        verify(userEventPublisher, never()).publishUserUpdated(any(), anyBoolean());
     }
 }
 